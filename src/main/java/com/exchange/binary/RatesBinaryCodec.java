@@ -0,0 +1,343 @@
+package com.exchange.binary;
+
+import com.exchange.converter.FixedPointArithmetic;
+import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.dto.MultiConversionResultDto;
+import org.springframework.http.MediaType;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of rate tables and multi-currency conversions, the reference encoder and decoder of the
+ * {@value #MEDIA_TYPE_VALUE} media type.
+ *
+ * <p>A message starts with the magic bytes {@code XR}, the format version, the message kind ({@value #RATES} for an
+ * {@link AllExchangeRatesDto}, {@value #CONVERSIONS} for a {@link MultiConversionResultDto}), a flags byte and the
+ * three-letter source currency. Then follow the fields present according to the flags: snapshot version (8 bytes),
+ * pivot currency (3 bytes) and precision loss for rates, or the source amount for conversions, then the timestamp
+ * as epoch seconds (8 bytes) and nanoseconds (4 bytes). The entry count follows, and every entry as its
+ * three-letter target currency and decimal value. Rate keys are sent without the repeated source currency prefix.
+ *
+ * <p>Counts are unsigned LEB128 varints. A decimal is a varint of its zigzag-encoded scale shifted left by one, whose
+ * lowest bit tells whether the unscaled value follows as a zigzag varint or, if it has more than 18 digits, as a
+ * varint length and big-endian two's complement bytes. A typical quote of six decimals takes 7 bytes, compared to
+ * about 20 characters in JSON. Fixed-width integers are big-endian.
+ */
+public final class RatesBinaryCodec {
+    public static final String MEDIA_TYPE_VALUE = "application/x-exchange-rates";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    static final byte FORMAT_VERSION = 1;
+    static final byte RATES = 1;
+    static final byte CONVERSIONS = 2;
+    private static final byte[] MAGIC = {'X', 'R'};
+    private static final int CODE_BYTES = 3;
+    private static final int STALE = 1;
+    private static final int SNAPSHOT_VERSION = 1 << 1;
+    private static final int PIVOT_CURRENCY = 1 << 2;
+    private static final int PRECISION_LOSS = 1 << 3;
+    private static final int SOURCE_AMOUNT = 1 << 4;
+    private static final int TIMESTAMP = 1 << 5;
+
+    private RatesBinaryCodec() {
+    }
+
+    /**
+     * Encodes a rate table.
+     *
+     * @param rates the rates, keyed by concatenated source and target currency codes
+     * @return the encoded message
+     * @throws IllegalArgumentException if a currency code or rate key is not made of three-letter codes
+     */
+    public static byte[] encode(AllExchangeRatesDto rates) {
+        String source = rates.getSourceCurrency();
+        int flags = (rates.isStale() ? STALE : 0)
+                | (rates.getSnapshotVersion() != null ? SNAPSHOT_VERSION : 0)
+                | (rates.getPivotCurrency() != null ? PIVOT_CURRENCY : 0)
+                | (rates.getPrecisionLoss() != null ? PRECISION_LOSS : 0)
+                | (rates.getTimestamp() != null ? TIMESTAMP : 0);
+        Writer writer = new Writer(64 + rates.getRates().size() * 8);
+        writer.header(RATES, flags, source);
+        if (rates.getSnapshotVersion() != null) {
+            writer.fixedLong(rates.getSnapshotVersion());
+        }
+        if (rates.getPivotCurrency() != null) {
+            writer.code(rates.getPivotCurrency());
+        }
+        if (rates.getPrecisionLoss() != null) {
+            writer.decimal(rates.getPrecisionLoss());
+        }
+        writer.timestamp(rates.getTimestamp());
+        writer.varint(rates.getRates().size());
+        for (Map.Entry<String, BigDecimal> quote : rates.getRates().entrySet()) {
+            String key = quote.getKey();
+            if (key.length() != 2 * CODE_BYTES || !key.startsWith(source)) {
+                throw new IllegalArgumentException("Rate key '" + key + "' is not quoted against " + source);
+            }
+            writer.code(key, CODE_BYTES);
+            writer.decimal(quote.getValue());
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * Encodes a multi-currency conversion.
+     *
+     * @param conversion the conversion, keyed by target currency code
+     * @return the encoded message
+     * @throws IllegalArgumentException if a currency code is not a three-letter code
+     */
+    public static byte[] encode(MultiConversionResultDto conversion) {
+        int flags = (conversion.getSourceAmount() != null ? SOURCE_AMOUNT : 0)
+                | (conversion.getTimestamp() != null ? TIMESTAMP : 0);
+        Writer writer = new Writer(64 + conversion.getConversions().size() * 10);
+        writer.header(CONVERSIONS, flags, conversion.getSourceCurrency());
+        if (conversion.getSourceAmount() != null) {
+            writer.decimal(conversion.getSourceAmount());
+        }
+        writer.timestamp(conversion.getTimestamp());
+        writer.varint(conversion.getConversions().size());
+        for (Map.Entry<String, BigDecimal> converted : conversion.getConversions().entrySet()) {
+            writer.code(converted.getKey());
+            writer.decimal(converted.getValue());
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * Decodes a rate table.
+     *
+     * @param message the encoded message
+     * @return the rates, keyed by concatenated source and target currency codes
+     * @throws IllegalArgumentException if the message is not a valid rate table
+     */
+    public static AllExchangeRatesDto decodeRates(byte[] message) {
+        Reader reader = new Reader(message, RATES);
+        String source = reader.code();
+        AllExchangeRatesDto.AllExchangeRatesDtoBuilder rates = AllExchangeRatesDto.builder()
+                .sourceCurrency(source)
+                .stale(reader.has(STALE));
+        try {
+            if (reader.has(SNAPSHOT_VERSION)) {
+                rates.snapshotVersion(reader.buffer.getLong());
+            }
+            if (reader.has(PIVOT_CURRENCY)) {
+                rates.pivotCurrency(reader.code());
+            }
+            if (reader.has(PRECISION_LOSS)) {
+                rates.precisionLoss(reader.decimal());
+            }
+            if (reader.has(TIMESTAMP)) {
+                rates.timestamp(reader.timestamp());
+            }
+            int count = reader.count();
+            Map<String, BigDecimal> quotes = HashMap.newHashMap(count);
+            for (int i = 0; i < count; i++) {
+                quotes.put(source + reader.code(), reader.decimal());
+            }
+            return rates.rates(quotes).build();
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated rates message", e);
+        }
+    }
+
+    /**
+     * Decodes a multi-currency conversion.
+     *
+     * @param message the encoded message
+     * @return the conversion, keyed by target currency code
+     * @throws IllegalArgumentException if the message is not a valid conversion
+     */
+    public static MultiConversionResultDto decodeConversions(byte[] message) {
+        Reader reader = new Reader(message, CONVERSIONS);
+        MultiConversionResultDto.MultiConversionResultDtoBuilder conversion = MultiConversionResultDto.builder()
+                .sourceCurrency(reader.code());
+        try {
+            if (reader.has(SOURCE_AMOUNT)) {
+                conversion.sourceAmount(reader.decimal());
+            }
+            if (reader.has(TIMESTAMP)) {
+                conversion.timestamp(reader.timestamp());
+            }
+            int count = reader.count();
+            Map<String, BigDecimal> conversions = HashMap.newHashMap(count);
+            for (int i = 0; i < count; i++) {
+                conversions.put(reader.code(), reader.decimal());
+            }
+            return conversion.conversions(conversions).build();
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated conversions message", e);
+        }
+    }
+
+    private static final class Writer {
+        private byte[] bytes;
+        private int length;
+
+        Writer(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        void header(byte kind, int flags, String source) {
+            ensure(MAGIC.length + 3);
+            bytes[length++] = MAGIC[0];
+            bytes[length++] = MAGIC[1];
+            bytes[length++] = FORMAT_VERSION;
+            bytes[length++] = kind;
+            bytes[length++] = (byte) flags;
+            code(source);
+        }
+
+        void code(String code) {
+            if (code.length() != CODE_BYTES) {
+                throw new IllegalArgumentException("Currency code '" + code + "' is not a three-letter code");
+            }
+            code(code, 0);
+        }
+
+        void code(String text, int offset) {
+            ensure(CODE_BYTES);
+            for (int i = offset; i < offset + CODE_BYTES; i++) {
+                bytes[length++] = (byte) text.charAt(i);
+            }
+        }
+
+        void timestamp(Instant timestamp) {
+            if (timestamp == null) {
+                return;
+            }
+            fixedLong(timestamp.getEpochSecond());
+            fixedInt(timestamp.getNano());
+        }
+
+        void decimal(BigDecimal value) {
+            long unscaled = FixedPointArithmetic.unscaled(value);
+            boolean wide = unscaled == FixedPointArithmetic.OVERFLOW;
+            varint(zigzag(value.scale()) << 1 | (wide ? 1 : 0));
+            if (wide) {
+                byte[] magnitude = value.unscaledValue().toByteArray();
+                varint(magnitude.length);
+                ensure(magnitude.length);
+                System.arraycopy(magnitude, 0, bytes, length, magnitude.length);
+                length += magnitude.length;
+            } else {
+                varint(zigzag(unscaled));
+            }
+        }
+
+        void fixedLong(long value) {
+            fixedInt((int) (value >>> 32));
+            fixedInt((int) value);
+        }
+
+        void fixedInt(int value) {
+            ensure(Integer.BYTES);
+            bytes[length++] = (byte) (value >>> 24);
+            bytes[length++] = (byte) (value >>> 16);
+            bytes[length++] = (byte) (value >>> 8);
+            bytes[length++] = (byte) value;
+        }
+
+        void varint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+
+        private void ensure(int additional) {
+            if (length + additional > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + additional));
+            }
+        }
+
+        private static long zigzag(long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+    }
+
+    private static final class Reader {
+        private final ByteBuffer buffer;
+        private final int flags;
+
+        Reader(byte[] message, byte kind) {
+            this.buffer = ByteBuffer.wrap(message);
+            if (message.length < MAGIC.length + 3 + CODE_BYTES
+                    || buffer.get() != MAGIC[0] || buffer.get() != MAGIC[1]) {
+                throw new IllegalArgumentException("Not an exchange rates message");
+            }
+            byte formatVersion = buffer.get();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported exchange rates format version " + formatVersion);
+            }
+            byte messageKind = buffer.get();
+            if (messageKind != kind) {
+                throw new IllegalArgumentException("Expected message kind " + kind + " but found " + messageKind);
+            }
+            this.flags = buffer.get();
+        }
+
+        boolean has(int flag) {
+            return (flags & flag) != 0;
+        }
+
+        String code() {
+            byte[] code = new byte[CODE_BYTES];
+            buffer.get(code);
+            return new String(code, StandardCharsets.US_ASCII);
+        }
+
+        Instant timestamp() {
+            return Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+        }
+
+        int count() {
+            long count = varint();
+            if (count > buffer.remaining()) {
+                throw new IllegalArgumentException("Entry count " + count + " exceeds the message length");
+            }
+            return (int) count;
+        }
+
+        BigDecimal decimal() {
+            long header = varint();
+            int scale = (int) unzigzag(header >>> 1);
+            if ((header & 1) == 0) {
+                return BigDecimal.valueOf(unzigzag(varint()), scale);
+            }
+            byte[] magnitude = new byte[count()];
+            buffer.get(magnitude);
+            return new BigDecimal(new BigInteger(magnitude), scale);
+        }
+
+        private long varint() {
+            long value = 0;
+            for (int shift = 0; shift < Long.SIZE; shift += 7) {
+                byte b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        private static long unzigzag(long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+}
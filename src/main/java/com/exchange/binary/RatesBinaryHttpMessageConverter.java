@@ -0,0 +1,54 @@
+package com.exchange.binary;
+
+import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.dto.MultiConversionResultDto;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes {@link AllExchangeRatesDto} and {@link MultiConversionResultDto} in the compact
+ * {@value RatesBinaryCodec#MEDIA_TYPE_VALUE} format of {@link RatesBinaryCodec}, selected by clients through the
+ * {@code Accept} header.
+ */
+public class RatesBinaryHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public RatesBinaryHttpMessageConverter() {
+        super(RatesBinaryCodec.MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == AllExchangeRatesDto.class || clazz == MultiConversionResultDto.class;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        byte[] message = inputMessage.getBody().readAllBytes();
+        try {
+            return clazz == AllExchangeRatesDto.class
+                    ? RatesBinaryCodec.decodeRates(message)
+                    : RatesBinaryCodec.decodeConversions(message);
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException(e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage) throws IOException {
+        byte[] message;
+        try {
+            message = body instanceof AllExchangeRatesDto rates
+                    ? RatesBinaryCodec.encode(rates)
+                    : RatesBinaryCodec.encode((MultiConversionResultDto) body);
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotWritableException(e.getMessage(), e);
+        }
+        outputMessage.getHeaders().setContentLength(message.length);
+        outputMessage.getBody().write(message);
+    }
+}
@@ -0,0 +1,58 @@
+package com.exchange.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+
+/**
+ * Line-oriented formats accepted and produced by the streaming bulk conversion.
+ */
+public enum BulkFormat {
+    /**
+     * Comma separated {@code sourceCurrency,targetCurrency,amount} rows with an optional header.
+     */
+    CSV(BulkFormat.CSV_VALUE),
+
+    /**
+     * One JSON object with {@code sourceCurrency}, {@code targetCurrency} and {@code amount} per line.
+     */
+    NDJSON(MediaType.APPLICATION_NDJSON_VALUE);
+
+    public static final String CSV_VALUE = "text/csv";
+
+    private final MediaType mediaType;
+
+    BulkFormat(String mediaType) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+    }
+
+    /**
+     * @return the media type of the format
+     */
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * @param objectMapper mapper used by JSON based formats
+     * @return a codec reading and writing rows of this format
+     */
+    public BulkRowCodec codec(ObjectMapper objectMapper) {
+        return this == CSV ? new CsvRowCodec() : new NdjsonRowCodec(objectMapper);
+    }
+
+    /**
+     * Returns the format of a content type.
+     *
+     * @param contentType the content type of a request
+     * @return the format
+     * @throws IllegalArgumentException if the content type is not a bulk format
+     */
+    public static BulkFormat of(MediaType contentType) {
+        for (BulkFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(contentType)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported bulk conversion format " + contentType);
+    }
+}
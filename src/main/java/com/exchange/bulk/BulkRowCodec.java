@@ -0,0 +1,55 @@
+package com.exchange.bulk;
+
+import com.exchange.dto.BatchConversionItemResultDto;
+import com.exchange.dto.BulkConversionSummaryDto;
+import com.exchange.model.BatchConversionItem;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Reads conversion rows from and writes results to a line-oriented bulk conversion stream.
+ */
+public interface BulkRowCodec {
+
+    /**
+     * @param line the first non-blank line of the input
+     * @return true if the line is a header to skip rather than a data row
+     */
+    boolean isHeader(String line);
+
+    /**
+     * Parses one data row.
+     *
+     * @param line the row
+     * @return the conversion the row describes, null if the row is an explicit null
+     * @throws IllegalArgumentException if the row is malformed
+     */
+    BatchConversionItem parse(String line);
+
+    /**
+     * Writes the header preceding the results, if the format has one.
+     *
+     * @param output the output stream
+     * @throws IOException if the output cannot be written
+     */
+    void writeHeader(Writer output) throws IOException;
+
+    /**
+     * Writes the result of one row.
+     *
+     * @param output the output stream
+     * @param result the result of the row
+     * @throws IOException if the output cannot be written
+     */
+    void writeRow(Writer output, BatchConversionItemResultDto result) throws IOException;
+
+    /**
+     * Writes the summary record closing the output.
+     *
+     * @param output  the output stream
+     * @param summary the summary of the conversion
+     * @throws IOException if the output cannot be written
+     */
+    void writeSummary(Writer output, BulkConversionSummaryDto summary) throws IOException;
+}
@@ -0,0 +1,87 @@
+package com.exchange.bulk;
+
+import com.exchange.dto.BatchConversionItemResultDto;
+import com.exchange.dto.BulkConversionSummaryDto;
+import com.exchange.model.BatchConversionItem;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+
+/**
+ * Reads {@code sourceCurrency,targetCurrency,amount} rows and writes one result row per input row, followed by a
+ * {@code #} comment line carrying the summary.
+ */
+final class CsvRowCodec implements BulkRowCodec {
+    static final String HEADER =
+            "index,sourceCurrency,targetCurrency,sourceAmount,convertedAmount,exchangeRate,snapshotVersion,error";
+
+    private static final int FIELDS = 3;
+
+    @Override
+    public boolean isHeader(String line) {
+        return line.strip().regionMatches(true, 0, "sourceCurrency", 0, "sourceCurrency".length());
+    }
+
+    @Override
+    public BatchConversionItem parse(String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length != FIELDS) {
+            throw new IllegalArgumentException("Expected " + FIELDS + " fields but found " + fields.length);
+        }
+
+        String amount = fields[2].strip();
+        try {
+            return new BatchConversionItem(fields[0].strip(), fields[1].strip(),
+                    amount.isEmpty() ? null : new BigDecimal(amount));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount '" + amount + "'");
+        }
+    }
+
+    @Override
+    public void writeHeader(Writer output) throws IOException {
+        output.write(HEADER);
+        output.write('\n');
+    }
+
+    @Override
+    public void writeRow(Writer output, BatchConversionItemResultDto result) throws IOException {
+        output.write(Long.toString(result.getIndex()));
+        writeField(output, result.getSourceCurrency());
+        writeField(output, result.getTargetCurrency());
+        writeField(output, result.getSourceAmount());
+        writeField(output, result.getConvertedAmount());
+        writeField(output, result.getExchangeRate());
+        writeField(output, result.getSnapshotVersion());
+        writeField(output, result.getError());
+        output.write('\n');
+    }
+
+    @Override
+    public void writeSummary(Writer output, BulkConversionSummaryDto summary) throws IOException {
+        output.write("# summary rows=" + summary.getRows()
+                + " succeeded=" + summary.getSucceeded()
+                + " rejected=" + summary.getRejected()
+                + " elapsedMs=" + summary.getElapsedMs()
+                + " rowsPerSecond=" + summary.getRowsPerSecond()
+                + " timestamp=" + summary.getTimestamp());
+        output.write('\n');
+    }
+
+    private static void writeField(Writer output, Object value) throws IOException {
+        output.write(',');
+        if (value instanceof BigDecimal decimal) {
+            output.write(decimal.toPlainString());
+        } else if (value != null) {
+            output.write(escape(value.toString()));
+        }
+    }
+
+    private static String escape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
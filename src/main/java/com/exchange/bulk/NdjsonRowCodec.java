@@ -0,0 +1,53 @@
+package com.exchange.bulk;
+
+import com.exchange.dto.BatchConversionItemResultDto;
+import com.exchange.dto.BulkConversionSummaryDto;
+import com.exchange.model.BatchConversionItem;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * Reads one conversion object per line and writes one result object per input line, followed by a
+ * {@code {"summary": ...}} object.
+ */
+final class NdjsonRowCodec implements BulkRowCodec {
+    private final ObjectMapper objectMapper;
+
+    NdjsonRowCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean isHeader(String line) {
+        return false;
+    }
+
+    @Override
+    public BatchConversionItem parse(String line) {
+        try {
+            return objectMapper.readValue(line, BatchConversionItem.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    @Override
+    public void writeHeader(Writer output) {
+    }
+
+    @Override
+    public void writeRow(Writer output, BatchConversionItemResultDto result) throws IOException {
+        output.write(objectMapper.writeValueAsString(result));
+        output.write('\n');
+    }
+
+    @Override
+    public void writeSummary(Writer output, BulkConversionSummaryDto summary) throws IOException {
+        output.write(objectMapper.writeValueAsString(Map.of("summary", summary)));
+        output.write('\n');
+    }
+}
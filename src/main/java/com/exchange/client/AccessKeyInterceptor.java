@@ -0,0 +1,44 @@
+package com.exchange.client;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.support.HttpRequestWrapper;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Adds the provider API key as the {@code access_key} query parameter of every upstream request, so the key is not
+ * part of the configured base URL.
+ */
+public class AccessKeyInterceptor implements ClientHttpRequestInterceptor {
+    static final String PARAMETER = "access_key";
+
+    private final String accessKey;
+
+    /**
+     * @param accessKey the provider API key
+     */
+    public AccessKeyInterceptor(String accessKey) {
+        this.accessKey = accessKey;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        URI uri = UriComponentsBuilder.fromUri(request.getURI())
+                .queryParam(PARAMETER, "{accessKey}")
+                .encode()
+                .buildAndExpand(accessKey)
+                .toUri();
+        return execution.execute(new HttpRequestWrapper(request) {
+            @Override
+            public URI getURI() {
+                return uri;
+            }
+        }, body);
+    }
+}
@@ -0,0 +1,59 @@
+package com.exchange.client;
+
+import com.exchange.dto.AllExchangeRatesDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.client.RestClient;
+
+import java.time.Instant;
+
+/**
+ * Provider of the {@code /live} endpoint of exchangerate.host and the APIs sharing its payload, fetching the full
+ * rate table of a base currency and decoding the response body as it streams in through
+ * {@link UpstreamQuotesDecoder}.
+ */
+@Slf4j
+public class LiveQuotesProvider implements RateProvider {
+    private static final ResponseErrorHandler ERROR_HANDLER = new DefaultResponseErrorHandler();
+
+    private final String name;
+    private final RestClient exchangeClient;
+    private final UpstreamQuotesDecoder quotesDecoder;
+
+    /**
+     * Creates a new provider.
+     *
+     * @param name           the name identifying the provider in logs and metrics
+     * @param exchangeClient the client of the provider's API
+     * @param quotesDecoder  the decoder of the response bodies
+     */
+    public LiveQuotesProvider(String name, RestClient exchangeClient, UpstreamQuotesDecoder quotesDecoder) {
+        this.name = name;
+        this.exchangeClient = exchangeClient;
+        this.quotesDecoder = quotesDecoder;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public AllExchangeRatesDto fetchAllRates(String currency) {
+        log.info("Fetching all rates for base currency {} from {}", currency, name);
+
+        Instant timestamp = Instant.now();
+        return exchangeClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/live")
+                        .queryParam("source", currency)
+                        .build())
+                .exchange((request, response) -> {
+                    if (ERROR_HANDLER.hasError(response)) {
+                        ERROR_HANDLER.handleError(request.getURI(), request.getMethod(), response);
+                    }
+                    return quotesDecoder.decode(response.getBody(), currency, timestamp);
+                });
+    }
+}
@@ -0,0 +1,26 @@
+package com.exchange.client;
+
+import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.exception.ExchangeRateException;
+import com.exchange.store.RateTable;
+
+/**
+ * Adapter of an upstream exchange rate API, mapping its payload into the rates and dense {@link RateTable} of a base
+ * currency.
+ */
+public interface RateProvider {
+
+    /**
+     * @return the name identifying the provider in logs and metrics
+     */
+    String name();
+
+    /**
+     * Fetches all exchange rates for a given base currency.
+     *
+     * @param currency the base currency code
+     * @return {@link AllExchangeRatesDto} containing all rates and their dense {@link RateTable}
+     * @throws ExchangeRateException if the exchange rates cannot be fetched
+     */
+    AllExchangeRatesDto fetchAllRates(String currency);
+}
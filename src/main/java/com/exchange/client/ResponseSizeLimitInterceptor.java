@@ -0,0 +1,117 @@
+package com.exchange.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Fails upstream responses whose body exceeds a maximum size, so a misbehaving upstream cannot make the service
+ * buffer an unbounded body. A declared {@code Content-Length} above the limit fails before the body is read, and a
+ * body without a length fails as soon as the limit is crossed.
+ */
+public class ResponseSizeLimitInterceptor implements ClientHttpRequestInterceptor {
+    private final long maxBytes;
+
+    /**
+     * @param maxBytes the maximum size of a response body
+     */
+    public ResponseSizeLimitInterceptor(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        ClientHttpResponse response = execution.execute(request, body);
+        long contentLength = response.getHeaders().getContentLength();
+        if (contentLength > maxBytes) {
+            response.close();
+            throw tooLarge(request);
+        }
+        return new LimitedResponse(response, request);
+    }
+
+    private IOException tooLarge(HttpRequest request) {
+        return new IOException("Upstream response of " + request.getURI().getPath() + " exceeds " + maxBytes
+                + " bytes");
+    }
+
+    private final class LimitedResponse implements ClientHttpResponse {
+        private final ClientHttpResponse response;
+        private final HttpRequest request;
+        private InputStream body;
+
+        LimitedResponse(ClientHttpResponse response, HttpRequest request) {
+            this.response = response;
+            this.request = request;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new LimitedInputStream(response.getBody());
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            response.close();
+        }
+
+        private final class LimitedInputStream extends FilterInputStream {
+            private long remaining = maxBytes;
+
+            LimitedInputStream(InputStream in) {
+                super(in);
+            }
+
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    consumed(1);
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int read = super.read(buffer, offset, length);
+                if (read > 0) {
+                    consumed(read);
+                }
+                return read;
+            }
+
+            private void consumed(int bytes) throws IOException {
+                remaining -= bytes;
+                if (remaining < 0) {
+                    throw tooLarge(request);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.exchange.client;
+
+import com.exchange.exception.UpstreamQuotaExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Admits upstream calls within the provider's quota: a token bucket refilled at
+ * {@code exchange.rate.provider-api.quota.calls-per-second}, and a budget of
+ * {@code exchange.rate.provider-api.quota.period-calls} calls over a rolling period of
+ * {@code exchange.rate.provider-api.quota.period-days} days, counted in {@value #PERIOD_SLOTS} slots.
+ *
+ * <p>Scheduled refreshes of the preloader ({@link Priority#REFRESH}) may use the whole of both budgets. Calls caused by
+ * requests ({@link Priority#ON_DEMAND}) are only admitted while more than
+ * {@code exchange.rate.provider-api.quota.refresh-reserve} of each budget is left, so a stampede of misses cannot
+ * starve the refreshes keeping the hot tables fresh. The reserve never takes a whole budget: with a bucket of one call
+ * per second, on-demand calls may still use that call. Admission never blocks: a call over budget fails at once with an
+ * {@link UpstreamQuotaExceededException}, and the caller falls back to data it already has.
+ *
+ * <p>The remaining quota is exported as the {@code exchange.rate.upstream.quota.remaining} gauge (tag {@code window}
+ * of {@code second} or {@code period}), and rejected calls as {@code exchange.rate.upstream.quota.rejected} (tag
+ * {@code priority}).
+ */
+@Slf4j
+@Component
+public class UpstreamCallGovernor {
+    static final int PERIOD_SLOTS = 30;
+
+    /**
+     * Priority of an upstream call.
+     */
+    public enum Priority {
+        /**
+         * Scheduled refresh of a table by the preloader.
+         */
+        REFRESH,
+        /**
+         * Fetch caused by a request, whether it waits for the table or the table is reloaded in the background.
+         */
+        ON_DEMAND
+    }
+
+    private final double callsPerSecond;
+    private final double burst;
+    private final long periodCalls;
+    private final long slotNanos;
+    private final double onDemandTokenFloor;
+    private final double onDemandPeriodFloor;
+    private final LongSupplier nanoClock;
+    private final long[] periodSlots = new long[PERIOD_SLOTS];
+    private final Map<Priority, Counter> rejected = new EnumMap<>(Priority.class);
+    private double tokens;
+    private long refilledAtNanos;
+    private long currentSlot;
+    private long periodUsed;
+
+    /**
+     * Creates a new governor with a full token bucket and an unused period budget.
+     *
+     * @param callsPerSecond the sustained calls per second, also the token bucket capacity
+     * @param periodCalls    the calls allowed per rolling period
+     * @param periodDays     the length of the rolling period in days
+     * @param refreshReserve the fraction of each budget only refresh calls may use
+     * @param meterRegistry  registry the quota metrics are registered with
+     */
+    @Autowired
+    public UpstreamCallGovernor(@Value("${exchange.rate.provider-api.quota.calls-per-second:5}") double callsPerSecond,
+                                @Value("${exchange.rate.provider-api.quota.period-calls:100000}") long periodCalls,
+                                @Value("${exchange.rate.provider-api.quota.period-days:30}") long periodDays,
+                                @Value("${exchange.rate.provider-api.quota.refresh-reserve:0.2}") double refreshReserve,
+                                MeterRegistry meterRegistry) {
+        this(callsPerSecond, periodCalls, Duration.ofDays(periodDays), refreshReserve, meterRegistry, System::nanoTime);
+    }
+
+    UpstreamCallGovernor(double callsPerSecond, long periodCalls, Duration period, double refreshReserve,
+                         MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        if (callsPerSecond <= 0 || periodCalls < 1 || period.isNegative() || period.isZero()) {
+            throw new IllegalStateException("Upstream quota must allow calls but was " + callsPerSecond
+                    + " per second and " + periodCalls + " per " + period);
+        }
+        if (refreshReserve < 0 || refreshReserve >= 1) {
+            throw new IllegalStateException("Refresh reserve must be in [0, 1) but was " + refreshReserve);
+        }
+        this.callsPerSecond = callsPerSecond;
+        this.burst = Math.max(1, callsPerSecond);
+        this.periodCalls = periodCalls;
+        this.slotNanos = Math.max(1, period.toNanos() / PERIOD_SLOTS);
+        // a reserve covering the whole budget would shut out on-demand calls, so at least one call is left to them
+        this.onDemandTokenFloor = Math.min(refreshReserve * burst, burst - 1);
+        this.onDemandPeriodFloor = Math.min(refreshReserve * periodCalls, periodCalls - 1);
+        this.nanoClock = nanoClock;
+        this.tokens = burst;
+        this.refilledAtNanos = nanoClock.getAsLong();
+        this.currentSlot = Math.floorDiv(refilledAtNanos, slotNanos);
+        for (Priority priority : Priority.values()) {
+            rejected.put(priority, Counter.builder("exchange.rate.upstream.quota.rejected")
+                    .description("Upstream calls rejected because the provider quota was exhausted")
+                    .tag("priority", priority.name())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("exchange.rate.upstream.quota.remaining", this, UpstreamCallGovernor::remainingPerSecond)
+                .description("Upstream calls that can be made right now within the per-second limit")
+                .tag("window", "second")
+                .register(meterRegistry);
+        Gauge.builder("exchange.rate.upstream.quota.remaining", this, UpstreamCallGovernor::remainingInPeriod)
+                .description("Upstream calls left in the rolling quota period")
+                .tag("window", "period")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admits an upstream call, consuming one token and one call of the period budget.
+     *
+     * @param priority the priority of the call
+     * @param purpose  what the call is for, used in the rejection message
+     * @throws UpstreamQuotaExceededException if the budgets left to calls of this priority are exhausted
+     */
+    public synchronized void acquire(Priority priority, String purpose) {
+        advance();
+        double tokenFloor = priority == Priority.ON_DEMAND ? onDemandTokenFloor : 0;
+        double periodFloor = priority == Priority.ON_DEMAND ? onDemandPeriodFloor : 0;
+        if (tokens - 1 < tokenFloor || periodCalls - periodUsed - 1 < periodFloor) {
+            rejected.get(priority).increment();
+            log.debug("Rejected {} upstream call for {}: {} tokens and {} period calls left", priority, purpose,
+                    tokens, periodCalls - periodUsed);
+            throw new UpstreamQuotaExceededException("Upstream quota exhausted, cannot fetch exchange rates for "
+                    + purpose);
+        }
+        tokens -= 1;
+        periodSlots[Math.floorMod(currentSlot, PERIOD_SLOTS)]++;
+        periodUsed++;
+    }
+
+    /**
+     * @return the calls that can be made right now within the per-second limit
+     */
+    public synchronized double remainingPerSecond() {
+        advance();
+        return tokens;
+    }
+
+    /**
+     * @return the calls left in the rolling quota period
+     */
+    public synchronized long remainingInPeriod() {
+        advance();
+        return periodCalls - periodUsed;
+    }
+
+    private void advance() {
+        long now = nanoClock.getAsLong();
+        long elapsed = now - refilledAtNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(burst, tokens + elapsed * callsPerSecond / TimeUnit.SECONDS.toNanos(1));
+            refilledAtNanos = now;
+        }
+
+        long slot = Math.floorDiv(now, slotNanos);
+        for (long expired = currentSlot + 1; expired <= slot && expired <= currentSlot + PERIOD_SLOTS; expired++) {
+            int index = Math.floorMod(expired, PERIOD_SLOTS);
+            periodUsed -= periodSlots[index];
+            periodSlots[index] = 0;
+        }
+        currentSlot = Math.max(currentSlot, slot);
+    }
+}
@@ -0,0 +1,271 @@
+package com.exchange.client;
+
+import com.exchange.exception.UpstreamCircuitOpenException;
+import com.exchange.exception.UpstreamQuotaExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker failing upstream fetches fast while the upstream is failing or slow, so callers stop waiting on
+ * calls that are unlikely to succeed in time.
+ *
+ * <p>While {@link State#CLOSED}, the outcomes of the last
+ * {@code exchange.rate.provider-api.circuit-breaker.window-size} calls are kept. Once at least {@code minimum-calls}
+ * have been recorded, the circuit opens if the share of failed calls reaches {@code failure-rate-threshold} or the
+ * share of calls taking {@code slow-call-duration-ms} or longer reaches {@code slow-call-rate-threshold}.
+ *
+ * <p>While {@link State#OPEN}, every call fails at once with an {@link UpstreamCircuitOpenException}. After
+ * {@code open-duration-ms} the circuit is {@link State#HALF_OPEN} and admits {@code half-open-calls} probes, rejecting
+ * other calls; it closes again if the probes are within both thresholds and opens for another period otherwise. Calls
+ * rejected by the {@link UpstreamCallGovernor} never reached the upstream and are not recorded.
+ *
+ * <p>The state is exported as the {@code exchange.rate.upstream.circuit.state} gauge, 1 for the current value of its
+ * {@code state} tag, and fast-failed calls as {@code exchange.rate.upstream.circuit.rejected}.
+ */
+@Slf4j
+@Component
+public class UpstreamCircuitBreaker {
+
+    /**
+     * State of the circuit.
+     */
+    public enum State {
+        /**
+         * Calls go upstream and their outcomes are recorded.
+         */
+        CLOSED,
+        /**
+         * Calls fail fast until the open duration has elapsed.
+         */
+        OPEN,
+        /**
+         * A limited number of probe calls decide whether the circuit closes or opens again.
+         */
+        HALF_OPEN
+    }
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallNanos;
+    private final double slowCallRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoClock;
+    private final byte[] outcomes;
+    private final Counter rejected;
+    private State state = State.CLOSED;
+    private long generation;
+    private long openedAtNanos;
+    private int recorded;
+    private int next;
+    private int failures;
+    private int slowCalls;
+    private int probesPermitted;
+
+    /**
+     * Creates a new closed circuit breaker.
+     *
+     * @param windowSize            the number of recent calls whose outcomes are kept
+     * @param minimumCalls          the number of recorded calls below which the circuit does not open
+     * @param failureRateThreshold  the share of failed calls opening the circuit
+     * @param slowCallDurationMs    the duration from which a call is slow
+     * @param slowCallRateThreshold the share of slow calls opening the circuit
+     * @param openDurationMs        the time the circuit stays open before probing the upstream
+     * @param halfOpenCalls         the number of probe calls admitted while half open
+     * @param meterRegistry         registry the circuit metrics are registered with
+     */
+    @Autowired
+    public UpstreamCircuitBreaker(
+            @Value("${exchange.rate.provider-api.circuit-breaker.window-size:20}") int windowSize,
+            @Value("${exchange.rate.provider-api.circuit-breaker.minimum-calls:10}") int minimumCalls,
+            @Value("${exchange.rate.provider-api.circuit-breaker.failure-rate-threshold:0.5}")
+            double failureRateThreshold,
+            @Value("${exchange.rate.provider-api.circuit-breaker.slow-call-duration-ms:3000}") long slowCallDurationMs,
+            @Value("${exchange.rate.provider-api.circuit-breaker.slow-call-rate-threshold:0.5}")
+            double slowCallRateThreshold,
+            @Value("${exchange.rate.provider-api.circuit-breaker.open-duration-ms:30000}") long openDurationMs,
+            @Value("${exchange.rate.provider-api.circuit-breaker.half-open-calls:3}") int halfOpenCalls,
+            MeterRegistry meterRegistry) {
+        this(windowSize, minimumCalls, failureRateThreshold, Duration.ofMillis(slowCallDurationMs),
+                slowCallRateThreshold, Duration.ofMillis(openDurationMs), halfOpenCalls, meterRegistry,
+                System::nanoTime);
+    }
+
+    UpstreamCircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, Duration slowCallDuration,
+                           double slowCallRateThreshold, Duration openDuration, int halfOpenCalls,
+                           MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        if (minimumCalls < 1 || minimumCalls > windowSize || halfOpenCalls < 1 || halfOpenCalls > windowSize) {
+            throw new IllegalStateException("Circuit breaker minimum calls and probes must be in [1, " + windowSize
+                    + "] but were " + minimumCalls + " and " + halfOpenCalls);
+        }
+        if (failureRateThreshold <= 0 || failureRateThreshold > 1
+                || slowCallRateThreshold <= 0 || slowCallRateThreshold > 1) {
+            throw new IllegalStateException("Circuit breaker thresholds must be in (0, 1] but were "
+                    + failureRateThreshold + " and " + slowCallRateThreshold);
+        }
+        this.outcomes = new byte[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = slowCallDuration.toNanos();
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+        this.nanoClock = nanoClock;
+        this.rejected = Counter.builder("exchange.rate.upstream.circuit.rejected")
+                .description("Upstream calls failed fast because the circuit was open")
+                .register(meterRegistry);
+        for (State value : State.values()) {
+            Gauge.builder("exchange.rate.upstream.circuit.state", this, breaker -> breaker.state() == value ? 1 : 0)
+                    .description("State of the upstream circuit breaker, 1 for the current state")
+                    .tag("state", value.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Makes an upstream call through the circuit, recording its outcome and duration.
+     *
+     * @param purpose what the call is for, used in the rejection message
+     * @param call    the upstream call
+     * @param <T>     the result type
+     * @return the result of the call
+     * @throws UpstreamCircuitOpenException if the circuit is open, or half open with all probes in flight
+     */
+    public <T> T execute(String purpose, Supplier<T> call) {
+        long permitted = acquirePermission(purpose);
+        long startNanos = nanoClock.getAsLong();
+        T result;
+        try {
+            result = call.get();
+        } catch (UpstreamQuotaExceededException e) {
+            release(permitted);
+            throw e;
+        } catch (RuntimeException e) {
+            record(permitted, FAILED, nanoClock.getAsLong() - startNanos);
+            throw e;
+        }
+        record(permitted, (byte) 0, nanoClock.getAsLong() - startNanos);
+        return result;
+    }
+
+    /**
+     * @return the current state, half open once an open circuit has waited out its open duration
+     */
+    public synchronized State state() {
+        advance();
+        return state;
+    }
+
+    /**
+     * Returns the current state of the circuit with the rates it is decided on.
+     *
+     * @return the state, the recorded calls and their failure and slow call rates, and the time until probing
+     */
+    public synchronized Status status() {
+        advance();
+        Duration retryIn = state == State.OPEN
+                ? Duration.ofNanos(Math.max(0, openNanos - (nanoClock.getAsLong() - openedAtNanos)))
+                : Duration.ZERO;
+        return new Status(state, recorded, rate(failures), rate(slowCalls), retryIn);
+    }
+
+    private synchronized long acquirePermission(String purpose) {
+        advance();
+        if (state == State.OPEN || state == State.HALF_OPEN && probesPermitted == halfOpenCalls) {
+            rejected.increment();
+            throw new UpstreamCircuitOpenException("Upstream circuit open, cannot fetch exchange rates for "
+                    + purpose);
+        }
+        if (state == State.HALF_OPEN) {
+            probesPermitted++;
+        }
+        return generation;
+    }
+
+    private synchronized void release(long permitted) {
+        if (permitted == generation && state == State.HALF_OPEN) {
+            probesPermitted--;
+        }
+    }
+
+    private synchronized void record(long permitted, byte outcome, long durationNanos) {
+        if (permitted != generation) {
+            return;
+        }
+        if (durationNanos >= slowCallNanos) {
+            outcome |= SLOW;
+        }
+        if (recorded == outcomes.length) {
+            byte evicted = outcomes[next];
+            failures -= evicted & FAILED;
+            slowCalls -= (evicted & SLOW) >> 1;
+        } else {
+            recorded++;
+        }
+        outcomes[next] = outcome;
+        next = (next + 1) % outcomes.length;
+        failures += outcome & FAILED;
+        slowCalls += (outcome & SLOW) >> 1;
+
+        if (state == State.CLOSED && recorded >= minimumCalls && exceedsThresholds()) {
+            transition(State.OPEN);
+        } else if (state == State.HALF_OPEN && recorded == halfOpenCalls) {
+            transition(exceedsThresholds() ? State.OPEN : State.CLOSED);
+        }
+    }
+
+    private boolean exceedsThresholds() {
+        return rate(failures) >= failureRateThreshold || rate(slowCalls) >= slowCallRateThreshold;
+    }
+
+    private double rate(int calls) {
+        return recorded == 0 ? 0 : (double) calls / recorded;
+    }
+
+    private void advance() {
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAtNanos >= openNanos) {
+            transition(State.HALF_OPEN);
+        }
+    }
+
+    private void transition(State target) {
+        if (target == State.OPEN) {
+            log.warn("Opening upstream circuit: {} of {} calls failed and {} were slow", failures, recorded,
+                    slowCalls);
+            openedAtNanos = nanoClock.getAsLong();
+        } else {
+            log.info("Upstream circuit {}", target == State.CLOSED ? "closed" : "half open, probing the upstream");
+        }
+        state = target;
+        generation++;
+        recorded = 0;
+        next = 0;
+        failures = 0;
+        slowCalls = 0;
+        probesPermitted = 0;
+    }
+
+    /**
+     * State of the circuit and the outcomes of the calls recorded in it.
+     *
+     * @param state        the current state
+     * @param calls        the calls recorded since the circuit entered the state
+     * @param failureRate  the share of recorded calls that failed
+     * @param slowCallRate the share of recorded calls that were slow
+     * @param retryIn      the time until an open circuit admits probes, zero otherwise
+     */
+    public record Status(State state, int calls, double failureRate, double slowCallRate, Duration retryIn) {
+    }
+}
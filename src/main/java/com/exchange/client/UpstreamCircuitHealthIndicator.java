@@ -0,0 +1,33 @@
+package com.exchange.client;
+
+import com.exchange.client.UpstreamCircuitBreaker.State;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the {@link UpstreamCircuitBreaker} as the {@code upstreamCircuit} component of {@code /actuator/health}.
+ * An open circuit is {@code OUT_OF_SERVICE}, which the health endpoint answers with {@code 503 Service Unavailable},
+ * so load balancers can shift traffic away before callers pile up behind a failing upstream. A closed or half open
+ * circuit is {@code UP}.
+ */
+@Component
+@RequiredArgsConstructor
+public class UpstreamCircuitHealthIndicator implements HealthIndicator {
+    private final UpstreamCircuitBreaker circuitBreaker;
+
+    @Override
+    public Health health() {
+        UpstreamCircuitBreaker.Status status = circuitBreaker.status();
+        Health.Builder health = status.state() == State.OPEN ? Health.outOfService() : Health.up();
+        health.withDetail("state", status.state())
+                .withDetail("calls", status.calls())
+                .withDetail("failureRate", status.failureRate())
+                .withDetail("slowCallRate", status.slowCallRate());
+        if (status.state() == State.OPEN) {
+            health.withDetail("retryInMs", status.retryIn().toMillis());
+        }
+        return health.build();
+    }
+}
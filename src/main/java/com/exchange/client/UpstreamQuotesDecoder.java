@@ -0,0 +1,152 @@
+package com.exchange.client;
+
+import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.exception.ExchangeRateException;
+import com.exchange.store.CurrencyRegistry;
+import com.exchange.store.RateTable;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decodes the body of an upstream {@code /live} response token by token, straight into the rate map and the dense
+ * {@link RateTable} of the base currency.
+ *
+ * <p>Only {@code success} and {@code quotes} are read; every other field, such as {@code terms} and {@code privacy},
+ * is skipped without being materialized. Quote keys are validated as they are read: a key that is not the base
+ * currency followed by a supported currency, or whose value is not a number, is skipped. Field names are
+ * canonicalized by the shared {@link JsonFactory}, so the {@code base + target} key strings are reused across fetches
+ * rather than allocated for each one.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UpstreamQuotesDecoder {
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder().build();
+    private static final int MAX_DIGITS = 18;
+
+    private final CurrencyRegistry currencyRegistry;
+
+    /**
+     * Decodes an upstream response body.
+     *
+     * @param body         the response body, which is read to its end but not closed
+     * @param baseCurrency the base currency the quotes were requested for
+     * @param timestamp    the time the quotes were fetched
+     * @return {@link AllExchangeRatesDto} containing the supported quotes and their dense {@link RateTable}
+     * @throws IOException           if the body cannot be read or is not a JSON object
+     * @throws ExchangeRateException if the upstream reports that the request was unsuccessful
+     */
+    public AllExchangeRatesDto decode(InputStream body, String baseCurrency, Instant timestamp) throws IOException {
+        RateTable.Builder table = null;
+        Map<String, BigDecimal> rates = HashMap.newHashMap(currencyRegistry.size());
+        boolean success = false;
+
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Upstream response is not a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("success".equals(field)) {
+                    success = value == JsonToken.VALUE_TRUE;
+                } else if ("quotes".equals(field) && value == JsonToken.START_OBJECT) {
+                    if (table == null) {
+                        table = RateTable.builder(currencyRegistry, baseCurrency, timestamp);
+                    }
+                    readQuotes(parser, baseCurrency, table, rates);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        if (!success) {
+            throw new ExchangeRateException("Failed to fetch exchange rates for " + baseCurrency);
+        }
+        if (table == null) {
+            table = RateTable.builder(currencyRegistry, baseCurrency, timestamp);
+        }
+        return AllExchangeRatesDto.builder()
+                .sourceCurrency(baseCurrency)
+                .rates(rates)
+                .timestamp(timestamp)
+                .table(table.build())
+                .build();
+    }
+
+    private void readQuotes(JsonParser parser, String baseCurrency, RateTable.Builder table,
+                            Map<String, BigDecimal> rates) throws IOException {
+        int skipped = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String key = parser.currentName();
+            JsonToken value = parser.nextToken();
+            int targetOrdinal = key.startsWith(baseCurrency)
+                    ? currencyRegistry.ordinal(key, baseCurrency.length())
+                    : -1;
+            if (targetOrdinal < 0 || !value.isNumeric()) {
+                parser.skipChildren();
+                skipped++;
+                continue;
+            }
+            rates.put(key, readRate(parser, table, targetOrdinal));
+        }
+        if (skipped > 0) {
+            log.debug("Skipped {} unsupported or malformed quotes for base currency {}", skipped, baseCurrency);
+        }
+    }
+
+    /**
+     * Reads the current number as a decimal and puts it into the table. Plain decimals of up to
+     * {@code RateTable.MAX_PRECISION} digits, which is every upstream quote in practice, are parsed from the token's
+     * characters into their unscaled value and scale; other numbers go through {@link JsonParser#getDecimalValue()}.
+     */
+    private static BigDecimal readRate(JsonParser parser, RateTable.Builder table, int targetOrdinal)
+            throws IOException {
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int end = offset + parser.getTextLength();
+        boolean negative = offset < end && chars[offset] == '-';
+        long unscaled = 0;
+        int scale = -1;
+        int digits = 0;
+        for (int i = negative ? offset + 1 : offset; i < end; i++) {
+            char c = chars[i];
+            if (c >= '0' && c <= '9' && digits < MAX_DIGITS) {
+                unscaled = unscaled * 10 + (c - '0');
+                digits += unscaled > 0 ? 1 : 0;
+                scale += scale >= 0 ? 1 : 0;
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                return readDecimalRate(parser, table, targetOrdinal);
+            }
+        }
+        unscaled = negative ? -unscaled : unscaled;
+        scale = Math.max(scale, 0);
+        if (!RateTable.Builder.isStorable(unscaled, scale)) {
+            return readDecimalRate(parser, table, targetOrdinal);
+        }
+        table.put(targetOrdinal, unscaled, scale);
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    private static BigDecimal readDecimalRate(JsonParser parser, RateTable.Builder table, int targetOrdinal)
+            throws IOException {
+        BigDecimal rate = parser.getDecimalValue();
+        table.put(targetOrdinal, rate);
+        return rate;
+    }
+}
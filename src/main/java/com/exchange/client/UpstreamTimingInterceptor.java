@@ -0,0 +1,62 @@
+package com.exchange.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Times every upstream call until its response headers arrive, as the {@value #METRIC} timer with a percentile
+ * histogram, tagged with the provider called, the request path, the response status and its outcome ({@code SUCCESS},
+ * {@code CLIENT_ERROR}, {@code SERVER_ERROR}, or {@code IO_ERROR} if no response arrived, such as on timeouts).
+ * A request cancelled by the read timeout is failed with an {@link HttpTimeoutException}, which the client reports
+ * as a {@link org.springframework.web.client.ResourceAccessException} like any other I/O error.
+ */
+public class UpstreamTimingInterceptor implements ClientHttpRequestInterceptor {
+    static final String METRIC = "exchange.rate.upstream.requests";
+
+    private final String provider;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * @param provider      name of the rate provider the client calls
+     * @param meterRegistry registry the timer is registered with
+     */
+    public UpstreamTimingInterceptor(String provider, MeterRegistry meterRegistry) {
+        this.provider = provider;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String status = "NONE";
+        String outcome = "IO_ERROR";
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            int statusCode = response.getStatusCode().value();
+            status = String.valueOf(statusCode);
+            outcome = statusCode >= 500 ? "SERVER_ERROR" : statusCode >= 400 ? "CLIENT_ERROR" : "SUCCESS";
+            return response;
+        } catch (CancellationException e) {
+            // the JDK request factory cancels the exchange when its read timeout elapses
+            throw new HttpTimeoutException("Upstream request to " + request.getURI().getPath() + " timed out");
+        } finally {
+            sample.stop(Timer.builder(METRIC)
+                    .description("Latency of upstream exchange rate API calls until the response headers arrive")
+                    .tag("provider", provider)
+                    .tag("uri", request.getURI().getPath())
+                    .tag("status", status)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -1,10 +1,36 @@
 package com.exchange.config;
 
+import com.exchange.client.AccessKeyInterceptor;
+import com.exchange.client.LiveQuotesProvider;
+import com.exchange.client.RateProvider;
+import com.exchange.client.ResponseSizeLimitInterceptor;
+import com.exchange.client.UpstreamQuotesDecoder;
+import com.exchange.client.UpstreamTimingInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Client of the upstream exchange rate API.
+ *
+ * <p>Requests go through a shared JDK {@link HttpClient}, which keeps HTTP/1.1 connections alive and reuses them
+ * across calls. Connecting is bounded by {@code exchange.rate.provider-api.connect-timeout-ms} and waiting for and
+ * reading the response by {@code exchange.rate.provider-api.read-timeout-ms}, so a stuck upstream cannot pin a
+ * caller. Response bodies above {@code exchange.rate.provider-api.max-response-bytes} are rejected, the API key is
+ * added as a query parameter per request, and every call is timed by {@link UpstreamTimingInterceptor} under the
+ * name of its provider.
+ *
+ * <p>The primary provider is followed by the secondary providers of {@link HedgeConfig}, in order, each with its own
+ * client built the same way.
+ */
 @Configuration
 public class ExchangeRestClientConfig {
     @Value("${exchange.rate.provider-api.key}")
@@ -13,11 +39,54 @@ public class ExchangeRestClientConfig {
     @Value("${exchange.rate.provider-api.url}")
     private String baseUrl;
 
+    @Value("${exchange.rate.provider-api.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+
+    @Value("${exchange.rate.provider-api.read-timeout-ms:5000}")
+    private long readTimeoutMs;
+
+    @Value("${exchange.rate.provider-api.max-response-bytes:1048576}")
+    private long maxResponseBytes;
+
+    @Value("${exchange.rate.provider-api.name:primary}")
+    private String providerName;
+
     @Bean
-    public RestClient exchangeRateRestClient() {
+    public RestClient exchangeRateRestClient(MeterRegistry meterRegistry) {
+        return exchangeRateRestClient(providerName, baseUrl, apiKey, Duration.ofMillis(connectTimeoutMs),
+                Duration.ofMillis(readTimeoutMs), maxResponseBytes, meterRegistry);
+    }
+
+    @Bean
+    public List<RateProvider> rateProviders(RestClient exchangeRateRestClient, UpstreamQuotesDecoder quotesDecoder,
+                                            HedgeConfig hedgeConfig, MeterRegistry meterRegistry) {
+        List<RateProvider> providers = new ArrayList<>();
+        providers.add(new LiveQuotesProvider(providerName, exchangeRateRestClient, quotesDecoder));
+        for (HedgeConfig.Provider secondary : hedgeConfig.getSecondaries()) {
+            RestClient restClient = exchangeRateRestClient(secondary.getName(), secondary.getUrl(),
+                    secondary.getKey(), Duration.ofMillis(connectTimeoutMs), Duration.ofMillis(readTimeoutMs),
+                    maxResponseBytes, meterRegistry);
+            providers.add(new LiveQuotesProvider(secondary.getName(), restClient, quotesDecoder));
+        }
+        return List.copyOf(providers);
+    }
+
+    static RestClient exchangeRateRestClient(String providerName, String baseUrl, String apiKey,
+                                             Duration connectTimeout, Duration readTimeout, long maxResponseBytes,
+                                             MeterRegistry meterRegistry) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
 
         return RestClient.builder()
-                .baseUrl(baseUrl + "?access_key=" + apiKey)
+                .baseUrl(baseUrl)
+                .requestFactory(requestFactory)
+                .requestInterceptor(new UpstreamTimingInterceptor(providerName, meterRegistry))
+                .requestInterceptor(new AccessKeyInterceptor(apiKey))
+                .requestInterceptor(new ResponseSizeLimitInterceptor(maxResponseBytes))
                 .defaultHeader("Accept", "application/json")
                 .build();
     }
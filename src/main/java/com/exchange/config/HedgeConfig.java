@@ -0,0 +1,44 @@
+package com.exchange.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Secondary rate providers and the delay after which a fetch still unanswered by the primary provider is hedged to
+ * the next one. The delay is the {@code percentile} of the recent latencies of the primary provider, but never less
+ * than {@code min-delay-ms}, and {@code initial-delay-ms} until enough latencies have been observed.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "exchange.rate.hedge")
+public class HedgeConfig {
+    private double percentile = 0.95;
+    private long initialDelayMs = 500;
+    private long minDelayMs = 50;
+    private List<Provider> secondaries = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Provider {
+        /**
+         * Name identifying the provider in logs and metrics.
+         */
+        private String name;
+
+        /**
+         * Base URL of the provider's API, serving the same {@code /live} payload as the primary provider.
+         */
+        private String url;
+
+        /**
+         * API key of the provider.
+         */
+        private String key;
+    }
+}
@@ -0,0 +1,48 @@
+package com.exchange.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Expiry and refresh-ahead horizons of the rate tables published by {@link com.exchange.store.RateStore}. A table
+ * expires {@code expire-after-seconds} after it was fetched, and a read after {@code refresh-ahead-seconds} reloads
+ * it in the background while the present table is served.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "exchange.rate.store")
+public class RateStoreConfig {
+    /**
+     * Seconds after which a table expires.
+     */
+    private int expireAfterSeconds = 60;
+
+    /**
+     * Seconds after which a read triggers a background reload of the table, 0 disables refresh-ahead.
+     */
+    private int refreshAheadSeconds;
+
+    /**
+     * @return the expiry horizon
+     */
+    public Duration expireAfter() {
+        return Duration.ofSeconds(expireAfterSeconds);
+    }
+
+    /**
+     * @return the refresh horizon, zero if refresh-ahead is disabled
+     * @throws IllegalStateException if the refresh horizon is not shorter than the expiry horizon
+     */
+    public Duration refreshAhead() {
+        if (refreshAheadSeconds != 0 && refreshAheadSeconds >= expireAfterSeconds) {
+            throw new IllegalStateException("Rate tables must refresh before they expire, refresh-ahead-seconds: "
+                    + refreshAheadSeconds + ", expire-after-seconds: " + expireAfterSeconds);
+        }
+        return Duration.ofSeconds(refreshAheadSeconds);
+    }
+}
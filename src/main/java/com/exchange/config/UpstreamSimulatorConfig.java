@@ -0,0 +1,72 @@
+package com.exchange.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Behaviour of the local upstream simulator of the {@code simulator} profile: the latency distribution of its
+ * responses, the share of calls failing, how far rates drift between calls, and the seed making all of them
+ * reproducible.
+ */
+@Getter
+@Setter
+@Profile("simulator")
+@Configuration
+@ConfigurationProperties(prefix = "exchange.rate.simulator")
+public class UpstreamSimulatorConfig {
+    private long seed = 42;
+    private Latency latency = new Latency();
+
+    /**
+     * Share of calls answered with {@code 500 Internal Server Error}.
+     */
+    private double errorRate;
+
+    /**
+     * Share of calls answered with an unsuccessful payload, such as an exhausted usage limit.
+     */
+    private double apiErrorRate;
+
+    /**
+     * Standard deviation of the relative change of every rate from one {@code /live} call to the next.
+     */
+    private double drift = 0.0005;
+
+    @Getter
+    @Setter
+    public static class Latency {
+        /**
+         * Shape of the response latencies.
+         */
+        private Distribution distribution = Distribution.LOG_NORMAL;
+
+        /**
+         * Median latency of {@code log-normal}, and the latency of every call for {@code fixed}.
+         */
+        private long medianMs = 80;
+
+        /**
+         * Standard deviation of the logarithm of {@code log-normal} latencies, widening the tail.
+         */
+        private double sigma = 0.5;
+
+        /**
+         * Lower bound of {@code uniform} latencies.
+         */
+        private long minMs = 20;
+
+        /**
+         * Upper bound of {@code uniform} latencies, and of any sampled latency.
+         */
+        private long maxMs = 10_000;
+    }
+
+    public enum Distribution {
+        FIXED,
+        UNIFORM,
+        LOG_NORMAL
+    }
+}
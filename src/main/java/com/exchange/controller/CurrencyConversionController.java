@@ -1,11 +1,15 @@
 package com.exchange.controller;
 
+import com.exchange.bulk.BulkFormat;
+import com.exchange.dto.BatchConversionResultDto;
 import com.exchange.dto.ConversionResultDto;
 import com.exchange.dto.MultiConversionResultDto;
 import com.exchange.model.ApiErrorResponse;
+import com.exchange.model.BatchConversionRequest;
 import com.exchange.model.CurrencyConversionRequest;
 import com.exchange.model.MultiCurrencyConversionRequest;
 import com.exchange.service.CurrencyConversionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,11 +17,22 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 @RestController
 @Validated
@@ -26,6 +41,7 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Currency Conversion", description = "API for currency conversion operations")
 public class CurrencyConversionController {
     private final CurrencyConversionService currencyConversionService;
+    private final ObjectMapper objectMapper;
 
     @Operation(
             summary = "Convert amount from one currency to another",
@@ -60,7 +76,8 @@ public class CurrencyConversionController {
 
     @Operation(
             summary = "Convert amount from one currency to multiple currencies",
-            description = "Converts a specified amount from source currency to multiple target currencies simultaneously"
+            description = "Converts a specified amount from source currency to multiple target currencies simultaneously, "
+                    + "or to every currency quoted for the source currency if allTargets is set"
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -83,9 +100,78 @@ public class CurrencyConversionController {
     public ResponseEntity<MultiConversionResultDto> convertToMultipleCurrencies(
             @Parameter(description = "Multi-currency conversion request details", required = true)
             @RequestBody @Valid MultiCurrencyConversionRequest request) {
+        if (request.isAllTargets()) {
+            return ResponseEntity.ok(currencyConversionService.convertToAllCurrencies(
+                    request.getSourceCurrency(),
+                    request.getAmount()));
+        }
         return ResponseEntity.ok(currencyConversionService.convertToMultipleCurrencies(
                 request.getSourceCurrency(),
                 request.getTargetCurrencies(),
                 request.getAmount()));
     }
+
+    @Operation(
+            summary = "Convert a batch of amounts between currency pairs",
+            description = "Converts every item of the batch, resolving the rates of each source currency once. "
+                    + "Invalid or unconvertible items are reported in their result without failing the batch"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Batch processed, see the per-item results for failures",
+                    content = @Content(schema = @Schema(implementation = BatchConversionResultDto.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Empty batch or batch larger than the configured maximum",
+                    content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
+            )
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<BatchConversionResultDto> convertBatch(
+            @Parameter(description = "Batch conversion request details", required = true)
+            @RequestBody @Valid BatchConversionRequest request) {
+        return ResponseEntity.ok(currencyConversionService.convertBatch(request.getItems()));
+    }
+
+    @Operation(
+            summary = "Convert a CSV or NDJSON stream of amounts between currency pairs",
+            description = "Converts the request body row by row and streams a result row back for every input row, "
+                    + "followed by a summary record with row counts and throughput. CSV rows are "
+                    + "sourceCurrency,targetCurrency,amount with an optional header; NDJSON rows are objects with "
+                    + "the same fields. The rates of each source currency are pinned for the whole stream"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Stream processed, rejected rows carry an error"
+            ),
+            @ApiResponse(
+                    responseCode = "415",
+                    description = "Request body is neither text/csv nor application/x-ndjson",
+                    content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
+            )
+    })
+    @PostMapping(value = "/stream", consumes = {BulkFormat.CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> convertStream(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            HttpServletRequest request) {
+        BulkFormat format = BulkFormat.of(contentType);
+        StreamingResponseBody body = outputStream -> {
+            BufferedReader input = new BufferedReader(
+                    new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+            Writer output = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            currencyConversionService.convertStream(input, output, format.codec(objectMapper));
+            output.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(format.mediaType())
+                .body(body);
+    }
 }
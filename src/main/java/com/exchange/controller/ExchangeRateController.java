@@ -1,10 +1,14 @@
 package com.exchange.controller;
 
+import com.exchange.binary.RatesBinaryCodec;
 import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.dto.RatesDeltaDto;
 import com.exchange.dto.SingleExchangeRateDto;
 import com.exchange.model.ApiErrorResponse;
 import com.exchange.model.CurrencyExchangeRequest;
 import com.exchange.model.GetAllRatesRequest;
+import com.exchange.model.GetRatesDeltaRequest;
+import com.exchange.model.RateSubscriptionRequest;
 import com.exchange.service.ExchangeRateProviderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -15,11 +19,19 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
 
 @RestController
 @Validated
@@ -28,10 +40,14 @@ import org.springframework.web.bind.annotation.RestController;
 @Tag(name = "Exchange Rates", description = "API for retrieving currency exchange rates")
 public class ExchangeRateController {
     private final ExchangeRateProviderService exchangeRateService;
+    private final RatesResponseCache ratesResponseCache;
+    private final RateCacheHeaders rateCacheHeaders;
+    private final RateUpdateBroadcaster rateUpdateBroadcaster;
 
     @Operation(
             summary = "Get exchange rate between two currencies",
-            description = "Retrieves the current exchange rate from source currency to target currency"
+            description = "Retrieves the current exchange rate from source currency to target currency. "
+                    + "Responses carry an ETag and answer a matching If-None-Match with 304 Not Modified"
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -39,6 +55,10 @@ public class ExchangeRateController {
                     description = "Exchange rate retrieved successfully",
                     content = @Content(schema = @Schema(implementation = SingleExchangeRateDto.class))
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Exchange rate not modified since the ETag in If-None-Match"
+            ),
             @ApiResponse(
                     responseCode = "400",
                     description = "Invalid currency codes",
@@ -53,21 +73,42 @@ public class ExchangeRateController {
     @GetMapping("/single")
     public ResponseEntity<SingleExchangeRateDto> getExchangeRate(
             @Parameter(description = "Exchange rate request details", required = true)
-            @Valid CurrencyExchangeRequest request) {
-        return ResponseEntity.ok(exchangeRateService.getExchangeRate(
+            @Valid CurrencyExchangeRequest request,
+            @RequestHeader HttpHeaders headers) {
+        SingleExchangeRateDto rate = exchangeRateService.getExchangeRate(
                 request.getSourceCurrency(),
-                request.getTargetCurrency()));
+                request.getTargetCurrency(),
+                request.getMode());
+
+        String etag = rateCacheHeaders.etag(rate);
+        CacheControl cacheControl =
+                rateCacheHeaders.cacheControl(rate.getSourceCurrency(), rate.getPivotCurrency(), rate.isStale());
+        if (RateCacheHeaders.notModified(headers.getIfNoneMatch(), etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(rate);
     }
 
     @Operation(
             summary = "Get all exchange rates for a specific currency",
-            description = "Retrieves current exchange rates from the base currency to all available currencies"
+            description = "Retrieves current exchange rates from the base currency to all available currencies. "
+                    + "The body is pre-serialized once per rate refresh and sent gzip-compressed if accepted, or sent in "
+                    + "the compact application/x-exchange-rates binary format if accepted. "
+                    + "Responses carry an ETag and answer a matching If-None-Match with 304 Not Modified"
     )
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
                     description = "Exchange rates retrieved successfully",
-                    content = @Content(schema = @Schema(implementation = AllExchangeRatesDto.class))
+                    content = {
+                            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = AllExchangeRatesDto.class)),
+                            @Content(mediaType = RatesBinaryCodec.MEDIA_TYPE_VALUE)
+                    }
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Exchange rates not modified since the ETag in If-None-Match"
             ),
             @ApiResponse(
                     responseCode = "400",
@@ -81,9 +122,116 @@ public class ExchangeRateController {
             )
     })
     @GetMapping("/all")
-    public ResponseEntity<AllExchangeRatesDto> getAllRates(
+    public ResponseEntity<?> getAllRates(
             @Parameter(description = "Get all rates request details", required = true)
-            @Valid GetAllRatesRequest request) {
-        return ResponseEntity.ok(exchangeRateService.getAllRates(request.getCurrency()));
+            @Valid GetAllRatesRequest request,
+            @RequestHeader HttpHeaders headers) {
+        AllExchangeRatesDto rates = exchangeRateService.getAllRates(request.getCurrency(), request.getMode());
+        boolean binary = acceptsBinary(headers.getAccept());
+        boolean gzip = !binary && RatesResponseCache.cacheable(rates)
+                && acceptsGzip(headers.getFirst(HttpHeaders.ACCEPT_ENCODING));
+
+        String etag = rateCacheHeaders.etag(rates, binary ? "binary" : gzip ? "gzip" : null);
+        CacheControl cacheControl =
+                rateCacheHeaders.cacheControl(rates.getSourceCurrency(), rates.getPivotCurrency(), rates.isStale());
+        if (RateCacheHeaders.notModified(headers.getIfNoneMatch(), etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (binary) {
+            return response.contentType(RatesBinaryCodec.MEDIA_TYPE).body(rates);
+        }
+        RatesResponseCache.SerializedRates body = ratesResponseCache.get(rates);
+        response.contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.gzip());
+        }
+        return response.body(body.json());
+    }
+
+    @Operation(
+            summary = "Get exchange rates changed since a snapshot version",
+            description = "Retrieves only the exchange rates of the base currency that changed, were added or were "
+                    + "removed since the given snapshot version. If that version is no longer known, the full table "
+                    + "is returned with fullResync set"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Exchange rate changes retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = RatesDeltaDto.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid currency code or version",
+                    content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Error fetching exchange rates",
+                    content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
+            )
+    })
+    @GetMapping("/delta")
+    public ResponseEntity<RatesDeltaDto> getRatesDelta(
+            @Parameter(description = "Rates delta request details", required = true)
+            @Valid GetRatesDeltaRequest request) {
+        return ResponseEntity.ok(exchangeRateService.getRatesDelta(request.getCurrency(), request.getSince()));
+    }
+
+    @Operation(
+            summary = "Subscribe to exchange rate updates",
+            description = "Streams the rates of the given base currencies as Server-Sent Events named 'rates', one "
+                    + "per refresh, starting with the current rates. Clients that fall behind are disconnected and "
+                    + "should reconnect"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Subscription opened",
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                            schema = @Schema(implementation = AllExchangeRatesDto.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid currency codes",
+                    content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
+            )
+    })
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(
+            @Parameter(description = "Rate subscription request details", required = true)
+            @Valid RateSubscriptionRequest request) {
+        return rateUpdateBroadcaster.subscribe(request.getCurrencies());
+    }
+
+    private static boolean acceptsBinary(List<MediaType> accept) {
+        for (MediaType mediaType : accept) {
+            if (mediaType.equalsTypeAndSubtype(RatesBinaryCodec.MEDIA_TYPE) && mediaType.getQualityValue() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            if (parameters[0].strip().equalsIgnoreCase("gzip")) {
+                return parameters.length == 1 || !parameters[1].strip().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
     }
 }
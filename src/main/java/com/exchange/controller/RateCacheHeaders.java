@@ -0,0 +1,130 @@
+package com.exchange.controller;
+
+import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.dto.SingleExchangeRateDto;
+import com.exchange.store.RateStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * HTTP validators and freshness headers of rate responses, letting clients and intermediate caches revalidate a
+ * response instead of fetching it again.
+ *
+ * <p>ETags are strong and derived from the content a response is built from: its base currency and a 64-bit hash of
+ * its rates, timestamp and pivot currency. Snapshot versions are left out because they are counters of one process:
+ * they restart on every boot without a snapshot file, are reissued after a crash for tables never persisted and
+ * differ between instances, so the same version can stand for different rates. Responses served from the stale tier
+ * and other representations of a body, such as gzip-encoded or binary ones, get distinct tags. The hash of a published
+ * table is computed once, when {@link RatesResponseCache} serializes it, so tagging a request for it, including one
+ * answered with {@code 304 Not Modified}, does not walk its rates again.
+ * {@code Cache-Control: max-age} is the remaining lifetime of that table in the {@link RateStore}, and zero for stale
+ * responses.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateCacheHeaders {
+    private final RateStore rateStore;
+    private final RatesResponseCache ratesResponseCache;
+
+    /**
+     * Returns the ETag of a rates response.
+     *
+     * @param rates   the rates to respond with
+     * @param variant the representation, such as {@code gzip} or {@code binary}, or null for plain JSON
+     * @return the quoted strong ETag
+     */
+    public String etag(AllExchangeRatesDto rates, String variant) {
+        return tag(rates.getSourceCurrency(), ratesResponseCache.ratesHash(rates), rates.getPivotCurrency(),
+                rates.getTimestamp(), rates.isStale(), variant);
+    }
+
+    /**
+     * Returns the ETag of a single rate response.
+     *
+     * @param rate the rate to respond with
+     * @return the quoted strong ETag
+     */
+    public String etag(SingleExchangeRateDto rate) {
+        long rateHash = mix(((long) rate.getExchangeRate().hashCode() << 32)
+                ^ (Objects.hashCode(rate.getPrecisionLoss()) & 0xFFFFFFFFL));
+        return tag(rate.getSourceCurrency() + "-" + rate.getTargetCurrency(), rateHash, rate.getPivotCurrency(),
+                rate.getTimestamp(), rate.isStale(), null);
+    }
+
+    /**
+     * Returns the cache control of a response built from the table of a base currency.
+     *
+     * @param baseCurrency  the base currency of the table the response is built from
+     * @param pivotCurrency the pivot currency if the response is derived through triangulation, null otherwise
+     * @param stale         whether the response is served from the stale tier
+     * @return {@code max-age} of the remaining lifetime of the table, zero if it is stale
+     */
+    public CacheControl cacheControl(String baseCurrency, String pivotCurrency, boolean stale) {
+        Duration lifetime = stale
+                ? Duration.ZERO
+                : rateStore.remainingLifetime(pivotCurrency != null ? pivotCurrency : baseCurrency);
+        return CacheControl.maxAge(Duration.ofSeconds(lifetime.toSeconds()));
+    }
+
+    /**
+     * Checks whether an {@code If-None-Match} precondition fails for an ETag, using the weak comparison required for
+     * {@code If-None-Match}.
+     *
+     * @param ifNoneMatch the ETags of the {@code If-None-Match} request header
+     * @param etag        the quoted ETag of the current response
+     * @return whether the client's representation is current and {@code 304 Not Modified} can be sent
+     */
+    public static boolean notModified(List<String> ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch) {
+            String opaque = candidate.startsWith("W/") ? candidate.substring(2) : candidate;
+            if (opaque.equals("*") || opaque.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the 64-bit hash of the rates of a table that its ETags are derived from.
+     *
+     * @param rates the rates to hash
+     * @return the hash, independent of the iteration order of the rates
+     */
+    static long ratesHash(AllExchangeRatesDto rates) {
+        long ratesHash = 0;
+        for (Map.Entry<String, BigDecimal> rate : rates.getRates().entrySet()) {
+            // summing the mixed entries keeps the hash independent of the iteration order of the map
+            ratesHash += mix(((long) rate.getKey().hashCode() << 32) ^ (rate.getValue().hashCode() & 0xFFFFFFFFL));
+        }
+        return ratesHash;
+    }
+
+    private static String tag(String key, long ratesHash, String pivotCurrency, Instant timestamp,
+                              boolean stale, String variant) {
+        long hash = mix(mix(ratesHash ^ timestamp.toEpochMilli()) ^ Objects.hashCode(pivotCurrency));
+        StringBuilder tag = new StringBuilder("\"").append(key).append('-').append(HexFormat.of().toHexDigits(hash));
+        if (stale) {
+            tag.append("-stale");
+        }
+        if (variant != null) {
+            tag.append('-').append(variant);
+        }
+        return tag.append('"').toString();
+    }
+
+    private static long mix(long value) {
+        // SplitMix64 finalizer, spreading every input bit over the whole hash
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
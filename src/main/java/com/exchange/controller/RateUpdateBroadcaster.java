@@ -0,0 +1,229 @@
+package com.exchange.controller;
+
+import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.store.CurrencyDemandTracker;
+import com.exchange.store.RateStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes every rate table published by the {@link RateStore} to Server-Sent Events subscribers of its base currency.
+ *
+ * <p>Subscriptions are asynchronous servlet requests, so an idle subscriber holds no thread. Each published table is
+ * serialized once through {@link RatesResponseCache} and offered to a bounded queue per subscriber; a virtual thread
+ * drains a queue only while it holds events, so a slow client blocks neither the publishing thread nor other
+ * subscribers. A subscriber whose queue is full when an event is offered is dropped, and can reconnect to resume
+ * from the current table. A comment line is sent every {@code exchange.rate.subscription.heartbeat-interval-ms} to
+ * keep idle connections open through proxies and detect closed ones.
+ *
+ * <p>Open subscriptions are reported to the {@link CurrencyDemandTracker}, so the preloader keeps refreshing the
+ * bases they watch for as long as they stay open, even if no other request asks for them.
+ */
+@Slf4j
+@Component
+public class RateUpdateBroadcaster {
+    static final String EVENT_NAME = "rates";
+
+    private final RateStore rateStore;
+    private final RatesResponseCache ratesResponseCache;
+    private final CurrencyDemandTracker demandTracker;
+    private final Executor sendExecutor;
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Set<Subscriber> active = ConcurrentHashMap.newKeySet();
+    private final Counter dropped;
+
+    /**
+     * Creates a new broadcaster sending events on virtual threads.
+     *
+     * @param rateStore          the store whose published tables are pushed
+     * @param ratesResponseCache the cache providing serialized tables
+     * @param demandTracker      the tracker open subscriptions are counted by
+     * @param meterRegistry      registry the subscription metrics are registered with
+     * @param bufferSize         maximum number of events queued for a subscriber before it is dropped
+     * @param timeoutMs          time after which a subscription is closed and the client has to reconnect
+     */
+    @Autowired
+    public RateUpdateBroadcaster(RateStore rateStore, RatesResponseCache ratesResponseCache,
+                                 CurrencyDemandTracker demandTracker, MeterRegistry meterRegistry,
+                                 @Value("${exchange.rate.subscription.buffer-size:16}") int bufferSize,
+                                 @Value("${exchange.rate.subscription.timeout-ms:1800000}") long timeoutMs) {
+        this(rateStore, ratesResponseCache, demandTracker, meterRegistry, bufferSize, timeoutMs,
+                Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    RateUpdateBroadcaster(RateStore rateStore, RatesResponseCache ratesResponseCache,
+                          CurrencyDemandTracker demandTracker, MeterRegistry meterRegistry, int bufferSize,
+                          long timeoutMs, Executor sendExecutor) {
+        if (bufferSize < 1) {
+            throw new IllegalStateException("Subscription buffer size must be positive but was " + bufferSize);
+        }
+        this.rateStore = rateStore;
+        this.ratesResponseCache = ratesResponseCache;
+        this.demandTracker = demandTracker;
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        this.sendExecutor = sendExecutor;
+        this.dropped = Counter.builder("exchange.rate.subscription.dropped")
+                .description("Rate update subscribers dropped because they did not keep up")
+                .register(meterRegistry);
+        Gauge.builder("exchange.rate.subscription.active", active, Set::size)
+                .description("Open rate update subscriptions")
+                .register(meterRegistry);
+        rateStore.addPublishListener(this::publish);
+    }
+
+    /**
+     * Opens a subscription to the rate updates of the given base currencies. The current table of every base that is
+     * stored and unexpired is sent right away.
+     *
+     * @param currencies the base currency codes
+     * @return the emitter streaming the updates
+     */
+    public SseEmitter subscribe(List<String> currencies) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, Set.copyOf(currencies));
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+
+        active.add(subscriber);
+        for (String currency : subscriber.currencies) {
+            subscribers.computeIfAbsent(currency, base -> ConcurrentHashMap.newKeySet()).add(subscriber);
+            demandTracker.subscribe(currency);
+        }
+        for (String currency : subscriber.currencies) {
+            rateStore.find(currency).ifPresent(rates -> subscriber.offer(event(rates)));
+        }
+        log.debug("Opened rate subscription to {} ({} active)", subscriber.currencies, active.size());
+        return emitter;
+    }
+
+    /**
+     * Sends a heartbeat comment to every subscriber.
+     */
+    @Scheduled(fixedRateString = "${exchange.rate.subscription.heartbeat-interval-ms:30000}",
+            initialDelayString = "${exchange.rate.subscription.heartbeat-interval-ms:30000}")
+    public void heartbeat() {
+        Set<DataWithMediaType> heartbeat = SseEmitter.event().comment("heartbeat").build();
+        for (Subscriber subscriber : active) {
+            subscriber.offer(heartbeat);
+        }
+    }
+
+    /**
+     * @return the number of open subscriptions
+     */
+    public int activeSubscriptions() {
+        return active.size();
+    }
+
+    private void publish(AllExchangeRatesDto rates) {
+        Set<Subscriber> listening = subscribers.get(rates.getSourceCurrency());
+        if (listening == null || listening.isEmpty()) {
+            return;
+        }
+        Set<DataWithMediaType> event = event(rates);
+        for (Subscriber subscriber : listening) {
+            subscriber.offer(event);
+        }
+    }
+
+    private Set<DataWithMediaType> event(AllExchangeRatesDto rates) {
+        return SseEmitter.event()
+                .id(String.valueOf(rates.getSnapshotVersion()))
+                .name(EVENT_NAME)
+                .data(ratesResponseCache.get(rates).json(), MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    private void drop(Subscriber subscriber) {
+        if (unsubscribe(subscriber)) {
+            dropped.increment();
+            log.debug("Dropped rate subscription to {} after {} undelivered events", subscriber.currencies,
+                    bufferSize);
+            subscriber.emitter.complete();
+        }
+    }
+
+    private boolean unsubscribe(Subscriber subscriber) {
+        subscriber.closed = true;
+        if (!active.remove(subscriber)) {
+            return false;
+        }
+        for (String currency : subscriber.currencies) {
+            Set<Subscriber> listening = subscribers.get(currency);
+            if (listening != null) {
+                listening.remove(subscriber);
+            }
+            demandTracker.unsubscribe(currency);
+        }
+        return true;
+    }
+
+    /**
+     * An open subscription with its bounded queue of events not sent yet.
+     */
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<String> currencies;
+        private final BlockingQueue<Set<DataWithMediaType>> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, Set<String> currencies) {
+            this.emitter = emitter;
+            this.currencies = currencies;
+        }
+
+        void offer(Set<DataWithMediaType> event) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                drop(this);
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                sendExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                Set<DataWithMediaType> event;
+                while (!closed && (event = queue.poll()) != null) {
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException e) {
+                        log.debug("Closing rate subscription to {}: {}", currencies, e.getMessage());
+                        unsubscribe(this);
+                        return;
+                    }
+                }
+                draining.set(false);
+            } while (!closed && !queue.isEmpty() && draining.compareAndSet(false, true));
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.exchange.controller;
+
+import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.store.RateStore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized {@code /rates/all} response bodies, built once per published rate table instead of once per request.
+ *
+ * <p>Every table published by the {@link RateStore} is serialized to JSON and gzip right away, on the fetching thread,
+ * and kept per base currency until the next table of that base is published. A body is reused for any response of the
+ * same snapshot version and stale flag, so serving a stored table only writes cached bytes. A cached body is only
+ * replaced by one of a newer version, or by the stale copy of its own version once the table expired. The hash of the
+ * rates that {@link RateCacheHeaders} derives ETags from is computed along with the body and reused the same way.
+ * Tables derived through triangulation carry the snapshot version of their pivot table rather than one of their own, so
+ * they are recognized by their pivot currency and, like tables without a snapshot version, serialized per request and
+ * not cached.
+ */
+@Slf4j
+@Component
+public class RatesResponseCache {
+    private final ObjectMapper objectMapper;
+    private final Map<String, SerializedRates> bodies = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new cache rebuilding the body of every table published by the store.
+     *
+     * @param rateStore    the store whose published tables are serialized
+     * @param objectMapper the mapper used for all JSON responses
+     */
+    public RatesResponseCache(RateStore rateStore, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        rateStore.addPublishListener(this::prepare);
+    }
+
+    /**
+     * Returns the serialized body of a rates response, building and caching it if it is not cached yet.
+     *
+     * @param rates the rates to respond with
+     * @return the serialized body
+     */
+    public SerializedRates get(AllExchangeRatesDto rates) {
+        if (!cacheable(rates)) {
+            return new SerializedRates(null, rates.isStale(), RateCacheHeaders.ratesHash(rates), serialize(rates),
+                    null);
+        }
+
+        SerializedRates cached = bodies.get(rates.getSourceCurrency());
+        if (cached != null && cached.matches(rates)) {
+            return cached;
+        }
+        return prepare(rates);
+    }
+
+    /**
+     * Returns the hash of the rates of a response, taken from its cached body if there is one. A table without a
+     * cached body is hashed without being serialized.
+     *
+     * @param rates the rates to respond with
+     * @return the hash computed by {@link RateCacheHeaders#ratesHash(AllExchangeRatesDto)}
+     */
+    public long ratesHash(AllExchangeRatesDto rates) {
+        SerializedRates cached = cacheable(rates) ? bodies.get(rates.getSourceCurrency()) : null;
+        return cached != null && cached.matches(rates) ? cached.ratesHash() : RateCacheHeaders.ratesHash(rates);
+    }
+
+    /**
+     * Checks whether the body of a rates response is cached, which is the case for tables published by the store
+     * under their own base currency.
+     *
+     * @param rates the rates to respond with
+     * @return whether the body is cached, false for tables derived through triangulation
+     */
+    static boolean cacheable(AllExchangeRatesDto rates) {
+        return rates.getSnapshotVersion() != null && rates.getPivotCurrency() == null;
+    }
+
+    private SerializedRates prepare(AllExchangeRatesDto rates) {
+        byte[] json = serialize(rates);
+        SerializedRates serialized = new SerializedRates(rates.getSnapshotVersion(), rates.isStale(),
+                RateCacheHeaders.ratesHash(rates), json, gzip(json));
+        bodies.merge(rates.getSourceCurrency(), serialized, SerializedRates::newer);
+        log.debug("Serialized rates for {} (snapshot version {}, {} bytes, {} gzipped)", rates.getSourceCurrency(),
+                rates.getSnapshotVersion(), json.length, serialized.gzip().length);
+        return serialized;
+    }
+
+    private byte[] serialize(AllExchangeRatesDto rates) {
+        try {
+            return objectMapper.writeValueAsBytes(rates);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * A serialized rates response.
+     *
+     * @param snapshotVersion the snapshot version of the serialized table, null if it is not cached
+     * @param stale           whether the serialized table was served from the stale tier
+     * @param ratesHash       the hash of the serialized rates, as computed by {@link RateCacheHeaders}
+     * @param json            the JSON body
+     * @param gzip            the gzip-compressed JSON body, null if it is not cached
+     */
+    public record SerializedRates(Long snapshotVersion, boolean stale, long ratesHash, byte[] json, byte[] gzip) {
+
+        boolean matches(AllExchangeRatesDto rates) {
+            return Objects.equals(snapshotVersion, rates.getSnapshotVersion()) && stale == rates.isStale();
+        }
+
+        private static SerializedRates newer(SerializedRates cached, SerializedRates built) {
+            // a table only turns stale as it ages, so the stale copy of a version supersedes the fresh one
+            int order = Long.compare(built.snapshotVersion, cached.snapshotVersion);
+            return order > 0 || order == 0 && built.stale && !cached.stale ? built : cached;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.exchange.converter;
+
+import com.exchange.store.CurrencyRegistry;
+import com.exchange.store.RateTable;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable map of target currency code to converted amount for every currency quoted by a {@link RateTable}.
+ *
+ * <p>Converted amounts are held as unscaled {@code long} values indexed by currency ordinal, sized once from the
+ * table, and {@link BigDecimal}s are only created when an entry is read through the {@link Map} interface. The
+ * attached serializer writes the amounts straight from the arrays, so a response converting into every currency
+ * allocates neither map entries nor amounts.
+ */
+@JsonSerialize(using = AllTargetConversions.Serializer.class)
+public final class AllTargetConversions extends AbstractMap<String, BigDecimal> {
+    private final CurrencyRegistry registry;
+    private final int[] ordinals;
+    private final long[] unscaledAmounts;
+    private final BigDecimal[] overflowedAmounts;
+    private final int scale;
+
+    private AllTargetConversions(CurrencyRegistry registry, int[] ordinals, long[] unscaledAmounts,
+                                 BigDecimal[] overflowedAmounts, int scale) {
+        this.registry = registry;
+        this.ordinals = ordinals;
+        this.unscaledAmounts = unscaledAmounts;
+        this.overflowedAmounts = overflowedAmounts;
+        this.scale = scale;
+    }
+
+    /**
+     * Converts an amount into every currency quoted by a rate table.
+     *
+     * @param table  the rate table of the source currency
+     * @param amount the amount to convert
+     * @param scale  the scale of the converted amounts, rounded half-up
+     * @return the converted amounts in currency ordinal order
+     */
+    public static AllTargetConversions convert(RateTable table, BigDecimal amount, int scale) {
+        CurrencyRegistry registry = table.registry();
+        int[] ordinals = new int[table.quotedCount()];
+        long[] unscaledAmounts = new long[registry.size()];
+        BigDecimal[] overflowedAmounts = null;
+
+        long unscaledAmount = FixedPointArithmetic.unscaled(amount);
+        int count = 0;
+        for (int ordinal = 0; ordinal < registry.size(); ordinal++) {
+            if (!table.contains(ordinal)) {
+                continue;
+            }
+            ordinals[count++] = ordinal;
+            long converted = unscaledAmount == FixedPointArithmetic.OVERFLOW
+                    ? FixedPointArithmetic.OVERFLOW
+                    : FixedPointArithmetic.multiplyHalfUp(table.unscaledRate(ordinal), table.scale(ordinal),
+                    unscaledAmount, amount.scale(), scale);
+            if (converted == FixedPointArithmetic.OVERFLOW) {
+                if (overflowedAmounts == null) {
+                    overflowedAmounts = new BigDecimal[registry.size()];
+                }
+                overflowedAmounts[ordinal] = FixedPointArithmetic.multiply(table.unscaledRate(ordinal),
+                        table.scale(ordinal), amount, unscaledAmount, scale);
+            }
+            unscaledAmounts[ordinal] = converted;
+        }
+        return new AllTargetConversions(registry, ordinals, unscaledAmounts, overflowedAmounts, scale);
+    }
+
+    @Override
+    public int size() {
+        return ordinals.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public BigDecimal get(Object key) {
+        int index = indexOf(key);
+        return index < 0 ? null : amount(ordinals[index]);
+    }
+
+    @Override
+    public Set<Entry<String, BigDecimal>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, BigDecimal>> iterator() {
+                return new Iterator<>() {
+                    private int index;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < ordinals.length;
+                    }
+
+                    @Override
+                    public Entry<String, BigDecimal> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        int ordinal = ordinals[index++];
+                        return new SimpleImmutableEntry<>(registry.code(ordinal), amount(ordinal));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return ordinals.length;
+            }
+        };
+    }
+
+    private int indexOf(Object key) {
+        if (!(key instanceof String code)) {
+            return -1;
+        }
+        int ordinal = registry.ordinal(code);
+        return ordinal < 0 ? -1 : Arrays.binarySearch(ordinals, ordinal);
+    }
+
+    private BigDecimal amount(int ordinal) {
+        long unscaledAmount = unscaledAmounts[ordinal];
+        return unscaledAmount == FixedPointArithmetic.OVERFLOW
+                ? overflowedAmounts[ordinal]
+                : BigDecimal.valueOf(unscaledAmount, scale);
+    }
+
+    /**
+     * Writes the converted amounts as a JSON object, formatting the unscaled amounts directly into a reused buffer.
+     */
+    static final class Serializer extends StdSerializer<AllTargetConversions> {
+        private static final int MAX_PLAIN_SCALE = 6;
+
+        Serializer() {
+            super(AllTargetConversions.class);
+        }
+
+        @Override
+        public void serialize(AllTargetConversions conversions, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            char[] buffer = new char[FixedPointArithmetic.MAX_FORMATTED_LENGTH];
+            generator.writeStartObject(conversions, conversions.size());
+            for (int ordinal : conversions.ordinals) {
+                generator.writeFieldName(conversions.registry.code(ordinal));
+                long unscaledAmount = conversions.unscaledAmounts[ordinal];
+                if (unscaledAmount == FixedPointArithmetic.OVERFLOW) {
+                    generator.writeNumber(conversions.overflowedAmounts[ordinal]);
+                } else if (conversions.scale > MAX_PLAIN_SCALE) {
+                    generator.writeNumber(BigDecimal.valueOf(unscaledAmount, conversions.scale));
+                } else {
+                    int length = FixedPointArithmetic.format(unscaledAmount, conversions.scale, buffer);
+                    generator.writeNumber(buffer, 0, length);
+                }
+            }
+            generator.writeEndObject();
+        }
+    }
+}
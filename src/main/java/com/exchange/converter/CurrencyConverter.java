@@ -1,26 +1,33 @@
 package com.exchange.converter;
 
 import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.dto.BatchConversionItemResultDto;
 import com.exchange.dto.ConversionResultDto;
 import com.exchange.dto.MultiConversionResultDto;
 import com.exchange.dto.SingleExchangeRateDto;
 import com.exchange.exception.CurrencyConversionException;
+import com.exchange.model.BatchConversionItem;
+import com.exchange.store.RateTable;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.stream.Collectors;
 
 /**
  * Component responsible for performing currency conversion calculations and creating conversion result objects.
- * Handles both single currency and multiple currency conversion scenarios.
+ * Handles single currency, multiple currency and batch conversion scenarios.
+ *
+ * <p>Converted amounts are rounded half-up to scale 6 using {@link FixedPointArithmetic}, which multiplies the
+ * unscaled values of rate and amount as {@code long}s and only falls back to {@link BigDecimal} when they leave the
+ * {@code long} range.
  */
 @Component
 public class CurrencyConverter {
+    private static final int CONVERTED_AMOUNT_SCALE = 6;
 
     /**
      * Creates a single currency conversion result.
@@ -35,7 +42,8 @@ public class CurrencyConverter {
                                                       String sourceCurrency,
                                                       String targetCurrency,
                                                       BigDecimal amount) {
-        BigDecimal convertedAmount = amount.multiply(exchangeRateDto.getExchangeRate()).setScale(6, RoundingMode.HALF_UP);
+        BigDecimal convertedAmount =
+                FixedPointArithmetic.multiply(amount, exchangeRateDto.getExchangeRate(), CONVERTED_AMOUNT_SCALE);
 
         return ConversionResultDto.builder()
                 .sourceCurrency(sourceCurrency)
@@ -63,7 +71,7 @@ public class CurrencyConverter {
             BigDecimal amount) {
 
         Map<String, BigDecimal> conversions = convertToAllTargetCurrencies(
-                exchangeRate.getRates(),
+                exchangeRate,
                 sourceCurrency,
                 targetCurrencies,
                 amount
@@ -72,31 +80,106 @@ public class CurrencyConverter {
         return buildConversionResult(sourceCurrency, amount, conversions);
     }
 
+    /**
+     * Creates the result of one conversion of a batch.
+     *
+     * @param exchangeRate the {@link AllExchangeRatesDto} of the item's source currency
+     * @param index        the position of the item in the batch
+     * @param item         the conversion to perform
+     * @return {@link BatchConversionItemResultDto} containing the conversion details
+     * @throws CurrencyConversionException if the rates do not quote the item's target currency
+     */
+    public BatchConversionItemResultDto createBatchItemConversion(AllExchangeRatesDto exchangeRate,
+                                                                  long index,
+                                                                  BatchConversionItem item) {
+        BigDecimal rate = findRate(exchangeRate, item.getSourceCurrency(), item.getTargetCurrency());
+
+        return BatchConversionItemResultDto.builder()
+                .index(index)
+                .sourceCurrency(item.getSourceCurrency())
+                .targetCurrency(item.getTargetCurrency())
+                .sourceAmount(item.getAmount())
+                .convertedAmount(FixedPointArithmetic.multiply(rate, item.getAmount(), CONVERTED_AMOUNT_SCALE))
+                .exchangeRate(rate)
+                .snapshotVersion(exchangeRate.getSnapshotVersion())
+                .build();
+    }
+
+    /**
+     * Creates the conversion of an amount into every currency quoted for the source currency.
+     * Amounts are kept in an array-backed map sized from the rate table and serialized straight from it; rates
+     * without a table fall back to a presized map of every quote of the source currency.
+     *
+     * @param exchangeRate   the {@link AllExchangeRatesDto} containing all available exchange rates
+     * @param sourceCurrency the source currency code
+     * @param amount         the amount to convert
+     * @return {@link MultiConversionResultDto} containing a conversion for every quoted currency
+     */
+    public MultiConversionResultDto createAllTargetsConversion(
+            AllExchangeRatesDto exchangeRate,
+            String sourceCurrency,
+            BigDecimal amount) {
+
+        RateTable table = exchangeRate.getTable();
+        if (table != null) {
+            return buildConversionResult(sourceCurrency, amount,
+                    AllTargetConversions.convert(table, amount, CONVERTED_AMOUNT_SCALE));
+        }
+
+        Map<String, BigDecimal> conversions = LinkedHashMap.newLinkedHashMap(exchangeRate.getRates().size());
+        exchangeRate.getRates().forEach((pair, rate) -> {
+            if (pair.startsWith(sourceCurrency)) {
+                conversions.put(pair.substring(sourceCurrency.length()),
+                        FixedPointArithmetic.multiply(rate, amount, CONVERTED_AMOUNT_SCALE));
+            }
+        });
+        return buildConversionResult(sourceCurrency, amount, conversions);
+    }
+
     private Map<String, BigDecimal> convertToAllTargetCurrencies(
-            Map<String, BigDecimal> rates,
+            AllExchangeRatesDto rates,
             String sourceCurrency,
             List<String> targetCurrencies,
             BigDecimal amount) {
 
-        return targetCurrencies.stream()
-                .collect(Collectors.toMap(
-                        currency -> currency,
-                        currency -> convertSingleCurrency(rates, sourceCurrency, currency, amount)
-                ));
+        long unscaledAmount = FixedPointArithmetic.unscaled(amount);
+        Map<String, BigDecimal> conversions = HashMap.newHashMap(targetCurrencies.size());
+        for (String currency : targetCurrencies) {
+            conversions.put(currency, convertSingleCurrency(rates, sourceCurrency, currency, amount, unscaledAmount));
+        }
+        return conversions;
     }
 
     private BigDecimal convertSingleCurrency(
-            Map<String, BigDecimal> rates,
+            AllExchangeRatesDto rates,
             String sourceCurrency,
             String targetCurrency,
-            BigDecimal amount) {
-
-        String rateKey = sourceCurrency + targetCurrency;
-        BigDecimal rate = Optional.ofNullable(rates.get(rateKey))
-                .orElseThrow(() -> createNotFoundException(sourceCurrency, targetCurrency));
+            BigDecimal amount,
+            long unscaledAmount) {
+
+        RateTable table = rates.getTable();
+        if (table == null) {
+            return FixedPointArithmetic.multiply(
+                    findRate(rates, sourceCurrency, targetCurrency), amount, CONVERTED_AMOUNT_SCALE);
+        }
+
+        int targetOrdinal = table.registry().ordinal(targetCurrency);
+        if (!table.contains(targetOrdinal)) {
+            throw createNotFoundException(sourceCurrency, targetCurrency);
+        }
+        return FixedPointArithmetic.multiply(table.unscaledRate(targetOrdinal), table.scale(targetOrdinal),
+                amount, unscaledAmount, CONVERTED_AMOUNT_SCALE);
+    }
 
-        return rate.multiply(amount)
-                .setScale(6, RoundingMode.HALF_UP);
+    private BigDecimal findRate(AllExchangeRatesDto rates, String sourceCurrency, String targetCurrency) {
+        RateTable table = rates.getTable();
+        BigDecimal rate = table != null
+                ? table.rate(targetCurrency)
+                : rates.getRates().get(sourceCurrency + targetCurrency);
+        if (rate == null) {
+            throw createNotFoundException(sourceCurrency, targetCurrency);
+        }
+        return rate;
     }
 
     private CurrencyConversionException createNotFoundException(String sourceCurrency, String targetCurrency) {
@@ -0,0 +1,176 @@
+package com.exchange.converter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Multiplication of decimal values held as unscaled {@code long} values and scales, rounded {@link RoundingMode#HALF_UP
+ * half-up} to a result scale.
+ *
+ * <p>The fast path multiplies the unscaled values into a 128-bit product, accepts it only if it fits a {@code long},
+ * and rescales it with one multiplication or one division by a power of ten, so a conversion allocates nothing but its
+ * result. Whenever an operand, the product or the rescaled result leaves the {@code long} range, the calculation falls
+ * back to {@link BigDecimal}. Results are identical, in value and scale, to
+ * {@code a.multiply(b).setScale(scale, RoundingMode.HALF_UP)}.
+ */
+public final class FixedPointArithmetic {
+    /**
+     * Marker returned by the unscaled operations when the result is not representable as a {@code long}.
+     */
+    public static final long OVERFLOW = Long.MIN_VALUE;
+
+    /**
+     * Maximum number of characters written by {@link #format(long, int, char[])}.
+     */
+    public static final int MAX_FORMATTED_LENGTH = 21;
+
+    private static final int MAX_DIGITS = 18;
+    private static final long[] POWERS_OF_TEN = new long[MAX_DIGITS + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i <= MAX_DIGITS; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private FixedPointArithmetic() {
+    }
+
+    /**
+     * Multiplies two decimals and rounds the product half-up to a scale.
+     *
+     * @param a     the first factor
+     * @param b     the second factor
+     * @param scale the scale of the result
+     * @return {@code a.multiply(b).setScale(scale, RoundingMode.HALF_UP)}
+     */
+    public static BigDecimal multiply(BigDecimal a, BigDecimal b, int scale) {
+        long unscaledA = unscaled(a);
+        long unscaledB = unscaled(b);
+        if (unscaledA != OVERFLOW && unscaledB != OVERFLOW) {
+            long unscaledResult = multiplyHalfUp(unscaledA, a.scale(), unscaledB, b.scale(), scale);
+            if (unscaledResult != OVERFLOW) {
+                return BigDecimal.valueOf(unscaledResult, scale);
+            }
+        }
+        return a.multiply(b).setScale(scale, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Multiplies a decimal given as unscaled value and scale by another decimal, rounding the product half-up.
+     * The second factor is passed both decomposed, so it is decomposed once when it is multiplied many times, and
+     * as a {@link BigDecimal} for the fallback.
+     *
+     * @param unscaledA the unscaled value of the first factor
+     * @param scaleA    the scale of the first factor
+     * @param b         the second factor
+     * @param unscaledB the unscaled value of the second factor as returned by {@link #unscaled(BigDecimal)}
+     * @param scale     the scale of the result
+     * @return the product of both factors rounded half-up to the scale
+     */
+    public static BigDecimal multiply(long unscaledA, int scaleA, BigDecimal b, long unscaledB, int scale) {
+        if (unscaledB != OVERFLOW) {
+            long unscaledResult = multiplyHalfUp(unscaledA, scaleA, unscaledB, b.scale(), scale);
+            if (unscaledResult != OVERFLOW) {
+                return BigDecimal.valueOf(unscaledResult, scale);
+            }
+        }
+        return BigDecimal.valueOf(unscaledA, scaleA).multiply(b).setScale(scale, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Returns the unscaled value of a decimal if it fits the fast path.
+     *
+     * @param value the decimal
+     * @return the unscaled value, or {@link #OVERFLOW} if it has more than 18 digits
+     */
+    public static long unscaled(BigDecimal value) {
+        return value.precision() <= MAX_DIGITS ? value.unscaledValue().longValue() : OVERFLOW;
+    }
+
+    /**
+     * Multiplies two decimals given as unscaled values and scales, rounding the product half-up to a scale.
+     *
+     * @param unscaledA the unscaled value of the first factor
+     * @param scaleA    the scale of the first factor
+     * @param unscaledB the unscaled value of the second factor
+     * @param scaleB    the scale of the second factor
+     * @param scale     the scale of the result
+     * @return the unscaled value of the result at the given scale, or {@link #OVERFLOW} if the product or the result
+     * does not fit a {@code long}
+     */
+    public static long multiplyHalfUp(long unscaledA, int scaleA, long unscaledB, int scaleB, int scale) {
+        long product = multiplyExact(unscaledA, unscaledB);
+        if (product == OVERFLOW) {
+            return OVERFLOW;
+        }
+
+        long shift = (long) scale - scaleA - scaleB;
+        if (product == 0) {
+            return 0;
+        }
+        if (shift >= 0) {
+            return shift > MAX_DIGITS ? OVERFLOW : multiplyExact(product, POWERS_OF_TEN[(int) shift]);
+        }
+        if (-shift > MAX_DIGITS) {
+            return OVERFLOW;
+        }
+
+        long divisor = POWERS_OF_TEN[(int) -shift];
+        long quotient = product / divisor;
+        long remainder = Math.abs(product % divisor);
+        if (remainder >= divisor - remainder) {
+            quotient += Long.signum(product);
+        }
+        return quotient;
+    }
+
+    /**
+     * Formats an unscaled value in plain notation, as {@link BigDecimal#toPlainString()} does for the same value and
+     * scale, which for scales up to 6 is also what {@link BigDecimal#toString()} returns.
+     *
+     * @param unscaled the unscaled value, not {@link #OVERFLOW}
+     * @param scale    the scale, between 0 and 18
+     * @param buffer   the buffer to write to, at least {@link #MAX_FORMATTED_LENGTH} characters long
+     * @return the number of characters written
+     */
+    public static int format(long unscaled, int scale, char[] buffer) {
+        if (scale < 0 || scale > MAX_DIGITS) {
+            throw new IllegalArgumentException("Scale " + scale + " is out of the supported range");
+        }
+
+        long magnitude = Math.abs(unscaled);
+        int digits = Math.max(digitCount(magnitude), scale + 1);
+        int length = (unscaled < 0 ? 1 : 0) + digits + (scale > 0 ? 1 : 0);
+        int position = length;
+        for (int digit = 0; digit < digits; digit++) {
+            if (digit == scale && scale > 0) {
+                buffer[--position] = '.';
+            }
+            buffer[--position] = (char) ('0' + magnitude % 10);
+            magnitude /= 10;
+        }
+        if (unscaled < 0) {
+            buffer[0] = '-';
+        }
+        return length;
+    }
+
+    private static int digitCount(long magnitude) {
+        int digits = 1;
+        while (digits <= MAX_DIGITS && magnitude >= POWERS_OF_TEN[digits]) {
+            digits++;
+        }
+        return digits;
+    }
+
+    private static long multiplyExact(long a, long b) {
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        if ((high == 0 && low >= 0) || (high == -1 && low < 0)) {
+            return low;
+        }
+        return OVERFLOW;
+    }
+}
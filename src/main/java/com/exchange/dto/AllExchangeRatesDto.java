@@ -1,5 +1,8 @@
 package com.exchange.dto;
 
+import com.exchange.store.RateTable;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Builder;
 import lombok.Data;
@@ -9,7 +12,7 @@ import java.time.Instant;
 import java.util.Map;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @Schema(description = "All exchange rates for a base currency")
 public class AllExchangeRatesDto {
     @Schema(description = "Base currency code", example = "USD")
@@ -18,6 +21,42 @@ public class AllExchangeRatesDto {
     @Schema(description = "Map of currency codes to their exchange rates")
     private Map<String, BigDecimal> rates;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Pivot currency the rates were derived through, absent for direct quotes", example = "USD")
+    private String pivotCurrency;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Worst-case relative error introduced by triangulation across all rates, absent for direct quotes",
+            example = "0.0000012")
+    private BigDecimal precisionLoss;
+
+    @Schema(description = "Whether the rates are served past expiry because no fresh quote is available yet",
+            example = "false")
+    private boolean stale;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Version of the rate snapshot the rates were published in, increasing with every refresh",
+            example = "42")
+    private Long snapshotVersion;
+
     @Schema(description = "Timestamp of the rates", example = "2024-02-20T13:45:30.000Z")
     private Instant timestamp;
+
+    @JsonIgnore
+    @Schema(hidden = true)
+    private RateTable table;
+
+    /**
+     * Returns the rate from the source currency to a target currency, reading the dense {@link RateTable}
+     * when one is attached and the {@code source + target} keyed map otherwise.
+     *
+     * @param targetCurrency the target currency code
+     * @return the rate, or null if the target currency is not quoted
+     */
+    public BigDecimal rateFor(String targetCurrency) {
+        if (table != null) {
+            return table.rate(targetCurrency);
+        }
+        return rates.get(sourceCurrency + targetCurrency);
+    }
 }
@@ -0,0 +1,39 @@
+package com.exchange.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Result of one conversion of a batch, carrying either the converted amount or an error")
+public class BatchConversionItemResultDto {
+    @Schema(description = "Position of the item in the request, or of the row in a conversion stream", example = "0")
+    private long index;
+
+    @Schema(description = "Source currency code", example = "USD")
+    private String sourceCurrency;
+
+    @Schema(description = "Target currency code", example = "EUR")
+    private String targetCurrency;
+
+    @Schema(description = "Original amount to convert", example = "100.00")
+    private BigDecimal sourceAmount;
+
+    @Schema(description = "Converted amount in target currency, absent if the conversion failed", example = "92.47")
+    private BigDecimal convertedAmount;
+
+    @Schema(description = "Exchange rate used for conversion, absent if the conversion failed", example = "0.9247")
+    private BigDecimal exchangeRate;
+
+    @Schema(description = "Version of the rate snapshot the rate was read from", example = "42")
+    private Long snapshotVersion;
+
+    @Schema(description = "Why the conversion failed, absent if it succeeded",
+            example = "Exchange rate not found for pair USD-XAU")
+    private String error;
+}
@@ -0,0 +1,25 @@
+package com.exchange.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+@Schema(description = "Result of a batch currency conversion operation")
+public class BatchConversionResultDto {
+    @Schema(description = "Per-item results in request order")
+    private List<BatchConversionItemResultDto> results;
+
+    @Schema(description = "Number of items converted successfully", example = "998")
+    private int succeeded;
+
+    @Schema(description = "Number of items that failed", example = "2")
+    private int failed;
+
+    @Schema(description = "Timestamp of the conversion", example = "2024-02-20T13:45:30.000Z")
+    private Instant timestamp;
+}
@@ -0,0 +1,30 @@
+package com.exchange.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@Schema(description = "Summary record closing a streamed bulk conversion")
+public class BulkConversionSummaryDto {
+    @Schema(description = "Number of data rows read", example = "1000000")
+    private long rows;
+
+    @Schema(description = "Number of rows converted successfully", example = "999998")
+    private long succeeded;
+
+    @Schema(description = "Number of rows rejected as malformed, invalid or unconvertible", example = "2")
+    private long rejected;
+
+    @Schema(description = "Time spent converting the stream in milliseconds", example = "4210")
+    private long elapsedMs;
+
+    @Schema(description = "Conversion throughput in rows per second", example = "237529")
+    private long rowsPerSecond;
+
+    @Schema(description = "Timestamp of the end of the conversion", example = "2024-02-20T13:45:30.000Z")
+    private Instant timestamp;
+}
@@ -0,0 +1,43 @@
+package com.exchange.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@Schema(description = "Exchange rates of a base currency that changed since a previous snapshot version")
+public class RatesDeltaDto {
+    @Schema(description = "Base currency code", example = "USD")
+    private String sourceCurrency;
+
+    @Schema(description = "Snapshot version the changes are relative to", example = "40")
+    private long sinceVersion;
+
+    @Schema(description = "Snapshot version of the current rates", example = "42")
+    private long snapshotVersion;
+
+    @Schema(description = "Whether the since version is no longer known and the changed rates hold the full table",
+            example = "false")
+    private boolean fullResync;
+
+    @Schema(description = "Map of currency codes to their exchange rates, holding only rates that changed or were added")
+    private Map<String, BigDecimal> changed;
+
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    @Schema(description = "Currency codes no longer quoted since the since version")
+    private List<String> removed;
+
+    @Schema(description = "Whether the rates are served past expiry because no fresh quote is available yet",
+            example = "false")
+    private boolean stale;
+
+    @Schema(description = "Timestamp of the current rates", example = "2024-02-20T13:45:30.000Z")
+    private Instant timestamp;
+}
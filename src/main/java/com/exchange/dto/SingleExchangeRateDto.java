@@ -1,5 +1,6 @@
 package com.exchange.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Builder;
 import lombok.Data;
@@ -8,7 +9,7 @@ import java.math.BigDecimal;
 import java.time.Instant;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @Schema(description = "Exchange rate between two currencies")
 public class SingleExchangeRateDto {
     @Schema(description = "Source currency code", example = "USD")
@@ -20,6 +21,24 @@ public class SingleExchangeRateDto {
     @Schema(description = "Exchange rate value", example = "0.92")
     private BigDecimal exchangeRate;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Pivot currency the rate was derived through, absent for direct quotes", example = "USD")
+    private String pivotCurrency;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Upper bound of the relative error introduced by triangulation, absent for direct quotes",
+            example = "0.0000012")
+    private BigDecimal precisionLoss;
+
+    @Schema(description = "Whether the rate is served past expiry because no fresh quote is available yet",
+            example = "false")
+    private boolean stale;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Version of the rate snapshot the rates were published in, increasing with every refresh",
+            example = "42")
+    private Long snapshotVersion;
+
     @Schema(description = "Timestamp of the rate", example = "2024-02-20T13:45:30.000Z")
     private Instant timestamp;
 }
@@ -0,0 +1,7 @@
+package com.exchange.exception;
+
+public class UpstreamCircuitOpenException extends ExchangeRateException {
+    public UpstreamCircuitOpenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.exchange.exception;
+
+public class UpstreamQuotaExceededException extends ExchangeRateException {
+    public UpstreamQuotaExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,28 @@
+package com.exchange.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * A single conversion of a batch. Items are validated individually while the batch is processed, so an invalid
+ * item is reported in its result instead of rejecting the whole batch.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Single conversion of a batch")
+public class BatchConversionItem {
+
+    @Schema(description = "Source currency code", example = "USD")
+    private String sourceCurrency;
+
+    @Schema(description = "Target currency code", example = "EUR")
+    private String targetCurrency;
+
+    @Schema(description = "Amount to convert, at least 1.00", example = "100.00")
+    private BigDecimal amount;
+}
@@ -0,0 +1,16 @@
+package com.exchange.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Schema(description = "Batch currency conversion request")
+public class BatchConversionRequest {
+
+    @NotEmpty(message = "Items list cannot be empty")
+    @Schema(description = "Conversions to perform, at most exchange.rate.batch.max-size")
+    private List<BatchConversionItem> items;
+}
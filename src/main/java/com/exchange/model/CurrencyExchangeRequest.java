@@ -20,4 +20,7 @@ public class CurrencyExchangeRequest {
     @NotBlank(message = "Target currency is required")
     @Schema(description = "Target currency code", example = "EUR")
     private String targetCurrency;
+
+    @Schema(description = "Whether the rate may be derived through the pivot currency", example = "DIRECT_ONLY")
+    private RateMode mode = RateMode.DIRECT_ONLY;
 }
\ No newline at end of file
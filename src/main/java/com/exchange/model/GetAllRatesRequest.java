@@ -14,4 +14,7 @@ public class GetAllRatesRequest {
     @NotBlank(message = "Currency is required")
     @Schema(description = "Base currency code", example = "USD")
     private String currency;
+
+    @Schema(description = "Whether the rate may be derived through the pivot currency", example = "DIRECT_ONLY")
+    private RateMode mode = RateMode.DIRECT_ONLY;
 }
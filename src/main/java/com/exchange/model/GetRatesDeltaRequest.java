@@ -0,0 +1,23 @@
+package com.exchange.model;
+
+import com.exchange.validator.ValidCurrency;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+
+@Data
+@Schema(description = "Request for getting the exchange rates of a currency changed since a snapshot version")
+public class GetRatesDeltaRequest {
+    @ValidCurrency
+    @NotNull(message = "Currency cannot be null")
+    @NotBlank(message = "Currency is required")
+    @Schema(description = "Base currency code", example = "USD")
+    private String currency;
+
+    @NotNull(message = "Since version is required")
+    @PositiveOrZero(message = "Since version cannot be negative")
+    @Schema(description = "Snapshot version of the rates the client holds", example = "40")
+    private Long since;
+}
@@ -1,10 +1,11 @@
 package com.exchange.model;
 
 import com.exchange.validator.ValidCurrency;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
@@ -21,12 +22,22 @@ public class MultiCurrencyConversionRequest {
     @Schema(description = "Source currency code", example = "USD")
     private String sourceCurrency;
 
-    @NotEmpty(message = "Target currencies list cannot be empty")
-    @Schema(description = "List of target currency codes", example = "[\"EUR\", \"GBP\", \"JPY\"]")
+    @Schema(description = "List of target currency codes, ignored if allTargets is set",
+            example = "[\"EUR\", \"GBP\", \"JPY\"]")
     private List<String> targetCurrencies;
 
+    @Schema(description = "Convert into every currency quoted for the source currency instead of targetCurrencies",
+            example = "false")
+    private boolean allTargets;
+
     @NotNull(message = "Amount is required")
     @DecimalMin(value = "1.00", message = "Amount must be at least 1.00")
     @Schema(description = "Amount to convert", example = "100.00")
     private BigDecimal amount;
+
+    @JsonIgnore
+    @AssertTrue(message = "Target currencies list cannot be empty")
+    public boolean isTargetCurrenciesSpecified() {
+        return allTargets || (targetCurrencies != null && !targetCurrencies.isEmpty());
+    }
 }
@@ -0,0 +1,16 @@
+package com.exchange.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Whether a rate may be derived through a pivot currency when no direct quote is stored")
+public enum RateMode {
+    /**
+     * Only quotes fetched for the requested source currency are used.
+     */
+    DIRECT_ONLY,
+
+    /**
+     * Quotes may be derived from the pivot currency table when the source table is not stored.
+     */
+    TRIANGULATED_ALLOWED
+}
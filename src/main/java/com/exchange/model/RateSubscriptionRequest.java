@@ -0,0 +1,16 @@
+package com.exchange.model;
+
+import com.exchange.validator.ValidCurrency;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Schema(description = "Request for subscribing to rate updates of one or more base currencies")
+public class RateSubscriptionRequest {
+    @NotEmpty(message = "Currencies list cannot be empty")
+    @Schema(description = "Base currency codes to receive rate updates for", example = "[\"USD\", \"EUR\"]")
+    private List<@ValidCurrency String> currencies;
+}
@@ -1,7 +1,14 @@
 package com.exchange.preload;
 
 import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.exception.UpstreamCircuitOpenException;
+import com.exchange.exception.UpstreamQuotaExceededException;
 import com.exchange.service.ExchangeRateProviderService;
+import com.exchange.store.CurrencyDemandTracker;
+import com.exchange.store.CurrencyDemandTracker.CurrencyDemand;
+import com.exchange.store.RateStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,34 +18,189 @@ import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Refreshes the rate tables of the most requested base currencies on startup and at fixed intervals.
+ *
+ * <p>Which bases are refreshed is decided every cycle from the demand scores of {@link CurrencyDemandTracker}: the
+ * bases with a score of at least {@code exchange.rate.preload.min-demand} are refreshed, highest first, up to
+ * {@code exchange.rate.preload.max-calls-per-cycle} of them, and the others are deferred until their demand ranks
+ * them within that upstream call budget. A refresh joining a fetch already in flight for its base, or rejected by the
+ * upstream quota or circuit breaker, costs no upstream call, so the budget used by a cycle is the number of fetches it
+ * actually started. Popular bases are therefore kept warm whether or not they are configured,
+ * and bases nobody requests stop costing upstream calls. The configured {@code exchange.rate.preload.currencies} seed
+ * the demand on startup, so they are preloaded before the first request and then kept only while they are requested.
+ * Bases with an open rate update subscription are refreshed whatever their score, within the same budget, so
+ * streaming clients keep receiving updates. The last cycle and the current demand are exposed by
+ * {@link RatePreloadEndpoint}.
+ *
+ * <p>Every planned base is fetched from upstream whatever the age of its stored table, joining a fetch already in
+ * flight for it. Bases are preloaded on their own virtual threads, at most
+ * {@code exchange.rate.preload.max-concurrency} at a time, and a fetch not completed within
+ * {@code exchange.rate.preload.fetch-timeout-ms} is no longer waited for, so a slow base does not hold back the
+ * others. The abandoned fetch may be shared with client requests, so it is left to complete or fail on the HTTP
+ * client's read timeout and still publishes its table if it succeeds. Per-currency fetch latency and total cycle time
+ * are logged and exported as the {@code exchange.rate.preload.fetch} (tags {@code currency}, {@code outcome}) and
+ * {@code exchange.rate.preload.cycle} timers.
+ */
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class ExchangeRatePreloader implements ApplicationListener<ContextRefreshedEvent> {
     private final ExchangeRateProviderService exchangeProviderService;
+    private final CurrencyDemandTracker demandTracker;
+    private final MeterRegistry meterRegistry;
+    private volatile PreloadCycle lastCycle;
 
     @Value("${exchange.rate.preload.currencies}")
     private List<String> baseCurrencies;
 
+    @Value("${exchange.rate.preload.max-concurrency:8}")
+    private int maxConcurrency;
+
+    @Value("${exchange.rate.preload.fetch-timeout-ms:10000}")
+    private long fetchTimeoutMs;
+
+    @Value("${exchange.rate.preload.max-calls-per-cycle:8}")
+    private int maxCallsPerCycle;
+
+    @Value("${exchange.rate.preload.min-demand:1.0}")
+    private double minDemand;
+
     @Override
     public void onApplicationEvent(@NonNull ContextRefreshedEvent event) {
+        baseCurrencies.forEach(demandTracker::record);
         loadExchangeRates();
     }
 
     @Scheduled(fixedRateString = "${exchange.rate.cache.refresh-interval-ms:51000}", initialDelay = 51000)
     public void loadExchangeRates() {
-        log.info("Starting preload of exchange rates for currencies: {}", baseCurrencies);
-
-        baseCurrencies.forEach(currency -> {
-            try {
-                AllExchangeRatesDto rates = exchangeProviderService.getAllRates(currency);
-                log.info("Successfully preloaded rates for {}, timestamp: {}",
-                        currency, rates.getTimestamp());
-            } catch (Exception e) {
-                log.error("Failed to preload rates for {}: {}", currency, e.getMessage());
+        Instant startedAt = Instant.now();
+        List<String> planned = new ArrayList<>();
+        List<String> deferred = new ArrayList<>();
+        for (CurrencyDemand demand : demandTracker.decay()) {
+            if (demand.score() < minDemand && !demandTracker.subscribed(demand.currency())) {
+                continue;
             }
-        });
+            (planned.size() < maxCallsPerCycle ? planned : deferred).add(demand.currency());
+        }
+        log.info("Starting preload of exchange rates for currencies: {}, deferred over budget: {}", planned,
+                deferred);
+        long start = System.nanoTime();
+        Semaphore permits = new Semaphore(maxConcurrency);
+
+        Map<String, Future<Preload>> preloads = new LinkedHashMap<>();
+        try (ExecutorService preloaders = Executors.newVirtualThreadPerTaskExecutor()) {
+            planned.forEach(currency -> preloads.put(currency, preloaders.submit(() -> preload(currency, permits))));
+        }
+
+        List<Preload> completed = preloads.values().stream()
+                .filter(preload -> preload.state() == Future.State.SUCCESS)
+                .map(Future::resultNow)
+                .toList();
+        int preloaded = (int) completed.stream().filter(Preload::succeeded).count();
+        int fetched = (int) completed.stream().filter(Preload::fetched).count();
+        long cycleNanos = System.nanoTime() - start;
+        Timer.builder("exchange.rate.preload.cycle")
+                .description("Time to preload the base currencies planned for a cycle")
+                .register(meterRegistry)
+                .record(cycleNanos, TimeUnit.NANOSECONDS);
+        lastCycle = new PreloadCycle(startedAt, planned, deferred, fetched, preloaded,
+                TimeUnit.NANOSECONDS.toMillis(cycleNanos));
+        log.info("Preloaded rates for {} of {} currencies with {} upstream fetches in {} ms", preloaded,
+                preloads.size(), fetched, TimeUnit.NANOSECONDS.toMillis(cycleNanos));
+    }
+
+    /**
+     * @return the last completed refresh cycle, or null before the first one
+     */
+    public PreloadCycle lastCycle() {
+        return lastCycle;
+    }
+
+    /**
+     * @return the maximum number of base currencies refreshed per cycle
+     */
+    public int maxCallsPerCycle() {
+        return maxCallsPerCycle;
+    }
+
+    /**
+     * @return the demand score a base currency needs to be refreshed
+     */
+    public double minDemand() {
+        return minDemand;
+    }
+
+    private Preload preload(String currency, Semaphore permits) throws InterruptedException {
+        permits.acquire();
+        long start = System.nanoTime();
+        try {
+            return awaitPreload(currency, exchangeProviderService.refreshRates(currency), start);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private Preload awaitPreload(String currency, RateStore.Refresh refresh, long start)
+            throws InterruptedException {
+        try {
+            AllExchangeRatesDto rates = refresh.rates().get(fetchTimeoutMs, TimeUnit.MILLISECONDS);
+            long latencyNanos = record(currency, "success", start);
+            log.info("Successfully preloaded rates for {} in {} ms, timestamp: {}",
+                    currency, TimeUnit.NANOSECONDS.toMillis(latencyNanos), rates.getTimestamp());
+            return new Preload(true, refresh.started());
+        } catch (TimeoutException e) {
+            record(currency, "timeout", start);
+            log.error("Failed to preload rates for {}: no response within {} ms", currency, fetchTimeoutMs);
+            return new Preload(false, refresh.started());
+        } catch (ExecutionException e) {
+            record(currency, "error", start);
+            log.error("Failed to preload rates for {}: {}", currency, e.getCause().getMessage());
+            boolean rejected = e.getCause() instanceof UpstreamQuotaExceededException
+                    || e.getCause() instanceof UpstreamCircuitOpenException;
+            return new Preload(false, refresh.started() && !rejected);
+        }
+    }
+
+    private long record(String currency, String outcome, long start) {
+        long latencyNanos = System.nanoTime() - start;
+        Timer.builder("exchange.rate.preload.fetch")
+                .description("Latency of preloading the rate table of a base currency")
+                .tag("currency", currency)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(latencyNanos, TimeUnit.NANOSECONDS);
+        return latencyNanos;
+    }
+
+    /**
+     * A completed refresh cycle.
+     *
+     * @param startedAt  the time the cycle started
+     * @param refreshed  the base currencies refreshed, highest demand first
+     * @param deferred   the base currencies in demand that did not fit the upstream call budget
+     * @param fetched    the number of upstream fetches the cycle started, excluding refreshes that joined a fetch
+     *                   in flight or were rejected before reaching the upstream
+     * @param succeeded  the number of refreshed base currencies whose table was loaded
+     * @param durationMs the time taken to refresh all planned base currencies
+     */
+    public record PreloadCycle(Instant startedAt, List<String> refreshed, List<String> deferred, int fetched,
+                               int succeeded, long durationMs) {
+    }
+
+    private record Preload(boolean succeeded, boolean fetched) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,48 @@
+package com.exchange.preload;
+
+import com.exchange.preload.ExchangeRatePreloader.PreloadCycle;
+import com.exchange.store.CurrencyDemandTracker;
+import com.exchange.store.CurrencyDemandTracker.CurrencyDemand;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Actuator endpoint {@code /actuator/ratepreload} exposing the upstream call budget of the
+ * {@link ExchangeRatePreloader}, how much of it the last refresh cycle used and the demand scores the next cycle will
+ * be planned from.
+ */
+@Component
+@Endpoint(id = "ratepreload")
+@RequiredArgsConstructor
+public class RatePreloadEndpoint {
+    private final ExchangeRatePreloader preloader;
+    private final CurrencyDemandTracker demandTracker;
+
+    /**
+     * @return the budget, the last cycle and the current demand
+     */
+    @ReadOperation
+    public RatePreloadReport report() {
+        PreloadCycle lastCycle = preloader.lastCycle();
+        return new RatePreloadReport(preloader.maxCallsPerCycle(),
+                lastCycle != null ? lastCycle.fetched() : 0,
+                preloader.minDemand(), lastCycle, demandTracker.snapshot());
+    }
+
+    /**
+     * The state of demand-driven preloading.
+     *
+     * @param budget     the maximum number of base currencies refreshed per cycle
+     * @param budgetUsed the number of upstream fetches started by the last cycle
+     * @param minDemand  the demand score a base currency needs to be refreshed
+     * @param lastCycle  the last completed cycle, or null before the first one
+     * @param demand     the base currencies in demand, highest score first
+     */
+    public record RatePreloadReport(int budget, int budgetUsed, double minDemand, PreloadCycle lastCycle,
+                                    List<CurrencyDemand> demand) {
+    }
+}
@@ -1,8 +1,15 @@
 package com.exchange.service;
 
+import com.exchange.bulk.BulkRowCodec;
+import com.exchange.dto.BatchConversionResultDto;
+import com.exchange.dto.BulkConversionSummaryDto;
 import com.exchange.dto.ConversionResultDto;
 import com.exchange.dto.MultiConversionResultDto;
+import com.exchange.model.BatchConversionItem;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -12,4 +19,10 @@ public interface CurrencyConversionService {
     MultiConversionResultDto convertToMultipleCurrencies(String sourceCurrency,
                                                          List<String> targetCurrencies,
                                                          BigDecimal amount);
+
+    MultiConversionResultDto convertToAllCurrencies(String sourceCurrency, BigDecimal amount);
+
+    BatchConversionResultDto convertBatch(List<BatchConversionItem> items);
+
+    BulkConversionSummaryDto convertStream(BufferedReader input, Writer output, BulkRowCodec codec) throws IOException;
 }
@@ -1,16 +1,36 @@
 package com.exchange.service;
 
+import com.exchange.bulk.BulkRowCodec;
 import com.exchange.converter.CurrencyConverter;
 import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.dto.BatchConversionItemResultDto;
+import com.exchange.dto.BatchConversionResultDto;
+import com.exchange.dto.BulkConversionSummaryDto;
 import com.exchange.dto.ConversionResultDto;
 import com.exchange.dto.MultiConversionResultDto;
 import com.exchange.dto.SingleExchangeRateDto;
+import com.exchange.exception.BatchSizeExceededException;
+import com.exchange.exception.CurrencyConversionException;
+import com.exchange.exception.ExchangeRateException;
+import com.exchange.model.BatchConversionItem;
+import com.exchange.store.CurrencyRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Implementation of {@link CurrencyConversionService} that handles currency conversion operations.
@@ -21,8 +41,14 @@ import java.util.List;
 @Service
 @RequiredArgsConstructor
 public class CurrencyConversionServiceImpl implements CurrencyConversionService {
+    private static final BigDecimal MIN_AMOUNT = new BigDecimal("1.00");
+
     private final ExchangeRateProviderService exchangeProvider;
     private final CurrencyConverter currencyConverter;
+    private final CurrencyRegistry currencyRegistry;
+
+    @Value("${exchange.rate.batch.max-size:10000}")
+    private int maxBatchSize;
 
     /**
      * Converts an amount from one currency to another.
@@ -53,4 +79,213 @@ public class CurrencyConversionServiceImpl implements CurrencyConversionService
         AllExchangeRatesDto exchangeRate = exchangeProvider.getAllRates(sourceCurrency);
         return currencyConverter.createMultiConversion(exchangeRate, sourceCurrency, targetCurrencies, amount);
     }
-}
\ No newline at end of file
+
+    /**
+     * Converts an amount from one currency into every currency quoted for it.
+     *
+     * @param sourceCurrency the source currency code
+     * @param amount         the amount to convert
+     * @return MultiConversionResultDto containing a conversion for every quoted currency
+     */
+    @Override
+    public MultiConversionResultDto convertToAllCurrencies(String sourceCurrency, BigDecimal amount) {
+        AllExchangeRatesDto exchangeRate = exchangeProvider.getAllRates(sourceCurrency);
+        return currencyConverter.createAllTargetsConversion(exchangeRate, sourceCurrency, amount);
+    }
+
+    /**
+     * Converts a batch of amounts between arbitrary currency pairs.
+     * Items are grouped by source currency, so the rates of every source currency are resolved once for the whole
+     * batch. Every item is validated and converted on its own: an invalid item, an unquoted pair or rates that
+     * cannot be fetched fail only the affected items, which carry an error in their result.
+     *
+     * @param items the conversions to perform
+     * @return BatchConversionResultDto containing a result for every item in request order
+     * @throws BatchSizeExceededException if the batch holds more than {@code exchange.rate.batch.max-size} items
+     */
+    @Override
+    public BatchConversionResultDto convertBatch(List<BatchConversionItem> items) {
+        if (items.size() > maxBatchSize) {
+            throw new BatchSizeExceededException(String.format(
+                    "Batch of %d items exceeds the maximum of %d", items.size(), maxBatchSize));
+        }
+
+        BatchConversionItemResultDto[] results = new BatchConversionItemResultDto[items.size()];
+        Map<String, List<Integer>> indicesBySource = new LinkedHashMap<>();
+        for (int index = 0; index < items.size(); index++) {
+            BatchConversionItem item = items.get(index);
+            String error = validate(item);
+            if (error != null) {
+                results[index] = failedItem(index, item, error);
+            } else {
+                indicesBySource.computeIfAbsent(item.getSourceCurrency(), source -> new ArrayList<>()).add(index);
+            }
+        }
+        indicesBySource.forEach((sourceCurrency, indices) -> convertGroup(sourceCurrency, indices, items, results));
+
+        int failed = 0;
+        for (BatchConversionItemResultDto result : results) {
+            if (result.getError() != null) {
+                failed++;
+            }
+        }
+        log.debug("Converted batch of {} items across {} source currencies, {} failed",
+                items.size(), indicesBySource.size(), failed);
+
+        return BatchConversionResultDto.builder()
+                .results(Arrays.asList(results))
+                .succeeded(items.size() - failed)
+                .failed(failed)
+                .timestamp(Instant.now())
+                .build();
+    }
+
+    /**
+     * Converts a stream of conversion rows row by row, writing each result as soon as it is produced, so memory use
+     * does not depend on the size of the stream. The rates of a source currency are resolved when it first occurs
+     * and pinned for the rest of the stream, so all rows of a source are converted against the same table. Malformed,
+     * invalid and unconvertible rows are written with an error and counted as rejected. The output is closed by a
+     * summary record with the row counts and throughput.
+     *
+     * @param input  the rows to convert
+     * @param output where results and summary are written
+     * @param codec  the format of input and output
+     * @return the summary written at the end of the output
+     * @throws IOException if the input cannot be read or the output cannot be written
+     */
+    @Override
+    public BulkConversionSummaryDto convertStream(BufferedReader input, Writer output, BulkRowCodec codec)
+            throws IOException {
+        long start = System.nanoTime();
+        Map<String, PinnedRates> pinnedRates = new HashMap<>();
+        long rows = 0;
+        long rejected = 0;
+
+        codec.writeHeader(output);
+        boolean firstLine = true;
+        for (String line = readLine(input, output); line != null; line = readLine(input, output)) {
+            if (line.isBlank() || (firstLine && codec.isHeader(line))) {
+                firstLine = false;
+                continue;
+            }
+            firstLine = false;
+
+            BatchConversionItemResultDto result = convertRow(rows++, line, codec, pinnedRates);
+            if (result.getError() != null) {
+                rejected++;
+            }
+            codec.writeRow(output, result);
+        }
+
+        long elapsedNanos = Math.max(1, System.nanoTime() - start);
+        BulkConversionSummaryDto summary = BulkConversionSummaryDto.builder()
+                .rows(rows)
+                .succeeded(rows - rejected)
+                .rejected(rejected)
+                .elapsedMs(TimeUnit.NANOSECONDS.toMillis(elapsedNanos))
+                .rowsPerSecond(rows * TimeUnit.SECONDS.toNanos(1) / elapsedNanos)
+                .timestamp(Instant.now())
+                .build();
+        codec.writeSummary(output, summary);
+        log.info("Converted stream of {} rows across {} source currencies in {} ms ({} rows/s), {} rejected",
+                rows, pinnedRates.size(), summary.getElapsedMs(), summary.getRowsPerSecond(), rejected);
+        return summary;
+    }
+
+    private BatchConversionItemResultDto convertRow(long index, String line, BulkRowCodec codec,
+                                                    Map<String, PinnedRates> pinnedRates) {
+        BatchConversionItem item;
+        try {
+            item = codec.parse(line);
+        } catch (IllegalArgumentException e) {
+            return failedItem(index, null, "Malformed row: " + e.getMessage());
+        }
+
+        String error = validate(item);
+        if (error != null) {
+            return failedItem(index, item, error);
+        }
+
+        PinnedRates rates = pinnedRates.computeIfAbsent(item.getSourceCurrency(), this::pinRates);
+        if (rates.error() != null) {
+            return failedItem(index, item, rates.error());
+        }
+        try {
+            return currencyConverter.createBatchItemConversion(rates.rates(), index, item);
+        } catch (CurrencyConversionException e) {
+            return failedItem(index, item, e.getMessage());
+        }
+    }
+
+    private PinnedRates pinRates(String sourceCurrency) {
+        try {
+            return new PinnedRates(exchangeProvider.getAllRates(sourceCurrency), null);
+        } catch (ExchangeRateException e) {
+            return new PinnedRates(null, "Exchange rate service error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the next line, flushing the results written so far first if reading it would block.
+     */
+    private static String readLine(BufferedReader input, Writer output) throws IOException {
+        if (!input.ready()) {
+            output.flush();
+        }
+        return input.readLine();
+    }
+
+    private void convertGroup(String sourceCurrency, List<Integer> indices, List<BatchConversionItem> items,
+                              BatchConversionItemResultDto[] results) {
+        AllExchangeRatesDto rates;
+        try {
+            rates = exchangeProvider.getAllRates(sourceCurrency);
+        } catch (ExchangeRateException e) {
+            indices.forEach(index -> results[index] = failedItem(index, items.get(index),
+                    "Exchange rate service error: " + e.getMessage()));
+            return;
+        }
+
+        for (int index : indices) {
+            try {
+                results[index] = currencyConverter.createBatchItemConversion(rates, index, items.get(index));
+            } catch (CurrencyConversionException e) {
+                results[index] = failedItem(index, items.get(index), e.getMessage());
+            }
+        }
+    }
+
+    private String validate(BatchConversionItem item) {
+        if (item == null) {
+            return "Item is required";
+        }
+        if (currencyRegistry.ordinal(item.getSourceCurrency()) < 0) {
+            return "Currency '" + item.getSourceCurrency() + "' is not supported.";
+        }
+        if (currencyRegistry.ordinal(item.getTargetCurrency()) < 0) {
+            return "Currency '" + item.getTargetCurrency() + "' is not supported.";
+        }
+        if (item.getAmount() == null) {
+            return "Amount is required";
+        }
+        if (item.getAmount().compareTo(MIN_AMOUNT) < 0) {
+            return "Amount must be at least 1.00";
+        }
+        return null;
+    }
+
+    private static BatchConversionItemResultDto failedItem(long index, BatchConversionItem item, String error) {
+        BatchConversionItemResultDto.BatchConversionItemResultDtoBuilder result = BatchConversionItemResultDto.builder()
+                .index(index)
+                .error(error);
+        if (item != null) {
+            result.sourceCurrency(item.getSourceCurrency())
+                    .targetCurrency(item.getTargetCurrency())
+                    .sourceAmount(item.getAmount());
+        }
+        return result.build();
+    }
+
+    private record PinnedRates(AllExchangeRatesDto rates, String error) {
+    }
+}
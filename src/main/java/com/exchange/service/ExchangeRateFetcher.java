@@ -0,0 +1,238 @@
+package com.exchange.service;
+
+import com.exchange.client.RateProvider;
+import com.exchange.config.HedgeConfig;
+import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.exception.ExchangeRateException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Fetches the full rate table of a base currency from an ordered list of {@link RateProvider}s, the first being the
+ * primary provider.
+ *
+ * <p>A fetch goes to the primary provider first. If it has not answered within the hedge delay, the same fetch is
+ * sent to the next provider, and so on, and the first valid answer wins; a provider failing before the delay elapses
+ * hands over to the next one at once. The hedge delay is the {@code exchange.rate.hedge.percentile} of the latencies of
+ * the last {@value #LATENCY_SAMPLES} successful primary fetches, so only the slowest fetches are hedged and the extra
+ * load stays around the share of fetches above that percentile. Calls losing the race are not cancelled but left to
+ * complete on their virtual thread, which tells how much a winning hedge saved.
+ *
+ * <p>Hedges are counted by {@code exchange.rate.upstream.hedges} (tag {@code reason} of {@code delay} or
+ * {@code failure}), answers by {@code exchange.rate.upstream.hedge.wins} (tag {@code provider}), the time between a
+ * winning hedge and the answer or failure of the primary provider is recorded by
+ * {@code exchange.rate.upstream.hedge.saved}, and the current delay is exported as
+ * {@code exchange.rate.upstream.hedge.delay}.
+ */
+@Slf4j
+@Component
+public class ExchangeRateFetcher {
+    static final int LATENCY_SAMPLES = 128;
+    static final int MIN_LATENCY_SAMPLES = 16;
+
+    private final List<RateProvider> providers;
+    private final double percentile;
+    private final Duration initialDelay;
+    private final Duration minDelay;
+    private final Executor executor;
+    private final long[] primaryLatencies = new long[LATENCY_SAMPLES];
+    private final Counter delayHedges;
+    private final Counter failureHedges;
+    private final Counter[] wins;
+    private final Timer saved;
+    private int latencyCount;
+    private int nextLatency;
+
+    /**
+     * Creates a new fetcher calling the providers on virtual threads.
+     *
+     * @param rateProviders the providers in order, the primary provider first
+     * @param hedgeConfig   the hedge delay settings
+     * @param meterRegistry registry the hedging metrics are registered with
+     */
+    @Autowired
+    public ExchangeRateFetcher(List<RateProvider> rateProviders, HedgeConfig hedgeConfig,
+                               MeterRegistry meterRegistry) {
+        this(rateProviders, hedgeConfig.getPercentile(), Duration.ofMillis(hedgeConfig.getInitialDelayMs()),
+                Duration.ofMillis(hedgeConfig.getMinDelayMs()), meterRegistry,
+                Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    ExchangeRateFetcher(List<RateProvider> rateProviders, double percentile, Duration initialDelay,
+                        Duration minDelay, MeterRegistry meterRegistry, Executor executor) {
+        if (rateProviders.isEmpty()) {
+            throw new IllegalStateException("At least one rate provider must be configured");
+        }
+        if (percentile <= 0 || percentile > 1) {
+            throw new IllegalStateException("Hedge percentile must be in (0, 1] but was " + percentile);
+        }
+        this.providers = List.copyOf(rateProviders);
+        this.percentile = percentile;
+        this.initialDelay = initialDelay;
+        this.minDelay = minDelay;
+        this.executor = executor;
+        this.delayHedges = hedges(meterRegistry, "delay");
+        this.failureHedges = hedges(meterRegistry, "failure");
+        this.wins = new Counter[providers.size()];
+        for (int i = 0; i < wins.length; i++) {
+            wins[i] = Counter.builder("exchange.rate.upstream.hedge.wins")
+                    .description("Upstream fetches answered first by a rate provider")
+                    .tag("provider", providers.get(i).name())
+                    .register(meterRegistry);
+        }
+        this.saved = Timer.builder("exchange.rate.upstream.hedge.saved")
+                .description("Time between a winning hedged fetch and the answer of the primary provider")
+                .register(meterRegistry);
+        Gauge.builder("exchange.rate.upstream.hedge.delay", this, fetcher -> fetcher.hedgeDelay().toMillis())
+                .description("Time after which an unanswered upstream fetch is hedged, in milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Fetches all exchange rates for a given base currency.
+     *
+     * @param currency the base currency code
+     * @return {@link AllExchangeRatesDto} containing all rates and their dense table
+     * @throws ExchangeRateException if the exchange rates cannot be fetched from any provider, in which case the
+     *                               failure of the primary provider is thrown
+     */
+    public AllExchangeRatesDto fetchAllRates(String currency) {
+        if (providers.size() == 1) {
+            AllExchangeRatesDto rates = call(0, currency, System.nanoTime(), null).rates();
+            wins[0].increment();
+            return rates;
+        }
+
+        long startNanos = System.nanoTime();
+        long delayNanos = hedgeDelay().toNanos();
+        AtomicReference<Attempt> winner = new AtomicReference<>();
+        CompletionService<Attempt> attempts = new ExecutorCompletionService<>(executor);
+        attempts.submit(() -> call(0, currency, startNanos, winner));
+        int launched = 1;
+        int pending = 1;
+        long hedgeAtNanos = startNanos + delayNanos;
+        List<RuntimeException> failures = new ArrayList<>();
+        try {
+            while (true) {
+                Future<Attempt> completed = launched < providers.size()
+                        ? attempts.poll(hedgeAtNanos - System.nanoTime(), TimeUnit.NANOSECONDS)
+                        : attempts.take();
+                if (completed != null) {
+                    pending--;
+                    Attempt attempt = completed.get();
+                    if (attempt.failure() == null) {
+                        wins[attempt.provider()].increment();
+                        return attempt.rates();
+                    }
+                    failures.add(attempt.provider() == 0 ? 0 : failures.size(), attempt.failure());
+                    if (pending > 0) {
+                        continue;
+                    }
+                    if (launched == providers.size()) {
+                        RuntimeException primary = failures.get(0);
+                        failures.subList(1, failures.size()).forEach(primary::addSuppressed);
+                        throw primary;
+                    }
+                    failureHedges.increment();
+                } else {
+                    delayHedges.increment();
+                }
+                int provider = launched++;
+                log.debug("Hedging fetch of {} to {} after {} ms", currency, providers.get(provider).name(),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+                attempts.submit(() -> call(provider, currency, startNanos, winner));
+                pending++;
+                hedgeAtNanos = System.nanoTime() + delayNanos;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExchangeRateException("Interrupted while fetching exchange rates for " + currency);
+        } catch (ExecutionException e) {
+            throw new ExchangeRateException("Failed to fetch exchange rates for " + currency);
+        }
+    }
+
+    /**
+     * Returns the time after which a fetch unanswered by the primary provider is hedged to the next provider.
+     *
+     * @return the percentile of the recent primary latencies, at least the minimum delay
+     */
+    Duration hedgeDelay() {
+        long[] latencies;
+        synchronized (primaryLatencies) {
+            if (latencyCount < MIN_LATENCY_SAMPLES) {
+                return initialDelay;
+            }
+            latencies = Arrays.copyOf(primaryLatencies, latencyCount);
+        }
+        Arrays.sort(latencies);
+        int rank = (int) Math.ceil(percentile * latencies.length) - 1;
+        Duration delay = Duration.ofNanos(latencies[Math.max(rank, 0)]);
+        return delay.compareTo(minDelay) < 0 ? minDelay : delay;
+    }
+
+    private Attempt call(int provider, String currency, long startNanos, AtomicReference<Attempt> winner) {
+        Attempt attempt;
+        try {
+            AllExchangeRatesDto rates = providers.get(provider).fetchAllRates(currency);
+            attempt = new Attempt(provider, rates, null, System.nanoTime() - startNanos);
+            if (provider == 0) {
+                recordPrimaryLatency(attempt.elapsedNanos());
+            }
+        } catch (RuntimeException e) {
+            if (winner == null) {
+                throw e;
+            }
+            attempt = new Attempt(provider, null, e, System.nanoTime() - startNanos);
+        }
+        if (winner != null) {
+            if (attempt.failure() == null) {
+                winner.compareAndSet(null, attempt);
+            }
+            Attempt won = winner.get();
+            if (provider == 0 && won != null && won.provider() != 0) {
+                saved.record(attempt.elapsedNanos() - won.elapsedNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+        return attempt;
+    }
+
+    private void recordPrimaryLatency(long latencyNanos) {
+        synchronized (primaryLatencies) {
+            primaryLatencies[nextLatency] = latencyNanos;
+            nextLatency = (nextLatency + 1) % LATENCY_SAMPLES;
+            latencyCount = Math.min(latencyCount + 1, LATENCY_SAMPLES);
+        }
+    }
+
+    private static Counter hedges(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("exchange.rate.upstream.hedges")
+                .description("Upstream fetches sent to the next rate provider")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * The answer or failure of one provider to a fetch, and the time since the fetch started.
+     */
+    private record Attempt(int provider, AllExchangeRatesDto rates, RuntimeException failure, long elapsedNanos) {
+    }
+}
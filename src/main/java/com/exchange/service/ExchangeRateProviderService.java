@@ -1,10 +1,25 @@
 package com.exchange.service;
 
 import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.dto.RatesDeltaDto;
 import com.exchange.dto.SingleExchangeRateDto;
+import com.exchange.model.RateMode;
+import com.exchange.store.RateStore;
 
 public interface ExchangeRateProviderService {
-    SingleExchangeRateDto getExchangeRate(String sourceCurrency, String targetCurrency);
+    default SingleExchangeRateDto getExchangeRate(String sourceCurrency, String targetCurrency) {
+        return getExchangeRate(sourceCurrency, targetCurrency, RateMode.DIRECT_ONLY);
+    }
 
-    AllExchangeRatesDto getAllRates(String currency);
+    SingleExchangeRateDto getExchangeRate(String sourceCurrency, String targetCurrency, RateMode mode);
+
+    default AllExchangeRatesDto getAllRates(String currency) {
+        return getAllRates(currency, RateMode.DIRECT_ONLY);
+    }
+
+    AllExchangeRatesDto getAllRates(String currency, RateMode mode);
+
+    RatesDeltaDto getRatesDelta(String currency, long sinceVersion);
+
+    RateStore.Refresh refreshRates(String currency);
 }
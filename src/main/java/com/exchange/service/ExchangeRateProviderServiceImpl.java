@@ -1,91 +1,160 @@
 package com.exchange.service;
 
 import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.dto.RatesDeltaDto;
 import com.exchange.dto.SingleExchangeRateDto;
+import com.exchange.exception.CurrencyConversionException;
 import com.exchange.exception.ExchangeRateException;
-import com.exchange.model.ExchangeRateResponse;
+import com.exchange.exception.UpstreamCircuitOpenException;
+import com.exchange.exception.UpstreamQuotaExceededException;
+import com.exchange.model.RateMode;
+import com.exchange.store.CurrencyDemandTracker;
+import com.exchange.store.RateHistory;
+import com.exchange.store.RateStore;
+import com.exchange.triangulation.RateTriangulator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClient;
 
-import java.time.Instant;
+import java.math.BigDecimal;
+import java.util.Optional;
 
 /**
- * Implementation of {@link ExchangeRateProviderService} that fetches exchange rates from an external API.
- * Uses Spring's caching mechanism to optimize performance and reduce API calls.
+ * Implementation of {@link ExchangeRateProviderService} serving exchange rates fetched from an external API.
+ * Rates are kept per base currency in the {@link RateStore}, so single-pair lookups are answered from the
+ * base-currency table and only a missing table costs an upstream call. When triangulation is allowed, a missing
+ * source table is derived from the pivot currency table through {@link RateTriangulator} instead of being fetched.
+ * Deltas between snapshot versions are computed against the recent tables kept by {@link RateHistory}. Every request
+ * is counted as demand for its base currency, and for the pivot currency when derived from it, in the
+ * {@link CurrencyDemandTracker} deciding which tables are refreshed proactively. When the upstream quota or the open
+ * circuit rejects the fetch of a table that has never been loaded, the rates are derived from a stored pivot table
+ * quoting its base as a last resort, so the response is flagged with its pivot currency instead of failing.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ExchangeRateProviderServiceImpl implements ExchangeRateProviderService {
-    private final RestClient exchangeClient;
+    private final RateStore rateStore;
+    private final RateTriangulator rateTriangulator;
+    private final RateHistory rateHistory;
+    private final CurrencyDemandTracker demandTracker;
 
     /**
-     * Fetches and caches the exchange rate for a specific currency pair.
+     * Returns the exchange rate for a specific currency pair from the source currency's rate table.
+     * If the table is not stored yet, the whole table for the source currency is fetched and stored, unless
+     * triangulation is allowed, in which case the rate is derived from the pivot currency table.
      *
      * @param sourceCurrency the source currency code
      * @param targetCurrency the target currency code
+     * @param mode           whether the rate may be derived through the pivot currency
      * @return {@link SingleExchangeRateDto} containing the exchange rate information
-     * @throws ExchangeRateException if the exchange rate cannot be fetched
+     * @throws ExchangeRateException       if the exchange rates cannot be fetched
+     * @throws CurrencyConversionException if the rate table does not quote the target currency
      */
     @Override
-    @Cacheable(value = "exchangeRates", key = "#sourceCurrency + '-' + #targetCurrency")
-    public SingleExchangeRateDto getExchangeRate(String sourceCurrency, String targetCurrency) {
-        log.info("Fetching exchange rate from {} to {}", sourceCurrency, targetCurrency);
-
-        ExchangeRateResponse response = exchangeClient.get()
-                .uri(uriBuilder -> uriBuilder
-                        .path("/live")
-                        .queryParam("source", sourceCurrency)
-                        .queryParam("currencies", targetCurrency)
-                        .build())
-                .retrieve()
-                .body(ExchangeRateResponse.class);
-
-        if (response == null || !response.isSuccess()) {
-            throw new ExchangeRateException("Failed to fetch exchange rate from " + sourceCurrency + " to " + targetCurrency);
+    public SingleExchangeRateDto getExchangeRate(String sourceCurrency, String targetCurrency, RateMode mode) {
+        demandTracker.record(sourceCurrency);
+        if (isTriangulated(sourceCurrency, mode)) {
+            Optional<AllExchangeRatesDto> storedRates = rateStore.find(sourceCurrency);
+            if (storedRates.isEmpty()) {
+                return rateTriangulator.deriveRate(pivotRates(), sourceCurrency, targetCurrency);
+            }
+            return directRate(storedRates.get(), sourceCurrency, targetCurrency);
+        }
+        try {
+            return directRate(rateStore.get(sourceCurrency), sourceCurrency, targetCurrency);
+        } catch (UpstreamQuotaExceededException | UpstreamCircuitOpenException e) {
+            return rateTriangulator.deriveRate(storedPivotRates(sourceCurrency, e), sourceCurrency, targetCurrency);
         }
-
-        String rateKey = sourceCurrency + targetCurrency;
-
-        return SingleExchangeRateDto.builder()
-                .sourceCurrency(sourceCurrency)
-                .targetCurrency(targetCurrency)
-                .exchangeRate(response.getQuotes().get(rateKey))
-                .timestamp(Instant.now())
-                .build();
     }
 
     /**
-     * Fetches and caches all exchange rates for a given base currency.
+     * Returns all exchange rates for a given base currency, fetching and storing them on a miss.
+     * When triangulation is allowed, a missing table is derived from the pivot currency table instead.
      *
      * @param currency the base currency code
+     * @param mode     whether the rates may be derived through the pivot currency
      * @return {@link AllExchangeRatesDto} containing all available exchange rates
      * @throws ExchangeRateException if the exchange rates cannot be fetched
      */
     @Override
-    @Cacheable(value = "allRates", key = "#currency")
-    public AllExchangeRatesDto getAllRates(String currency) {
-        log.info("Fetching all rates for base currency: {}", currency);
+    public AllExchangeRatesDto getAllRates(String currency, RateMode mode) {
+        demandTracker.record(currency);
+        if (isTriangulated(currency, mode)) {
+            return rateStore.find(currency)
+                    .orElseGet(() -> rateTriangulator.deriveTable(pivotRates(), currency));
+        }
+        try {
+            return rateStore.get(currency);
+        } catch (UpstreamQuotaExceededException | UpstreamCircuitOpenException e) {
+            return rateTriangulator.deriveTable(storedPivotRates(currency, e), currency);
+        }
+    }
+
+    /**
+     * Returns the rates of a base currency that changed since a previous snapshot version, fetching and storing the
+     * table on a miss. Deltas are only available for stored tables, so triangulation is never applied.
+     *
+     * @param currency     the base currency code
+     * @param sinceVersion the snapshot version of the rates the client holds
+     * @return {@link RatesDeltaDto} holding the changed rates, or all rates if the version is no longer known
+     * @throws ExchangeRateException if the exchange rates cannot be fetched
+     */
+    @Override
+    public RatesDeltaDto getRatesDelta(String currency, long sinceVersion) {
+        demandTracker.record(currency);
+        return rateHistory.delta(rateStore.get(currency), sinceVersion);
+    }
 
-        ExchangeRateResponse response = exchangeClient.get()
-                .uri(uriBuilder -> uriBuilder
-                        .path("/live")
-                        .queryParam("source", currency)
-                        .build())
-                .retrieve()
-                .body(ExchangeRateResponse.class);
+    /**
+     * Fetches all exchange rates for a given base currency from upstream on behalf of the preloader, whatever the age
+     * of the stored table. Unlike client requests, a refresh is not counted as demand, and its upstream calls take
+     * priority over fetches for client requests.
+     *
+     * @param currency the base currency code
+     * @return the refresh, whose future completes with {@link AllExchangeRatesDto} containing all available exchange
+     * rates, or fails with {@link ExchangeRateException} if they cannot be fetched
+     */
+    @Override
+    public RateStore.Refresh refreshRates(String currency) {
+        return rateStore.refresh(currency);
+    }
 
-        if (response == null || !response.isSuccess()) {
-            throw new ExchangeRateException("Failed to fetch exchange rates for " + currency);
+    private SingleExchangeRateDto directRate(AllExchangeRatesDto allRates, String sourceCurrency, String targetCurrency) {
+        BigDecimal rate = allRates.rateFor(targetCurrency);
+
+        if (rate == null) {
+            throw new CurrencyConversionException(
+                    String.format("Exchange rate not found for pair %s-%s", sourceCurrency, targetCurrency));
         }
 
-        return AllExchangeRatesDto.builder()
-                .sourceCurrency(currency)
-                .rates(response.getQuotes())
-                .timestamp(Instant.now())
+        return SingleExchangeRateDto.builder()
+                .sourceCurrency(sourceCurrency)
+                .targetCurrency(targetCurrency)
+                .exchangeRate(rate)
+                .stale(allRates.isStale())
+                .snapshotVersion(allRates.getSnapshotVersion())
+                .timestamp(allRates.getTimestamp())
                 .build();
     }
+
+    private boolean isTriangulated(String currency, RateMode mode) {
+        return mode == RateMode.TRIANGULATED_ALLOWED && !rateTriangulator.getPivotCurrency().equals(currency);
+    }
+
+    private AllExchangeRatesDto storedPivotRates(String currency, ExchangeRateException rejected) {
+        String pivotCurrency = rateTriangulator.getPivotCurrency();
+        if (pivotCurrency.equals(currency)) {
+            throw rejected;
+        }
+        log.debug("Deriving rates for {} through {}: {}", currency, pivotCurrency, rejected.getMessage());
+        return rateStore.find(pivotCurrency)
+                .filter(pivotRates -> pivotRates.getRates().containsKey(pivotCurrency + currency))
+                .orElseThrow(() -> rejected);
+    }
+
+    private AllExchangeRatesDto pivotRates() {
+        demandTracker.record(rateTriangulator.getPivotCurrency());
+        return rateStore.get(rateTriangulator.getPivotCurrency());
+    }
 }
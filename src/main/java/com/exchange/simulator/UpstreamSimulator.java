@@ -0,0 +1,216 @@
+package com.exchange.simulator;
+
+import com.exchange.config.UpstreamSimulatorConfig;
+import com.exchange.config.UpstreamSimulatorConfig.Latency;
+import com.exchange.store.CurrencyRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.Instant;
+import java.util.Currency;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * Simulated upstream exchange rate API producing the payloads of the exchangerate.host {@code /live} and
+ * {@code /list} endpoints for every supported currency, served by {@link UpstreamSimulatorController}.
+ *
+ * <p>Rates start from the approximate USD rates of {@code simulator/usd-rates.properties}; a supported currency
+ * missing there gets a rate derived from its code. Every {@code /live} call moves all rates by a random relative step
+ * of standard deviation {@code exchange.rate.simulator.drift}, so consecutive tables differ the way real ones do.
+ * Latencies and faults are drawn from one random sequence seeded by {@code exchange.rate.simulator.seed}, so a
+ * sequential run sees the same latencies, faults and rates every time.
+ */
+@Slf4j
+@Component
+@Profile("simulator")
+public class UpstreamSimulator {
+    static final String TERMS = "https://exchangerate.host/terms";
+    static final String PRIVACY = "https://exchangerate.host/privacy";
+    private static final String RATES_RESOURCE = "simulator/usd-rates.properties";
+    private static final MathContext QUOTE_PRECISION = new MathContext(7);
+
+    /**
+     * Failure injected into a call.
+     */
+    public enum Fault {
+        /**
+         * The call is answered normally.
+         */
+        NONE,
+        /**
+         * The call is answered with {@code 500 Internal Server Error}.
+         */
+        SERVER_ERROR,
+        /**
+         * The call is answered with an unsuccessful payload.
+         */
+        API_ERROR
+    }
+
+    private final CurrencyRegistry currencyRegistry;
+    private final UpstreamSimulatorConfig config;
+    private final Random random;
+    private final double[] usdRates;
+    private final Map<String, String> names;
+
+    /**
+     * Creates a new simulator with its rates at their seed values.
+     *
+     * @param currencyRegistry registry of the currencies the simulator quotes
+     * @param config           latency, fault and drift settings
+     */
+    public UpstreamSimulator(CurrencyRegistry currencyRegistry, UpstreamSimulatorConfig config) {
+        this.currencyRegistry = currencyRegistry;
+        this.config = config;
+        this.random = new Random(config.getSeed());
+        this.usdRates = new double[currencyRegistry.size()];
+        this.names = new LinkedHashMap<>();
+
+        Properties seedRates = loadSeedRates();
+        for (int ordinal = 0; ordinal < usdRates.length; ordinal++) {
+            String code = currencyRegistry.code(ordinal);
+            String seedRate = seedRates.getProperty(code);
+            usdRates[ordinal] = seedRate != null
+                    ? Double.parseDouble(seedRate)
+                    : Math.pow(10, new Random(config.getSeed() ^ code.hashCode()).nextDouble(-1, 4));
+            names.put(code, name(code));
+        }
+        log.info("Upstream simulator quoting {} currencies, {} ms median latency, {} error rate", usdRates.length,
+                config.getLatency().getMedianMs(), config.getErrorRate());
+    }
+
+    /**
+     * Draws the latency of the next call from the configured distribution.
+     *
+     * @return the latency in milliseconds, at most the configured maximum
+     */
+    public synchronized long nextLatencyMs() {
+        Latency latency = config.getLatency();
+        double millis = switch (latency.getDistribution()) {
+            case FIXED -> latency.getMedianMs();
+            case UNIFORM -> latency.getMinMs() + random.nextDouble() * (latency.getMaxMs() - latency.getMinMs());
+            case LOG_NORMAL -> latency.getMedianMs() * Math.exp(latency.getSigma() * random.nextGaussian());
+        };
+        return Math.min(Math.round(millis), latency.getMaxMs());
+    }
+
+    /**
+     * Draws the failure injected into the next call.
+     *
+     * @return the fault, {@link Fault#NONE} for a normal answer
+     */
+    public synchronized Fault nextFault() {
+        double draw = random.nextDouble();
+        if (draw < config.getErrorRate()) {
+            return Fault.SERVER_ERROR;
+        }
+        return draw < config.getErrorRate() + config.getApiErrorRate() ? Fault.API_ERROR : Fault.NONE;
+    }
+
+    /**
+     * Moves every rate by one drift step and returns the {@code /live} payload of a source currency.
+     *
+     * @param source the source currency code
+     * @return the payload quoting every supported currency against the source, or an unsuccessful payload if the
+     * source is not supported
+     */
+    public synchronized Map<String, Object> live(String source) {
+        int sourceOrdinal = currencyRegistry.ordinal(source);
+        if (sourceOrdinal < 0) {
+            return error(201, "invalid_source_currency", "You have supplied an invalid Source Currency.");
+        }
+        drift();
+
+        Map<String, BigDecimal> quotes = new LinkedHashMap<>();
+        for (int ordinal = 0; ordinal < usdRates.length; ordinal++) {
+            double rate = usdRates[ordinal] / usdRates[sourceOrdinal];
+            quotes.put(source + currencyRegistry.code(ordinal), new BigDecimal(rate, QUOTE_PRECISION));
+        }
+        Map<String, Object> payload = success();
+        payload.put("timestamp", Instant.now().getEpochSecond());
+        payload.put("source", source);
+        payload.put("quotes", quotes);
+        return payload;
+    }
+
+    /**
+     * Returns the {@code /list} payload naming every supported currency.
+     *
+     * @return the payload
+     */
+    public Map<String, Object> list() {
+        Map<String, Object> payload = success();
+        payload.put("currencies", names);
+        return payload;
+    }
+
+    /**
+     * Returns an unsuccessful payload.
+     *
+     * @param code the error code
+     * @param type the error type
+     * @param info the error description
+     * @return the payload
+     */
+    public Map<String, Object> error(int code, String type, String info) {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("code", code);
+        error.put("type", type);
+        error.put("info", info);
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("success", false);
+        payload.put("error", error);
+        return payload;
+    }
+
+    private void drift() {
+        double drift = config.getDrift();
+        if (drift <= 0) {
+            return;
+        }
+        int usd = currencyRegistry.ordinal("USD");
+        for (int ordinal = 0; ordinal < usdRates.length; ordinal++) {
+            if (ordinal != usd) {
+                usdRates[ordinal] *= Math.exp(drift * random.nextGaussian());
+            }
+        }
+    }
+
+    private static Map<String, Object> success() {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("success", true);
+        payload.put("terms", TERMS);
+        payload.put("privacy", PRIVACY);
+        return payload;
+    }
+
+    private static String name(String code) {
+        try {
+            return Currency.getInstance(code).getDisplayName(Locale.ENGLISH);
+        } catch (IllegalArgumentException e) {
+            return code;
+        }
+    }
+
+    private static Properties loadSeedRates() {
+        Properties rates = new Properties();
+        try (InputStream in = UpstreamSimulator.class.getClassLoader().getResourceAsStream(RATES_RESOURCE)) {
+            if (in != null) {
+                rates.load(in);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + RATES_RESOURCE, e);
+        }
+        return rates;
+    }
+}
@@ -0,0 +1,66 @@
+package com.exchange.simulator;
+
+import com.exchange.simulator.UpstreamSimulator.Fault;
+import io.swagger.v3.oas.annotations.Hidden;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Serves the {@link UpstreamSimulator} under {@code /simulator} with the {@code simulator} profile, mimicking the
+ * {@code /live} and {@code /list} endpoints of exchangerate.host, including their unsuccessful payloads for a missing
+ * access key or an unsupported source currency.
+ *
+ * <p>Responses are completed asynchronously once their simulated latency has elapsed, so slow responses hold no
+ * request thread and the simulator can stand in for a slow upstream under load.
+ */
+@Hidden
+@RestController
+@Profile("simulator")
+@RequiredArgsConstructor
+@RequestMapping("/simulator")
+public class UpstreamSimulatorController {
+    private final UpstreamSimulator simulator;
+
+    @GetMapping("/live")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> live(
+            @RequestParam(defaultValue = "USD") String source,
+            @RequestParam(name = "access_key", required = false) String accessKey) {
+        return respond(accessKey, () -> simulator.live(source));
+    }
+
+    @GetMapping("/list")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> list(
+            @RequestParam(name = "access_key", required = false) String accessKey) {
+        return respond(accessKey, simulator::list);
+    }
+
+    private CompletableFuture<ResponseEntity<Map<String, Object>>> respond(String accessKey,
+                                                                           Supplier<Map<String, Object>> payload) {
+        long latencyMs = simulator.nextLatencyMs();
+        Fault fault = simulator.nextFault();
+        return CompletableFuture.supplyAsync(() -> {
+            if (accessKey == null || accessKey.isBlank()) {
+                return ResponseEntity.ok(simulator.error(101, "missing_access_key",
+                        "You have not supplied an API Access Key."));
+            }
+            return switch (fault) {
+                case SERVER_ERROR -> ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(simulator.error(500, "internal_error", "Simulated upstream failure."));
+                case API_ERROR -> ResponseEntity.ok(simulator.error(104, "usage_limit_reached",
+                        "Your monthly usage limit has been reached."));
+                case NONE -> ResponseEntity.ok(payload.get());
+            };
+        }, CompletableFuture.delayedExecutor(latencyMs, TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,151 @@
+package com.exchange.store;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks how often the rates of every base currency are requested, as an exponentially decaying request count.
+ *
+ * <p>Requests are counted in a {@link LongAdder} per {@link CurrencyRegistry} ordinal, so recording a request on a
+ * hot base is a contention-free increment. Once per refresh cycle the counts are folded into the demand scores with
+ * {@link #decay()}: every score is multiplied by {@code exchange.rate.preload.demand-decay} and the requests counted
+ * since the previous cycle are added. A score therefore approximates the requests per cycle weighted towards recent
+ * cycles, and a base that stops being requested fades out after a few cycles until its score is dropped.
+ *
+ * <p>Open rate update subscriptions are standing demand: every subscription to a base counts as one request in each
+ * cycle it stays open, so a base only watched over a stream keeps its score instead of fading out.
+ */
+@Component
+public class CurrencyDemandTracker {
+    private static final double NEGLIGIBLE_SCORE = 0.01;
+
+    private final CurrencyRegistry registry;
+    private final double decayFactor;
+    private final LongAdder[] requests;
+    private final AtomicIntegerArray subscriptions;
+    private final double[] scores;
+
+    /**
+     * Creates a new tracker for every currency of the registry.
+     *
+     * @param registry    the currency registry providing ordinals
+     * @param decayFactor the factor scores are multiplied by every cycle, between 0 (only the last cycle counts)
+     *                    and 1 (never forget)
+     */
+    public CurrencyDemandTracker(CurrencyRegistry registry,
+                                 @Value("${exchange.rate.preload.demand-decay:0.5}") double decayFactor) {
+        if (decayFactor < 0 || decayFactor >= 1) {
+            throw new IllegalStateException("Demand decay factor must be in [0, 1) but was " + decayFactor);
+        }
+        this.registry = registry;
+        this.decayFactor = decayFactor;
+        this.requests = new LongAdder[registry.size()];
+        this.subscriptions = new AtomicIntegerArray(registry.size());
+        this.scores = new double[registry.size()];
+        for (int ordinal = 0; ordinal < requests.length; ordinal++) {
+            requests[ordinal] = new LongAdder();
+        }
+    }
+
+    /**
+     * Counts a request for the rates of a base currency. Unsupported currencies are ignored.
+     *
+     * @param currency the base currency code
+     */
+    public void record(String currency) {
+        int ordinal = registry.ordinal(currency);
+        if (ordinal >= 0) {
+            requests[ordinal].increment();
+        }
+    }
+
+    /**
+     * Counts an open subscription to the rate updates of a base currency until it is
+     * {@linkplain #unsubscribe(String) closed}. Unsupported currencies are ignored.
+     *
+     * @param currency the base currency code
+     */
+    public void subscribe(String currency) {
+        int ordinal = registry.ordinal(currency);
+        if (ordinal >= 0) {
+            subscriptions.incrementAndGet(ordinal);
+        }
+    }
+
+    /**
+     * Stops counting a subscription opened with {@link #subscribe(String)}.
+     *
+     * @param currency the base currency code
+     */
+    public void unsubscribe(String currency) {
+        int ordinal = registry.ordinal(currency);
+        if (ordinal >= 0) {
+            subscriptions.decrementAndGet(ordinal);
+        }
+    }
+
+    /**
+     * @param currency the base currency code
+     * @return whether the rate updates of the base currency have an open subscription
+     */
+    public boolean subscribed(String currency) {
+        int ordinal = registry.ordinal(currency);
+        return ordinal >= 0 && subscriptions.get(ordinal) > 0;
+    }
+
+    /**
+     * Ends a cycle: decays every score, adds the requests counted since the previous cycle and the open subscriptions,
+     * and resets the counts.
+     *
+     * @return the base currencies with a positive score, highest first
+     */
+    public synchronized List<CurrencyDemand> decay() {
+        for (int ordinal = 0; ordinal < scores.length; ordinal++) {
+            double score = scores[ordinal] * decayFactor + requests[ordinal].sumThenReset()
+                    + subscriptions.get(ordinal);
+            scores[ordinal] = score < NEGLIGIBLE_SCORE ? 0 : score;
+        }
+        return rank(scores);
+    }
+
+    /**
+     * Returns the scores the next {@link #decay()} would produce from the requests counted so far, without ending
+     * the cycle.
+     *
+     * @return the base currencies with a positive score, highest first
+     */
+    public synchronized List<CurrencyDemand> snapshot() {
+        double[] projected = new double[scores.length];
+        for (int ordinal = 0; ordinal < scores.length; ordinal++) {
+            projected[ordinal] = scores[ordinal] * decayFactor + requests[ordinal].sum() + subscriptions.get(ordinal);
+        }
+        return rank(projected);
+    }
+
+    private List<CurrencyDemand> rank(double[] values) {
+        List<CurrencyDemand> ranking = new ArrayList<>();
+        for (int ordinal = 0; ordinal < values.length; ordinal++) {
+            if (values[ordinal] > 0) {
+                ranking.add(new CurrencyDemand(registry.code(ordinal), values[ordinal]));
+            }
+        }
+        ranking.sort(Comparator.comparingDouble(CurrencyDemand::score).reversed()
+                .thenComparing(CurrencyDemand::currency));
+        return ranking;
+    }
+
+    /**
+     * The demand score of a base currency.
+     *
+     * @param currency the base currency code
+     * @param score    the decayed number of requests per cycle
+     */
+    public record CurrencyDemand(String currency, double score) {
+    }
+}
@@ -0,0 +1,114 @@
+package com.exchange.store;
+
+import com.exchange.config.CurrencyConfig;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Registry assigning a stable ordinal to every supported currency code.
+ * Ordinals follow the alphabetical order of the codes and index the dense rows of {@link RateTable}.
+ *
+ * <p>Three-letter codes are resolved through a direct-indexed table of all {@code 26^3} letter combinations,
+ * so an ordinal lookup is a few character reads and one array access, with no hashing.
+ */
+@Component
+public class CurrencyRegistry {
+    private static final int LETTERS = 26;
+    private static final int CODE_LENGTH = 3;
+
+    private final String[] codes;
+    private final short[] ordinalsByCode;
+
+    /**
+     * Creates a new registry from the supported currencies configuration.
+     *
+     * @param currencyConfig configuration containing the set of supported currency codes
+     */
+    public CurrencyRegistry(CurrencyConfig currencyConfig) {
+        this.codes = currencyConfig.getSupported().stream()
+                .sorted()
+                .toArray(String[]::new);
+        this.ordinalsByCode = new short[LETTERS * LETTERS * LETTERS];
+        Arrays.fill(ordinalsByCode, (short) -1);
+
+        for (int ordinal = 0; ordinal < codes.length; ordinal++) {
+            int index = codeIndex(codes[ordinal]);
+            if (index < 0) {
+                throw new IllegalArgumentException("Currency code '" + codes[ordinal] + "' is not three letters A-Z");
+            }
+            ordinalsByCode[index] = (short) ordinal;
+        }
+    }
+
+    /**
+     * Returns the ordinal of a currency code.
+     *
+     * @param code the currency code
+     * @return the ordinal, or -1 if the code is not supported
+     */
+    public int ordinal(String code) {
+        int index = codeIndex(code);
+        return index < 0 ? -1 : ordinalsByCode[index];
+    }
+
+    /**
+     * Returns the ordinal of the currency code at an offset of a character sequence, such as the target code of a
+     * concatenated {@code base + target} quote key, without extracting it.
+     *
+     * @param chars  the characters containing the code
+     * @param offset the index of the first letter of the code
+     * @return the ordinal, or -1 if the sequence does not end with a supported code at the offset
+     */
+    public int ordinal(CharSequence chars, int offset) {
+        if (chars == null || offset < 0 || chars.length() - offset != CODE_LENGTH) {
+            return -1;
+        }
+        int index = codeIndex(chars, offset);
+        return index < 0 ? -1 : ordinalsByCode[index];
+    }
+
+    /**
+     * Returns the currency code of an ordinal.
+     *
+     * @param ordinal the ordinal
+     * @return the currency code
+     */
+    public String code(int ordinal) {
+        return codes[ordinal];
+    }
+
+    /**
+     * @return the number of supported currencies, i.e. the length of every rate row
+     */
+    public int size() {
+        return codes.length;
+    }
+
+    /**
+     * @return all supported currency codes in ordinal order
+     */
+    public List<String> codes() {
+        return List.of(codes);
+    }
+
+    private static int codeIndex(String code) {
+        if (code == null || code.length() != CODE_LENGTH) {
+            return -1;
+        }
+        return codeIndex(code, 0);
+    }
+
+    private static int codeIndex(CharSequence chars, int offset) {
+        int index = 0;
+        for (int i = offset; i < offset + CODE_LENGTH; i++) {
+            int letter = chars.charAt(i) - 'A';
+            if (letter < 0 || letter >= LETTERS) {
+                return -1;
+            }
+            index = index * LETTERS + letter;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,123 @@
+package com.exchange.store;
+
+import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.dto.RatesDeltaDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recently published rate tables per base currency, used to answer which quotes changed since a snapshot version.
+ *
+ * <p>Every table published by the {@link RateStore} is appended to a small ring of its base currency, which keeps the
+ * last {@code exchange.rate.delta.history-size} tables and overwrites the oldest. A delta against a version still in
+ * the ring holds only the quotes that changed, were added or were removed. A delta against a version that is unknown,
+ * because it fell out of the ring, predates a restart or belongs to another base, is a full resync holding the whole
+ * current table.
+ */
+@Slf4j
+@Component
+public class RateHistory {
+    private final int historySize;
+    private final Map<String, Ring> rings = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new history recording every table published by the store.
+     *
+     * @param rateStore   the store whose published tables are recorded
+     * @param historySize the number of tables kept per base currency
+     */
+    public RateHistory(RateStore rateStore, @Value("${exchange.rate.delta.history-size:8}") int historySize) {
+        if (historySize < 1) {
+            throw new IllegalStateException("Rate history size must be positive but was " + historySize);
+        }
+        this.historySize = historySize;
+        rateStore.addPublishListener(this::record);
+    }
+
+    /**
+     * Records a published table in the ring of its base currency.
+     *
+     * @param rates the published table, carrying its snapshot version
+     */
+    void record(AllExchangeRatesDto rates) {
+        rings.computeIfAbsent(rates.getSourceCurrency(), base -> new Ring(historySize)).add(rates);
+    }
+
+    /**
+     * Returns the quotes of the current table that differ from the table published in a previous snapshot version.
+     *
+     * @param current      the current table of the base currency, carrying its snapshot version
+     * @param sinceVersion the snapshot version of the table the client holds
+     * @return the changed and removed quotes, or the full table if the since version is not in the history
+     */
+    public RatesDeltaDto delta(AllExchangeRatesDto current, long sinceVersion) {
+        long currentVersion = current.getSnapshotVersion();
+        RatesDeltaDto.RatesDeltaDtoBuilder delta = RatesDeltaDto.builder()
+                .sourceCurrency(current.getSourceCurrency())
+                .sinceVersion(sinceVersion)
+                .snapshotVersion(currentVersion)
+                .stale(current.isStale())
+                .timestamp(current.getTimestamp());
+        if (sinceVersion == currentVersion) {
+            return delta.changed(Map.of()).removed(List.of()).build();
+        }
+
+        Ring ring = rings.get(current.getSourceCurrency());
+        AllExchangeRatesDto since = sinceVersion < currentVersion && ring != null ? ring.find(sinceVersion) : null;
+        if (since == null) {
+            log.debug("Version {} of {} is not in the rate history, sending a full resync", sinceVersion,
+                    current.getSourceCurrency());
+            return delta.fullResync(true).changed(current.getRates()).removed(List.of()).build();
+        }
+
+        Map<String, BigDecimal> previous = since.getRates();
+        Map<String, BigDecimal> changed = new HashMap<>();
+        for (Map.Entry<String, BigDecimal> quote : current.getRates().entrySet()) {
+            BigDecimal previousRate = previous.get(quote.getKey());
+            if (previousRate == null || previousRate.compareTo(quote.getValue()) != 0) {
+                changed.put(quote.getKey(), quote.getValue());
+            }
+        }
+        List<String> removed = new ArrayList<>();
+        for (String key : previous.keySet()) {
+            if (!current.getRates().containsKey(key)) {
+                removed.add(key);
+            }
+        }
+        return delta.changed(changed).removed(removed).build();
+    }
+
+    /**
+     * Fixed-size ring of the last tables published for one base currency, oldest overwritten first.
+     */
+    private static final class Ring {
+        private final AllExchangeRatesDto[] tables;
+        private int next;
+
+        Ring(int size) {
+            this.tables = new AllExchangeRatesDto[size];
+        }
+
+        synchronized void add(AllExchangeRatesDto rates) {
+            tables[next] = rates;
+            next = (next + 1) % tables.length;
+        }
+
+        synchronized AllExchangeRatesDto find(long snapshotVersion) {
+            for (AllExchangeRatesDto table : tables) {
+                if (table != null && table.getSnapshotVersion() == snapshotVersion) {
+                    return table;
+                }
+            }
+            return null;
+        }
+    }
+}
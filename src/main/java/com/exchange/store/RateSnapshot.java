@@ -0,0 +1,140 @@
+package com.exchange.store;
+
+import com.exchange.dto.AllExchangeRatesDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.ToLongFunction;
+
+/**
+ * Immutable generation of all stored rate tables, indexed by the base currency's {@link CurrencyRegistry} ordinal.
+ *
+ * <p>A snapshot is never modified. Publishing a table copies the index with that row replaced and increments the
+ * version, so a reader holding a snapshot sees one consistent generation of every base no matter how many
+ * refreshes are published meanwhile. Every table carries the version of the snapshot it was published in.
+ */
+public final class RateSnapshot {
+    private final CurrencyRegistry registry;
+    private final long version;
+    private final AllExchangeRatesDto[] tables;
+    private final long[] publishedAtNanos;
+
+    private RateSnapshot(CurrencyRegistry registry, long version, AllExchangeRatesDto[] tables,
+                         long[] publishedAtNanos) {
+        this.registry = registry;
+        this.version = version;
+        this.tables = tables;
+        this.publishedAtNanos = publishedAtNanos;
+    }
+
+    /**
+     * Creates the initial snapshot, version 0, holding no tables.
+     *
+     * @param registry the currency registry providing ordinals
+     * @return the empty snapshot
+     */
+    public static RateSnapshot empty(CurrencyRegistry registry) {
+        return new RateSnapshot(registry, 0, new AllExchangeRatesDto[registry.size()], new long[registry.size()]);
+    }
+
+    /**
+     * Recreates a snapshot from previously published tables, keeping the snapshot version of each table.
+     * The version of the recreated snapshot is the highest table version, and tables of currencies that are no
+     * longer supported are dropped.
+     *
+     * @param registry         the currency registry providing ordinals
+     * @param tables           the previously published tables
+     * @param publishedAtNanos the publication time of a table on the store's nano clock
+     * @return the recreated snapshot
+     */
+    static RateSnapshot restore(CurrencyRegistry registry, List<AllExchangeRatesDto> tables,
+                                ToLongFunction<AllExchangeRatesDto> publishedAtNanos) {
+        long version = 0;
+        AllExchangeRatesDto[] restoredTables = new AllExchangeRatesDto[registry.size()];
+        long[] restoredPublishedAtNanos = new long[registry.size()];
+        for (AllExchangeRatesDto table : tables) {
+            int ordinal = registry.ordinal(table.getSourceCurrency());
+            if (ordinal >= 0) {
+                restoredTables[ordinal] = table;
+                restoredPublishedAtNanos[ordinal] = publishedAtNanos.applyAsLong(table);
+                version = Math.max(version, table.getSnapshotVersion());
+            }
+        }
+        return new RateSnapshot(registry, version, restoredTables, restoredPublishedAtNanos);
+    }
+
+    /**
+     * Creates the next snapshot, holding the given table in place of the previous table of its base currency.
+     *
+     * @param rates            the table to publish, keyed by its source currency
+     * @param publishedAtNanos the publication time on the store's nano clock
+     * @return the next snapshot, whose version is one higher than this one
+     * @throws IllegalArgumentException if the base currency is not in the registry
+     */
+    RateSnapshot with(AllExchangeRatesDto rates, long publishedAtNanos) {
+        int ordinal = registry.ordinal(rates.getSourceCurrency());
+        if (ordinal < 0) {
+            throw new IllegalArgumentException("Currency '" + rates.getSourceCurrency() + "' is not supported");
+        }
+
+        long nextVersion = version + 1;
+        AllExchangeRatesDto[] nextTables = Arrays.copyOf(tables, tables.length);
+        long[] nextPublishedAtNanos = Arrays.copyOf(this.publishedAtNanos, this.publishedAtNanos.length);
+        nextTables[ordinal] = rates.toBuilder().snapshotVersion(nextVersion).build();
+        nextPublishedAtNanos[ordinal] = publishedAtNanos;
+        return new RateSnapshot(registry, nextVersion, nextTables, nextPublishedAtNanos);
+    }
+
+    /**
+     * @return the version of this snapshot, incremented with every published table
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Returns the table of a base currency in this snapshot, regardless of its age.
+     *
+     * @param baseCurrency the base currency code
+     * @return the table, or empty if none was published for the base
+     */
+    public Optional<AllExchangeRatesDto> rates(String baseCurrency) {
+        return Optional.ofNullable(table(registry.ordinal(baseCurrency)));
+    }
+
+    /**
+     * @return the tables of this snapshot in base currency ordinal order
+     */
+    public List<AllExchangeRatesDto> tables() {
+        List<AllExchangeRatesDto> present = new ArrayList<>();
+        for (AllExchangeRatesDto table : tables) {
+            if (table != null) {
+                present.add(table);
+            }
+        }
+        return present;
+    }
+
+    /**
+     * @return the number of base currencies holding a table
+     */
+    public int tableCount() {
+        int count = 0;
+        for (AllExchangeRatesDto table : tables) {
+            if (table != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    AllExchangeRatesDto table(int ordinal) {
+        return ordinal >= 0 ? tables[ordinal] : null;
+    }
+
+    long publishedAtNanos(int ordinal) {
+        return publishedAtNanos[ordinal];
+    }
+}
@@ -0,0 +1,204 @@
+package com.exchange.store;
+
+import com.exchange.dto.AllExchangeRatesDto;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary file holding the tables of a {@link RateSnapshot}, used to warm the store on startup.
+ *
+ * <p>The file starts with a header of the magic number {@code XRSN}, the format version, the body length and the
+ * CRC32 of the body. The body holds the number of tables followed by every table as its three-letter base code,
+ * snapshot version, timestamp and quote count, and every quote as its three-letter target code, unscaled value and
+ * scale, all big-endian. Currency codes rather than ordinals are stored, so a file stays readable after the set of
+ * supported currencies changes.
+ *
+ * <p>Files are written to a temporary sibling and atomically moved into place, so a reader never sees a partially
+ * written file, and read through a memory mapping.
+ */
+public final class RateSnapshotFile {
+    static final int MAGIC = 0x5852534E;
+    static final short FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = Integer.BYTES + Short.BYTES + Integer.BYTES + Integer.BYTES;
+    private static final int CODE_BYTES = 3;
+    private static final int TABLE_HEADER_BYTES = CODE_BYTES + Long.BYTES + Long.BYTES + Integer.BYTES + Short.BYTES;
+    private static final int QUOTE_BYTES = CODE_BYTES + Long.BYTES + Byte.BYTES;
+
+    private final Path path;
+    private final CurrencyRegistry registry;
+
+    /**
+     * Creates a new snapshot file.
+     *
+     * @param path     the location of the file
+     * @param registry the currency registry resolving the stored currency codes
+     */
+    public RateSnapshotFile(Path path, CurrencyRegistry registry) {
+        this.path = path;
+        this.registry = registry;
+    }
+
+    /**
+     * @return the location of the file
+     */
+    public Path path() {
+        return path;
+    }
+
+    /**
+     * @return whether the file exists
+     */
+    public boolean exists() {
+        return Files.isRegularFile(path);
+    }
+
+    /**
+     * Writes the tables of a snapshot, atomically replacing any previous file.
+     *
+     * @param snapshot the snapshot to persist
+     * @return the number of bytes written
+     * @throws IOException if the file cannot be written
+     */
+    public int write(RateSnapshot snapshot) throws IOException {
+        List<RateTable> tables = new ArrayList<>();
+        List<Long> versions = new ArrayList<>();
+        int bodyBytes = Integer.BYTES;
+        for (AllExchangeRatesDto rates : snapshot.tables()) {
+            RateTable table = rates.getTable() != null
+                    ? rates.getTable()
+                    : RateTable.of(registry, rates.getSourceCurrency(), rates.getRates(), rates.getTimestamp());
+            tables.add(table);
+            versions.add(rates.getSnapshotVersion());
+            bodyBytes += TABLE_HEADER_BYTES + table.quotedCount() * QUOTE_BYTES;
+        }
+
+        ByteBuffer body = ByteBuffer.allocate(bodyBytes);
+        body.putInt(tables.size());
+        for (int i = 0; i < tables.size(); i++) {
+            RateTable table = tables.get(i);
+            putCode(body, table.baseCurrency());
+            body.putLong(versions.get(i));
+            body.putLong(table.timestamp().getEpochSecond());
+            body.putInt(table.timestamp().getNano());
+            body.putShort((short) table.quotedCount());
+            for (int target = 0; target < registry.size(); target++) {
+                if (table.contains(target)) {
+                    putCode(body, registry.code(target));
+                    body.putLong(table.unscaledRate(target));
+                    body.put((byte) table.scale(target));
+                }
+            }
+        }
+        body.flip();
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC);
+        header.putShort(FORMAT_VERSION);
+        header.putInt(bodyBytes);
+        header.putInt(checksum(body));
+        header.flip();
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(new ByteBuffer[]{header, body});
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return HEADER_BYTES + bodyBytes;
+    }
+
+    /**
+     * Reads the persisted tables. Tables and quotes of currencies that are no longer supported are skipped.
+     *
+     * @return the tables, each carrying the snapshot version it was published in
+     * @throws IOException if the file cannot be read, is corrupt or has an unsupported format version
+     */
+    public List<AllExchangeRatesDto> read() throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a rate snapshot file: " + path);
+        }
+        short formatVersion = buffer.getShort();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IOException("Unsupported rate snapshot format version " + formatVersion + ": " + path);
+        }
+        int bodyBytes = buffer.getInt();
+        int expectedChecksum = buffer.getInt();
+        if (buffer.remaining() != bodyBytes) {
+            throw new IOException("Truncated rate snapshot file: " + path);
+        }
+        if (checksum(buffer.slice()) != expectedChecksum) {
+            throw new IOException("Rate snapshot checksum mismatch: " + path);
+        }
+
+        int tableCount = buffer.getInt();
+        List<AllExchangeRatesDto> tables = new ArrayList<>(tableCount);
+        for (int i = 0; i < tableCount; i++) {
+            String baseCurrency = getCode(buffer);
+            long snapshotVersion = buffer.getLong();
+            Instant timestamp = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+            int quoteCount = Short.toUnsignedInt(buffer.getShort());
+
+            Map<String, BigDecimal> quotes = new HashMap<>();
+            for (int quote = 0; quote < quoteCount; quote++) {
+                String targetCurrency = getCode(buffer);
+                long unscaledRate = buffer.getLong();
+                byte scale = buffer.get();
+                if (registry.ordinal(targetCurrency) >= 0) {
+                    quotes.put(baseCurrency + targetCurrency, BigDecimal.valueOf(unscaledRate, scale));
+                }
+            }
+
+            if (registry.ordinal(baseCurrency) >= 0) {
+                tables.add(AllExchangeRatesDto.builder()
+                        .sourceCurrency(baseCurrency)
+                        .rates(quotes)
+                        .snapshotVersion(snapshotVersion)
+                        .timestamp(timestamp)
+                        .table(RateTable.of(registry, baseCurrency, quotes, timestamp))
+                        .build());
+            }
+        }
+        return tables;
+    }
+
+    private static void putCode(ByteBuffer buffer, String code) {
+        buffer.put(code.getBytes(StandardCharsets.US_ASCII), 0, CODE_BYTES);
+    }
+
+    private static String getCode(ByteBuffer buffer) {
+        byte[] code = new byte[CODE_BYTES];
+        buffer.get(code);
+        return new String(code, StandardCharsets.US_ASCII);
+    }
+
+    private static int checksum(ByteBuffer body) {
+        CRC32 crc = new CRC32();
+        crc.update(body.duplicate());
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,91 @@
+package com.exchange.store;
+
+import com.exchange.dto.AllExchangeRatesDto;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Persists the rate snapshot to {@code exchange.rate.snapshot.path} and restores it on startup.
+ *
+ * <p>The snapshot is restored once all singletons are created, before the context is refreshed and the
+ * {@link com.exchange.preload.ExchangeRatePreloader} runs, so the first requests after a restart are answered from
+ * the persisted tables (fresh, stale or expired according to their age) while fresh tables are fetched. Afterwards
+ * the snapshot is written every {@code exchange.rate.snapshot.write-interval-ms} if a new version was published,
+ * and once more on shutdown. An empty path disables persistence.
+ */
+@Slf4j
+@Component
+public class RateSnapshotPersister implements SmartInitializingSingleton {
+    private final RateStore rateStore;
+    private final RateSnapshotFile snapshotFile;
+    private long persistedVersion;
+
+    /**
+     * Creates a new persister.
+     *
+     * @param rateStore        the store whose snapshot is persisted
+     * @param currencyRegistry registry resolving the persisted currency codes
+     * @param path             location of the snapshot file, empty to disable persistence
+     */
+    public RateSnapshotPersister(RateStore rateStore, CurrencyRegistry currencyRegistry,
+                                 @Value("${exchange.rate.snapshot.path:}") String path) {
+        this.rateStore = rateStore;
+        this.snapshotFile = path.isBlank() ? null : new RateSnapshotFile(Path.of(path), currencyRegistry);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        restore();
+    }
+
+    /**
+     * Restores the persisted snapshot into the store. A missing or unreadable file is logged and ignored.
+     */
+    public synchronized void restore() {
+        if (snapshotFile == null || !snapshotFile.exists()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            List<AllExchangeRatesDto> tables = snapshotFile.read();
+            if (rateStore.restore(tables)) {
+                persistedVersion = rateStore.snapshot().version();
+                log.info("Restored {} rate tables (snapshot version {}) from {} in {} ms", tables.size(),
+                        persistedVersion, snapshotFile.path(), (System.nanoTime() - start) / 1_000_000);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to restore rate snapshot from {}: {}", snapshotFile.path(), e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the current snapshot if a version newer than the last written one was published.
+     */
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${exchange.rate.snapshot.write-interval-ms:10000}",
+            initialDelayString = "${exchange.rate.snapshot.write-interval-ms:10000}")
+    public synchronized void persist() {
+        RateSnapshot snapshot = rateStore.snapshot();
+        if (snapshotFile == null || snapshot.version() == persistedVersion) {
+            return;
+        }
+
+        try {
+            int bytes = snapshotFile.write(snapshot);
+            persistedVersion = snapshot.version();
+            log.debug("Persisted {} rate tables (snapshot version {}, {} bytes) to {}", snapshot.tableCount(),
+                    snapshot.version(), bytes, snapshotFile.path());
+        } catch (IOException e) {
+            log.warn("Failed to persist rate snapshot to {}: {}", snapshotFile.path(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package com.exchange.store;
+
+import com.exchange.client.UpstreamCallGovernor;
+import com.exchange.client.UpstreamCircuitBreaker;
+import com.exchange.client.UpstreamCallGovernor.Priority;
+import com.exchange.config.RateStoreConfig;
+import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.exception.ExchangeRateException;
+import com.exchange.exception.UpstreamCircuitOpenException;
+import com.exchange.exception.UpstreamQuotaExceededException;
+import com.exchange.service.ExchangeRateFetcher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Unified store for exchange rate tables keyed by base currency.
+ * Both single-pair and full-table lookups are answered from the base-currency table, so one upstream
+ * fetch serves every pair quoted against that base. Hits and misses are exported as the
+ * {@code exchange.rate.store.lookups} metric, where every hit is an upstream call saved.
+ *
+ * <p>Tables are held in an immutable {@link RateSnapshot} behind an atomic reference. Every fetched table is
+ * published by swapping in the next snapshot version, so reads are a volatile read and two array accesses with no
+ * locks or cache bookkeeping, and every returned table carries the snapshot version it was published in. The
+ * current version is exported as the {@code exchange.rate.snapshot.version} gauge.
+ *
+ * <p>Tables expire and refresh ahead according to the horizons of {@link RateStoreConfig}. A read of a table older
+ * than its refresh horizon returns the present table immediately and reloads it in the background, so only tables
+ * that are not read before they expire cost a synchronous upstream call.
+ *
+ * <p>Every upstream fetch, whether a miss, a refresh-ahead reload or a reload racing an expired read, goes through
+ * a {@link SingleFlight} keyed by base currency, so concurrent fetches for the same base share one upstream call.
+ * Since single pairs are answered from the base table, an in-flight {@code getAllRates("USD")} also satisfies a
+ * waiting {@code getExchangeRate("USD", "EUR")}. Callers wait at most {@code exchange.rate.single-flight.max-wait-ms}
+ * for an in-flight fetch; coalesced waiters and timeouts are exported as {@code exchange.rate.fetch.calls} and
+ * {@code exchange.rate.fetch.wait.timeouts}.
+ *
+ * <p>Expired tables stay in the snapshot as a stale tier. Once a table has expired, a table no older than
+ * {@code exchange.rate.stale.max-age-seconds} is served immediately, flagged as stale, while the fetch revalidates
+ * it in the background. Upstream brownouts therefore degrade to stale responses instead of errors until the stale
+ * tier runs out.
+ *
+ * <p>Every upstream fetch is admitted by the {@link UpstreamCallGovernor}. Misses, refresh-ahead reloads and
+ * revalidations of stale tables take the priority of the read causing them, {@link Priority#ON_DEMAND} for client
+ * requests, so that only the preloader's {@link #refresh(String) refreshes} are {@link Priority#REFRESH} calls
+ * drawing on the reserve kept for them. Fetches go through the
+ * {@link UpstreamCircuitBreaker}, which fails them at once while the upstream is failing or slow. A miss rejected for
+ * lack of quota or by the open circuit is answered with the last known table of the base, however old, flagged as
+ * stale.
+ *
+ * <p>Components deriving data from a table, such as pre-serialized responses, can register a publish listener to
+ * rebuild it once per published table rather than once per read.
+ */
+@Slf4j
+@Component
+public class RateStore {
+    private final CurrencyRegistry currencyRegistry;
+    private final ExchangeRateFetcher fetcher;
+    private final UpstreamCallGovernor callGovernor;
+    private final UpstreamCircuitBreaker circuitBreaker;
+    private final AtomicReference<RateSnapshot> snapshot;
+    private final SingleFlight<String, AllExchangeRatesDto> fetches;
+    private final Executor loadExecutor;
+    private final LongSupplier nanoClock;
+    private final long expireAfterNanos;
+    private final long refreshAfterNanos;
+    private final Duration maxWait;
+    private final Duration maxStaleAge;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter waitTimeouts;
+    private final Counter staleServed;
+    private final List<Consumer<AllExchangeRatesDto>> publishListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a new store loading tables on virtual threads.
+     *
+     * @param storeConfig      expiry and refresh horizons of the tables
+     * @param currencyRegistry registry indexing the snapshot by base currency
+     * @param fetcher          fetcher loading tables from upstream
+     * @param callGovernor     governor admitting upstream fetches within the provider quota
+     * @param circuitBreaker   circuit breaker failing upstream fetches fast while the upstream is unhealthy
+     * @param meterRegistry    registry the store metrics are registered with
+     * @param maxWaitMs        maximum time a caller waits for an in-flight fetch
+     * @param maxStaleSeconds  maximum age of a table served from the stale tier, 0 disables it
+     */
+    @Autowired
+    public RateStore(RateStoreConfig storeConfig, CurrencyRegistry currencyRegistry, ExchangeRateFetcher fetcher,
+                     UpstreamCallGovernor callGovernor, UpstreamCircuitBreaker circuitBreaker,
+                     MeterRegistry meterRegistry,
+                     @Value("${exchange.rate.single-flight.max-wait-ms:5000}") long maxWaitMs,
+                     @Value("${exchange.rate.stale.max-age-seconds:300}") long maxStaleSeconds) {
+        this(storeConfig, currencyRegistry, fetcher, callGovernor, circuitBreaker, meterRegistry,
+                Duration.ofMillis(maxWaitMs), Duration.ofSeconds(maxStaleSeconds),
+                Executors.newVirtualThreadPerTaskExecutor(), System::nanoTime);
+    }
+
+    RateStore(RateStoreConfig storeConfig, CurrencyRegistry currencyRegistry, ExchangeRateFetcher fetcher,
+              UpstreamCallGovernor callGovernor, UpstreamCircuitBreaker circuitBreaker, MeterRegistry meterRegistry,
+              Duration maxWait, Duration maxStaleAge, Executor loadExecutor, LongSupplier nanoClock) {
+        Duration refreshAhead = storeConfig.refreshAhead();
+        this.currencyRegistry = currencyRegistry;
+        this.fetcher = fetcher;
+        this.callGovernor = callGovernor;
+        this.circuitBreaker = circuitBreaker;
+        this.snapshot = new AtomicReference<>(RateSnapshot.empty(currencyRegistry));
+        this.loadExecutor = loadExecutor;
+        this.nanoClock = nanoClock;
+        this.expireAfterNanos = storeConfig.expireAfter().toNanos();
+        this.refreshAfterNanos = refreshAhead.isZero() ? Long.MAX_VALUE : refreshAhead.toNanos();
+        this.maxWait = maxWait;
+        this.maxStaleAge = maxStaleAge;
+        this.hits = lookupCounter(meterRegistry, "hit");
+        this.misses = lookupCounter(meterRegistry, "miss");
+        this.waitTimeouts = Counter.builder("exchange.rate.fetch.wait.timeouts")
+                .description("Callers that gave up waiting for an in-flight upstream fetch")
+                .register(meterRegistry);
+        this.staleServed = Counter.builder("exchange.rate.store.stale.served")
+                .description("Rate tables served from the stale tier past their expiry")
+                .register(meterRegistry);
+        this.fetches = new SingleFlight<>(fetchCounter(meterRegistry, "leader"), fetchCounter(meterRegistry, "waiter"));
+        Gauge.builder("exchange.rate.snapshot.version", snapshot, current -> current.get().version())
+                .description("Version of the published rate snapshot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the rate table for a base currency, fetching it from upstream on a miss.
+     * Concurrent misses for the same base share one fetch. If a stale table within the maximum stale age is
+     * available, it is returned immediately while the fetch runs in the background.
+     *
+     * @param baseCurrency the base currency code
+     * @return the rate table, flagged as stale if served from the stale tier
+     * @throws ExchangeRateException if the table cannot be fetched or the fetch does not complete in time
+     */
+    public AllExchangeRatesDto get(String baseCurrency) {
+        return get(baseCurrency, Priority.ON_DEMAND);
+    }
+
+    /**
+     * Returns the rate table for a base currency, fetching it from upstream on a miss with the given priority.
+     *
+     * @param baseCurrency the base currency code
+     * @param priority     the priority of an upstream fetch on a miss, and of a background reload of a table past its
+     *                     refresh horizon or served from the stale tier
+     * @return the rate table, flagged as stale if served from the stale tier or instead of a rejected fetch
+     * @throws ExchangeRateException if the table cannot be fetched or the fetch does not complete in time
+     */
+    public AllExchangeRatesDto get(String baseCurrency, Priority priority) {
+        int ordinal = currencyRegistry.ordinal(baseCurrency);
+        RateSnapshot current = snapshot.get();
+        AllExchangeRatesDto rates = current.table(ordinal);
+        if (rates != null) {
+            long age = nanoClock.getAsLong() - current.publishedAtNanos(ordinal);
+            if (age < expireAfterNanos) {
+                hits.increment();
+                if (age >= refreshAfterNanos) {
+                    revalidate(baseCurrency, priority);
+                }
+                return rates;
+            }
+
+            Optional<AllExchangeRatesDto> staleRates = stale(rates);
+            if (staleRates.isPresent()) {
+                revalidate(baseCurrency, priority);
+                staleServed.increment();
+                log.debug("Serving stale rates for {} while they are revalidated", baseCurrency);
+                return staleRates.get();
+            }
+        }
+
+        misses.increment();
+        try {
+            return await(baseCurrency, fetch(baseCurrency, priority));
+        } catch (UpstreamQuotaExceededException | UpstreamCircuitOpenException e) {
+            if (rates == null) {
+                throw e;
+            }
+            staleServed.increment();
+            log.debug("Serving stale rates for {} from {}: {}", baseCurrency, rates.getTimestamp(), e.getMessage());
+            return rates.toBuilder().stale(true).build();
+        }
+    }
+
+    /**
+     * Fetches the rate table of a base currency from upstream as a {@link Priority#REFRESH} call, whatever the age of
+     * the present table, joining the fetch already in flight for the base if there is one.
+     *
+     * @param baseCurrency the base currency code
+     * @return the future of the fetch and whether this refresh started it
+     */
+    public Refresh refresh(String baseCurrency) {
+        SingleFlight.Flight<AllExchangeRatesDto> flight = fetches.join(baseCurrency,
+                fetchCall(Priority.REFRESH), loadExecutor);
+        return new Refresh(flight.result(), flight.leader());
+    }
+
+    /**
+     * Looks up an unexpired rate table without fetching it.
+     *
+     * @param baseCurrency the base currency code
+     * @return the table, or empty if it is not loaded or has expired
+     */
+    public Optional<AllExchangeRatesDto> find(String baseCurrency) {
+        int ordinal = currencyRegistry.ordinal(baseCurrency);
+        RateSnapshot current = snapshot.get();
+        AllExchangeRatesDto rates = current.table(ordinal);
+        if (rates == null || nanoClock.getAsLong() - current.publishedAtNanos(ordinal) >= expireAfterNanos) {
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(rates);
+    }
+
+    /**
+     * Returns how long the current table of a base currency stays fresh, without fetching it.
+     *
+     * @param baseCurrency the base currency code
+     * @return the remaining lifetime, zero if the table is not loaded or has expired
+     */
+    public Duration remainingLifetime(String baseCurrency) {
+        int ordinal = currencyRegistry.ordinal(baseCurrency);
+        RateSnapshot current = snapshot.get();
+        if (current.table(ordinal) == null) {
+            return Duration.ZERO;
+        }
+        long age = nanoClock.getAsLong() - current.publishedAtNanos(ordinal);
+        return Duration.ofNanos(Math.max(0, expireAfterNanos - age));
+    }
+
+    /**
+     * Publishes the rate table of a base currency, replacing any previous table.
+     *
+     * @param rates the rate table keyed by its source currency
+     * @return the published table, carrying its snapshot version
+     * @throws IllegalArgumentException if the base currency is not supported
+     */
+    public AllExchangeRatesDto put(AllExchangeRatesDto rates) {
+        log.debug("Storing {} rates for base currency {}", rates.getRates().size(), rates.getSourceCurrency());
+        long now = nanoClock.getAsLong();
+        RateSnapshot published = snapshot.updateAndGet(current -> current.with(rates, now));
+        AllExchangeRatesDto table = published.table(currencyRegistry.ordinal(rates.getSourceCurrency()));
+        for (Consumer<AllExchangeRatesDto> listener : publishListeners) {
+            try {
+                listener.accept(table);
+            } catch (RuntimeException e) {
+                log.warn("Publish listener failed for base currency {}: {}", table.getSourceCurrency(), e.getMessage());
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Registers a listener called with every table published by {@link #put}, on the publishing thread, after the
+     * table became visible to readers. Failures of a listener are logged and do not affect the publication.
+     *
+     * @param listener the listener
+     */
+    public void addPublishListener(Consumer<AllExchangeRatesDto> listener) {
+        publishListeners.add(listener);
+    }
+
+    /**
+     * Restores previously persisted tables as the initial snapshot, unless a table has been published already.
+     * Each table is aged by its timestamp, so a restored table is fresh, stale or expired exactly as if it had been
+     * published when it was fetched.
+     *
+     * @param tables the persisted tables, each carrying the snapshot version it was published in
+     * @return whether the tables were restored
+     */
+    public boolean restore(List<AllExchangeRatesDto> tables) {
+        RateSnapshot current = snapshot.get();
+        if (current.version() != 0) {
+            return false;
+        }
+        long now = nanoClock.getAsLong();
+        Instant wallNow = Instant.now();
+        RateSnapshot restored = RateSnapshot.restore(currencyRegistry, tables, table ->
+                now - Math.max(0, Duration.between(table.getTimestamp(), wallNow).toNanos()));
+        return snapshot.compareAndSet(current, restored);
+    }
+
+    /**
+     * Returns the current snapshot. Reading several tables from one snapshot gives a consistent view of them,
+     * regardless of tables published meanwhile.
+     *
+     * @return the current snapshot, including expired tables
+     */
+    public RateSnapshot snapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * @return the number of upstream fetches currently in flight
+     */
+    public int inFlightFetches() {
+        return fetches.inFlightCount();
+    }
+
+    private CompletableFuture<AllExchangeRatesDto> fetch(String baseCurrency, Priority priority) {
+        return fetches.execute(baseCurrency, fetchCall(priority), loadExecutor);
+    }
+
+    private Function<String, AllExchangeRatesDto> fetchCall(Priority priority) {
+        return base -> put(circuitBreaker.execute(base, () -> {
+            callGovernor.acquire(priority, base);
+            return fetcher.fetchAllRates(base);
+        }));
+    }
+
+    private void revalidate(String baseCurrency, Priority priority) {
+        if (!fetches.isInFlight(baseCurrency)) {
+            fetch(baseCurrency, priority);
+        }
+    }
+
+    private Optional<AllExchangeRatesDto> stale(AllExchangeRatesDto lastKnown) {
+        if (maxStaleAge.isZero()
+                || Duration.between(lastKnown.getTimestamp(), Instant.now()).compareTo(maxStaleAge) > 0) {
+            return Optional.empty();
+        }
+        return Optional.of(lastKnown.toBuilder().stale(true).build());
+    }
+
+    private AllExchangeRatesDto await(String baseCurrency, CompletableFuture<AllExchangeRatesDto> rates) {
+        try {
+            return rates.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            waitTimeouts.increment();
+            throw new ExchangeRateException("Timed out after " + maxWait.toMillis()
+                    + " ms waiting for exchange rates for " + baseCurrency);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new ExchangeRateException("Failed to fetch exchange rates for " + baseCurrency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExchangeRateException("Interrupted while waiting for exchange rates for " + baseCurrency);
+        }
+    }
+
+    private static Counter fetchCounter(MeterRegistry meterRegistry, String role) {
+        return Counter.builder("exchange.rate.fetch.calls")
+                .description("Callers that started an upstream fetch (leader) or joined one in flight (waiter)")
+                .tag("role", role)
+                .register(meterRegistry);
+    }
+
+    /**
+     * A refresh requested through {@link #refresh}.
+     *
+     * @param rates   the future of the fetch, completing with the published table or failing with the fetch error
+     * @param started whether the refresh started the fetch rather than joining one in flight; a started fetch may
+     *                still be rejected by the {@link UpstreamCallGovernor} or the {@link UpstreamCircuitBreaker}
+     *                before reaching the upstream
+     */
+    public record Refresh(CompletableFuture<AllExchangeRatesDto> rates, boolean started) {
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("exchange.rate.store.lookups")
+                .description("Rate table lookups answered from the store (hit) or requiring an upstream fetch (miss)")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
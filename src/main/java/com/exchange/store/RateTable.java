@@ -0,0 +1,248 @@
+package com.exchange.store;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Immutable, dense row of the rate matrix: every rate quoted against one base currency, indexed by the
+ * target currency's {@link CurrencyRegistry} ordinal.
+ *
+ * <p>Each rate is kept as its unscaled {@code long} value plus a {@code byte} scale, which represents upstream
+ * quotes exactly without per-entry objects. Looking up a rate is two array reads, compared to building a
+ * {@code source + target} key and hashing it into a {@code Map<String, BigDecimal>}. Quotes with more than
+ * {@value #MAX_PRECISION} significant digits are rounded to that precision.
+ */
+public final class RateTable {
+    static final int MAX_PRECISION = 18;
+    private static final byte ABSENT = Byte.MIN_VALUE;
+    private static final MathContext STORAGE_CONTEXT = new MathContext(MAX_PRECISION);
+    private static final long MAX_UNSCALED = 1_000_000_000_000_000_000L;
+
+    private final CurrencyRegistry registry;
+    private final int baseOrdinal;
+    private final long[] unscaledRates;
+    private final byte[] scales;
+    private final Instant timestamp;
+
+    private RateTable(CurrencyRegistry registry, int baseOrdinal, long[] unscaledRates, byte[] scales,
+                      Instant timestamp) {
+        this.registry = registry;
+        this.baseOrdinal = baseOrdinal;
+        this.unscaledRates = unscaledRates;
+        this.scales = scales;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Builds a table from upstream quotes keyed {@code base + target}.
+     * Quotes for currencies that are not in the registry are skipped.
+     *
+     * @param registry     the currency registry providing ordinals
+     * @param baseCurrency the base currency code
+     * @param quotes       the quotes keyed by concatenated base and target codes
+     * @param timestamp    the time the quotes were fetched
+     * @return the dense rate table
+     * @throws IllegalArgumentException if the base currency is not in the registry
+     */
+    public static RateTable of(CurrencyRegistry registry, String baseCurrency, Map<String, BigDecimal> quotes,
+                               Instant timestamp) {
+        Builder builder = builder(registry, baseCurrency, timestamp);
+        for (Map.Entry<String, BigDecimal> quote : quotes.entrySet()) {
+            String key = quote.getKey();
+            if (quote.getValue() == null || !key.startsWith(baseCurrency)) {
+                continue;
+            }
+            builder.put(registry.ordinal(key, baseCurrency.length()), quote.getValue());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Starts an empty table to be filled quote by quote, for decoders that read quotes without building a map.
+     *
+     * @param registry     the currency registry providing ordinals
+     * @param baseCurrency the base currency code
+     * @param timestamp    the time the quotes were fetched
+     * @return the builder of the table
+     * @throws IllegalArgumentException if the base currency is not in the registry
+     */
+    public static Builder builder(CurrencyRegistry registry, String baseCurrency, Instant timestamp) {
+        int baseOrdinal = registry.ordinal(baseCurrency);
+        if (baseOrdinal < 0) {
+            throw new IllegalArgumentException("Currency '" + baseCurrency + "' is not supported");
+        }
+        return new Builder(registry, baseOrdinal, timestamp);
+    }
+
+    /**
+     * @return the base currency code
+     */
+    public String baseCurrency() {
+        return registry.code(baseOrdinal);
+    }
+
+    /**
+     * @return the base currency ordinal
+     */
+    public int baseOrdinal() {
+        return baseOrdinal;
+    }
+
+    /**
+     * @return the time the quotes were fetched
+     */
+    public Instant timestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return the registry the ordinals of this table refer to
+     */
+    public CurrencyRegistry registry() {
+        return registry;
+    }
+
+    /**
+     * @param targetOrdinal the target currency ordinal
+     * @return whether the table quotes the target currency
+     */
+    public boolean contains(int targetOrdinal) {
+        return targetOrdinal >= 0 && targetOrdinal < scales.length && scales[targetOrdinal] != ABSENT;
+    }
+
+    /**
+     * @param targetOrdinal the target currency ordinal, which must be {@link #contains(int) contained}
+     * @return the unscaled value of the rate
+     */
+    public long unscaledRate(int targetOrdinal) {
+        return unscaledRates[targetOrdinal];
+    }
+
+    /**
+     * @param targetOrdinal the target currency ordinal, which must be {@link #contains(int) contained}
+     * @return the scale of the rate
+     */
+    public int scale(int targetOrdinal) {
+        return scales[targetOrdinal];
+    }
+
+    /**
+     * @param targetOrdinal the target currency ordinal
+     * @return the rate to the target currency, or null if it is not quoted
+     */
+    public BigDecimal rate(int targetOrdinal) {
+        return contains(targetOrdinal)
+                ? BigDecimal.valueOf(unscaledRates[targetOrdinal], scales[targetOrdinal])
+                : null;
+    }
+
+    /**
+     * @param targetCurrency the target currency code
+     * @return the rate to the target currency, or null if it is not quoted
+     */
+    public BigDecimal rate(String targetCurrency) {
+        return rate(registry.ordinal(targetCurrency));
+    }
+
+    /**
+     * @return the number of quoted currencies
+     */
+    public int quotedCount() {
+        int count = 0;
+        for (byte scale : scales) {
+            if (scale != ABSENT) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Fills a {@link RateTable} one quote at a time. A builder is not thread-safe and must not be used after
+     * {@link #build()}.
+     */
+    public static final class Builder {
+        private final CurrencyRegistry registry;
+        private final int baseOrdinal;
+        private final long[] unscaledRates;
+        private final byte[] scales;
+        private final Instant timestamp;
+
+        private Builder(CurrencyRegistry registry, int baseOrdinal, Instant timestamp) {
+            this.registry = registry;
+            this.baseOrdinal = baseOrdinal;
+            this.unscaledRates = new long[registry.size()];
+            this.scales = new byte[registry.size()];
+            this.timestamp = timestamp;
+            Arrays.fill(scales, ABSENT);
+        }
+
+        /**
+         * Sets the rate to a target currency, replacing an earlier rate to the same currency.
+         * Rates to ordinals that are not in the registry are skipped.
+         *
+         * @param targetOrdinal the target currency ordinal, or -1 for an unsupported currency
+         * @param rate          the rate to the target currency
+         * @return whether the rate was put
+         * @throws IllegalArgumentException if the rate is out of the supported scale range
+         */
+        public boolean put(int targetOrdinal, BigDecimal rate) {
+            if (targetOrdinal < 0 || targetOrdinal >= scales.length) {
+                return false;
+            }
+            BigDecimal storable = storable(rate);
+            unscaledRates[targetOrdinal] = storable.unscaledValue().longValueExact();
+            scales[targetOrdinal] = (byte) storable.scale();
+            return true;
+        }
+
+        /**
+         * Sets the rate to a target currency from its unscaled value and scale, which must be
+         * {@link #isStorable(long, int) storable}, replacing an earlier rate to the same currency.
+         *
+         * @param targetOrdinal the target currency ordinal, or -1 for an unsupported currency
+         * @param unscaledRate  the unscaled value of the rate
+         * @param scale         the scale of the rate
+         * @return whether the rate was put
+         */
+        public boolean put(int targetOrdinal, long unscaledRate, int scale) {
+            if (targetOrdinal < 0 || targetOrdinal >= scales.length) {
+                return false;
+            }
+            unscaledRates[targetOrdinal] = unscaledRate;
+            scales[targetOrdinal] = (byte) scale;
+            return true;
+        }
+
+        /**
+         * @param unscaledRate the unscaled value of a rate
+         * @param scale        the scale of the rate
+         * @return whether the rate is kept exactly as given, without rounding or rescaling
+         */
+        public static boolean isStorable(long unscaledRate, int scale) {
+            return scale > ABSENT && scale <= Byte.MAX_VALUE
+                    && Math.abs(unscaledRate) < MAX_UNSCALED && unscaledRate != Long.MIN_VALUE;
+        }
+
+        /**
+         * @return the table of the rates put so far
+         */
+        public RateTable build() {
+            return new RateTable(registry, baseOrdinal, unscaledRates, scales, timestamp);
+        }
+    }
+
+    private static BigDecimal storable(BigDecimal rate) {
+        BigDecimal storable = rate.precision() > MAX_PRECISION ? rate.round(STORAGE_CONTEXT) : rate;
+        if (storable.scale() <= ABSENT || storable.scale() > Byte.MAX_VALUE) {
+            storable = storable.stripTrailingZeros();
+        }
+        if (storable.scale() <= ABSENT || storable.scale() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Rate " + rate + " is out of the supported scale range");
+        }
+        return storable;
+    }
+}
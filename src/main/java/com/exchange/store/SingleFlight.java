@@ -0,0 +1,109 @@
+package com.exchange.store;
+
+import io.micrometer.core.instrument.Counter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Collapses concurrent calls for the same key into one in-flight execution.
+ * The first caller for a key (the leader) starts the call; every caller arriving while it is running (a waiter)
+ * receives the leader's future instead of starting another call.
+ *
+ * @param <K> the key type
+ * @param <V> the result type
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter leaders;
+    private final Counter waiters;
+
+    /**
+     * Creates a new single-flight group.
+     *
+     * @param leaders counter incremented for every call actually started
+     * @param waiters counter incremented for every caller coalesced into a running call
+     */
+    public SingleFlight(Counter leaders, Counter waiters) {
+        this.leaders = leaders;
+        this.waiters = waiters;
+    }
+
+    /**
+     * Runs the call for a key unless one is already in flight, in which case its future is shared.
+     *
+     * @param key      the key identifying the call
+     * @param call     the call to run on the executor if no call for the key is in flight
+     * @param executor the executor running the call
+     * @return the future of the in-flight call
+     */
+    public CompletableFuture<V> execute(K key, Function<K, V> call, Executor executor) {
+        return join(key, call, executor).result();
+    }
+
+    /**
+     * Runs the call for a key unless one is already in flight, like {@link #execute}, telling the caller whether it
+     * started the call.
+     *
+     * @param key      the key identifying the call
+     * @param call     the call to run on the executor if no call for the key is in flight
+     * @param executor the executor running the call
+     * @return the future of the in-flight call and whether this caller is its leader
+     */
+    public Flight<V> join(K key, Function<K, V> call, Executor executor) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, created);
+        if (running != null) {
+            waiters.increment();
+            return new Flight<>(running, false);
+        }
+
+        leaders.increment();
+        try {
+            executor.execute(() -> complete(key, call, created));
+        } catch (RuntimeException e) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(e);
+        }
+        return new Flight<>(created, true);
+    }
+
+    /**
+     * @param key the key identifying the call
+     * @return whether a call for the key is currently in flight
+     */
+    public boolean isInFlight(K key) {
+        return inFlight.containsKey(key);
+    }
+
+    /**
+     * @return the number of calls currently in flight
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private void complete(K key, Function<K, V> call, CompletableFuture<V> future) {
+        try {
+            V result = call.apply(key);
+            inFlight.remove(key, future);
+            future.complete(result);
+        } catch (Throwable t) {
+            inFlight.remove(key, future);
+            future.completeExceptionally(t);
+        }
+    }
+
+    /**
+     * A call joined through {@link #join}.
+     *
+     * @param result the future of the call
+     * @param leader whether the caller started the call rather than joining one in flight
+     * @param <V>    the result type
+     */
+    public record Flight<V>(CompletableFuture<V> result, boolean leader) {
+    }
+}
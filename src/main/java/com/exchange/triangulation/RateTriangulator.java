@@ -0,0 +1,139 @@
+package com.exchange.triangulation;
+
+import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.dto.SingleExchangeRateDto;
+import com.exchange.exception.CurrencyConversionException;
+import com.exchange.store.CurrencyRegistry;
+import com.exchange.store.RateTable;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Derives cross rates from a single pivot currency table.
+ * A rate {@code S -> T} is computed as {@code P -> T / P -> S}, where {@code P} is the pivot currency, so one
+ * pivot table covers every pair between the currencies it quotes, including the inverse {@code S -> P}.
+ *
+ * <p>Every derived rate reports its pivot and an upper bound of the relative error introduced by triangulation:
+ * the half-ulp quantization of both upstream quotes plus the rounding of the division.
+ */
+@Component
+public class RateTriangulator {
+    private static final MathContext DIVISION_CONTEXT = MathContext.DECIMAL64;
+    private static final MathContext LOSS_CONTEXT = new MathContext(2, RoundingMode.UP);
+    private static final BigDecimal DIVISION_ERROR = BigDecimal.ONE.movePointLeft(DIVISION_CONTEXT.getPrecision())
+            .multiply(BigDecimal.valueOf(5));
+    private static final BigDecimal HALF = new BigDecimal("0.5");
+
+    @Getter
+    private final String pivotCurrency;
+    private final CurrencyRegistry currencyRegistry;
+
+    /**
+     * Creates a new triangulator.
+     *
+     * @param pivotCurrency    the currency whose table is used to derive cross rates
+     * @param currencyRegistry registry used to index derived tables
+     */
+    public RateTriangulator(@Value("${exchange.rate.triangulation.pivot-currency:USD}") String pivotCurrency,
+                            CurrencyRegistry currencyRegistry) {
+        this.pivotCurrency = pivotCurrency;
+        this.currencyRegistry = currencyRegistry;
+    }
+
+    /**
+     * Derives the rate for a single currency pair from the pivot table.
+     *
+     * @param pivotRates     the rate table of the pivot currency
+     * @param sourceCurrency the source currency code
+     * @param targetCurrency the target currency code
+     * @return {@link SingleExchangeRateDto} carrying the derived rate, its pivot and precision loss
+     * @throws CurrencyConversionException if the pivot table does not quote one of the currencies
+     */
+    public SingleExchangeRateDto deriveRate(AllExchangeRatesDto pivotRates, String sourceCurrency, String targetCurrency) {
+        Map<String, BigDecimal> quotes = pivotRates.getRates();
+        BigDecimal sourceQuote = pivotQuote(quotes, sourceCurrency, sourceCurrency, targetCurrency);
+        BigDecimal targetQuote = pivotQuote(quotes, targetCurrency, sourceCurrency, targetCurrency);
+
+        return SingleExchangeRateDto.builder()
+                .sourceCurrency(sourceCurrency)
+                .targetCurrency(targetCurrency)
+                .exchangeRate(targetQuote.divide(sourceQuote, DIVISION_CONTEXT))
+                .pivotCurrency(pivotCurrency)
+                .precisionLoss(precisionLoss(sourceCurrency, sourceQuote, targetCurrency, targetQuote))
+                .stale(pivotRates.isStale())
+                .snapshotVersion(pivotRates.getSnapshotVersion())
+                .timestamp(pivotRates.getTimestamp())
+                .build();
+    }
+
+    /**
+     * Derives the full rate table of a currency from the pivot table.
+     * The derived table quotes every currency of the pivot table plus the pivot itself.
+     *
+     * @param pivotRates     the rate table of the pivot currency
+     * @param sourceCurrency the base currency of the derived table
+     * @return {@link AllExchangeRatesDto} keyed like upstream tables, with the worst precision loss of all entries
+     * @throws CurrencyConversionException if the pivot table does not quote the source currency
+     */
+    public AllExchangeRatesDto deriveTable(AllExchangeRatesDto pivotRates, String sourceCurrency) {
+        Map<String, BigDecimal> quotes = pivotRates.getRates();
+        BigDecimal sourceQuote = pivotQuote(quotes, sourceCurrency, sourceCurrency, pivotCurrency);
+        Map<String, BigDecimal> derived = HashMap.newHashMap(quotes.size() + 1);
+        BigDecimal worstLoss = precisionLoss(sourceCurrency, sourceQuote, pivotCurrency, BigDecimal.ONE);
+
+        derived.put(sourceCurrency + pivotCurrency, BigDecimal.ONE.divide(sourceQuote, DIVISION_CONTEXT));
+        for (Map.Entry<String, BigDecimal> quote : quotes.entrySet()) {
+            String targetCurrency = quote.getKey().substring(pivotCurrency.length());
+            derived.put(sourceCurrency + targetCurrency, quote.getValue().divide(sourceQuote, DIVISION_CONTEXT));
+            worstLoss = worstLoss.max(precisionLoss(sourceCurrency, sourceQuote, targetCurrency, quote.getValue()));
+        }
+
+        return AllExchangeRatesDto.builder()
+                .sourceCurrency(sourceCurrency)
+                .rates(derived)
+                .pivotCurrency(pivotCurrency)
+                .precisionLoss(worstLoss)
+                .stale(pivotRates.isStale())
+                .snapshotVersion(pivotRates.getSnapshotVersion())
+                .timestamp(pivotRates.getTimestamp())
+                .table(RateTable.of(currencyRegistry, sourceCurrency, derived, pivotRates.getTimestamp()))
+                .build();
+    }
+
+    private BigDecimal pivotQuote(Map<String, BigDecimal> quotes, String currency,
+                                  String sourceCurrency, String targetCurrency) {
+        if (pivotCurrency.equals(currency)) {
+            return BigDecimal.ONE;
+        }
+        BigDecimal quote = quotes.get(pivotCurrency + currency);
+        if (quote == null || quote.signum() == 0) {
+            throw new CurrencyConversionException(String.format(
+                    "Exchange rate not found for pair %s-%s via pivot %s", sourceCurrency, targetCurrency, pivotCurrency));
+        }
+        return quote;
+    }
+
+    private BigDecimal precisionLoss(String sourceCurrency, BigDecimal sourceQuote,
+                                     String targetCurrency, BigDecimal targetQuote) {
+        return quantizationError(pivotCurrency.equals(sourceCurrency), sourceQuote)
+                .add(quantizationError(pivotCurrency.equals(targetCurrency), targetQuote))
+                .add(DIVISION_ERROR)
+                .round(LOSS_CONTEXT);
+    }
+
+    private static BigDecimal quantizationError(boolean pivot, BigDecimal quote) {
+        // the pivot's quote against itself is the exact constant, not an upstream value; an upstream quote of 1,
+        // such as a pegged currency, is still rounded
+        if (pivot) {
+            return BigDecimal.ZERO;
+        }
+        return quote.ulp().multiply(HALF).divide(quote.abs(), DIVISION_CONTEXT);
+    }
+}
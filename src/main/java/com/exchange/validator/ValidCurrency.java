@@ -12,10 +12,11 @@ import java.lang.annotation.*;
  * <p>Usage example:
  * {@code @ValidCurrency private String currencyCode;}
  * {@code public void convert(@ValidCurrency String sourceCurrency) {...}}
+ * {@code private List<@ValidCurrency String> currencies;}
  */
 @Documented
 @Constraint(validatedBy = CurrencyValidator.class)
-@Target({ElementType.FIELD, ElementType.PARAMETER})
+@Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.TYPE_USE})
 @Retention(RetentionPolicy.RUNTIME)
 public @interface ValidCurrency {
     /**
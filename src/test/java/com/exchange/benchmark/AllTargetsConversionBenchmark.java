@@ -0,0 +1,111 @@
+package com.exchange.benchmark;
+
+import com.exchange.converter.CurrencyConverter;
+import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.store.CurrencyRegistry;
+import com.exchange.store.RateTable;
+import com.exchange.store.TestRates;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares converting an amount into N listed targets against the all-targets mode over a table quoting N
+ * currencies, including JSON serialization of the result, for 10, 50 and 170 targets.
+ */
+@Tag("benchmark")
+class AllTargetsConversionBenchmark {
+    private static final int[] TARGETS = {10, 50, 170};
+    private static final int ITERATIONS = 50_000;
+    private static final int ROUNDS = 5;
+
+    private final CurrencyConverter converter = new CurrencyConverter();
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void compareListedAndAllTargets() throws IOException {
+        System.out.printf("Multi-currency conversion incl. serialization (%,d conversions, best of %d rounds):%n",
+                ITERATIONS, ROUNDS);
+        System.out.printf("  %-8s %-16s %10s %12s%n", "Targets", "Mode", "ns/op", "bytes/op");
+
+        for (int targets : TARGETS) {
+            CurrencyRegistry registry = registry(targets);
+            AllExchangeRatesDto rates = rates(registry);
+            List<String> codes = registry.codes();
+            BigDecimal amount = new BigDecimal("1234.56");
+
+            double[] listed = {Double.MAX_VALUE, Double.MAX_VALUE};
+            double[] allTargets = {Double.MAX_VALUE, Double.MAX_VALUE};
+            for (int round = 0; round < ROUNDS; round++) {
+                long[] start = measure();
+                for (int i = 0; i < ITERATIONS; i++) {
+                    objectMapper.writeValue(OutputStream.nullOutputStream(),
+                            converter.createMultiConversion(rates, "USD", codes, amount));
+                }
+                record(listed, start);
+
+                start = measure();
+                for (int i = 0; i < ITERATIONS; i++) {
+                    objectMapper.writeValue(OutputStream.nullOutputStream(),
+                            converter.createAllTargetsConversion(rates, "USD", amount));
+                }
+                record(allTargets, start);
+            }
+
+            System.out.printf("  %-8d %-16s %10.0f %12.0f%n", targets, "listed targets", listed[0], listed[1]);
+            System.out.printf("  %-8d %-16s %10.0f %12.0f%n", targets, "all targets", allTargets[0], allTargets[1]);
+            assertTrue(allTargets[1] < listed[1]);
+        }
+    }
+
+    private static AllExchangeRatesDto rates(CurrencyRegistry registry) {
+        Random random = new Random(42);
+        Map<String, BigDecimal> quotes = new HashMap<>();
+        for (String target : registry.codes()) {
+            quotes.put("USD" + target, BigDecimal.valueOf(random.nextLong(1, 100_000_000_000L), 6));
+        }
+        Instant timestamp = Instant.now();
+        return AllExchangeRatesDto.builder()
+                .sourceCurrency("USD")
+                .rates(quotes)
+                .timestamp(timestamp)
+                .table(RateTable.of(registry, "USD", quotes, timestamp))
+                .build();
+    }
+
+    private static CurrencyRegistry registry(int currencies) {
+        Set<String> codes = new TreeSet<>(Set.of("USD"));
+        for (int i = 0; codes.size() < currencies; i++) {
+            codes.add("" + (char) ('A' + i / 676 % 26) + (char) ('A' + i / 26 % 26) + (char) ('A' + i % 26));
+        }
+        return TestRates.registry(codes);
+    }
+
+    private static long[] measure() {
+        return new long[]{System.nanoTime(), allocatedBytes()};
+    }
+
+    private static void record(double[] best, long[] start) {
+        best[0] = Math.min(best[0], (System.nanoTime() - start[0]) / (double) ITERATIONS);
+        best[1] = Math.min(best[1], (allocatedBytes() - start[1]) / (double) ITERATIONS);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().threadId());
+    }
+}
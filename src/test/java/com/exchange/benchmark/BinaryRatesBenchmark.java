@@ -0,0 +1,99 @@
+package com.exchange.benchmark;
+
+import com.exchange.binary.RatesBinaryCodec;
+import com.exchange.dto.AllExchangeRatesDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the size of a rate table quoting 170 currencies and the time to encode and decode it in JSON against the
+ * {@link RatesBinaryCodec} format.
+ */
+@Tag("benchmark")
+class BinaryRatesBenchmark {
+    private static final int CURRENCIES = 170;
+    private static final int ITERATIONS = 50_000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    void compareJsonAndBinary() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        AllExchangeRatesDto rates = rates();
+        byte[] json = objectMapper.writeValueAsBytes(rates);
+        byte[] binary = RatesBinaryCodec.encode(rates);
+
+        long[] best = {Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE};
+        long sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                sink += objectMapper.writeValueAsBytes(rates).length;
+            }
+            best[0] = Math.min(best[0], System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                sink += RatesBinaryCodec.encode(rates).length;
+            }
+            best[1] = Math.min(best[1], System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                sink += objectMapper.readValue(json, AllExchangeRatesDto.class).getRates().size();
+            }
+            best[2] = Math.min(best[2], System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                sink += RatesBinaryCodec.decodeRates(binary).getRates().size();
+            }
+            best[3] = Math.min(best[3], System.nanoTime() - start);
+        }
+
+        System.out.printf("Rate table with %d quotes (%,d iterations, best of %d rounds, checksum %d):%n",
+                CURRENCIES, ITERATIONS, ROUNDS, sink);
+        System.out.printf("  %-8s %12s %12s %12s %12s%n", "Format", "bytes", "gzip bytes", "encode ns", "decode ns");
+        System.out.printf("  %-8s %12d %12d %12.0f %12.0f%n", "JSON", json.length, gzip(json).length,
+                best[0] / (double) ITERATIONS, best[2] / (double) ITERATIONS);
+        System.out.printf("  %-8s %12d %12d %12.0f %12.0f%n", "Binary", binary.length, gzip(binary).length,
+                best[1] / (double) ITERATIONS, best[3] / (double) ITERATIONS);
+
+        assertTrue(binary.length < json.length / 2);
+        assertTrue(best[1] < best[0] && best[3] < best[2]);
+    }
+
+    private static AllExchangeRatesDto rates() {
+        Random random = new Random(42);
+        Map<String, BigDecimal> quotes = new HashMap<>();
+        for (int i = 0; i < CURRENCIES; i++) {
+            String target = "" + (char) ('A' + i / 676 % 26) + (char) ('A' + i / 26 % 26) + (char) ('A' + i % 26);
+            quotes.put("USD" + target, BigDecimal.valueOf(random.nextLong(1, 100_000_000_000L), 6));
+        }
+        return AllExchangeRatesDto.builder()
+                .sourceCurrency("USD")
+                .rates(quotes)
+                .snapshotVersion(1L)
+                .timestamp(Instant.now())
+                .build();
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,77 @@
+package com.exchange.benchmark;
+
+import com.exchange.converter.FixedPointArithmetic;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares time and allocation per conversion of {@link BigDecimal} multiply-and-round against
+ * {@link FixedPointArithmetic}, for rates of typical upstream precision and request amounts.
+ */
+@Tag("benchmark")
+class FixedPointConversionBenchmark {
+    private static final int OPERANDS = 1024;
+    private static final int ITERATIONS = 5_000_000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    void compareConversionCost() {
+        Random random = new Random(42);
+        BigDecimal[] rates = new BigDecimal[OPERANDS];
+        long[] unscaledRates = new long[OPERANDS];
+        BigDecimal[] amounts = new BigDecimal[OPERANDS];
+        long[] unscaledAmounts = new long[OPERANDS];
+        for (int i = 0; i < OPERANDS; i++) {
+            rates[i] = BigDecimal.valueOf(random.nextLong(1, 100_000_000_000L), 6);
+            unscaledRates[i] = rates[i].unscaledValue().longValueExact();
+            amounts[i] = BigDecimal.valueOf(random.nextLong(100, 100_000_000L), 2);
+            unscaledAmounts[i] = FixedPointArithmetic.unscaled(amounts[i]);
+        }
+
+        double[] bigDecimal = {Double.MAX_VALUE, Double.MAX_VALUE};
+        double[] fixedPoint = {Double.MAX_VALUE, Double.MAX_VALUE};
+        long sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long[] start = measure();
+            for (int i = 0; i < ITERATIONS; i++) {
+                int k = i & (OPERANDS - 1);
+                sink += rates[k].multiply(amounts[k]).setScale(6, RoundingMode.HALF_UP).scale();
+            }
+            record(bigDecimal, start);
+
+            start = measure();
+            for (int i = 0; i < ITERATIONS; i++) {
+                int k = i & (OPERANDS - 1);
+                sink += FixedPointArithmetic.multiply(unscaledRates[k], 6, amounts[k], unscaledAmounts[k], 6).scale();
+            }
+            record(fixedPoint, start);
+        }
+
+        System.out.printf("Conversion cost (%,d conversions, best of %d rounds, sink %d):%n", ITERATIONS, ROUNDS, sink);
+        System.out.printf("  BigDecimal multiply+setScale : %6.1f ns/op %6.1f bytes/op%n", bigDecimal[0], bigDecimal[1]);
+        System.out.printf("  Fixed-point long             : %6.1f ns/op %6.1f bytes/op%n", fixedPoint[0], fixedPoint[1]);
+
+        assertTrue(fixedPoint[1] < bigDecimal[1]);
+    }
+
+    private static long[] measure() {
+        return new long[]{System.nanoTime(), allocatedBytes()};
+    }
+
+    private static void record(double[] best, long[] start) {
+        best[0] = Math.min(best[0], (System.nanoTime() - start[0]) / (double) ITERATIONS);
+        best[1] = Math.min(best[1], (allocatedBytes() - start[1]) / (double) ITERATIONS);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().threadId());
+    }
+}
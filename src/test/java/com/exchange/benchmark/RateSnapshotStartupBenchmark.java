@@ -0,0 +1,117 @@
+package com.exchange.benchmark;
+
+import com.exchange.client.UpstreamCallGovernor;
+import com.exchange.client.UpstreamCircuitBreaker;
+import com.exchange.config.RateStoreConfig;
+import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.service.ExchangeRateFetcher;
+import com.exchange.store.CurrencyRegistry;
+import com.exchange.store.RateSnapshotPersister;
+import com.exchange.store.RateStore;
+import com.exchange.store.RateTable;
+import com.exchange.store.TestRates;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures time-to-first-served-rate of a freshly started store, cold against an upstream with a fixed latency and
+ * warm from a persisted snapshot of the preloaded bases, including the time to read the snapshot file.
+ */
+@Tag("benchmark")
+class RateSnapshotStartupBenchmark {
+    private static final long UPSTREAM_LATENCY_MS = 250;
+    private static final List<String> PRELOADED = List.of("USD", "EUR", "GBP", "JPY");
+    private static final int CURRENCIES = 170;
+    private static final int ROUNDS = 5;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void compareTimeToFirstServedRate() throws Exception {
+        CurrencyRegistry registry = registry();
+        ExchangeRateFetcher fetcher = slowFetcher(registry);
+        Path path = directory.resolve("rates.bin");
+
+        RateStore previous = rateStore(registry, fetcher);
+        PRELOADED.forEach(previous::get);
+        new RateSnapshotPersister(previous, registry, path.toString()).persist();
+
+        long coldNanos = Long.MAX_VALUE;
+        long warmNanos = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            coldNanos = Math.min(coldNanos, timeToFirstRate(registry, fetcher, ""));
+            warmNanos = Math.min(warmNanos, timeToFirstRate(registry, fetcher, path.toString()));
+        }
+
+        System.out.printf("Time to first served rate (%d bases x %d quotes, upstream latency %d ms):%n",
+                PRELOADED.size(), CURRENCIES, UPSTREAM_LATENCY_MS);
+        System.out.printf("  Snapshot file           : %,8d bytes%n", Files.size(path));
+        System.out.printf("  Without snapshot        : %8.2f ms%n", coldNanos / 1e6);
+        System.out.printf("  With snapshot           : %8.2f ms%n", warmNanos / 1e6);
+
+        assertTrue(warmNanos < coldNanos);
+    }
+
+    private static long timeToFirstRate(CurrencyRegistry registry, ExchangeRateFetcher fetcher, String path) {
+        long start = System.nanoTime();
+        RateStore rateStore = rateStore(registry, fetcher);
+        new RateSnapshotPersister(rateStore, registry, path).afterSingletonsInstantiated();
+        rateStore.get("USD").rateFor("EUR");
+        return System.nanoTime() - start;
+    }
+
+    private static ExchangeRateFetcher slowFetcher(CurrencyRegistry registry) {
+        Random random = new Random(42);
+        ExchangeRateFetcher fetcher = mock(ExchangeRateFetcher.class);
+        when(fetcher.fetchAllRates(anyString())).thenAnswer(invocation -> {
+            Thread.sleep(UPSTREAM_LATENCY_MS);
+            String base = invocation.getArgument(0);
+            Map<String, BigDecimal> quotes = new HashMap<>();
+            for (String target : registry.codes()) {
+                quotes.put(base + target, BigDecimal.valueOf(random.nextLong(1, 100_000_000_000L), 6));
+            }
+            Instant timestamp = Instant.now();
+            return AllExchangeRatesDto.builder()
+                    .sourceCurrency(base)
+                    .rates(quotes)
+                    .timestamp(timestamp)
+                    .table(RateTable.of(registry, base, quotes, timestamp))
+                    .build();
+        });
+        return fetcher;
+    }
+
+    private static RateStore rateStore(CurrencyRegistry registry, ExchangeRateFetcher fetcher) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new RateStore(new RateStoreConfig(), registry, fetcher,
+                new UpstreamCallGovernor(1000, 1_000_000, 30, 0.2, meterRegistry),
+                new UpstreamCircuitBreaker(20, 10, 0.5, 3000, 0.5, 30000, 3, meterRegistry), meterRegistry, 5000, 300);
+    }
+
+    private static CurrencyRegistry registry() {
+        Set<String> codes = new TreeSet<>(PRELOADED);
+        for (int i = 0; codes.size() < CURRENCIES; i++) {
+            codes.add("" + (char) ('A' + i / 676 % 26) + (char) ('A' + i / 26 % 26) + (char) ('A' + i % 26));
+        }
+        return TestRates.registry(codes);
+    }
+}
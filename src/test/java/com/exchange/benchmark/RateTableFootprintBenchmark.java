@@ -0,0 +1,85 @@
+package com.exchange.benchmark;
+
+import com.exchange.store.CurrencyRegistry;
+import com.exchange.store.RateTable;
+import com.exchange.store.TestRates;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the retained heap of one base currency's rates held as the upstream {@code Map<String, BigDecimal>}
+ * against the dense {@link RateTable} row, for a table quoting every supported currency.
+ */
+@Tag("benchmark")
+class RateTableFootprintBenchmark {
+    private static final int COPIES = 2_000;
+    private static final int CURRENCIES = 170;
+
+    @Test
+    void compareRetainedHeapPerBaseCurrency() {
+        Set<String> codes = currencyCodes();
+        CurrencyRegistry registry = TestRates.registry(codes);
+        Random random = new Random(42);
+
+        long mapBytes = retainedBytesPerCopy(copy -> upstreamQuotes(codes, random));
+        long tableBytes = retainedBytesPerCopy(copy ->
+                RateTable.of(registry, "AAA", upstreamQuotes(codes, random), Instant.now()));
+
+        System.out.printf("Retained heap per base currency (%d quotes):%n", CURRENCIES);
+        System.out.printf("  Map<String, BigDecimal> : %,8d bytes%n", mapBytes);
+        System.out.printf("  RateTable               : %,8d bytes%n", tableBytes);
+        System.out.printf("  Ratio                   : %8.1fx%n", (double) mapBytes / tableBytes);
+
+        assertTrue(tableBytes < mapBytes);
+    }
+
+    private static Set<String> currencyCodes() {
+        Set<String> codes = new TreeSet<>();
+        for (int i = 0; codes.size() < CURRENCIES; i++) {
+            codes.add("" + (char) ('A' + i / 676 % 26) + (char) ('A' + i / 26 % 26) + (char) ('A' + i % 26));
+        }
+        return codes;
+    }
+
+    private static Map<String, BigDecimal> upstreamQuotes(Set<String> codes, Random random) {
+        Map<String, BigDecimal> quotes = new LinkedHashMap<>();
+        for (String code : codes) {
+            // mirrors Jackson decoding: a fresh key string and a decimal parsed from text per quote
+            quotes.put(new String("AAA" + code), new BigDecimal(String.format("%.6f", random.nextDouble() * 1000)));
+        }
+        return quotes;
+    }
+
+    private static long retainedBytesPerCopy(IntFunction<Object> factory) {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        Object[] copies = new Object[COPIES];
+        long before = usedHeapAfterGc(memory);
+        for (int i = 0; i < COPIES; i++) {
+            copies[i] = factory.apply(i);
+        }
+        long after = usedHeapAfterGc(memory);
+        long perCopy = (after - before) / COPIES;
+        assertTrue(copies[COPIES - 1] != null);
+        return perCopy;
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,79 @@
+package com.exchange.benchmark;
+
+import com.exchange.controller.RatesResponseCache;
+import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.store.RateStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Compares producing a {@code /rates/all} body for a base quoting 170 currencies by serializing the table per request
+ * against writing the body pre-serialized by {@link RatesResponseCache}.
+ */
+@Tag("benchmark")
+class RatesResponseBenchmark {
+    private static final int CURRENCIES = 170;
+    private static final int ITERATIONS = 100_000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    void compareSerializedAndCachedBodies() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        RatesResponseCache cache = new RatesResponseCache(mock(RateStore.class), objectMapper);
+        AllExchangeRatesDto rates = rates();
+        OutputStream sink = OutputStream.nullOutputStream();
+
+        long serializedNanos = Long.MAX_VALUE;
+        long cachedNanos = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                sink.write(objectMapper.writeValueAsBytes(rates));
+            }
+            serializedNanos = Math.min(serializedNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                sink.write(cache.get(rates).json());
+            }
+            cachedNanos = Math.min(cachedNanos, System.nanoTime() - start);
+        }
+
+        RatesResponseCache.SerializedRates body = cache.get(rates);
+        System.out.printf("/rates/all body for %d quotes (%,d requests, best of %d rounds):%n",
+                CURRENCIES, ITERATIONS, ROUNDS);
+        System.out.printf("  Body size               : %,8d bytes JSON, %,d bytes gzip%n",
+                body.json().length, body.gzip().length);
+        System.out.printf("  Serialized per request  : %8.0f ns/op%n", serializedNanos / (double) ITERATIONS);
+        System.out.printf("  Pre-serialized          : %8.0f ns/op%n", cachedNanos / (double) ITERATIONS);
+
+        assertTrue(cachedNanos < serializedNanos);
+    }
+
+    private static AllExchangeRatesDto rates() {
+        Random random = new Random(42);
+        Map<String, BigDecimal> quotes = new HashMap<>();
+        for (int i = 0; i < CURRENCIES; i++) {
+            String target = "" + (char) ('A' + i / 676 % 26) + (char) ('A' + i / 26 % 26) + (char) ('A' + i % 26);
+            quotes.put("USD" + target, BigDecimal.valueOf(random.nextLong(1, 100_000_000_000L), 6));
+        }
+        return AllExchangeRatesDto.builder()
+                .sourceCurrency("USD")
+                .rates(quotes)
+                .snapshotVersion(1L)
+                .timestamp(Instant.now())
+                .build();
+    }
+}
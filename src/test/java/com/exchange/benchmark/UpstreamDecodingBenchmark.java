@@ -0,0 +1,124 @@
+package com.exchange.benchmark;
+
+import com.exchange.client.UpstreamQuotesDecoder;
+import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.model.ExchangeRateResponse;
+import com.exchange.store.CurrencyRegistry;
+import com.exchange.store.RateTable;
+import com.exchange.store.TestRates;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the bytes allocated and the time taken to turn a {@code /live} body quoting 170 currencies into rates by
+ * binding it to {@link ExchangeRateResponse}, as {@code body(ExchangeRateResponse.class)} does, and building the
+ * {@link RateTable} from its map, against streaming it through {@link UpstreamQuotesDecoder}.
+ */
+@Tag("benchmark")
+class UpstreamDecodingBenchmark {
+    private static final int CURRENCIES = 170;
+    private static final int ITERATIONS = 20_000;
+    private static final int ROUNDS = 5;
+    private static final String BASE = "AAA";
+
+    @Test
+    void compareBoundAndStreamedDecoding() throws IOException {
+        Set<String> codes = currencyCodes();
+        CurrencyRegistry registry = TestRates.registry(codes);
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        UpstreamQuotesDecoder decoder = new UpstreamQuotesDecoder(registry);
+        byte[] body = body(codes);
+
+        Fetch bound = () -> {
+            ExchangeRateResponse response = objectMapper.readValue(body, ExchangeRateResponse.class);
+            Instant timestamp = Instant.now();
+            return AllExchangeRatesDto.builder()
+                    .sourceCurrency(BASE)
+                    .rates(response.getQuotes())
+                    .timestamp(timestamp)
+                    .table(RateTable.of(registry, BASE, response.getQuotes(), timestamp))
+                    .build();
+        };
+        Fetch streamed = () -> decoder.decode(new ByteArrayInputStream(body), BASE, Instant.now());
+        assertEquals(bound.decode().getRates(), streamed.decode().getRates());
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long boundBytes = Long.MAX_VALUE;
+        long streamedBytes = Long.MAX_VALUE;
+        long boundNanos = Long.MAX_VALUE;
+        long streamedNanos = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long[] result = measure(threads, bound);
+            boundBytes = Math.min(boundBytes, result[0]);
+            boundNanos = Math.min(boundNanos, result[1]);
+            result = measure(threads, streamed);
+            streamedBytes = Math.min(streamedBytes, result[0]);
+            streamedNanos = Math.min(streamedNanos, result[1]);
+        }
+
+        System.out.printf("Upstream /live body of %,d bytes with %d quotes (%,d fetches, best of %d rounds):%n",
+                body.length, CURRENCIES, ITERATIONS, ROUNDS);
+        System.out.printf("  Bound to ExchangeRateResponse : %,8d bytes/fetch %,8d ns/fetch%n",
+                boundBytes / ITERATIONS, boundNanos / ITERATIONS);
+        System.out.printf("  Streamed by decoder           : %,8d bytes/fetch %,8d ns/fetch%n",
+                streamedBytes / ITERATIONS, streamedNanos / ITERATIONS);
+
+        assertTrue(streamedBytes < boundBytes);
+    }
+
+    private static long[] measure(com.sun.management.ThreadMXBean threads, Fetch fetch) throws IOException {
+        long threadId = Thread.currentThread().threadId();
+        long allocated = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        int quotes = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            quotes += fetch.decode().getRates().size();
+        }
+        long nanos = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes(threadId) - allocated;
+        assertEquals(CURRENCIES * ITERATIONS, quotes);
+        return new long[]{bytes, nanos};
+    }
+
+    private static Set<String> currencyCodes() {
+        Set<String> codes = new TreeSet<>();
+        for (int i = 0; codes.size() < CURRENCIES; i++) {
+            codes.add("" + (char) ('A' + i / 676 % 26) + (char) ('A' + i / 26 % 26) + (char) ('A' + i % 26));
+        }
+        return codes;
+    }
+
+    private static byte[] body(Set<String> codes) {
+        Random random = new Random(42);
+        StringBuilder json = new StringBuilder("{\"success\":true,")
+                .append("\"terms\":\"https://currencylayer.com/terms\",")
+                .append("\"privacy\":\"https://currencylayer.com/privacy\",")
+                .append("\"timestamp\":1708436730,\"source\":\"").append(BASE).append("\",\"quotes\":{");
+        String separator = "";
+        for (String code : codes) {
+            json.append(separator).append('"').append(BASE).append(code).append("\":")
+                    .append(String.format("%.6f", random.nextDouble() * 1000));
+            separator = ",";
+        }
+        return json.append("}}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @FunctionalInterface
+    private interface Fetch {
+        AllExchangeRatesDto decode() throws IOException;
+    }
+}
@@ -0,0 +1,79 @@
+package com.exchange.binary;
+
+import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.dto.MultiConversionResultDto;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RatesBinaryCodecTest {
+
+    @Test
+    void rates_RoundTripAllFields() {
+        AllExchangeRatesDto rates = AllExchangeRatesDto.builder()
+                .sourceCurrency("EUR")
+                .rates(Map.of(
+                        "EURGBP", new BigDecimal("0.858823"),
+                        "EURJPY", new BigDecimal("162.5"),
+                        "EURBTC", new BigDecimal("0.0000158204"),
+                        "EURXAU", new BigDecimal("1.2E+3"),
+                        "EURVES", new BigDecimal("-12345678901234567890.123456")))
+                .pivotCurrency("USD")
+                .precisionLoss(new BigDecimal("0.0000013"))
+                .stale(true)
+                .snapshotVersion(42L)
+                .timestamp(Instant.parse("2024-02-20T13:45:30.123456789Z"))
+                .build();
+
+        assertEquals(rates, RatesBinaryCodec.decodeRates(RatesBinaryCodec.encode(rates)));
+    }
+
+    @Test
+    void rates_TakeSevenBytesPerSixDecimalQuote() {
+        AllExchangeRatesDto one = rates(Map.of("USDEUR", new BigDecimal("0.850102")));
+        AllExchangeRatesDto two = rates(Map.of("USDEUR", new BigDecimal("0.850102"),
+                "USDGBP", new BigDecimal("0.731234")));
+
+        assertEquals(7, RatesBinaryCodec.encode(two).length - RatesBinaryCodec.encode(one).length);
+    }
+
+    @Test
+    void conversions_RoundTripWithoutOptionalFields() {
+        MultiConversionResultDto conversion = MultiConversionResultDto.builder()
+                .sourceCurrency("USD")
+                .conversions(Map.of("EUR", new BigDecimal("85.000000"), "JPY", new BigDecimal("15020.120000")))
+                .build();
+
+        assertEquals(conversion, RatesBinaryCodec.decodeConversions(RatesBinaryCodec.encode(conversion)));
+    }
+
+    @Test
+    void decode_RejectsMalformedMessages() {
+        byte[] message = RatesBinaryCodec.encode(rates(Map.of("USDEUR", new BigDecimal("0.85"))));
+
+        assertThrows(IllegalArgumentException.class, () -> RatesBinaryCodec.decodeConversions(message));
+        assertThrows(IllegalArgumentException.class,
+                () -> RatesBinaryCodec.decodeRates(Arrays.copyOf(message, message.length - 2)));
+        assertThrows(IllegalArgumentException.class, () -> RatesBinaryCodec.decodeRates("{\"rates\":{}}".getBytes()));
+    }
+
+    @Test
+    void encode_RejectsKeysNotQuotedAgainstSource() {
+        assertThrows(IllegalArgumentException.class,
+                () -> RatesBinaryCodec.encode(rates(Map.of("EURGBP", new BigDecimal("0.85")))));
+    }
+
+    private static AllExchangeRatesDto rates(Map<String, BigDecimal> quotes) {
+        return AllExchangeRatesDto.builder()
+                .sourceCurrency("USD")
+                .rates(quotes)
+                .snapshotVersion(1L)
+                .timestamp(Instant.parse("2024-02-20T13:45:30Z"))
+                .build();
+    }
+}
@@ -0,0 +1,53 @@
+package com.exchange.bulk;
+
+import com.exchange.dto.BatchConversionItemResultDto;
+import com.exchange.model.BatchConversionItem;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvRowCodecTest {
+    private final CsvRowCodec codec = new CsvRowCodec();
+
+    @Test
+    void isHeader_RecognisesColumnNamesRegardlessOfCase() {
+        assertTrue(codec.isHeader("sourceCurrency,targetCurrency,amount"));
+        assertTrue(codec.isHeader(" SOURCECURRENCY,TARGETCURRENCY,AMOUNT"));
+        assertFalse(codec.isHeader("USD,EUR,100"));
+    }
+
+    @Test
+    void parse_TrimsFieldsAndTreatsEmptyAmountAsMissing() {
+        assertEquals(new BatchConversionItem("USD", "EUR", new BigDecimal("100.25")),
+                codec.parse(" USD , EUR , 100.25 "));
+        assertEquals(new BatchConversionItem("USD", "EUR", null), codec.parse("USD,EUR,"));
+    }
+
+    @Test
+    void parse_RejectsMalformedRows() {
+        assertEquals("Expected 3 fields but found 4",
+                assertThrows(IllegalArgumentException.class, () -> codec.parse("USD,EUR,1,2")).getMessage());
+        assertEquals("Invalid amount '1e'",
+                assertThrows(IllegalArgumentException.class, () -> codec.parse("USD,EUR,1e")).getMessage());
+    }
+
+    @Test
+    void writeRow_QuotesErrorsContainingSeparators() throws IOException {
+        StringWriter output = new StringWriter();
+
+        codec.writeRow(output, BatchConversionItemResultDto.builder()
+                .index(3_000_000_000L)
+                .sourceCurrency("USD")
+                .targetCurrency("EUR")
+                .sourceAmount(new BigDecimal("1E+3"))
+                .error("Exchange rate service error: \"timeout\", retry later")
+                .build());
+
+        assertEquals("3000000000,USD,EUR,1000,,,,\"Exchange rate service error: \"\"timeout\"\", retry later\"\n",
+                output.toString());
+    }
+}
@@ -0,0 +1,74 @@
+package com.exchange.client;
+
+import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.exception.ExchangeRateException;
+import com.exchange.store.TestRates;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.math.BigDecimal;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LiveQuotesProviderTest {
+
+    private WireMockServer wireMockServer;
+    private LiveQuotesProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        wireMockServer = new WireMockServer(wireMockConfig().dynamicPort());
+        wireMockServer.start();
+
+        RestClient restClient = RestClient.builder()
+                .baseUrl("http://localhost:" + wireMockServer.port())
+                .build();
+        provider = new LiveQuotesProvider("primary", restClient,
+                new UpstreamQuotesDecoder(TestRates.registry("USD", "EUR", "GBP")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        wireMockServer.stop();
+    }
+
+    @Test
+    void fetchAllRates_BuildsRatesAndTable() {
+        wireMockServer.stubFor(get(urlPathEqualTo("/live"))
+                .withQueryParam("source", equalTo("USD"))
+                .willReturn(okJson("{\"success\":true,\"quotes\":{\"USDEUR\":0.85,\"USDGBP\":0.73}}")));
+
+        AllExchangeRatesDto result = provider.fetchAllRates("USD");
+
+        assertThat(result.getSourceCurrency()).isEqualTo("USD");
+        assertThat(result.getRates()).containsEntry("USDEUR", new BigDecimal("0.85"));
+        assertThat(result.getTable().rate("GBP")).isEqualTo(new BigDecimal("0.73"));
+        assertThat(result.getTable().timestamp()).isEqualTo(result.getTimestamp());
+    }
+
+    @Test
+    void fetchAllRates_ThrowsException_WhenUpstreamRespondsWithError() {
+        wireMockServer.stubFor(get(urlPathEqualTo("/live"))
+                .willReturn(serverError().withBody("{\"success\":true,\"quotes\":{\"USDEUR\":0.85}}")));
+
+        assertThrows(HttpServerErrorException.class, () -> provider.fetchAllRates("USD"));
+    }
+
+    @Test
+    void fetchAllRates_ThrowsException_WhenResponseIsUnsuccessful() {
+        wireMockServer.stubFor(get(urlPathEqualTo("/live"))
+                .willReturn(okJson("{\"success\":false,\"error\":{\"code\":201,\"info\":\"Invalid base currency\"}}")));
+
+        ExchangeRateException exception = assertThrows(ExchangeRateException.class,
+                () -> provider.fetchAllRates("USD"));
+
+        assertThat(exception.getMessage()).isEqualTo("Failed to fetch exchange rates for USD");
+    }
+}
@@ -0,0 +1,99 @@
+package com.exchange.client;
+
+import com.exchange.client.UpstreamCallGovernor.Priority;
+import com.exchange.exception.UpstreamQuotaExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamCallGovernorTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void acquire_LimitsCallsPerSecondAndRefills() {
+        UpstreamCallGovernor governor = governor(2, 1000, 0);
+
+        governor.acquire(Priority.ON_DEMAND, "USD");
+        governor.acquire(Priority.ON_DEMAND, "EUR");
+        assertThrows(UpstreamQuotaExceededException.class, () -> governor.acquire(Priority.REFRESH, "GBP"));
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        governor.acquire(Priority.REFRESH, "GBP");
+        assertEquals(0, governor.remainingPerSecond(), 1e-9);
+        assertEquals(997, governor.remainingInPeriod());
+        assertEquals(1, meterRegistry.counter("exchange.rate.upstream.quota.rejected", "priority", "REFRESH").count());
+    }
+
+    @Test
+    void acquire_ReservesBudgetForRefreshCalls() {
+        UpstreamCallGovernor governor = governor(10, 10, 0.2);
+
+        for (int call = 0; call < 8; call++) {
+            governor.acquire(Priority.ON_DEMAND, "USD");
+        }
+        UpstreamQuotaExceededException exception = assertThrows(UpstreamQuotaExceededException.class,
+                () -> governor.acquire(Priority.ON_DEMAND, "USD"));
+        governor.acquire(Priority.REFRESH, "EUR");
+        governor.acquire(Priority.REFRESH, "GBP");
+
+        assertEquals("Upstream quota exhausted, cannot fetch exchange rates for USD", exception.getMessage());
+        assertThrows(UpstreamQuotaExceededException.class, () -> governor.acquire(Priority.REFRESH, "JPY"));
+        assertEquals(1, meterRegistry.counter("exchange.rate.upstream.quota.rejected", "priority", "ON_DEMAND").count());
+    }
+
+    @Test
+    void acquire_AdmitsOnDemandCallsWhenReserveRoundsUpToTheWholeBucket() {
+        UpstreamCallGovernor governor = governor(1, 1000, 0.2);
+
+        governor.acquire(Priority.ON_DEMAND, "USD");
+        assertThrows(UpstreamQuotaExceededException.class, () -> governor.acquire(Priority.ON_DEMAND, "EUR"));
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        governor.acquire(Priority.ON_DEMAND, "EUR");
+    }
+
+    @Test
+    void acquire_ReleasesPeriodBudgetAsCallsLeaveTheRollingWindow() {
+        UpstreamCallGovernor governor = governor(100, 3, 0);
+        long slot = Duration.ofDays(30).toNanos() / UpstreamCallGovernor.PERIOD_SLOTS;
+
+        governor.acquire(Priority.REFRESH, "USD");
+        nanos.addAndGet(10 * slot);
+        governor.acquire(Priority.REFRESH, "EUR");
+        governor.acquire(Priority.REFRESH, "GBP");
+        assertThrows(UpstreamQuotaExceededException.class, () -> governor.acquire(Priority.REFRESH, "JPY"));
+
+        nanos.addAndGet(20 * slot);
+        assertEquals(1, governor.remainingInPeriod());
+        assertEquals(1, meterRegistry.get("exchange.rate.upstream.quota.remaining").tag("window", "period")
+                .gauge().value());
+
+        nanos.addAndGet(10 * slot);
+        assertEquals(3, governor.remainingInPeriod());
+    }
+
+    @Test
+    void constructor_RejectsQuotaWithoutCalls() {
+        assertThrows(IllegalStateException.class, () -> governor(0, 1000, 0.2));
+        assertThrows(IllegalStateException.class, () -> governor(5, 0, 0.2));
+        assertThrows(IllegalStateException.class, () -> governor(5, 1000, 1));
+    }
+
+    private UpstreamCallGovernor governor(double callsPerSecond, long periodCalls, double refreshReserve) {
+        return new UpstreamCallGovernor(callsPerSecond, periodCalls, Duration.ofDays(30), refreshReserve,
+                meterRegistry, nanos::get);
+    }
+}
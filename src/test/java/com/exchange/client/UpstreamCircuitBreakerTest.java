@@ -0,0 +1,121 @@
+package com.exchange.client;
+
+import com.exchange.client.UpstreamCircuitBreaker.State;
+import com.exchange.exception.ExchangeRateException;
+import com.exchange.exception.UpstreamCircuitOpenException;
+import com.exchange.exception.UpstreamQuotaExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamCircuitBreakerTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void execute_OpensWhenFailureRateReachesThresholdAndFailsFast() {
+        UpstreamCircuitBreaker breaker = breaker(1.0, 2);
+        succeed(breaker);
+        succeed(breaker);
+        fail(breaker);
+        assertEquals(State.CLOSED, breaker.state());
+
+        fail(breaker);
+        AtomicInteger calls = new AtomicInteger();
+        UpstreamCircuitOpenException exception = assertThrows(UpstreamCircuitOpenException.class,
+                () -> breaker.execute("USD", calls::incrementAndGet));
+
+        assertEquals("Upstream circuit open, cannot fetch exchange rates for USD", exception.getMessage());
+        assertEquals(0, calls.get());
+        assertEquals(State.OPEN, breaker.state());
+        assertEquals(Duration.ofSeconds(30), breaker.status().retryIn());
+        assertEquals(1, meterRegistry.counter("exchange.rate.upstream.circuit.rejected").count());
+        assertEquals(1, meterRegistry.get("exchange.rate.upstream.circuit.state").tag("state", "OPEN").gauge().value());
+    }
+
+    @Test
+    void execute_OpensWhenSlowCallRateReachesThreshold() {
+        UpstreamCircuitBreaker breaker = breaker(0.5, 2);
+        succeed(breaker);
+        succeed(breaker);
+        breaker.execute("USD", () -> nanos.addAndGet(Duration.ofSeconds(2).toNanos()));
+        assertEquals(1.0 / 3, breaker.status().slowCallRate(), 1e-9);
+
+        breaker.execute("USD", () -> nanos.addAndGet(Duration.ofSeconds(1).toNanos()));
+
+        assertEquals(State.OPEN, breaker.state());
+    }
+
+    @Test
+    void execute_ClosesAfterSuccessfulProbesAndRejectsCallsBeyondThem() {
+        UpstreamCircuitBreaker breaker = breaker(1.0, 1);
+        open(breaker);
+
+        nanos.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertEquals(State.HALF_OPEN, breaker.state());
+        breaker.execute("USD", () -> assertThrows(UpstreamCircuitOpenException.class, () -> succeed(breaker)));
+
+        assertEquals(State.CLOSED, breaker.state());
+        assertEquals(0, breaker.status().calls());
+    }
+
+    @Test
+    void execute_ReopensWhenProbeFails() {
+        UpstreamCircuitBreaker breaker = breaker(1.0, 1);
+        open(breaker);
+
+        nanos.addAndGet(Duration.ofSeconds(30).toNanos());
+        fail(breaker);
+
+        assertEquals(State.OPEN, breaker.state());
+        assertEquals(Duration.ofSeconds(30), breaker.status().retryIn());
+    }
+
+    @Test
+    void execute_DoesNotRecordCallsRejectedByQuota() {
+        UpstreamCircuitBreaker breaker = breaker(1.0, 1);
+
+        for (int call = 0; call < 4; call++) {
+            assertThrows(UpstreamQuotaExceededException.class, () -> breaker.execute("USD", () -> {
+                throw new UpstreamQuotaExceededException("Upstream quota exhausted");
+            }));
+        }
+
+        assertEquals(State.CLOSED, breaker.state());
+        assertEquals(0, breaker.status().calls());
+    }
+
+    private UpstreamCircuitBreaker breaker(double slowCallRateThreshold, int halfOpenCalls) {
+        return new UpstreamCircuitBreaker(4, 4, 0.5, Duration.ofSeconds(1), slowCallRateThreshold,
+                Duration.ofSeconds(30), halfOpenCalls, meterRegistry, nanos::get);
+    }
+
+    private static void open(UpstreamCircuitBreaker breaker) {
+        for (int call = 0; call < 4; call++) {
+            fail(breaker);
+        }
+        assertEquals(State.OPEN, breaker.state());
+    }
+
+    private static void succeed(UpstreamCircuitBreaker breaker) {
+        breaker.execute("USD", () -> "rates");
+    }
+
+    private static void fail(UpstreamCircuitBreaker breaker) {
+        assertThrows(ExchangeRateException.class, () -> breaker.execute("USD", () -> {
+            throw new ExchangeRateException("Failed to fetch exchange rates for USD");
+        }));
+    }
+}
@@ -0,0 +1,47 @@
+package com.exchange.client;
+
+import com.exchange.client.UpstreamCircuitBreaker.State;
+import com.exchange.exception.ExchangeRateException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UpstreamCircuitHealthIndicatorTest {
+
+    private final UpstreamCircuitBreaker circuitBreaker = new UpstreamCircuitBreaker(2, 2, 0.5,
+            Duration.ofSeconds(1), 0.5, Duration.ofSeconds(30), 1, new SimpleMeterRegistry(), () -> 0);
+    private final UpstreamCircuitHealthIndicator healthIndicator = new UpstreamCircuitHealthIndicator(circuitBreaker);
+
+    @Test
+    void health_IsUpWhileCircuitIsClosed() {
+        circuitBreaker.execute("USD", () -> "rates");
+
+        Health health = healthIndicator.health();
+
+        assertThat(health.getStatus()).isEqualTo(Status.UP);
+        assertThat(health.getDetails()).containsEntry("state", State.CLOSED).containsEntry("calls", 1);
+    }
+
+    @Test
+    void health_IsOutOfServiceWhileCircuitIsOpen() {
+        for (int call = 0; call < 2; call++) {
+            try {
+                circuitBreaker.execute("USD", () -> {
+                    throw new ExchangeRateException("Failed to fetch exchange rates for USD");
+                });
+            } catch (ExchangeRateException expected) {
+                // recorded as a failure
+            }
+        }
+
+        Health health = healthIndicator.health();
+
+        assertThat(health.getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+        assertThat(health.getDetails()).containsEntry("state", State.OPEN).containsEntry("retryInMs", 30_000L);
+    }
+}
@@ -0,0 +1,95 @@
+package com.exchange.client;
+
+import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.exception.ExchangeRateException;
+import com.exchange.store.TestRates;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UpstreamQuotesDecoderTest {
+    private static final Instant TIMESTAMP = Instant.parse("2024-02-20T13:45:30Z");
+
+    private UpstreamQuotesDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        decoder = new UpstreamQuotesDecoder(TestRates.registry("USD", "EUR", "GBP", "JPY"));
+    }
+
+    @Test
+    void decode_ReadsQuotesIntoRatesAndTable() throws IOException {
+        AllExchangeRatesDto rates = decoder.decode(body("""
+                {"success":true,"terms":"https://example.com/terms","privacy":"https://example.com/privacy",
+                 "timestamp":1708436730,"source":"USD",
+                 "quotes":{"USDEUR":0.850102,"USDGBP":0.73,"USDJPY":149.5}}"""), "USD", TIMESTAMP);
+
+        assertThat(rates.getSourceCurrency()).isEqualTo("USD");
+        assertThat(rates.getTimestamp()).isEqualTo(TIMESTAMP);
+        assertThat(rates.getRates()).hasSize(3)
+                .containsEntry("USDEUR", new BigDecimal("0.850102"))
+                .containsEntry("USDJPY", new BigDecimal("149.5"));
+        assertThat(rates.getTable().rate("GBP")).isEqualTo(new BigDecimal("0.73"));
+        assertThat(rates.getTable().quotedCount()).isEqualTo(3);
+        assertThat(rates.getTable().timestamp()).isEqualTo(TIMESTAMP);
+    }
+
+    @Test
+    void decode_KeepsEveryNumberFormExactly() throws IOException {
+        AllExchangeRatesDto rates = decoder.decode(body("""
+                {"success":true,"quotes":{"USDEUR":0.000001500,"USDGBP":1.2345678901234567891,"USDJPY":1.495E2,
+                 "USDUSD":1}}"""), "USD", TIMESTAMP);
+
+        assertThat(rates.getRates())
+                .containsEntry("USDEUR", new BigDecimal("0.000001500"))
+                .containsEntry("USDGBP", new BigDecimal("1.2345678901234567891"))
+                .containsEntry("USDJPY", new BigDecimal("1.495E2"))
+                .containsEntry("USDUSD", new BigDecimal("1"));
+        assertThat(rates.getTable().rate("EUR")).isEqualTo(new BigDecimal("0.000001500"));
+        assertThat(rates.getTable().rate("GBP")).isEqualTo(new BigDecimal("1.23456789012345679"));
+        assertThat(rates.getTable().rate("JPY")).isEqualByComparingTo("149.5");
+        assertThat(rates.getTable().rate("USD")).isEqualTo(BigDecimal.ONE);
+    }
+
+    @Test
+    void decode_SkipsUnsupportedForeignAndMalformedQuotes() throws IOException {
+        AllExchangeRatesDto rates = decoder.decode(body("""
+                {"quotes":{"USDEUR":0.85,"USDXYZ":1.23,"EURGBP":0.86,"USDGB":0.7,"USDGBPX":0.7,
+                 "USDJPY":"149.5","USDGBP":null,"usdgbp":0.73,"USDUSD":{"nested":[1,2]}},"success":true}"""),
+                "USD", TIMESTAMP);
+
+        assertThat(rates.getRates()).containsOnlyKeys("USDEUR");
+        assertThat(rates.getTable().quotedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void decode_ThrowsException_WhenResponseIsUnsuccessful() {
+        InputStream body = body("{\"success\":false,\"error\":{\"code\":201,\"info\":\"Invalid base currency\"}}");
+
+        ExchangeRateException exception = assertThrows(ExchangeRateException.class,
+                () -> decoder.decode(body, "USD", TIMESTAMP));
+
+        assertThat(exception.getMessage()).isEqualTo("Failed to fetch exchange rates for USD");
+        assertThrows(ExchangeRateException.class, () -> decoder.decode(body("{\"quotes\":{}}"), "USD", TIMESTAMP));
+    }
+
+    @Test
+    void decode_ThrowsIOException_WhenBodyIsNotAJsonObject() {
+        assertThrows(IOException.class, () -> decoder.decode(body("[1,2]"), "USD", TIMESTAMP));
+        assertThrows(IOException.class, () -> decoder.decode(body("{\"success\":true,\"quotes\":{"), "USD",
+                TIMESTAMP));
+    }
+
+    private static InputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
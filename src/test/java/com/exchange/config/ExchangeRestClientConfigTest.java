@@ -0,0 +1,93 @@
+package com.exchange.config;
+
+import com.exchange.model.ExchangeRateResponse;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExchangeRestClientConfigTest {
+    private static final String QUOTES = "{\"success\":true,\"quotes\":{\"USDEUR\":0.85}}";
+
+    private WireMockServer wireMockServer;
+    private SimpleMeterRegistry meterRegistry;
+    private RestClient restClient;
+
+    @BeforeEach
+    void setUp() {
+        wireMockServer = new WireMockServer(wireMockConfig().dynamicPort());
+        wireMockServer.start();
+        meterRegistry = new SimpleMeterRegistry();
+        restClient = ExchangeRestClientConfig.exchangeRateRestClient("primary",
+                "http://localhost:" + wireMockServer.port(), "secret key", Duration.ofSeconds(1),
+                Duration.ofSeconds(1), 1024, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        wireMockServer.stop();
+    }
+
+    @Test
+    void request_AddsAccessKeyAndRecordsLatency() {
+        wireMockServer.stubFor(get(urlPathEqualTo("/live"))
+                .withQueryParam("source", equalTo("USD"))
+                .withQueryParam("access_key", equalTo("secret key"))
+                .willReturn(okJson(QUOTES)));
+
+        ExchangeRateResponse response = fetch();
+
+        assertThat(response.getQuotes()).containsEntry("USDEUR", new BigDecimal("0.85"));
+        Timer timer = meterRegistry.get("exchange.rate.upstream.requests")
+                .tags("provider", "primary", "uri", "/live", "status", "200", "outcome", "SUCCESS")
+                .timer();
+        assertThat(timer.count()).isEqualTo(1);
+    }
+
+    @Test
+    void request_FailsAfterReadTimeout() {
+        wireMockServer.stubFor(get(urlPathEqualTo("/live"))
+                .willReturn(okJson(QUOTES).withFixedDelay(3000)));
+
+        assertThrows(ResourceAccessException.class, this::fetch);
+        assertThat(meterRegistry.get("exchange.rate.upstream.requests").tag("outcome", "IO_ERROR").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void request_RejectsResponseAboveSizeLimit() {
+        String oversized = "{\"success\":true,\"quotes\":{\"USDEUR\":0.85},\"padding\":\"" + "x".repeat(2048) + "\"}";
+        wireMockServer.stubFor(get(urlPathEqualTo("/live"))
+                .withQueryParam("source", equalTo("USD"))
+                .willReturn(okJson(oversized)));
+        wireMockServer.stubFor(get(urlPathEqualTo("/live"))
+                .withQueryParam("source", equalTo("EUR"))
+                .willReturn(okJson(oversized).withChunkedDribbleDelay(4, 20)));
+
+        assertThrows(RestClientException.class, this::fetch);
+        assertThrows(RestClientException.class, () -> restClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/live").queryParam("source", "EUR").build())
+                .retrieve()
+                .body(ExchangeRateResponse.class));
+    }
+
+    private ExchangeRateResponse fetch() {
+        return restClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/live").queryParam("source", "USD").build())
+                .retrieve()
+                .body(ExchangeRateResponse.class);
+    }
+}
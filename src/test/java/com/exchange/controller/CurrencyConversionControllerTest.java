@@ -1,8 +1,14 @@
 package com.exchange.controller;
 
+import com.exchange.binary.RatesBinaryCodec;
+import com.exchange.bulk.BulkRowCodec;
 import com.exchange.config.CurrencyConfig;
+import com.exchange.dto.BatchConversionItemResultDto;
+import com.exchange.dto.BatchConversionResultDto;
+import com.exchange.dto.BulkConversionSummaryDto;
 import com.exchange.dto.ConversionResultDto;
 import com.exchange.dto.MultiConversionResultDto;
+import com.exchange.exception.BatchSizeExceededException;
 import com.exchange.exception.CurrencyConversionException;
 import com.exchange.service.CurrencyConversionService;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,18 +18,31 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.BufferedReader;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(CurrencyConversionController.class)
@@ -139,6 +158,32 @@ class CurrencyConversionControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void convertToMultipleCurrencies_AllTargets_ConvertsIntoEveryCurrency() throws Exception {
+        when(currencyConversionService.convertToAllCurrencies(eq("USD"), any()))
+                .thenReturn(multiConversionResult);
+
+        mockMvc.perform(post("/api/v1/exchange/convert/multiple")
+                        .content("{\"sourceCurrency\": \"USD\", \"allTargets\": true, \"amount\": 100}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.conversions.EUR").value(85))
+                .andExpect(jsonPath("$.conversions.GBP").value(73));
+
+        verify(currencyConversionService, never()).convertToMultipleCurrencies(any(), anyList(), any());
+    }
+
+    @Test
+    void convertToMultipleCurrencies_NeitherTargetsNorAllTargets_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/v1/exchange/convert/multiple")
+                        .content("{\"sourceCurrency\": \"USD\", \"targetCurrencies\": [], \"amount\": 100}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.targetCurrenciesSpecified").value("Target currencies list cannot be empty"));
+
+        verifyNoInteractions(currencyConversionService);
+    }
+
     @Test
     void convertValue_WhenCurrencyConversionException_ReturnsBadRequest() throws Exception {
         when(currencyConversionService.convertAmount(any(), any(), any()))
@@ -178,4 +223,117 @@ class CurrencyConversionControllerTest {
                 .andExpect(jsonPath("$.message").value(containsString("Invalid request body format")))
                 .andExpect(jsonPath("$.timestamp").exists());
     }
+
+    @Test
+    void convertBatch_ValidRequest_ReturnsPerItemResults() throws Exception {
+        when(currencyConversionService.convertBatch(anyList()))
+                .thenReturn(BatchConversionResultDto.builder()
+                        .results(List.of(
+                                BatchConversionItemResultDto.builder()
+                                        .index(0)
+                                        .sourceCurrency("USD")
+                                        .targetCurrency("EUR")
+                                        .sourceAmount(BigDecimal.valueOf(100))
+                                        .convertedAmount(BigDecimal.valueOf(85))
+                                        .exchangeRate(BigDecimal.valueOf(0.85))
+                                        .build(),
+                                BatchConversionItemResultDto.builder()
+                                        .index(1)
+                                        .sourceCurrency("USD")
+                                        .targetCurrency("XYZ")
+                                        .sourceAmount(BigDecimal.valueOf(100))
+                                        .error("Currency 'XYZ' is not supported.")
+                                        .build()))
+                        .succeeded(1)
+                        .failed(1)
+                        .build());
+
+        mockMvc.perform(post("/api/v1/exchange/convert/batch")
+                        .content("""
+                                {
+                                    "items": [
+                                        {"sourceCurrency": "USD", "targetCurrency": "EUR", "amount": 100},
+                                        {"sourceCurrency": "USD", "targetCurrency": "XYZ", "amount": 100}
+                                    ]
+                                }
+                                """)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].convertedAmount").value(85))
+                .andExpect(jsonPath("$.results[0].error").doesNotExist())
+                .andExpect(jsonPath("$.results[1].error").value("Currency 'XYZ' is not supported."))
+                .andExpect(jsonPath("$.results[1].convertedAmount").doesNotExist());
+    }
+
+    @Test
+    void convertBatch_EmptyItems_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/v1/exchange/convert/batch")
+                        .content("{\"items\": []}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Validation failed"));
+    }
+
+    @Test
+    void convertBatch_TooLarge_ReturnsBadRequest() throws Exception {
+        when(currencyConversionService.convertBatch(anyList()))
+                .thenThrow(new BatchSizeExceededException("Batch of 3 items exceeds the maximum of 2"));
+
+        mockMvc.perform(post("/api/v1/exchange/convert/batch")
+                        .content("{\"items\": [{}, {}, {}]}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Batch of 3 items exceeds the maximum of 2"));
+    }
+
+    @Test
+    void convertStream_Csv_StreamsServiceOutput() throws Exception {
+        doAnswer(invocation -> {
+            BufferedReader input = invocation.getArgument(0);
+            Writer output = invocation.getArgument(1);
+            output.write("converted " + input.readLine() + "\n");
+            return BulkConversionSummaryDto.builder().rows(1).succeeded(1).build();
+        }).when(currencyConversionService).convertStream(any(BufferedReader.class), any(Writer.class),
+                any(BulkRowCodec.class));
+
+        MvcResult result = mockMvc.perform(post("/api/v1/exchange/convert/stream")
+                        .content("USD,EUR,100\n")
+                        .contentType("text/csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string("converted USD,EUR,100\n"));
+    }
+
+    @Test
+    void convertStream_UnsupportedContentType_ReturnsUnsupportedMediaType() throws Exception {
+        mockMvc.perform(post("/api/v1/exchange/convert/stream")
+                        .content("{\"items\": []}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnsupportedMediaType())
+                .andExpect(jsonPath("$.message").value("Unsupported content type: application/json"));
+
+        verifyNoInteractions(currencyConversionService);
+    }
+
+    @Test
+    void convertToMultipleCurrencies_AcceptsBinary_ReturnsBinaryConversions() throws Exception {
+        when(currencyConversionService.convertToMultipleCurrencies(any(), anyList(), any()))
+                .thenReturn(multiConversionResult);
+
+        byte[] body = mockMvc.perform(post("/api/v1/exchange/convert/multiple")
+                        .content(VALID_MULTI_CONVERSION_REQUEST)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(RatesBinaryCodec.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(RatesBinaryCodec.MEDIA_TYPE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(multiConversionResult, RatesBinaryCodec.decodeConversions(body));
+    }
 }
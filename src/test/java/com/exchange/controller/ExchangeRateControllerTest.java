@@ -1,45 +1,89 @@
 package com.exchange.controller;
 
+import com.exchange.binary.RatesBinaryCodec;
 import com.exchange.config.CurrencyConfig;
 import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.dto.RatesDeltaDto;
 import com.exchange.dto.SingleExchangeRateDto;
 import com.exchange.exception.CurrencyConversionException;
 import com.exchange.exception.ExchangeRateException;
 import com.exchange.model.CurrencyExchangeRequest;
+import com.exchange.model.RateMode;
 import com.exchange.service.ExchangeRateProviderService;
+import com.exchange.store.CurrencyDemandTracker;
+import com.exchange.store.RateStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
 
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ExchangeRateController.class)
-@Import(CurrencyConfig.class)
+@Import({CurrencyConfig.class, RatesResponseCache.class, RateCacheHeaders.class, RateUpdateBroadcaster.class,
+        SimpleMeterRegistry.class})
 class ExchangeRateControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RateUpdateBroadcaster rateUpdateBroadcaster;
+
+    @Autowired
+    private RateCacheHeaders rateCacheHeaders;
+
     @MockitoBean
     private ExchangeRateProviderService exchangeRateService;
 
+    @MockitoBean
+    private RateStore rateStore;
+
+    @MockitoBean
+    private CurrencyDemandTracker demandTracker;
+
     @MockitoBean
     private CurrencyConfig currencyConfig;
 
+    @MockitoSpyBean
+    private RatesResponseCache ratesResponseCache;
+
     private SingleExchangeRateDto singleRateResult;
     private AllExchangeRatesDto allRatesResult;
 
@@ -47,6 +91,8 @@ class ExchangeRateControllerTest {
     void setUp() {
         when(currencyConfig.getSupported())
                 .thenReturn(Set.of("USD", "EUR", "GBP"));
+        when(rateStore.remainingLifetime(any()))
+                .thenReturn(Duration.ofMillis(37_900));
 
         singleRateResult = SingleExchangeRateDto.builder()
                 .sourceCurrency("USD")
@@ -66,7 +112,7 @@ class ExchangeRateControllerTest {
 
     @Test
     void getExchangeRate_ValidRequest_ReturnsRate() throws Exception {
-        when(exchangeRateService.getExchangeRate(any(), any()))
+        when(exchangeRateService.getExchangeRate(any(), any(), any()))
                 .thenReturn(singleRateResult);
 
         mockMvc.perform(get("/api/v1/exchange/rates/single")
@@ -80,6 +126,44 @@ class ExchangeRateControllerTest {
                 .andExpect(jsonPath("$.timestamp").exists());
     }
 
+    @Test
+    void getExchangeRate_TriangulatedMode_ReturnsPivotAndPrecisionLoss() throws Exception {
+        SingleExchangeRateDto derivedRate = SingleExchangeRateDto.builder()
+                .sourceCurrency("EUR")
+                .targetCurrency("GBP")
+                .exchangeRate(BigDecimal.valueOf(0.858823))
+                .pivotCurrency("USD")
+                .precisionLoss(new BigDecimal("0.0000013"))
+                .timestamp(Instant.now())
+                .build();
+
+        when(exchangeRateService.getExchangeRate(eq("EUR"), eq("GBP"), eq(RateMode.TRIANGULATED_ALLOWED)))
+                .thenReturn(derivedRate);
+
+        mockMvc.perform(get("/api/v1/exchange/rates/single")
+                        .param("sourceCurrency", "EUR")
+                        .param("targetCurrency", "GBP")
+                        .param("mode", "TRIANGULATED_ALLOWED")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pivotCurrency").value("USD"))
+                .andExpect(jsonPath("$.precisionLoss").value(0.0000013));
+    }
+
+    @Test
+    void getExchangeRate_DirectRate_OmitsTriangulationFields() throws Exception {
+        when(exchangeRateService.getExchangeRate(any(), any(), any()))
+                .thenReturn(singleRateResult);
+
+        mockMvc.perform(get("/api/v1/exchange/rates/single")
+                        .param("sourceCurrency", "USD")
+                        .param("targetCurrency", "EUR")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pivotCurrency").doesNotExist())
+                .andExpect(jsonPath("$.precisionLoss").doesNotExist());
+    }
+
     @Test
     void getExchangeRate_InvalidCurrency_ReturnsBadRequest() throws Exception {
         mockMvc.perform(get("/api/v1/exchange/rates/single")
@@ -91,7 +175,7 @@ class ExchangeRateControllerTest {
 
     @Test
     void getAllRates_ValidRequest_ReturnsAllRates() throws Exception {
-        when(exchangeRateService.getAllRates(any()))
+        when(exchangeRateService.getAllRates(any(), any()))
                 .thenReturn(allRatesResult);
 
         mockMvc.perform(get("/api/v1/exchange/rates/all")
@@ -114,7 +198,7 @@ class ExchangeRateControllerTest {
 
     @Test
     void getExchangeRate_WhenRateNotFound_ReturnsBadRequest() throws Exception {
-        when(exchangeRateService.getExchangeRate(any(), any()))
+        when(exchangeRateService.getExchangeRate(any(), any(), any()))
                 .thenThrow(new CurrencyConversionException("Rate not found"));
 
         mockMvc.perform(get("/api/v1/exchange/rates/single")
@@ -140,7 +224,7 @@ class ExchangeRateControllerTest {
 
     @Test
     void whenUnexpectedError_ReturnsInternalServerError() throws Exception {
-        when(exchangeRateService.getExchangeRate(any(), any()))
+        when(exchangeRateService.getExchangeRate(any(), any(), any()))
                 .thenThrow(new RuntimeException("Unexpected internal error"));
 
         mockMvc.perform(get("/api/v1/exchange/rates/single")
@@ -168,7 +252,7 @@ class ExchangeRateControllerTest {
         request.setSourceCurrency("USD");
         request.setTargetCurrency("EUR");
 
-        when(exchangeRateService.getExchangeRate("USD", "EUR"))
+        when(exchangeRateService.getExchangeRate("USD", "EUR", RateMode.DIRECT_ONLY))
                 .thenThrow(new ExchangeRateException("External service unavailable"));
 
         mockMvc.perform(get("/api/v1/exchange/rates/single")
@@ -183,7 +267,7 @@ class ExchangeRateControllerTest {
 
     @Test
     void getAllRates_WhenServiceThrowsException_ReturnsServiceUnavailable() throws Exception {
-        when(exchangeRateService.getAllRates("USD"))
+        when(exchangeRateService.getAllRates("USD", RateMode.DIRECT_ONLY))
                 .thenThrow(new ExchangeRateException("Failed to fetch rates"));
 
         mockMvc.perform(get("/api/v1/exchange/rates/all")
@@ -194,5 +278,201 @@ class ExchangeRateControllerTest {
                 .andExpect(jsonPath("$.message").value("Exchange rate service error: Failed to fetch rates"))
                 .andExpect(jsonPath("$.timestamp").exists());
     }
-}
 
+    @Test
+    void getAllRates_AcceptsGzip_ReturnsPreSerializedGzipBody() throws Exception {
+        when(exchangeRateService.getAllRates(any(), any()))
+                .thenReturn(allRatesResult.toBuilder().snapshotVersion(3L).build());
+
+        byte[] body = mockMvc.perform(get("/api/v1/exchange/rates/all")
+                        .param("currency", "USD")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, "Accept, Accept-Encoding"))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream json = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            AllExchangeRatesDto rates = objectMapper.readValue(json, AllExchangeRatesDto.class);
+            assertEquals(3L, rates.getSnapshotVersion());
+            assertEquals(new BigDecimal("0.85"), rates.getRates().get("EUR"));
+        }
+    }
+
+    @Test
+    void getAllRates_GzipRefused_ReturnsPlainBody() throws Exception {
+        when(exchangeRateService.getAllRates(any(), any()))
+                .thenReturn(allRatesResult.toBuilder().snapshotVersion(3L).build());
+
+        mockMvc.perform(get("/api/v1/exchange/rates/all")
+                        .param("currency", "USD")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(jsonPath("$.snapshotVersion").value(3));
+    }
+
+    @Test
+    void getExchangeRate_ReturnsETagAndRemainingLifetime() throws Exception {
+        when(exchangeRateService.getExchangeRate(any(), any(), any()))
+                .thenReturn(singleRateResult.toBuilder().snapshotVersion(7L).build());
+
+        mockMvc.perform(get("/api/v1/exchange/rates/single")
+                        .param("sourceCurrency", "USD")
+                        .param("targetCurrency", "EUR"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, matchesPattern("\"USD-EUR-[0-9a-f]{16}\"")))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=37"));
+    }
+
+    @Test
+    void getExchangeRate_MatchingIfNoneMatch_ReturnsNotModified() throws Exception {
+        SingleExchangeRateDto rate = singleRateResult.toBuilder().snapshotVersion(7L).build();
+        when(exchangeRateService.getExchangeRate(any(), any(), any())).thenReturn(rate);
+        String etag = rateCacheHeaders.etag(rate);
+
+        mockMvc.perform(get("/api/v1/exchange/rates/single")
+                        .param("sourceCurrency", "USD")
+                        .param("targetCurrency", "EUR")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"USD-EUR-0123456789abcdef\", W/" + etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=37"))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void getExchangeRate_StaleTriangulatedRate_UsesPivotIdentityAndZeroMaxAge() throws Exception {
+        when(exchangeRateService.getExchangeRate(any(), any(), any()))
+                .thenReturn(SingleExchangeRateDto.builder()
+                        .sourceCurrency("EUR")
+                        .targetCurrency("GBP")
+                        .exchangeRate(BigDecimal.valueOf(0.858823))
+                        .pivotCurrency("USD")
+                        .stale(true)
+                        .timestamp(Instant.ofEpochMilli(1_708_436_730_000L))
+                        .build());
+
+        mockMvc.perform(get("/api/v1/exchange/rates/single")
+                        .param("sourceCurrency", "EUR")
+                        .param("targetCurrency", "GBP")
+                        .param("mode", "TRIANGULATED_ALLOWED"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, matchesPattern("\"EUR-GBP-[0-9a-f]{16}-stale\"")))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=0"));
+    }
+
+    @Test
+    void getAllRates_MatchingIfNoneMatch_ReturnsNotModifiedWithoutSerializing() throws Exception {
+        AllExchangeRatesDto rates = allRatesResult.toBuilder().snapshotVersion(3L).build();
+        when(exchangeRateService.getAllRates(any(), any())).thenReturn(rates);
+        String etag = rateCacheHeaders.etag(rates, null);
+
+        mockMvc.perform(get("/api/v1/exchange/rates/all")
+                        .param("currency", "USD")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=37"))
+                .andExpect(header().string(HttpHeaders.VARY, "Accept, Accept-Encoding"))
+                .andExpect(content().string(""));
+
+        verify(ratesResponseCache, never()).get(any());
+    }
+
+    @Test
+    void getAllRates_GzipBody_HasDistinctETag() throws Exception {
+        AllExchangeRatesDto rates = allRatesResult.toBuilder().snapshotVersion(3L).build();
+        when(exchangeRateService.getAllRates(any(), any())).thenReturn(rates);
+        String etag = rateCacheHeaders.etag(rates, null);
+
+        mockMvc.perform(get("/api/v1/exchange/rates/all")
+                        .param("currency", "USD")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, rateCacheHeaders.etag(rates, "gzip")))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+    }
+
+    @Test
+    void getRatesDelta_ValidRequest_ReturnsChangedRates() throws Exception {
+        when(exchangeRateService.getRatesDelta("USD", 40L))
+                .thenReturn(RatesDeltaDto.builder()
+                        .sourceCurrency("USD")
+                        .sinceVersion(40L)
+                        .snapshotVersion(42L)
+                        .changed(Map.of("USDEUR", BigDecimal.valueOf(0.86)))
+                        .removed(List.of())
+                        .timestamp(Instant.now())
+                        .build());
+
+        mockMvc.perform(get("/api/v1/exchange/rates/delta")
+                        .param("currency", "USD")
+                        .param("since", "40"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.snapshotVersion").value(42))
+                .andExpect(jsonPath("$.fullResync").value(false))
+                .andExpect(jsonPath("$.changed.USDEUR").value(0.86))
+                .andExpect(jsonPath("$.removed").doesNotExist());
+    }
+
+    @Test
+    void getRatesDelta_MissingVersion_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/exchange/rates/delta")
+                        .param("currency", "USD"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Validation failed"));
+    }
+
+    @Test
+    void subscribe_StreamsCurrentRatesAsServerSentEvents() throws Exception {
+        when(rateStore.find("USD"))
+                .thenReturn(Optional.of(allRatesResult.toBuilder().snapshotVersion(5L).build()));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/exchange/rates/stream")
+                        .param("currencies", "USD,EUR")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!result.getResponse().getContentAsString().contains("data:")) {
+            assertTrue(System.nanoTime() < deadline, "No event streamed in time");
+            Thread.sleep(5);
+        }
+        String stream = result.getResponse().getContentAsString();
+        assertTrue(stream.startsWith("id:5\nevent:rates\ndata:{"), stream);
+        assertEquals(1, rateUpdateBroadcaster.activeSubscriptions());
+    }
+
+    @Test
+    void subscribe_UnsupportedCurrency_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/exchange/rates/stream")
+                        .param("currencies", "USD,XXX"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Validation failed"));
+    }
+
+    @Test
+    void getAllRates_AcceptsBinary_ReturnsBinaryRates() throws Exception {
+        AllExchangeRatesDto rates = allRatesResult.toBuilder()
+                .rates(Map.of("USDEUR", new BigDecimal("0.85"), "USDGBP", new BigDecimal("0.73")))
+                .snapshotVersion(3L)
+                .build();
+        when(exchangeRateService.getAllRates(any(), any())).thenReturn(rates);
+
+        byte[] body = mockMvc.perform(get("/api/v1/exchange/rates/all")
+                        .param("currency", "USD")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .accept(RatesBinaryCodec.MEDIA_TYPE, MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(RatesBinaryCodec.MEDIA_TYPE))
+                .andExpect(header().string(HttpHeaders.ETAG, matchesPattern("\"USD-[0-9a-f]{16}-binary\"")))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(rates, RatesBinaryCodec.decodeRates(body));
+    }
+}
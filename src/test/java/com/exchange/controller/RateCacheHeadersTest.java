@@ -0,0 +1,128 @@
+package com.exchange.controller;
+
+import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.dto.SingleExchangeRateDto;
+import com.exchange.store.RateStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class RateCacheHeadersTest {
+    private static final Instant TIMESTAMP = Instant.parse("2024-02-20T13:45:30Z");
+
+    @Mock
+    private RateStore rateStore;
+
+    private RateCacheHeaders rateCacheHeaders;
+
+    @BeforeEach
+    void setUp() {
+        rateCacheHeaders = rateCacheHeaders();
+    }
+
+    @Test
+    void etag_DiffersForDifferentRatesOfSameSnapshotVersion() {
+        AllExchangeRatesDto before = rates(5L, "0.85");
+        AllExchangeRatesDto after = rates(5L, "0.86");
+
+        // a restarted process reissues snapshot versions, with nothing cached under the old ones
+        assertNotEquals(rateCacheHeaders.etag(before, null), rateCacheHeaders().etag(after, null));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void etag_HashesPublishedTableOnlyOnce() {
+        ArgumentCaptor<Consumer<AllExchangeRatesDto>> listener = ArgumentCaptor.forClass(Consumer.class);
+        verify(rateStore, atLeastOnce()).addPublishListener(listener.capture());
+        AllExchangeRatesDto rates = spy(rates(5L, "0.85"));
+        listener.getValue().accept(rates);
+        clearInvocations(rates);
+
+        String etag = rateCacheHeaders.etag(rates, null);
+
+        assertEquals(etag, rateCacheHeaders().etag(rates(5L, "0.85"), null));
+        verify(rates, never()).getRates();
+    }
+
+    @Test
+    void etag_IsSameForSameRatesWhateverSnapshotVersionOrMapOrder() {
+        Map<String, BigDecimal> reordered = new LinkedHashMap<>();
+        reordered.put("USDGBP", new BigDecimal("0.73"));
+        reordered.put("USDEUR", new BigDecimal("0.85"));
+        AllExchangeRatesDto restarted = rates(1L, "0.85").toBuilder().rates(reordered).build();
+
+        String etag = rateCacheHeaders.etag(rates(42L, "0.85"), null);
+
+        assertEquals(etag, rateCacheHeaders.etag(restarted, null));
+        assertTrue(etag.matches("\"USD-[0-9a-f]{16}\""), etag);
+    }
+
+    @Test
+    void etag_DistinguishesTimestampPivotStaleAndVariant() {
+        AllExchangeRatesDto rates = rates(5L, "0.85");
+        String etag = rateCacheHeaders.etag(rates, null);
+
+        assertNotEquals(etag, rateCacheHeaders.etag(rates.toBuilder().timestamp(TIMESTAMP.plusSeconds(60)).build(),
+                null));
+        assertNotEquals(etag, rateCacheHeaders.etag(rates.toBuilder().pivotCurrency("EUR").build(), null));
+        assertEquals(etag.replace("\"", "").concat("-stale"),
+                rateCacheHeaders.etag(rates.toBuilder().stale(true).build(), null).replace("\"", ""));
+        assertEquals(etag.replace("\"", "").concat("-gzip"), rateCacheHeaders.etag(rates, "gzip").replace("\"", ""));
+    }
+
+    @Test
+    void etag_SingleRateDiffersForDifferentRatesOfSameSnapshotVersion() {
+        SingleExchangeRateDto rate = SingleExchangeRateDto.builder()
+                .sourceCurrency("USD")
+                .targetCurrency("EUR")
+                .exchangeRate(new BigDecimal("0.85"))
+                .snapshotVersion(5L)
+                .timestamp(TIMESTAMP)
+                .build();
+
+        String etag = rateCacheHeaders.etag(rate);
+
+        assertTrue(etag.startsWith("\"USD-EUR-"), etag);
+        assertNotEquals(etag, rateCacheHeaders.etag(rate.toBuilder().exchangeRate(new BigDecimal("0.86")).build()));
+    }
+
+    @Test
+    void notModified_UsesWeakComparison() {
+        assertTrue(RateCacheHeaders.notModified(List.of("\"a\"", "W/\"b\""), "\"b\""));
+        assertTrue(RateCacheHeaders.notModified(List.of("*"), "\"b\""));
+        assertFalse(RateCacheHeaders.notModified(List.of("\"a\""), "\"b\""));
+    }
+
+    private RateCacheHeaders rateCacheHeaders() {
+        return new RateCacheHeaders(rateStore, new RatesResponseCache(rateStore, new ObjectMapper()
+                .findAndRegisterModules()));
+    }
+
+    private static AllExchangeRatesDto rates(long snapshotVersion, String eurRate) {
+        return AllExchangeRatesDto.builder()
+                .sourceCurrency("USD")
+                .rates(Map.of("USDEUR", new BigDecimal(eurRate), "USDGBP", new BigDecimal("0.73")))
+                .snapshotVersion(snapshotVersion)
+                .timestamp(TIMESTAMP)
+                .build();
+    }
+}
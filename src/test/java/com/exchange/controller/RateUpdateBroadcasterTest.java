@@ -0,0 +1,127 @@
+package com.exchange.controller;
+
+import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.store.CurrencyDemandTracker;
+import com.exchange.store.RateStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RateUpdateBroadcasterTest {
+
+    @Mock
+    private RateStore rateStore;
+
+    @Mock
+    private RatesResponseCache ratesResponseCache;
+
+    @Mock
+    private CurrencyDemandTracker demandTracker;
+
+    private SimpleMeterRegistry meterRegistry;
+    private final List<Runnable> pendingSends = new ArrayList<>();
+    private RateUpdateBroadcaster broadcaster;
+    private Consumer<AllExchangeRatesDto> publishListener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(ratesResponseCache.get(any()))
+                .thenReturn(new RatesResponseCache.SerializedRates(1L, false, 0L, "{}".getBytes(), null));
+        broadcaster = new RateUpdateBroadcaster(rateStore, ratesResponseCache, demandTracker, meterRegistry, 2,
+                60_000, pendingSends::add);
+        ArgumentCaptor<Consumer<AllExchangeRatesDto>> listener = ArgumentCaptor.forClass(Consumer.class);
+        verify(rateStore).addPublishListener(listener.capture());
+        publishListener = listener.getValue();
+    }
+
+    @Test
+    void subscribe_QueuesCurrentTableOfStoredBases() {
+        when(rateStore.find("USD")).thenReturn(Optional.of(rates("USD", 1L)));
+        when(rateStore.find("EUR")).thenReturn(Optional.empty());
+
+        broadcaster.subscribe(List.of("USD", "EUR"));
+
+        assertEquals(1, pendingSends.size());
+        assertEquals(1, broadcaster.activeSubscriptions());
+        assertEquals(1, meterRegistry.get("exchange.rate.subscription.active").gauge().value());
+        verify(demandTracker).subscribe("USD");
+        verify(demandTracker).subscribe("EUR");
+    }
+
+    @Test
+    void publish_OnlyReachesSubscribersOfTheBase() {
+        broadcaster.subscribe(List.of("EUR"));
+
+        publishListener.accept(rates("USD", 1L));
+
+        assertTrue(pendingSends.isEmpty());
+    }
+
+    @Test
+    void publish_SchedulesOneSendWhileEventsAreQueued() {
+        broadcaster.subscribe(List.of("USD"));
+
+        publishListener.accept(rates("USD", 1L));
+        publishListener.accept(rates("USD", 2L));
+
+        assertEquals(1, pendingSends.size());
+        pendingSends.removeFirst().run();
+        publishListener.accept(rates("USD", 3L));
+        assertEquals(1, pendingSends.size());
+    }
+
+    @Test
+    void publish_DropsSubscriberWhoseBufferIsFull() {
+        broadcaster.subscribe(List.of("USD"));
+        broadcaster.subscribe(List.of("EUR"));
+
+        for (long version = 1; version <= 3; version++) {
+            publishListener.accept(rates("USD", version));
+        }
+
+        assertEquals(1, broadcaster.activeSubscriptions());
+        assertEquals(1, meterRegistry.counter("exchange.rate.subscription.dropped").count());
+        verify(demandTracker).unsubscribe("USD");
+        verify(demandTracker, never()).unsubscribe("EUR");
+        broadcaster.heartbeat();
+        assertEquals(2, pendingSends.size());
+    }
+
+    @Test
+    void constructor_RejectsEmptyBuffer() {
+        assertThrows(IllegalStateException.class, () ->
+                new RateUpdateBroadcaster(rateStore, ratesResponseCache, demandTracker, meterRegistry, 0, 60_000,
+                        Runnable::run));
+    }
+
+    private static AllExchangeRatesDto rates(String currency, Long snapshotVersion) {
+        return AllExchangeRatesDto.builder()
+                .sourceCurrency(currency)
+                .rates(Map.of(currency + "GBP", new BigDecimal("0.73")))
+                .snapshotVersion(snapshotVersion)
+                .timestamp(Instant.parse("2024-02-20T13:45:30Z"))
+                .build();
+    }
+}
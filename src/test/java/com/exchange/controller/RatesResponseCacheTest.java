@@ -0,0 +1,134 @@
+package com.exchange.controller;
+
+import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.store.RateStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class RatesResponseCacheTest {
+
+    @Mock
+    private RateStore rateStore;
+
+    private ObjectMapper objectMapper;
+    private RatesResponseCache ratesResponseCache;
+    private Consumer<AllExchangeRatesDto> publishListener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        objectMapper = spy(new ObjectMapper().findAndRegisterModules());
+        ratesResponseCache = new RatesResponseCache(rateStore, objectMapper);
+        ArgumentCaptor<Consumer<AllExchangeRatesDto>> listener = ArgumentCaptor.forClass(Consumer.class);
+        verify(rateStore).addPublishListener(listener.capture());
+        publishListener = listener.getValue();
+    }
+
+    @Test
+    void get_ReusesBodySerializedWhenTableWasPublished() throws IOException {
+        AllExchangeRatesDto rates = rates("USD", 5L);
+
+        publishListener.accept(rates);
+        RatesResponseCache.SerializedRates first = ratesResponseCache.get(rates);
+        RatesResponseCache.SerializedRates second = ratesResponseCache.get(rates.toBuilder().build());
+
+        assertSame(first, second);
+        verify(objectMapper, times(1)).writeValueAsBytes(rates);
+        assertArrayEquals(objectMapper.writeValueAsBytes(rates), first.json());
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(first.gzip()))) {
+            assertArrayEquals(first.json(), gzip.readAllBytes());
+        }
+    }
+
+    @Test
+    void get_RebuildsBodyForNewVersionOrStaleFlag() {
+        AllExchangeRatesDto rates = rates("USD", 5L);
+        RatesResponseCache.SerializedRates fresh = ratesResponseCache.get(rates);
+
+        RatesResponseCache.SerializedRates stale = ratesResponseCache.get(rates.toBuilder().stale(true).build());
+        publishListener.accept(rates("USD", 6L));
+        RatesResponseCache.SerializedRates next = ratesResponseCache.get(rates("USD", 6L));
+
+        assertNotSame(fresh, stale);
+        assertTrue(stale.stale());
+        assertEquals(6L, next.snapshotVersion());
+        assertSame(next, ratesResponseCache.get(rates("USD", 6L)));
+    }
+
+    @Test
+    void get_KeepsNewerBodyWhenOlderVersionIsServed() {
+        publishListener.accept(rates("USD", 6L));
+        RatesResponseCache.SerializedRates newer = ratesResponseCache.get(rates("USD", 6L));
+
+        ratesResponseCache.get(rates("USD", 5L));
+
+        assertSame(newer, ratesResponseCache.get(rates("USD", 6L)));
+    }
+
+    @Test
+    void get_KeepsStaleBodyWhenFreshCopyOfSameVersionIsServed() {
+        AllExchangeRatesDto rates = rates("USD", 5L);
+        publishListener.accept(rates);
+        RatesResponseCache.SerializedRates stale = ratesResponseCache.get(rates.toBuilder().stale(true).build());
+
+        RatesResponseCache.SerializedRates fresh = ratesResponseCache.get(rates);
+        RatesResponseCache.SerializedRates freshAgain = ratesResponseCache.get(rates);
+
+        assertNotSame(fresh, freshAgain);
+        assertSame(stale, ratesResponseCache.get(rates.toBuilder().stale(true).build()));
+    }
+
+    @Test
+    void get_DoesNotCacheTablesWithoutSnapshotVersion() throws IOException {
+        AllExchangeRatesDto derived = rates("EUR", null);
+
+        RatesResponseCache.SerializedRates body = ratesResponseCache.get(derived);
+
+        assertNull(body.gzip());
+        assertNotSame(body, ratesResponseCache.get(derived));
+        assertEquals(derived.getRates(),
+                objectMapper.readValue(body.json(), AllExchangeRatesDto.class).getRates());
+    }
+
+    @Test
+    void get_DoesNotCacheTriangulatedTablesOverDirectOnes() {
+        AllExchangeRatesDto direct = rates("JPY", 5L);
+        publishListener.accept(direct);
+        RatesResponseCache.SerializedRates directBody = ratesResponseCache.get(direct);
+
+        AllExchangeRatesDto derived = rates("JPY", 7L).toBuilder().pivotCurrency("USD").build();
+        RatesResponseCache.SerializedRates derivedBody = ratesResponseCache.get(derived);
+
+        assertNull(derivedBody.gzip());
+        assertNotSame(derivedBody, ratesResponseCache.get(derived));
+        assertSame(directBody, ratesResponseCache.get(direct));
+    }
+
+    private static AllExchangeRatesDto rates(String currency, Long snapshotVersion) {
+        return AllExchangeRatesDto.builder()
+                .sourceCurrency(currency)
+                .rates(Map.of(currency + "GBP", new BigDecimal("0.73")))
+                .snapshotVersion(snapshotVersion)
+                .timestamp(Instant.parse("2024-02-20T13:45:30Z"))
+                .build();
+    }
+}
@@ -0,0 +1,82 @@
+package com.exchange.converter;
+
+import com.exchange.store.CurrencyRegistry;
+import com.exchange.store.RateTable;
+import com.exchange.store.TestRates;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AllTargetConversionsTest {
+
+    private CurrencyRegistry currencyRegistry;
+    private RateTable table;
+
+    @BeforeEach
+    void setUp() {
+        currencyRegistry = TestRates.registry("USD", "EUR", "GBP", "JPY", "BTC");
+        table = RateTable.of(currencyRegistry, "USD", Map.of(
+                "USDEUR", new BigDecimal("0.850102"),
+                "USDGBP", new BigDecimal("0.73"),
+                "USDBTC", new BigDecimal("0.0000158204"),
+                "USDUSD", BigDecimal.ONE), Instant.now());
+    }
+
+    @Test
+    void convert_ConvertsIntoEveryQuotedCurrency() {
+        BigDecimal amount = new BigDecimal("1234.56");
+
+        AllTargetConversions conversions = AllTargetConversions.convert(table, amount, 6);
+
+        assertEquals(4, conversions.size());
+        assertEquals(Set.of("BTC", "EUR", "GBP", "USD"), conversions.keySet());
+        for (String target : conversions.keySet()) {
+            assertEquals(table.rate(target).multiply(amount).setScale(6, RoundingMode.HALF_UP), conversions.get(target));
+        }
+        assertFalse(conversions.containsKey("JPY"));
+        assertNull(conversions.get("JPY"));
+        assertNull(conversions.get("XYZ"));
+        assertEquals(new LinkedHashMap<>(conversions), conversions);
+    }
+
+    @Test
+    void convert_FallsBackToBigDecimalBeyondLongRange() {
+        BigDecimal amount = new BigDecimal("123456789012345678901234.5");
+
+        AllTargetConversions conversions = AllTargetConversions.convert(table, amount, 6);
+
+        assertEquals(new BigDecimal("0.850102").multiply(amount).setScale(6, RoundingMode.HALF_UP),
+                conversions.get("EUR"));
+    }
+
+    @Test
+    void serialize_WritesSameJsonAsPlainMap() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        BigDecimal amount = new BigDecimal("-0.5");
+
+        AllTargetConversions conversions = AllTargetConversions.convert(table, amount, 6);
+        String json = objectMapper.writeValueAsString(conversions);
+
+        assertEquals(objectMapper.writeValueAsString(new LinkedHashMap<>(conversions)), json);
+        assertEquals("{\"BTC\":-0.000008,\"EUR\":-0.425051,\"GBP\":-0.365000,\"USD\":-0.500000}", json);
+    }
+
+    @Test
+    void serialize_WritesOverflowedAmounts() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        AllTargetConversions conversions =
+                AllTargetConversions.convert(table, new BigDecimal("123456789012345678901234.5"), 6);
+
+        assertEquals(objectMapper.writeValueAsString(new LinkedHashMap<>(conversions)),
+                objectMapper.writeValueAsString(conversions));
+    }
+}
@@ -1,10 +1,13 @@
 package com.exchange.converter;
 
 import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.dto.BatchConversionItemResultDto;
 import com.exchange.dto.ConversionResultDto;
 import com.exchange.dto.MultiConversionResultDto;
 import com.exchange.dto.SingleExchangeRateDto;
 import com.exchange.exception.CurrencyConversionException;
+import com.exchange.model.BatchConversionItem;
+import com.exchange.store.TestRates;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -73,6 +76,74 @@ class CurrencyConverterTest {
         assertEquals(BigDecimal.valueOf(73).setScale(6, RoundingMode.HALF_UP), conversions.get("GBP"));
     }
 
+    @Test
+    void createMultiConversion_ReadsRatesFromAttachedTable() {
+        Map<String, BigDecimal> rates = Map.of(
+                "USDEUR", new BigDecimal("0.85"),
+                "USDGBP", new BigDecimal("0.73"));
+
+        AllExchangeRatesDto exchangeRates = AllExchangeRatesDto.builder()
+                .sourceCurrency("USD")
+                .rates(Map.of())
+                .table(TestRates.table("USD", rates))
+                .build();
+
+        MultiConversionResultDto result = currencyConverter.createMultiConversion(
+                exchangeRates, "USD", Arrays.asList("EUR", "GBP"), BigDecimal.valueOf(100));
+
+        assertEquals(new BigDecimal("85.000000"), result.getConversions().get("EUR"));
+        assertEquals(new BigDecimal("73.000000"), result.getConversions().get("GBP"));
+    }
+
+    @Test
+    void createBatchItemConversion_Success() {
+        AllExchangeRatesDto exchangeRates = AllExchangeRatesDto.builder()
+                .sourceCurrency("USD")
+                .rates(Map.of("USDEUR", new BigDecimal("0.85")))
+                .snapshotVersion(7L)
+                .build();
+
+        BatchConversionItemResultDto result = currencyConverter.createBatchItemConversion(
+                exchangeRates, 3, new BatchConversionItem("USD", "EUR", new BigDecimal("100.5")));
+
+        assertEquals(3, result.getIndex());
+        assertEquals(new BigDecimal("85.425000"), result.getConvertedAmount());
+        assertEquals(new BigDecimal("0.85"), result.getExchangeRate());
+        assertEquals(7L, result.getSnapshotVersion());
+        assertNull(result.getError());
+    }
+
+    @Test
+    void createAllTargetsConversion_WithoutTable_ConvertsEveryQuote() {
+        AllExchangeRatesDto exchangeRates = AllExchangeRatesDto.builder()
+                .sourceCurrency("USD")
+                .rates(Map.of("USDEUR", new BigDecimal("0.85"), "USDGBP", new BigDecimal("0.73")))
+                .build();
+
+        MultiConversionResultDto result = currencyConverter.createAllTargetsConversion(
+                exchangeRates, "USD", new BigDecimal("100"));
+
+        assertEquals("USD", result.getSourceCurrency());
+        assertEquals(Map.of("EUR", new BigDecimal("85.000000"), "GBP", new BigDecimal("73.000000")),
+                result.getConversions());
+    }
+
+    @Test
+    void createAllTargetsConversion_WithTable_ConvertsEveryQuotedCurrency() {
+        Map<String, BigDecimal> quotes = Map.of("USDEUR", new BigDecimal("0.85"), "USDJPY", new BigDecimal("150.123"));
+        AllExchangeRatesDto exchangeRates = AllExchangeRatesDto.builder()
+                .sourceCurrency("USD")
+                .rates(quotes)
+                .table(TestRates.table("USD", quotes))
+                .build();
+
+        MultiConversionResultDto result = currencyConverter.createAllTargetsConversion(
+                exchangeRates, "USD", new BigDecimal("2.5"));
+
+        assertEquals(Map.of("EUR", new BigDecimal("2.125000"), "JPY", new BigDecimal("375.307500")),
+                result.getConversions());
+    }
+
     @Test
     void createMultiConversion_ThrowsException_WhenRateNotFound() {
         Map<String, BigDecimal> rates = new HashMap<>();
@@ -0,0 +1,140 @@
+package com.exchange.converter;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks {@link FixedPointArithmetic} against the {@link BigDecimal} implementation it replaces, on fixed edge cases
+ * and on seeded random operands spanning all magnitudes, scales, signs and exact rounding ties.
+ */
+class FixedPointArithmeticTest {
+    private static final int CASES_PER_SEED = 5_000;
+
+    @ParameterizedTest
+    @CsvSource({
+            "100, 1.5",
+            "0.0000005, 1",
+            "-0.0000005, 1",
+            "0.00000049999, 1",
+            "0.0000015, -1",
+            "1.23456789, 0.850102",
+            "99999999999.999999, 1.176329",
+            "1E+3, 0.0000158204",
+            "0, 123.456",
+            "0.000, 1E-30",
+            "1E-20, 1E-20",
+            "9223372036854775807, 1",
+            "-9223372036854775808, 1",
+            "92233720368547.75807, 0.1",
+            "123456789012345678901234567890, 0.85",
+            "1.00, 1E+20",
+    })
+    void multiply_MatchesBigDecimalOnEdgeCases(String a, String b) {
+        assertEquivalent(new BigDecimal(a), new BigDecimal(b));
+    }
+
+    @ParameterizedTest
+    @MethodSource("seeds")
+    void multiply_MatchesBigDecimalOnRandomOperands(long seed) {
+        Random random = new Random(seed);
+        for (int i = 0; i < CASES_PER_SEED; i++) {
+            assertEquivalent(randomDecimal(random), randomDecimal(random));
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("seeds")
+    void multiply_MatchesBigDecimalOnRoundingTies(long seed) {
+        Random random = new Random(seed);
+        for (int i = 0; i < CASES_PER_SEED; i++) {
+            int extraDigits = 1 + random.nextInt(8);
+            long unscaled = random.nextLong(1_000_000_000L) * 10 + 5;
+            BigDecimal tie = BigDecimal.valueOf(random.nextBoolean() ? unscaled : -unscaled, 6 + extraDigits);
+            BigDecimal one = BigDecimal.ONE.setScale(random.nextInt(4));
+
+            assertEquivalent(tie, one);
+            assertEquivalent(tie.subtract(BigDecimal.ONE.movePointLeft(tie.scale())), one);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("seeds")
+    void multiplyDecomposed_MatchesBigDecimalOnRandomOperands(long seed) {
+        Random random = new Random(seed);
+        for (int i = 0; i < CASES_PER_SEED; i++) {
+            BigDecimal rate = BigDecimal.valueOf(random.nextLong(1, 1_000_000_000_000L), random.nextInt(-2, 19));
+            BigDecimal amount = randomDecimal(random);
+
+            BigDecimal expected = rate.multiply(amount).setScale(6, RoundingMode.HALF_UP);
+            BigDecimal actual = FixedPointArithmetic.multiply(rate.unscaledValue().longValueExact(), rate.scale(),
+                    amount, FixedPointArithmetic.unscaled(amount), 6);
+
+            assertEquals(expected, actual, () -> rate + " * " + amount);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("seeds")
+    void format_MatchesToPlainString(long seed) {
+        Random random = new Random(seed);
+        char[] buffer = new char[FixedPointArithmetic.MAX_FORMATTED_LENGTH];
+        for (int i = 0; i < CASES_PER_SEED; i++) {
+            long unscaled = random.nextLong() >> random.nextInt(64);
+            if (unscaled == FixedPointArithmetic.OVERFLOW) {
+                continue;
+            }
+            int scale = random.nextInt(19);
+
+            int length = FixedPointArithmetic.format(unscaled, scale, buffer);
+
+            assertEquals(BigDecimal.valueOf(unscaled, scale).toPlainString(), new String(buffer, 0, length));
+        }
+    }
+
+    @Test
+    void multiplyHalfUp_ReportsOverflowInsteadOfWrapping() {
+        assertEquals(FixedPointArithmetic.OVERFLOW,
+                FixedPointArithmetic.multiplyHalfUp(Long.MAX_VALUE, 0, 2, 0, 0));
+        assertEquals(FixedPointArithmetic.OVERFLOW,
+                FixedPointArithmetic.multiplyHalfUp(Long.MAX_VALUE / 10, 0, 1, 0, 6));
+        assertEquals(FixedPointArithmetic.OVERFLOW,
+                FixedPointArithmetic.multiplyHalfUp(1, 30, 1, 0, 6));
+        assertEquals(150_000_000L, FixedPointArithmetic.multiplyHalfUp(100, 0, 15, 1, 6));
+    }
+
+    @Test
+    void unscaled_ReportsOverflowForMoreThanEighteenDigits() {
+        assertEquals(123_456_789_012_345_678L, FixedPointArithmetic.unscaled(new BigDecimal("1.23456789012345678")));
+        assertEquals(FixedPointArithmetic.OVERFLOW, FixedPointArithmetic.unscaled(new BigDecimal("1234567890123456789")));
+    }
+
+    static LongStream seeds() {
+        return LongStream.range(0, 20);
+    }
+
+    private static void assertEquivalent(BigDecimal a, BigDecimal b) {
+        BigDecimal expected = a.multiply(b).setScale(6, RoundingMode.HALF_UP);
+
+        assertEquals(expected, FixedPointArithmetic.multiply(a, b, 6), () -> a + " * " + b);
+        assertEquals(expected, FixedPointArithmetic.multiply(b, a, 6), () -> b + " * " + a);
+    }
+
+    private static BigDecimal randomDecimal(Random random) {
+        int bits = random.nextInt(1, 80);
+        BigInteger unscaled = new BigInteger(bits, random);
+        if (random.nextBoolean()) {
+            unscaled = unscaled.negate();
+        }
+        return new BigDecimal(unscaled, random.nextInt(-4, 24));
+    }
+}
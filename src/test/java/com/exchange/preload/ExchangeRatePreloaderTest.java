@@ -1,12 +1,19 @@
 package com.exchange.preload;
 
 import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.exception.UpstreamQuotaExceededException;
 import com.exchange.service.ExchangeRateProviderService;
+import com.exchange.store.CurrencyDemandTracker;
+import com.exchange.store.RateStore;
+import com.exchange.store.TestRates;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.test.util.ReflectionTestUtils;
@@ -14,7 +21,13 @@ import org.springframework.test.util.ReflectionTestUtils;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -24,12 +37,23 @@ class ExchangeRatePreloaderTest {
     @Mock
     private ExchangeRateProviderService exchangeProviderService;
 
+    @Spy
+    private CurrencyDemandTracker demandTracker = new CurrencyDemandTracker(
+            TestRates.registry("USD", "EUR", "GBP", "JPY", "CHF", "PLN", "SEK", "NOK"), 0.5);
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private ExchangeRatePreloader exchangeRatePreloader;
 
     @BeforeEach
     void setUp() {
         ReflectionTestUtils.setField(exchangeRatePreloader, "baseCurrencies", Arrays.asList("USD", "EUR", "GBP"));
+        ReflectionTestUtils.setField(exchangeRatePreloader, "maxConcurrency", 2);
+        ReflectionTestUtils.setField(exchangeRatePreloader, "fetchTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(exchangeRatePreloader, "maxCallsPerCycle", 8);
+        ReflectionTestUtils.setField(exchangeRatePreloader, "minDemand", 1.0);
     }
 
     @Test
@@ -39,20 +63,24 @@ class ExchangeRatePreloaderTest {
                 .rates(new HashMap<>())
                 .build();
 
-        when(exchangeProviderService.getAllRates(anyString())).thenReturn(mockRates);
+        when(exchangeProviderService.refreshRates(anyString()))
+                .thenReturn(started(CompletableFuture.completedFuture(mockRates)));
+        request("USD", "EUR", "GBP");
 
         exchangeRatePreloader.loadExchangeRates();
 
-        verify(exchangeProviderService, times(3)).getAllRates(anyString());
+        verify(exchangeProviderService, times(3)).refreshRates(anyString());
     }
 
     @Test
     void loadExchangeRates_HandlesException() {
-        when(exchangeProviderService.getAllRates(anyString())).thenThrow(new RuntimeException("API Error"));
+        when(exchangeProviderService.refreshRates(anyString()))
+                .thenReturn(started(CompletableFuture.failedFuture(new RuntimeException("API Error"))));
+        request("USD", "EUR", "GBP");
 
         exchangeRatePreloader.loadExchangeRates();
 
-        verify(exchangeProviderService, times(3)).getAllRates(anyString());
+        verify(exchangeProviderService, times(3)).refreshRates(anyString());
     }
 
     @Test
@@ -61,6 +89,168 @@ class ExchangeRatePreloaderTest {
 
         exchangeRatePreloader.onApplicationEvent(mockEvent);
 
-        verify(exchangeProviderService, times(3)).getAllRates(anyString());
+        verify(exchangeProviderService, times(3)).refreshRates(anyString());
+    }
+
+    @Test
+    void loadExchangeRates_SlowCurrencyDoesNotHoldBackOthers() {
+        ReflectionTestUtils.setField(exchangeRatePreloader, "fetchTimeoutMs", 100L);
+        CountDownLatch release = new CountDownLatch(1);
+        when(exchangeProviderService.refreshRates(anyString())).thenAnswer(invocation -> {
+            if (invocation.getArgument(0).equals("USD")) {
+                return started(CompletableFuture.supplyAsync(() -> {
+                    awaitQuietly(release);
+                    return rates();
+                }));
+            }
+            return started(CompletableFuture.completedFuture(rates()));
+        });
+
+        request("USD", "EUR", "GBP");
+
+        long start = System.nanoTime();
+        exchangeRatePreloader.loadExchangeRates();
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000);
+        assertEquals(1, meterRegistry.timer("exchange.rate.preload.fetch", "currency", "USD", "outcome", "timeout").count());
+        assertEquals(1, meterRegistry.timer("exchange.rate.preload.fetch", "currency", "EUR", "outcome", "success").count());
+        assertEquals(1, meterRegistry.timer("exchange.rate.preload.fetch", "currency", "GBP", "outcome", "success").count());
+        assertEquals(1, meterRegistry.timer("exchange.rate.preload.cycle").count());
+        release.countDown();
+    }
+
+    @Test
+    void loadExchangeRates_TimesTheUpstreamFetch() {
+        when(exchangeProviderService.refreshRates("USD")).thenReturn(started(CompletableFuture.supplyAsync(
+                ExchangeRatePreloaderTest::rates, CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS))));
+        request("USD");
+
+        exchangeRatePreloader.loadExchangeRates();
+
+        Timer fetch = meterRegistry.timer("exchange.rate.preload.fetch", "currency", "USD", "outcome", "success");
+        assertEquals(1, fetch.count());
+        assertTrue(fetch.totalTime(TimeUnit.MILLISECONDS) >= 90);
+    }
+
+    @Test
+    void loadExchangeRates_RespectsConcurrencyCap() {
+        ReflectionTestUtils.setField(exchangeRatePreloader, "baseCurrencies",
+                Arrays.asList("USD", "EUR", "GBP", "JPY", "CHF", "PLN", "SEK", "NOK"));
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(exchangeProviderService.refreshRates(anyString())).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            running.decrementAndGet();
+            return started(CompletableFuture.completedFuture(rates()));
+        });
+        request("USD", "EUR", "GBP", "JPY", "CHF", "PLN", "SEK", "NOK");
+
+        exchangeRatePreloader.loadExchangeRates();
+
+        verify(exchangeProviderService, times(8)).refreshRates(anyString());
+        assertEquals(2, maxRunning.get());
+    }
+
+    @Test
+    void loadExchangeRates_RefreshesMostRequestedWithinBudget() {
+        ReflectionTestUtils.setField(exchangeRatePreloader, "maxCallsPerCycle", 2);
+        when(exchangeProviderService.refreshRates(anyString())).thenReturn(started(rates()));
+        request("JPY", "JPY", "JPY", "CHF", "CHF", "USD");
+
+        exchangeRatePreloader.loadExchangeRates();
+
+        verify(exchangeProviderService).refreshRates("JPY");
+        verify(exchangeProviderService).refreshRates("CHF");
+        verify(exchangeProviderService, never()).refreshRates("USD");
+        ExchangeRatePreloader.PreloadCycle cycle = exchangeRatePreloader.lastCycle();
+        assertEquals(List.of("JPY", "CHF"), cycle.refreshed());
+        assertEquals(List.of("USD"), cycle.deferred());
+        assertEquals(2, cycle.fetched());
+        assertEquals(2, cycle.succeeded());
+    }
+
+    @Test
+    void loadExchangeRates_CountsOnlyFetchesThatReachTheUpstream() {
+        when(exchangeProviderService.refreshRates("USD")).thenReturn(started(rates()));
+        when(exchangeProviderService.refreshRates("EUR"))
+                .thenReturn(new RateStore.Refresh(CompletableFuture.completedFuture(rates()), false));
+        when(exchangeProviderService.refreshRates("GBP")).thenReturn(started(CompletableFuture.failedFuture(
+                new UpstreamQuotaExceededException("Upstream quota exhausted"))));
+        request("USD", "EUR", "GBP");
+
+        exchangeRatePreloader.loadExchangeRates();
+
+        ExchangeRatePreloader.PreloadCycle cycle = exchangeRatePreloader.lastCycle();
+        assertEquals(3, cycle.refreshed().size());
+        assertEquals(1, cycle.fetched());
+        assertEquals(2, cycle.succeeded());
+    }
+
+    @Test
+    void loadExchangeRates_StopsRefreshingBasesNoLongerRequested() {
+        when(exchangeProviderService.refreshRates(anyString())).thenReturn(started(rates()));
+        request("USD", "EUR", "EUR");
+
+        exchangeRatePreloader.loadExchangeRates();
+        exchangeRatePreloader.loadExchangeRates();
+
+        verify(exchangeProviderService, times(1)).refreshRates("USD");
+        verify(exchangeProviderService, times(2)).refreshRates("EUR");
+        assertEquals(List.of("EUR"), exchangeRatePreloader.lastCycle().refreshed());
+    }
+
+    @Test
+    void loadExchangeRates_KeepsRefreshingBasesOnlyWatchedBySubscribers() {
+        ReflectionTestUtils.setField(exchangeRatePreloader, "minDemand", 5.0);
+        when(exchangeProviderService.refreshRates(anyString())).thenReturn(started(rates()));
+        demandTracker.subscribe("SEK");
+
+        for (int cycle = 0; cycle < 5; cycle++) {
+            exchangeRatePreloader.loadExchangeRates();
+        }
+
+        verify(exchangeProviderService, times(5)).refreshRates("SEK");
+        assertEquals(List.of("SEK"), exchangeRatePreloader.lastCycle().refreshed());
+    }
+
+    @Test
+    void onApplicationEvent_SeedsConfiguredCurrenciesOnce() {
+        when(exchangeProviderService.refreshRates(anyString())).thenReturn(started(rates()));
+
+        exchangeRatePreloader.onApplicationEvent(mock(ContextRefreshedEvent.class));
+        exchangeRatePreloader.loadExchangeRates();
+
+        verify(exchangeProviderService, times(3)).refreshRates(anyString());
+        assertTrue(exchangeRatePreloader.lastCycle().refreshed().isEmpty());
+    }
+
+    private void request(String... currencies) {
+        for (String currency : currencies) {
+            demandTracker.record(currency);
+        }
+    }
+
+    private static RateStore.Refresh started(AllExchangeRatesDto rates) {
+        return started(CompletableFuture.completedFuture(rates));
+    }
+
+    private static RateStore.Refresh started(CompletableFuture<AllExchangeRatesDto> rates) {
+        return new RateStore.Refresh(rates, true);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static AllExchangeRatesDto rates() {
+        return AllExchangeRatesDto.builder()
+                .timestamp(Instant.now())
+                .rates(new HashMap<>())
+                .build();
     }
 }
@@ -0,0 +1,58 @@
+package com.exchange.preload;
+
+import com.exchange.preload.ExchangeRatePreloader.PreloadCycle;
+import com.exchange.preload.RatePreloadEndpoint.RatePreloadReport;
+import com.exchange.store.CurrencyDemandTracker;
+import com.exchange.store.CurrencyDemandTracker.CurrencyDemand;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RatePreloadEndpointTest {
+
+    @Mock
+    private ExchangeRatePreloader preloader;
+
+    @Mock
+    private CurrencyDemandTracker demandTracker;
+
+    @InjectMocks
+    private RatePreloadEndpoint endpoint;
+
+    @Test
+    void report_ShowsBudgetUsageAndDemand() {
+        PreloadCycle cycle = new PreloadCycle(Instant.now(), List.of("USD", "EUR"), List.of("GBP"), 1, 2, 120);
+        List<CurrencyDemand> demand = List.of(new CurrencyDemand("USD", 12.5), new CurrencyDemand("EUR", 3));
+        when(preloader.maxCallsPerCycle()).thenReturn(2);
+        when(preloader.minDemand()).thenReturn(1.0);
+        when(preloader.lastCycle()).thenReturn(cycle);
+        when(demandTracker.snapshot()).thenReturn(demand);
+
+        RatePreloadReport report = endpoint.report();
+
+        assertEquals(2, report.budget());
+        assertEquals(1, report.budgetUsed());
+        assertEquals(cycle, report.lastCycle());
+        assertEquals(demand, report.demand());
+    }
+
+    @Test
+    void report_HasNoUsageBeforeFirstCycle() {
+        when(preloader.lastCycle()).thenReturn(null);
+        when(demandTracker.snapshot()).thenReturn(List.of());
+
+        RatePreloadReport report = endpoint.report();
+
+        assertEquals(0, report.budgetUsed());
+        assertNull(report.lastCycle());
+    }
+}
@@ -1,11 +1,21 @@
 package com.exchange.service;
 
+import com.exchange.bulk.BulkFormat;
 import com.exchange.converter.CurrencyConverter;
 import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.dto.BatchConversionItemResultDto;
+import com.exchange.dto.BatchConversionResultDto;
+import com.exchange.dto.BulkConversionSummaryDto;
 import com.exchange.dto.ConversionResultDto;
 import com.exchange.dto.MultiConversionResultDto;
 import com.exchange.dto.SingleExchangeRateDto;
+import com.exchange.exception.BatchSizeExceededException;
 import com.exchange.exception.CurrencyConversionException;
+import com.exchange.exception.ExchangeRateException;
+import com.exchange.model.BatchConversionItem;
+import com.exchange.store.TestRates;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -14,7 +24,12 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Instant;
@@ -23,6 +38,10 @@ import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -81,6 +100,24 @@ class CurrencyConversionServiceImplTest {
                 () -> currencyConversionService.convertAmount("USD", "XXX", BigDecimal.ONE));
     }
 
+    @Test
+    void convertToAllCurrencies_ConvertsAgainstSourceRates() {
+        BigDecimal amount = BigDecimal.TEN;
+        AllExchangeRatesDto exchangeRates = AllExchangeRatesDto.builder()
+                .rates(Map.of("USDEUR", BigDecimal.valueOf(0.85)))
+                .build();
+        MultiConversionResultDto expectedResult = MultiConversionResultDto.builder()
+                .sourceCurrency("USD")
+                .sourceAmount(amount)
+                .conversions(Map.of("EUR", new BigDecimal("8.500000")))
+                .build();
+
+        when(exchangeProvider.getAllRates("USD")).thenReturn(exchangeRates);
+        when(currencyConverter.createAllTargetsConversion(exchangeRates, "USD", amount)).thenReturn(expectedResult);
+
+        assertSame(expectedResult, currencyConversionService.convertToAllCurrencies("USD", amount));
+    }
+
     @Test
     void convertToMultipleCurrencies_WithEmptyTargetList() {
         String sourceCurrency = "USD";
@@ -172,5 +209,149 @@ class CurrencyConversionServiceImplTest {
         assertNotNull(result);
         assertEquals(2, result.getConversions().size());
     }
-}
 
+    @Test
+    void convertBatch_ResolvesEachSourceOnceAndKeepsRequestOrder() {
+        CurrencyConversionServiceImpl batchService = batchService(10);
+        when(exchangeProvider.getAllRates("USD")).thenReturn(rates("USD", Map.of("USDEUR", "0.85", "USDGBP", "0.73")));
+        when(exchangeProvider.getAllRates("EUR")).thenReturn(rates("EUR", Map.of("EURUSD", "1.17")));
+
+        BatchConversionResultDto result = batchService.convertBatch(List.of(
+                new BatchConversionItem("USD", "EUR", new BigDecimal("100")),
+                new BatchConversionItem("EUR", "USD", new BigDecimal("10")),
+                new BatchConversionItem("USD", "GBP", new BigDecimal("200"))));
+
+        assertEquals(3, result.getSucceeded());
+        assertEquals(0, result.getFailed());
+        assertEquals(List.of(0L, 1L, 2L), result.getResults().stream().map(BatchConversionItemResultDto::getIndex).toList());
+        assertEquals(new BigDecimal("85.000000"), result.getResults().get(0).getConvertedAmount());
+        assertEquals(new BigDecimal("11.700000"), result.getResults().get(1).getConvertedAmount());
+        assertEquals(new BigDecimal("146.000000"), result.getResults().get(2).getConvertedAmount());
+        assertEquals(new BigDecimal("0.73"), result.getResults().get(2).getExchangeRate());
+        verify(exchangeProvider, times(1)).getAllRates("USD");
+        verify(exchangeProvider, times(1)).getAllRates("EUR");
+    }
+
+    @Test
+    void convertBatch_ReportsFailedItemsWithoutFailingBatch() {
+        CurrencyConversionServiceImpl batchService = batchService(10);
+        when(exchangeProvider.getAllRates("USD")).thenReturn(rates("USD", Map.of("USDEUR", "0.85")));
+        when(exchangeProvider.getAllRates("GBP"))
+                .thenThrow(new ExchangeRateException("Failed to fetch exchange rates for GBP"));
+
+        BatchConversionResultDto result = batchService.convertBatch(Arrays.asList(
+                new BatchConversionItem("USD", "EUR", new BigDecimal("100")),
+                new BatchConversionItem("USD", "JPY", new BigDecimal("100")),
+                new BatchConversionItem("XYZ", "EUR", new BigDecimal("100")),
+                new BatchConversionItem("USD", "EUR", new BigDecimal("0.5")),
+                new BatchConversionItem("USD", "EUR", null),
+                new BatchConversionItem("GBP", "EUR", new BigDecimal("100")),
+                null));
+
+        assertEquals(1, result.getSucceeded());
+        assertEquals(6, result.getFailed());
+        assertNull(result.getResults().get(0).getError());
+        assertEquals("Exchange rate not found for pair USD-JPY", result.getResults().get(1).getError());
+        assertEquals("Currency 'XYZ' is not supported.", result.getResults().get(2).getError());
+        assertEquals("Amount must be at least 1.00", result.getResults().get(3).getError());
+        assertEquals("Amount is required", result.getResults().get(4).getError());
+        assertEquals("Exchange rate service error: Failed to fetch exchange rates for GBP",
+                result.getResults().get(5).getError());
+        assertEquals("Item is required", result.getResults().get(6).getError());
+        assertNull(result.getResults().get(1).getConvertedAmount());
+        verify(exchangeProvider, never()).getAllRates("XYZ");
+    }
+
+    @Test
+    void convertBatch_RejectsBatchAboveMaximumSize() {
+        CurrencyConversionServiceImpl batchService = batchService(2);
+        List<BatchConversionItem> items = Collections.nCopies(3,
+                new BatchConversionItem("USD", "EUR", new BigDecimal("100")));
+
+        BatchSizeExceededException exception =
+                assertThrows(BatchSizeExceededException.class, () -> batchService.convertBatch(items));
+
+        assertEquals("Batch of 3 items exceeds the maximum of 2", exception.getMessage());
+        verifyNoInteractions(exchangeProvider);
+    }
+
+    @Test
+    void convertStream_Csv_ConvertsRowsAgainstPinnedRatesAndWritesSummary() throws IOException {
+        CurrencyConversionServiceImpl streamService = batchService(10);
+        when(exchangeProvider.getAllRates("USD")).thenReturn(rates("USD", Map.of("USDEUR", "0.85", "USDGBP", "0.73")));
+        StringWriter output = new StringWriter();
+
+        BulkConversionSummaryDto summary = streamService.convertStream(new BufferedReader(new StringReader("""
+                sourceCurrency,targetCurrency,amount
+                USD,EUR,100
+
+                USD,GBP,200.50
+                USD,XYZ,100
+                USD,EUR
+                USD,EUR,abc
+                USD,JPY,100
+                """)), output, BulkFormat.CSV.codec(new ObjectMapper()));
+
+        String[] lines = output.toString().split("\n");
+        assertEquals("index,sourceCurrency,targetCurrency,sourceAmount,convertedAmount,exchangeRate,snapshotVersion,error",
+                lines[0]);
+        assertEquals("0,USD,EUR,100,85.000000,0.85,,", lines[1]);
+        assertEquals("1,USD,GBP,200.50,146.365000,0.73,,", lines[2]);
+        assertEquals("2,USD,XYZ,100,,,,Currency 'XYZ' is not supported.", lines[3]);
+        assertEquals("3,,,,,,,Malformed row: Expected 3 fields but found 2", lines[4]);
+        assertEquals("4,,,,,,,Malformed row: Invalid amount 'abc'", lines[5]);
+        assertEquals("5,USD,JPY,100,,,,Exchange rate not found for pair USD-JPY", lines[6]);
+        assertTrue(lines[7].startsWith("# summary rows=6 succeeded=2 rejected=4 "));
+        assertEquals(8, lines.length);
+        assertEquals(6, summary.getRows());
+        assertEquals(4, summary.getRejected());
+        verify(exchangeProvider, times(1)).getAllRates("USD");
+    }
+
+    @Test
+    void convertStream_Ndjson_RejectsRowsOfUnavailableSourceWithoutRefetching() throws IOException {
+        CurrencyConversionServiceImpl streamService = batchService(10);
+        when(exchangeProvider.getAllRates("EUR")).thenReturn(rates("EUR", Map.of("EURUSD", "1.17")));
+        when(exchangeProvider.getAllRates("GBP"))
+                .thenThrow(new ExchangeRateException("Failed to fetch exchange rates for GBP"));
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        StringWriter output = new StringWriter();
+
+        BulkConversionSummaryDto summary = streamService.convertStream(new BufferedReader(new StringReader("""
+                {"sourceCurrency": "EUR", "targetCurrency": "USD", "amount": 10}
+                {"sourceCurrency": "GBP", "targetCurrency": "USD", "amount": 10}
+                {"sourceCurrency": "GBP", "targetCurrency": "EUR", "amount": 10}
+                {"sourceCurrency": "EUR",
+                """)), output, BulkFormat.NDJSON.codec(objectMapper));
+
+        String[] lines = output.toString().split("\n");
+        assertEquals(5, lines.length);
+        assertTrue(lines[0].contains("\"convertedAmount\":11.700000"), lines[0]);
+        assertEquals("Exchange rate service error: Failed to fetch exchange rates for GBP",
+                objectMapper.readTree(lines[1]).get("error").asText());
+        assertEquals("Exchange rate service error: Failed to fetch exchange rates for GBP",
+                objectMapper.readTree(lines[2]).get("error").asText());
+        assertTrue(objectMapper.readTree(lines[3]).get("error").asText().startsWith("Malformed row: Invalid JSON"));
+        assertEquals(4, objectMapper.readTree(lines[4]).get("summary").get("rows").asLong());
+        assertEquals(1, summary.getSucceeded());
+        assertEquals(3, summary.getRejected());
+        verify(exchangeProvider, times(1)).getAllRates("GBP");
+    }
+
+    private CurrencyConversionServiceImpl batchService(int maxBatchSize) {
+        CurrencyConversionServiceImpl batchService = new CurrencyConversionServiceImpl(
+                exchangeProvider, new CurrencyConverter(), TestRates.registry("USD", "EUR", "GBP", "JPY"));
+        ReflectionTestUtils.setField(batchService, "maxBatchSize", maxBatchSize);
+        return batchService;
+    }
+
+    private static AllExchangeRatesDto rates(String sourceCurrency, Map<String, String> quotes) {
+        Map<String, BigDecimal> rates = new HashMap<>();
+        quotes.forEach((pair, rate) -> rates.put(pair, new BigDecimal(rate)));
+        return AllExchangeRatesDto.builder()
+                .sourceCurrency(sourceCurrency)
+                .rates(rates)
+                .timestamp(Instant.now())
+                .build();
+    }
+}
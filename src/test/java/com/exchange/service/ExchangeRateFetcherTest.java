@@ -0,0 +1,166 @@
+package com.exchange.service;
+
+import com.exchange.client.RateProvider;
+import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.exception.ExchangeRateException;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExchangeRateFetcherTest {
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void fetchAllRates_AnswersFromPrimaryWithoutHedging() {
+        StubRateProvider primary = new StubRateProvider("primary", "0.85", () -> 0);
+        StubRateProvider secondary = new StubRateProvider("secondary", "0.86", () -> 0);
+        ExchangeRateFetcher fetcher = fetcher(List.of(primary, secondary), 0.95, Duration.ofSeconds(1));
+
+        AllExchangeRatesDto rates = fetcher.fetchAllRates("USD");
+
+        assertThat(rates.getRates()).containsEntry("USDEUR", new BigDecimal("0.85"));
+        assertThat(secondary.calls.get()).isZero();
+        assertThat(meterRegistry.get("exchange.rate.upstream.hedge.wins").tag("provider", "primary").counter()
+                .count()).isEqualTo(1);
+        assertThat(meterRegistry.get("exchange.rate.upstream.hedges").tag("reason", "delay").counter().count())
+                .isZero();
+    }
+
+    @Test
+    void fetchAllRates_HedgesSlowPrimaryAndRecordsTimeSaved() throws InterruptedException {
+        StubRateProvider primary = new StubRateProvider("primary", "0.85", () -> 300);
+        StubRateProvider secondary = new StubRateProvider("secondary", "0.86", () -> 0);
+        ExchangeRateFetcher fetcher = fetcher(List.of(primary, secondary), 0.95, Duration.ofMillis(20));
+
+        long start = System.nanoTime();
+        AllExchangeRatesDto rates = fetcher.fetchAllRates("USD");
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(250));
+        assertThat(rates.getRates()).containsEntry("USDEUR", new BigDecimal("0.86"));
+        assertThat(meterRegistry.get("exchange.rate.upstream.hedges").tag("reason", "delay").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("exchange.rate.upstream.hedge.wins").tag("provider", "secondary").counter()
+                .count()).isEqualTo(1);
+
+        Timer saved = meterRegistry.get("exchange.rate.upstream.hedge.saved").timer();
+        for (int i = 0; i < 100 && saved.count() == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(saved.count()).isEqualTo(1);
+        assertThat(saved.totalTime(TimeUnit.MILLISECONDS)).isGreaterThan(200);
+    }
+
+    @Test
+    void fetchAllRates_FailsOverAtOnceWhenPrimaryFails() {
+        StubRateProvider primary = new StubRateProvider("primary", null, () -> 0);
+        StubRateProvider secondary = new StubRateProvider("secondary", "0.86", () -> 0);
+        ExchangeRateFetcher fetcher = fetcher(List.of(primary, secondary), 0.95, Duration.ofSeconds(10));
+
+        long start = System.nanoTime();
+        AllExchangeRatesDto rates = fetcher.fetchAllRates("USD");
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+        assertThat(rates.getRates()).containsEntry("USDEUR", new BigDecimal("0.86"));
+        assertThat(meterRegistry.get("exchange.rate.upstream.hedges").tag("reason", "failure").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void fetchAllRates_ThrowsPrimaryFailureWhenEveryProviderFails() {
+        StubRateProvider primary = new StubRateProvider("primary", null, () -> 100);
+        StubRateProvider secondary = new StubRateProvider("secondary", null, () -> 0);
+        ExchangeRateFetcher fetcher = fetcher(List.of(primary, secondary), 0.95, Duration.ofMillis(20));
+
+        // the hedged secondary fails before the slow primary does
+        ExchangeRateException exception = assertThrows(ExchangeRateException.class,
+                () -> fetcher.fetchAllRates("USD"));
+
+        assertThat(exception.getMessage()).isEqualTo("primary failed to fetch USD");
+        assertThat(exception.getSuppressed()).extracting(Throwable::getMessage)
+                .containsExactly("secondary failed to fetch USD");
+        assertThat(secondary.calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void hedgeDelay_FollowsPercentileOfPrimaryLatencies() {
+        PrimitiveIterator.OfLong latencies = LongStream.concat(LongStream.generate(() -> 0).limit(18),
+                LongStream.generate(() -> 100).limit(2)).iterator();
+        StubRateProvider primary = new StubRateProvider("primary", "0.85", latencies::nextLong);
+        ExchangeRateFetcher fetcher = fetcher(List.of(primary), 0.95, Duration.ofSeconds(1));
+
+        assertThat(fetcher.hedgeDelay()).isEqualTo(Duration.ofSeconds(1));
+        for (int i = 0; i < 20; i++) {
+            fetcher.fetchAllRates("USD");
+        }
+
+        assertThat(fetcher.hedgeDelay()).isBetween(Duration.ofMillis(100), Duration.ofMillis(500));
+        assertThat(meterRegistry.get("exchange.rate.upstream.hedge.delay").gauge().value())
+                .isEqualTo(fetcher.hedgeDelay().toMillis());
+    }
+
+    private ExchangeRateFetcher fetcher(List<RateProvider> providers, double percentile, Duration initialDelay) {
+        return new ExchangeRateFetcher(providers, percentile, initialDelay, Duration.ofMillis(5), meterRegistry,
+                Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * Local provider answering with a fixed EUR quote, or failing if it has none, after a latency drawn from a
+     * distribution.
+     */
+    private static final class StubRateProvider implements RateProvider {
+        private final String name;
+        private final String eurRate;
+        private final LongSupplier latencyMs;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        StubRateProvider(String name, String eurRate, LongSupplier latencyMs) {
+            this.name = name;
+            this.eurRate = eurRate;
+            this.latencyMs = latencyMs;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public AllExchangeRatesDto fetchAllRates(String currency) {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(latencyMs.getAsLong());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (eurRate == null) {
+                throw new ExchangeRateException(name + " failed to fetch " + currency);
+            }
+            return AllExchangeRatesDto.builder()
+                    .sourceCurrency(currency)
+                    .rates(Map.of(currency + "EUR", new BigDecimal(eurRate)))
+                    .timestamp(Instant.now())
+                    .build();
+        }
+    }
+}
@@ -1,14 +1,37 @@
 package com.exchange.service;
 
+import com.exchange.client.LiveQuotesProvider;
+import com.exchange.client.UpstreamCallGovernor;
+import com.exchange.client.UpstreamCircuitBreaker;
+import com.exchange.client.UpstreamQuotesDecoder;
+import com.exchange.config.HedgeConfig;
+import com.exchange.config.RateStoreConfig;
 import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.dto.RatesDeltaDto;
 import com.exchange.dto.SingleExchangeRateDto;
 import com.exchange.exception.ExchangeRateException;
+import com.exchange.exception.UpstreamQuotaExceededException;
 import com.github.tomakehurst.wiremock.WireMockServer;
+import com.exchange.exception.CurrencyConversionException;
+import com.exchange.model.RateMode;
+import com.exchange.store.CurrencyDemandTracker;
+import com.exchange.store.CurrencyDemandTracker.CurrencyDemand;
+import com.exchange.store.CurrencyRegistry;
+import com.exchange.store.RateHistory;
+import com.exchange.store.RateStore;
+import com.exchange.store.TestRates;
+import com.exchange.triangulation.RateTriangulator;
 import com.github.tomakehurst.wiremock.client.WireMock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.*;
 import org.springframework.web.client.RestClient;
 
 import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
@@ -19,6 +42,11 @@ class ExchangeRateProviderServiceImplTest {
 
     private WireMockServer wireMockServer;
     private ExchangeRateProviderServiceImpl exchangeRateService;
+    private SimpleMeterRegistry meterRegistry;
+    private RateStore rateStore;
+    private CurrencyDemandTracker demandTracker;
+    private CurrencyRegistry currencyRegistry;
+    private ExchangeRateFetcher fetcher;
 
     @BeforeEach
     void setUp() {
@@ -29,7 +57,21 @@ class ExchangeRateProviderServiceImplTest {
         RestClient restClient = RestClient.builder()
                 .baseUrl("http://localhost:" + wireMockServer.port())
                 .build();
-        exchangeRateService = new ExchangeRateProviderServiceImpl(restClient);
+        currencyRegistry = TestRates.registry("USD", "EUR", "GBP", "JPY", "PLN", "SEK");
+
+        meterRegistry = new SimpleMeterRegistry();
+        fetcher = new ExchangeRateFetcher(
+                List.of(new LiveQuotesProvider("primary", restClient, new UpstreamQuotesDecoder(currencyRegistry))),
+                new HedgeConfig(), meterRegistry);
+        createService(new UpstreamCallGovernor(1000, 1_000_000, 30, 0.2, meterRegistry));
+    }
+
+    private void createService(UpstreamCallGovernor callGovernor) {
+        rateStore = new RateStore(new RateStoreConfig(), currencyRegistry, fetcher, callGovernor,
+                new UpstreamCircuitBreaker(20, 10, 0.5, 3000, 0.5, 30000, 3, meterRegistry), meterRegistry, 5000, 0);
+        demandTracker = new CurrencyDemandTracker(currencyRegistry, 0.5);
+        exchangeRateService = new ExchangeRateProviderServiceImpl(rateStore, new RateTriangulator("USD", currencyRegistry),
+                new RateHistory(rateStore, 8), demandTracker);
     }
 
     @AfterEach
@@ -51,7 +93,6 @@ class ExchangeRateProviderServiceImplTest {
 
             wireMockServer.stubFor(get(urlPathEqualTo("/live"))
                     .withQueryParam("source", equalTo(sourceCurrency))
-                    .withQueryParam("currencies", equalTo(targetCurrency))
                     .willReturn(aResponse()
                             .withStatus(200)
                             .withHeader("Content-Type", "application/json")
@@ -69,7 +110,82 @@ class ExchangeRateProviderServiceImplTest {
 
             wireMockServer.verify(1, getRequestedFor(urlPathEqualTo("/live"))
                     .withQueryParam("source", equalTo(sourceCurrency))
-                    .withQueryParam("currencies", equalTo(targetCurrency)));
+                    .withoutQueryParam("currencies"));
+        }
+
+        @Test
+        @DisplayName("Should answer single pairs from the stored base currency table")
+        void shouldAnswerSinglePairsFromStoredTable() {
+            wireMockServer.stubFor(get(urlPathEqualTo("/live"))
+                    .withQueryParam("source", equalTo("USD"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"success\":true,\"quotes\":{\"USDEUR\":0.85,\"USDGBP\":0.73}}")));
+
+            exchangeRateService.getAllRates("USD");
+            SingleExchangeRateDto eur = exchangeRateService.getExchangeRate("USD", "EUR");
+            SingleExchangeRateDto gbp = exchangeRateService.getExchangeRate("USD", "GBP");
+
+            assertThat(eur.getExchangeRate()).isEqualByComparingTo("0.85");
+            assertThat(gbp.getExchangeRate()).isEqualByComparingTo("0.73");
+            wireMockServer.verify(1, getRequestedFor(urlPathEqualTo("/live")));
+            assertThat(meterRegistry.counter("exchange.rate.store.lookups", "result", "hit").count()).isEqualTo(2);
+            assertThat(meterRegistry.counter("exchange.rate.store.lookups", "result", "miss").count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should fill the whole base currency table on a single pair miss")
+        void shouldFillWholeTableOnSinglePairMiss() {
+            wireMockServer.stubFor(get(urlPathEqualTo("/live"))
+                    .withQueryParam("source", equalTo("USD"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"success\":true,\"quotes\":{\"USDEUR\":0.85,\"USDGBP\":0.73}}")));
+
+            exchangeRateService.getExchangeRate("USD", "EUR");
+            AllExchangeRatesDto allRates = exchangeRateService.getAllRates("USD");
+
+            assertThat(allRates.getRates()).containsKeys("USDEUR", "USDGBP");
+            wireMockServer.verify(1, getRequestedFor(urlPathEqualTo("/live")));
+        }
+
+        @Test
+        @DisplayName("Should let a pair lookup wait for the in-flight fetch of its base table")
+        void shouldCoalescePairLookupIntoInFlightTableFetch() throws Exception {
+            wireMockServer.stubFor(get(urlPathEqualTo("/live"))
+                    .withQueryParam("source", equalTo("USD"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withFixedDelay(300)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"success\":true,\"quotes\":{\"USDEUR\":0.85}}")));
+
+            CompletableFuture<AllExchangeRatesDto> allRates =
+                    CompletableFuture.supplyAsync(() -> exchangeRateService.getAllRates("USD"));
+            Thread.sleep(100);
+            SingleExchangeRateDto pair = exchangeRateService.getExchangeRate("USD", "EUR");
+
+            assertThat(pair.getExchangeRate()).isEqualByComparingTo("0.85");
+            assertThat(allRates.get(5, TimeUnit.SECONDS).getRates()).containsKey("USDEUR");
+            wireMockServer.verify(1, getRequestedFor(urlPathEqualTo("/live")));
+        }
+
+        @Test
+        @DisplayName("Should throw exception when the base currency table does not quote the target")
+        void shouldThrowExceptionWhenTargetIsNotQuoted() {
+            wireMockServer.stubFor(get(urlPathEqualTo("/live"))
+                    .withQueryParam("source", equalTo("USD"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"success\":true,\"quotes\":{\"USDEUR\":0.85}}")));
+
+            CurrencyConversionException exception = assertThrows(CurrencyConversionException.class,
+                    () -> exchangeRateService.getExchangeRate("USD", "JPY"));
+
+            assertThat(exception.getMessage()).isEqualTo("Exchange rate not found for pair USD-JPY");
         }
 
         @Test
@@ -80,7 +196,6 @@ class ExchangeRateProviderServiceImplTest {
 
             wireMockServer.stubFor(get(urlPathEqualTo("/live"))
                     .withQueryParam("source", equalTo(sourceCurrency))
-                    .withQueryParam("currencies", equalTo(targetCurrency))
                     .willReturn(aResponse()
                             .withStatus(200)
                             .withHeader("Content-Type", "application/json")
@@ -133,6 +248,7 @@ class ExchangeRateProviderServiceImplTest {
             assertThat(result.getRates()).containsEntry("USDEUR", BigDecimal.valueOf(0.85));
             assertThat(result.getRates()).containsEntry("USDGBP", BigDecimal.valueOf(0.73));
             assertThat(result.getRates()).containsEntry("USDJPY", BigDecimal.valueOf(110.22));
+            assertThat(result.getTable().rate("JPY")).isEqualTo(BigDecimal.valueOf(110.22));
             assertThat(result.getTimestamp()).isNotNull();
 
             wireMockServer.verify(1, getRequestedFor(urlPathEqualTo("/live"))
@@ -171,4 +287,148 @@ class ExchangeRateProviderServiceImplTest {
                     () -> exchangeRateService.getAllRates(baseCurrency));
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("triangulated mode tests")
+    class TriangulatedModeTests {
+
+        @BeforeEach
+        void stubPivotTable() {
+            wireMockServer.stubFor(get(urlPathEqualTo("/live"))
+                    .withQueryParam("source", equalTo("USD"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"success\":true,\"quotes\":{\"USDPLN\":3.95,\"USDSEK\":10.43}}")));
+        }
+
+        @Test
+        @DisplayName("Should derive a pair from the pivot table without fetching the source table")
+        void shouldDeriveRateFromPivotTable() {
+            SingleExchangeRateDto result = exchangeRateService.getExchangeRate("PLN", "SEK", RateMode.TRIANGULATED_ALLOWED);
+
+            assertThat(result.getPivotCurrency()).isEqualTo("USD");
+            assertThat(result.getPrecisionLoss()).isPositive();
+            assertThat(result.getExchangeRate()).isEqualByComparingTo(
+                    new BigDecimal("10.43").divide(new BigDecimal("3.95"), MathContext.DECIMAL64));
+            wireMockServer.verify(1, getRequestedFor(urlPathEqualTo("/live")));
+            wireMockServer.verify(0, getRequestedFor(urlPathEqualTo("/live")).withQueryParam("source", equalTo("PLN")));
+            assertThat(demandTracker.snapshot())
+                    .containsExactly(new CurrencyDemand("PLN", 1), new CurrencyDemand("USD", 1));
+        }
+
+        @Test
+        @DisplayName("Should derive every base from one pivot fetch")
+        void shouldDeriveTablesFromSinglePivotFetch() {
+            AllExchangeRatesDto pln = exchangeRateService.getAllRates("PLN", RateMode.TRIANGULATED_ALLOWED);
+            AllExchangeRatesDto sek = exchangeRateService.getAllRates("SEK", RateMode.TRIANGULATED_ALLOWED);
+
+            assertThat(pln.getRates()).containsKeys("PLNUSD", "PLNSEK");
+            assertThat(sek.getRates()).containsKeys("SEKUSD", "SEKPLN");
+            wireMockServer.verify(1, getRequestedFor(urlPathEqualTo("/live")));
+        }
+
+        @Test
+        @DisplayName("Should prefer a stored direct table over triangulation")
+        void shouldPreferStoredDirectTable() {
+            wireMockServer.stubFor(get(urlPathEqualTo("/live"))
+                    .withQueryParam("source", equalTo("PLN"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"success\":true,\"quotes\":{\"PLNSEK\":2.64}}")));
+
+            exchangeRateService.getAllRates("PLN");
+            SingleExchangeRateDto result = exchangeRateService.getExchangeRate("PLN", "SEK", RateMode.TRIANGULATED_ALLOWED);
+
+            assertThat(result.getPivotCurrency()).isNull();
+            assertThat(result.getExchangeRate()).isEqualByComparingTo("2.64");
+        }
+
+        @Test
+        @DisplayName("Should derive rates from the stored pivot table when the upstream quota is exhausted")
+        void shouldDeriveFromStoredPivotTableWhenQuotaIsExhausted() {
+            createService(new UpstreamCallGovernor(1000, 2, 30, 0.5, meterRegistry));
+            exchangeRateService.getAllRates("USD");
+
+            SingleExchangeRateDto rate = exchangeRateService.getExchangeRate("PLN", "SEK", RateMode.DIRECT_ONLY);
+            AllExchangeRatesDto rates = exchangeRateService.getAllRates("SEK", RateMode.DIRECT_ONLY);
+
+            assertThat(rate.getPivotCurrency()).isEqualTo("USD");
+            assertThat(rate.getExchangeRate()).isEqualByComparingTo(
+                    new BigDecimal("10.43").divide(new BigDecimal("3.95"), MathContext.DECIMAL64));
+            assertThat(rates.getPivotCurrency()).isEqualTo("USD");
+            assertThrows(UpstreamQuotaExceededException.class, () -> exchangeRateService.getAllRates("EUR"));
+            wireMockServer.verify(1, getRequestedFor(urlPathEqualTo("/live")));
+        }
+
+        @Test
+        @DisplayName("Should fetch the source table in direct only mode")
+        void shouldFetchSourceTableInDirectOnlyMode() {
+            wireMockServer.stubFor(get(urlPathEqualTo("/live"))
+                    .withQueryParam("source", equalTo("PLN"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"success\":true,\"quotes\":{\"PLNSEK\":2.64}}")));
+
+            SingleExchangeRateDto result = exchangeRateService.getExchangeRate("PLN", "SEK", RateMode.DIRECT_ONLY);
+
+            assertThat(result.getPivotCurrency()).isNull();
+            wireMockServer.verify(0, getRequestedFor(urlPathEqualTo("/live")).withQueryParam("source", equalTo("USD")));
+        }
+    }
+
+    @Nested
+    @DisplayName("demand tracking tests")
+    class DemandTrackingTests {
+
+        @Test
+        @DisplayName("Should count client requests but not refreshes as demand")
+        void shouldCountClientRequestsButNotRefreshes() {
+            wireMockServer.stubFor(get(urlPathEqualTo("/live"))
+                    .withQueryParam("source", equalTo("EUR"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"success\":true,\"quotes\":{\"EURGBP\":0.86}}")));
+
+            exchangeRateService.getAllRates("EUR");
+            exchangeRateService.getExchangeRate("EUR", "GBP");
+            exchangeRateService.getRatesDelta("EUR", 0);
+            exchangeRateService.refreshRates("EUR").rates().join();
+
+            assertThat(demandTracker.snapshot()).isEqualTo(List.of(new CurrencyDemand("EUR", 3)));
+            wireMockServer.verify(2, getRequestedFor(urlPathEqualTo("/live")));
+        }
+    }
+
+    @Nested
+    @DisplayName("getRatesDelta method tests")
+    class RatesDeltaTests {
+
+        @Test
+        @DisplayName("Should return only rates changed since a stored version")
+        void shouldReturnChangedRatesSinceStoredVersion() {
+            wireMockServer.stubFor(get(urlPathEqualTo("/live"))
+                    .withQueryParam("source", equalTo("USD"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"success\":true,\"quotes\":{\"USDEUR\":0.85,\"USDGBP\":0.73,\"USDJPY\":150.2}}")));
+
+            AllExchangeRatesDto first = exchangeRateService.getAllRates("USD");
+            rateStore.put(first.toBuilder()
+                    .rates(Map.of("USDEUR", new BigDecimal("0.86"), "USDGBP", new BigDecimal("0.730")))
+                    .build());
+
+            RatesDeltaDto delta = exchangeRateService.getRatesDelta("USD", first.getSnapshotVersion());
+
+            assertThat(delta.isFullResync()).isFalse();
+            assertThat(delta.getSnapshotVersion()).isEqualTo(first.getSnapshotVersion() + 1);
+            assertThat(delta.getChanged()).containsOnlyKeys("USDEUR");
+            assertThat(delta.getRemoved()).containsExactly("USDJPY");
+            wireMockServer.verify(1, getRequestedFor(urlPathEqualTo("/live")));
+        }
+    }
+}
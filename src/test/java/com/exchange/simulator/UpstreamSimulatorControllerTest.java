@@ -0,0 +1,72 @@
+package com.exchange.simulator;
+
+import com.exchange.config.CurrencyConfig;
+import com.exchange.config.UpstreamSimulatorConfig;
+import com.exchange.store.CurrencyRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(UpstreamSimulatorController.class)
+@ActiveProfiles("simulator")
+@Import({CurrencyConfig.class, CurrencyRegistry.class, UpstreamSimulatorConfig.class, UpstreamSimulator.class})
+@TestPropertySource(properties = {
+        "exchange.rate.currencies.supported=USD,EUR,GBP",
+        "exchange.rate.simulator.latency.distribution=fixed",
+        "exchange.rate.simulator.latency.median-ms=0"
+})
+class UpstreamSimulatorControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void live_ServesQuotesOfSourceCurrency() throws Exception {
+        MvcResult result = mockMvc.perform(get("/simulator/live")
+                        .param("source", "EUR")
+                        .param("access_key", "simulator"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.source").value("EUR"))
+                .andExpect(jsonPath("$.quotes.EURGBP").isNumber())
+                .andExpect(jsonPath("$.quotes.EUREUR").value(1));
+    }
+
+    @Test
+    void list_ServesCurrencyNames() throws Exception {
+        MvcResult result = mockMvc.perform(get("/simulator/list").param("access_key", "simulator"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.currencies.GBP").value("British Pound"));
+    }
+
+    @Test
+    void live_RejectsMissingAccessKey() throws Exception {
+        MvcResult result = mockMvc.perform(get("/simulator/live"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.error.code").value(101));
+    }
+}
@@ -0,0 +1,124 @@
+package com.exchange.simulator;
+
+import com.exchange.client.UpstreamQuotesDecoder;
+import com.exchange.config.UpstreamSimulatorConfig;
+import com.exchange.config.UpstreamSimulatorConfig.Distribution;
+import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.simulator.UpstreamSimulator.Fault;
+import com.exchange.store.CurrencyRegistry;
+import com.exchange.store.TestRates;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class UpstreamSimulatorTest {
+
+    private CurrencyRegistry currencyRegistry;
+    private UpstreamSimulatorConfig config;
+
+    @BeforeEach
+    void setUp() {
+        currencyRegistry = TestRates.registry("USD", "EUR", "JPY", "BTC", "ABC");
+        config = new UpstreamSimulatorConfig();
+    }
+
+    @Test
+    void live_QuotesEverySupportedCurrencyInDecodablePayload() throws Exception {
+        config.setDrift(0);
+        UpstreamSimulator simulator = new UpstreamSimulator(currencyRegistry, config);
+
+        byte[] body = new ObjectMapper().writeValueAsBytes(simulator.live("EUR"));
+        AllExchangeRatesDto rates = new UpstreamQuotesDecoder(currencyRegistry)
+                .decode(new ByteArrayInputStream(body), "EUR", Instant.now());
+
+        assertThat(rates.getRates()).containsOnlyKeys("EURUSD", "EUREUR", "EURJPY", "EURBTC", "EURABC");
+        assertThat(rates.getRates().get("EUREUR")).isEqualByComparingTo(BigDecimal.ONE);
+        assertThat(rates.getRates().get("EURUSD").doubleValue()).isCloseTo(1 / 0.901, within(1e-5));
+        assertThat(rates.getRates().get("EURABC")).isPositive();
+    }
+
+    @Test
+    void live_DriftsRatesBetweenCalls() {
+        config.setDrift(0.001);
+        UpstreamSimulator simulator = new UpstreamSimulator(currencyRegistry, config);
+
+        BigDecimal first = usdRate(simulator, "JPY");
+        BigDecimal second = usdRate(simulator, "JPY");
+
+        assertThat(second).isNotEqualByComparingTo(first);
+        assertThat(second.doubleValue()).isCloseTo(first.doubleValue(), within(first.doubleValue() * 0.01));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void live_AnswersUnsupportedSourceWithUnsuccessfulPayload() {
+        UpstreamSimulator simulator = new UpstreamSimulator(currencyRegistry, config);
+
+        Map<String, Object> payload = simulator.live("XYZ");
+
+        assertThat(payload).containsEntry("success", false);
+        assertThat((Map<Object, Object>) payload.get("error")).containsEntry("code", 201);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void list_NamesEverySupportedCurrency() {
+        UpstreamSimulator simulator = new UpstreamSimulator(currencyRegistry, config);
+
+        assertThat((Map<Object, Object>) simulator.list().get("currencies"))
+                .containsEntry("EUR", "Euro")
+                .containsEntry("ABC", "ABC")
+                .hasSize(5);
+    }
+
+    @Test
+    void nextLatencyMs_FollowsLogNormalDistributionReproducibly() {
+        config.getLatency().setDistribution(Distribution.LOG_NORMAL);
+        config.getLatency().setMedianMs(80);
+        config.getLatency().setSigma(0.5);
+        long[] latencies = latencies(new UpstreamSimulator(currencyRegistry, config), 10_000);
+        long[] repeated = latencies(new UpstreamSimulator(currencyRegistry, config), 10_000);
+
+        assertThat(repeated).isEqualTo(latencies);
+        Arrays.sort(latencies);
+        assertThat(latencies[5_000]).isBetween(72L, 88L);
+        assertThat(latencies[9_900]).isBetween(220L, 300L);
+    }
+
+    @Test
+    void nextFault_InjectsConfiguredErrorRates() {
+        config.setErrorRate(0.1);
+        config.setApiErrorRate(0.05);
+        UpstreamSimulator simulator = new UpstreamSimulator(currencyRegistry, config);
+
+        int[] faults = new int[Fault.values().length];
+        for (int call = 0; call < 10_000; call++) {
+            faults[simulator.nextFault().ordinal()]++;
+        }
+
+        assertThat(faults[Fault.SERVER_ERROR.ordinal()]).isBetween(900, 1100);
+        assertThat(faults[Fault.API_ERROR.ordinal()]).isBetween(400, 600);
+    }
+
+    private static BigDecimal usdRate(UpstreamSimulator simulator, String target) {
+        Map<?, ?> quotes = (Map<?, ?>) simulator.live("USD").get("quotes");
+        return (BigDecimal) quotes.get("USD" + target);
+    }
+
+    private static long[] latencies(UpstreamSimulator simulator, int calls) {
+        long[] latencies = new long[calls];
+        for (int call = 0; call < calls; call++) {
+            latencies[call] = simulator.nextLatencyMs();
+        }
+        return latencies;
+    }
+}
@@ -0,0 +1,91 @@
+package com.exchange.store;
+
+import com.exchange.store.CurrencyDemandTracker.CurrencyDemand;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CurrencyDemandTrackerTest {
+
+    private CurrencyRegistry currencyRegistry;
+    private CurrencyDemandTracker demandTracker;
+
+    @BeforeEach
+    void setUp() {
+        currencyRegistry = TestRates.registry("USD", "EUR", "GBP", "JPY");
+        demandTracker = new CurrencyDemandTracker(currencyRegistry, 0.5);
+    }
+
+    @Test
+    void decay_RanksRequestedCurrenciesByCount() {
+        record("GBP", 3);
+        record("USD", 5);
+        record("EUR", 3);
+        demandTracker.record("XYZ");
+
+        List<CurrencyDemand> demand = demandTracker.decay();
+
+        assertEquals(List.of(new CurrencyDemand("USD", 5), new CurrencyDemand("EUR", 3),
+                new CurrencyDemand("GBP", 3)), demand);
+    }
+
+    @Test
+    void decay_FadesOutCurrenciesNoLongerRequested() {
+        record("USD", 4);
+        demandTracker.decay();
+        record("EUR", 1);
+
+        assertEquals(List.of(new CurrencyDemand("USD", 2), new CurrencyDemand("EUR", 1)), demandTracker.decay());
+        assertEquals(List.of(new CurrencyDemand("USD", 1), new CurrencyDemand("EUR", 0.5)), demandTracker.decay());
+
+        for (int cycle = 0; cycle < 10; cycle++) {
+            demandTracker.decay();
+        }
+        assertTrue(demandTracker.decay().isEmpty());
+    }
+
+    @Test
+    void decay_CountsOpenSubscriptionsEveryCycle() {
+        demandTracker.subscribe("JPY");
+        demandTracker.subscribe("JPY");
+        demandTracker.subscribe("XYZ");
+
+        assertEquals(List.of(new CurrencyDemand("JPY", 2)), demandTracker.decay());
+        assertEquals(List.of(new CurrencyDemand("JPY", 3)), demandTracker.decay());
+        assertTrue(demandTracker.subscribed("JPY"));
+
+        demandTracker.unsubscribe("JPY");
+        demandTracker.unsubscribe("JPY");
+        assertFalse(demandTracker.subscribed("JPY"));
+        assertFalse(demandTracker.subscribed("XYZ"));
+        assertEquals(List.of(new CurrencyDemand("JPY", 1.5)), demandTracker.decay());
+    }
+
+    @Test
+    void snapshot_ProjectsNextCycleWithoutEndingIt() {
+        record("USD", 4);
+        demandTracker.decay();
+        record("USD", 1);
+        record("JPY", 2);
+
+        List<CurrencyDemand> expected = List.of(new CurrencyDemand("USD", 3), new CurrencyDemand("JPY", 2));
+        assertEquals(expected, demandTracker.snapshot());
+        assertEquals(expected, demandTracker.snapshot());
+        assertEquals(expected, demandTracker.decay());
+    }
+
+    @Test
+    void constructor_RejectsDecayFactorOutsideRange() {
+        assertThrows(IllegalStateException.class, () -> new CurrencyDemandTracker(currencyRegistry, 1));
+        assertThrows(IllegalStateException.class, () -> new CurrencyDemandTracker(currencyRegistry, -0.1));
+    }
+
+    private void record(String currency, int requests) {
+        for (int i = 0; i < requests; i++) {
+            demandTracker.record(currency);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.exchange.store;
+
+import com.exchange.config.CurrencyConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CurrencyRegistryTest {
+
+    private CurrencyRegistry currencyRegistry;
+
+    @BeforeEach
+    void setUp() {
+        currencyRegistry = TestRates.registry("USD", "EUR", "GBP", "AED", "ZWL");
+    }
+
+    @Test
+    void ordinals_FollowAlphabeticalOrder() {
+        assertEquals(List.of("AED", "EUR", "GBP", "USD", "ZWL"), currencyRegistry.codes());
+        assertEquals(0, currencyRegistry.ordinal("AED"));
+        assertEquals(3, currencyRegistry.ordinal("USD"));
+        assertEquals(4, currencyRegistry.ordinal("ZWL"));
+        assertEquals("EUR", currencyRegistry.code(1));
+        assertEquals(5, currencyRegistry.size());
+    }
+
+    @Test
+    void ordinal_ReturnsMinusOneForUnknownCodes() {
+        assertEquals(-1, currencyRegistry.ordinal("JPY"));
+        assertEquals(-1, currencyRegistry.ordinal("usd"));
+        assertEquals(-1, currencyRegistry.ordinal("USDX"));
+        assertEquals(-1, currencyRegistry.ordinal(""));
+        assertEquals(-1, currencyRegistry.ordinal(null));
+    }
+
+    @Test
+    void constructor_RejectsMalformedCodes() {
+        CurrencyConfig currencyConfig = new CurrencyConfig();
+        currencyConfig.setSupported(Set.of("USD", "EU1"));
+
+        assertThrows(IllegalArgumentException.class, () -> new CurrencyRegistry(currencyConfig));
+    }
+}
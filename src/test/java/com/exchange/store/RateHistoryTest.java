@@ -0,0 +1,98 @@
+package com.exchange.store;
+
+import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.dto.RatesDeltaDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class RateHistoryTest {
+
+    @Mock
+    private RateStore rateStore;
+
+    private RateHistory rateHistory;
+    private Consumer<AllExchangeRatesDto> publishListener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        rateHistory = new RateHistory(rateStore, 3);
+        ArgumentCaptor<Consumer<AllExchangeRatesDto>> listener = ArgumentCaptor.forClass(Consumer.class);
+        verify(rateStore).addPublishListener(listener.capture());
+        publishListener = listener.getValue();
+    }
+
+    @Test
+    void delta_HoldsOnlyChangedAddedAndRemovedQuotes() {
+        publishListener.accept(rates(1L, Map.of("USDEUR", "0.85", "USDGBP", "0.73", "USDJPY", "150.2")));
+        AllExchangeRatesDto current = rates(2L, Map.of("USDEUR", "0.86", "USDGBP", "0.7300", "USDPLN", "3.98"));
+        publishListener.accept(current);
+
+        RatesDeltaDto delta = rateHistory.delta(current, 1L);
+
+        assertFalse(delta.isFullResync());
+        assertEquals(1L, delta.getSinceVersion());
+        assertEquals(2L, delta.getSnapshotVersion());
+        assertEquals(Map.of("USDEUR", new BigDecimal("0.86"), "USDPLN", new BigDecimal("3.98")), delta.getChanged());
+        assertEquals(List.of("USDJPY"), delta.getRemoved());
+    }
+
+    @Test
+    void delta_IsEmptyForCurrentVersion() {
+        AllExchangeRatesDto current = rates(4L, Map.of("USDEUR", "0.85"));
+
+        RatesDeltaDto delta = rateHistory.delta(current, 4L);
+
+        assertFalse(delta.isFullResync());
+        assertTrue(delta.getChanged().isEmpty());
+        assertTrue(delta.getRemoved().isEmpty());
+    }
+
+    @Test
+    void delta_ResyncsFullTableOnceVersionLeftTheRing() {
+        for (long version = 1; version <= 4; version++) {
+            publishListener.accept(rates(version, Map.of("USDEUR", "0.8" + version)));
+        }
+        AllExchangeRatesDto current = rates(4L, Map.of("USDEUR", "0.84"));
+
+        RatesDeltaDto evicted = rateHistory.delta(current, 1L);
+        RatesDeltaDto retained = rateHistory.delta(current, 2L);
+        RatesDeltaDto ahead = rateHistory.delta(current, 9L);
+
+        assertTrue(evicted.isFullResync());
+        assertEquals(current.getRates(), evicted.getChanged());
+        assertFalse(retained.isFullResync());
+        assertTrue(ahead.isFullResync());
+    }
+
+    @Test
+    void constructor_RejectsEmptyHistory() {
+        assertThrows(IllegalStateException.class, () -> new RateHistory(rateStore, 0));
+    }
+
+    private static AllExchangeRatesDto rates(Long snapshotVersion, Map<String, String> quotes) {
+        Map<String, BigDecimal> rates = new HashMap<>();
+        quotes.forEach((key, rate) -> rates.put(key, new BigDecimal(rate)));
+        return AllExchangeRatesDto.builder()
+                .sourceCurrency("USD")
+                .rates(rates)
+                .snapshotVersion(snapshotVersion)
+                .timestamp(Instant.parse("2024-02-20T13:45:30Z"))
+                .build();
+    }
+}
@@ -0,0 +1,139 @@
+package com.exchange.store;
+
+import com.exchange.dto.AllExchangeRatesDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateSnapshotFileTest {
+
+    @TempDir
+    private Path directory;
+
+    private CurrencyRegistry currencyRegistry;
+    private RateSnapshotFile snapshotFile;
+
+    @BeforeEach
+    void setUp() {
+        currencyRegistry = TestRates.registry("USD", "EUR", "GBP", "BTC");
+        snapshotFile = new RateSnapshotFile(directory.resolve("rates.bin"), currencyRegistry);
+    }
+
+    @Test
+    void read_ReturnsWrittenTablesExactly() throws IOException {
+        Instant timestamp = Instant.parse("2024-02-20T13:45:30.123456789Z");
+        RateSnapshot snapshot = RateSnapshot.empty(currencyRegistry)
+                .with(rates("USD", Map.of("USDEUR", "0.850102", "USDBTC", "0.0000158204"), timestamp), 0)
+                .with(rates("EUR", Map.of("EURUSD", "1.176329"), timestamp), 0);
+
+        int bytes = snapshotFile.write(snapshot);
+        List<AllExchangeRatesDto> tables = snapshotFile.read();
+
+        assertEquals(Files.size(snapshotFile.path()), bytes);
+        assertEquals(2, tables.size());
+        AllExchangeRatesDto usd = tables.stream().filter(t -> t.getSourceCurrency().equals("USD")).findFirst().get();
+        assertEquals(1L, usd.getSnapshotVersion());
+        assertEquals(timestamp, usd.getTimestamp());
+        assertEquals(new BigDecimal("0.850102"), usd.getRates().get("USDEUR"));
+        assertEquals(new BigDecimal("0.0000158204"), usd.getRates().get("USDBTC"));
+        assertEquals(new BigDecimal("0.850102"), usd.getTable().rate("EUR"));
+        assertEquals(2, usd.getRates().size());
+    }
+
+    @Test
+    void write_ReplacesPreviousFileWithoutLeavingTemporaryFile() throws IOException {
+        RateSnapshot first = RateSnapshot.empty(currencyRegistry)
+                .with(rates("USD", Map.of("USDEUR", "0.85"), Instant.now()), 0);
+        RateSnapshot second = first.with(rates("USD", Map.of("USDEUR", "0.86"), Instant.now()), 0);
+
+        snapshotFile.write(first);
+        snapshotFile.write(second);
+
+        assertEquals(new BigDecimal("0.86"), snapshotFile.read().get(0).getRates().get("USDEUR"));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of(snapshotFile.path()), files.toList());
+        }
+    }
+
+    @Test
+    void read_SkipsCurrenciesNoLongerSupported() throws IOException {
+        snapshotFile.write(RateSnapshot.empty(currencyRegistry)
+                .with(rates("USD", Map.of("USDEUR", "0.85", "USDBTC", "0.0000158"), Instant.now()), 0)
+                .with(rates("BTC", Map.of("BTCUSD", "63200.5"), Instant.now()), 0));
+
+        List<AllExchangeRatesDto> tables =
+                new RateSnapshotFile(snapshotFile.path(), TestRates.registry("USD", "EUR", "GBP")).read();
+
+        assertEquals(1, tables.size());
+        assertEquals(Map.of("USDEUR", new BigDecimal("0.85")), tables.get(0).getRates());
+    }
+
+    @Test
+    void read_RejectsCorruptedBody() throws IOException {
+        snapshotFile.write(RateSnapshot.empty(currencyRegistry)
+                .with(rates("USD", Map.of("USDEUR", "0.85"), Instant.now()), 0));
+        byte[] content = Files.readAllBytes(snapshotFile.path());
+        content[content.length - 2] ^= 0x01;
+        Files.write(snapshotFile.path(), content);
+
+        IOException exception = assertThrows(IOException.class, () -> snapshotFile.read());
+
+        assertTrue(exception.getMessage().startsWith("Rate snapshot checksum mismatch"));
+    }
+
+    @Test
+    void read_RejectsTruncatedFile() throws IOException {
+        snapshotFile.write(RateSnapshot.empty(currencyRegistry)
+                .with(rates("USD", Map.of("USDEUR", "0.85"), Instant.now()), 0));
+        byte[] content = Files.readAllBytes(snapshotFile.path());
+        Files.write(snapshotFile.path(), Arrays.copyOf(content, content.length - 5));
+
+        IOException exception = assertThrows(IOException.class, () -> snapshotFile.read());
+
+        assertTrue(exception.getMessage().startsWith("Truncated rate snapshot file"));
+    }
+
+    @Test
+    void read_RejectsForeignFile() throws IOException {
+        Files.writeString(snapshotFile.path(), "{\"rates\": {}}");
+
+        IOException exception = assertThrows(IOException.class, () -> snapshotFile.read());
+
+        assertTrue(exception.getMessage().startsWith("Not a rate snapshot file"));
+    }
+
+    @Test
+    void read_RejectsUnknownFormatVersion() throws IOException {
+        Files.write(snapshotFile.path(), ByteBuffer.allocate(14)
+                .putInt(RateSnapshotFile.MAGIC)
+                .putShort((short) (RateSnapshotFile.FORMAT_VERSION + 1))
+                .array());
+
+        IOException exception = assertThrows(IOException.class, () -> snapshotFile.read());
+
+        assertTrue(exception.getMessage().startsWith("Unsupported rate snapshot format version 2"));
+    }
+
+    private static AllExchangeRatesDto rates(String currency, Map<String, String> quotes, Instant timestamp) {
+        return AllExchangeRatesDto.builder()
+                .sourceCurrency(currency)
+                .rates(quotes.entrySet().stream().collect(Collectors.toMap(
+                        Map.Entry::getKey, quote -> new BigDecimal(quote.getValue()))))
+                .timestamp(timestamp)
+                .build();
+    }
+}
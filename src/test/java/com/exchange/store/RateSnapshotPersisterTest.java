@@ -0,0 +1,116 @@
+package com.exchange.store;
+
+import com.exchange.client.UpstreamCallGovernor;
+import com.exchange.client.UpstreamCircuitBreaker;
+import com.exchange.config.RateStoreConfig;
+import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.service.ExchangeRateFetcher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RateSnapshotPersisterTest {
+
+    @TempDir
+    private Path directory;
+
+    @Mock
+    private ExchangeRateFetcher fetcher;
+
+    private CurrencyRegistry currencyRegistry;
+    private Path path;
+
+    @BeforeEach
+    void setUp() {
+        currencyRegistry = TestRates.registry("USD", "EUR", "GBP");
+        path = directory.resolve("rates.bin");
+    }
+
+    @Test
+    void restore_ServesPersistedRatesWithoutFetching() {
+        RateStore previous = rateStore();
+        previous.put(rates("USD", "0.85"));
+        new RateSnapshotPersister(previous, currencyRegistry, path.toString()).persist();
+
+        RateStore restarted = rateStore();
+        new RateSnapshotPersister(restarted, currencyRegistry, path.toString()).afterSingletonsInstantiated();
+
+        AllExchangeRatesDto rates = restarted.get("USD");
+        assertEquals(new BigDecimal("0.85"), rates.getRates().get("USDEUR"));
+        assertEquals(1L, rates.getSnapshotVersion());
+        verifyNoInteractions(fetcher);
+    }
+
+    @Test
+    void persist_WritesOnlyNewVersions() throws IOException {
+        RateStore rateStore = rateStore();
+        RateSnapshotPersister persister = new RateSnapshotPersister(rateStore, currencyRegistry, path.toString());
+
+        persister.persist();
+        assertFalse(Files.exists(path));
+
+        rateStore.put(rates("USD", "0.85"));
+        persister.persist();
+        Files.delete(path);
+        persister.persist();
+        assertFalse(Files.exists(path));
+
+        rateStore.put(rates("EUR", "1.17"));
+        persister.persist();
+        assertEquals(2, new RateSnapshotFile(path, currencyRegistry).read().size());
+    }
+
+    @Test
+    void restore_IgnoresCorruptFile() throws IOException {
+        Files.writeString(path, "not a snapshot");
+        RateStore rateStore = rateStore();
+
+        new RateSnapshotPersister(rateStore, currencyRegistry, path.toString()).afterSingletonsInstantiated();
+
+        assertEquals(0, rateStore.snapshot().version());
+    }
+
+    @Test
+    void persist_IsDisabledWithoutPath() {
+        RateStore rateStore = rateStore();
+        rateStore.put(rates("USD", "0.85"));
+        RateSnapshotPersister persister = new RateSnapshotPersister(rateStore, currencyRegistry, "");
+
+        persister.afterSingletonsInstantiated();
+        persister.persist();
+
+        assertFalse(Files.exists(path));
+    }
+
+    private RateStore rateStore() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new RateStore(new RateStoreConfig(), currencyRegistry, fetcher,
+                new UpstreamCallGovernor(1000, 1_000_000, 30, 0.2, meterRegistry),
+                new UpstreamCircuitBreaker(20, 10, 0.5, 3000, 0.5, 30000, 3, meterRegistry), meterRegistry,
+                Duration.ofSeconds(5), Duration.ofMinutes(5), Runnable::run, System::nanoTime);
+    }
+
+    private static AllExchangeRatesDto rates(String currency, String eurRate) {
+        return AllExchangeRatesDto.builder()
+                .sourceCurrency(currency)
+                .rates(Map.of(currency + (currency.equals("EUR") ? "USD" : "EUR"), new BigDecimal(eurRate)))
+                .timestamp(Instant.now())
+                .build();
+    }
+}
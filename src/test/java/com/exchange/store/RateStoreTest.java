@@ -0,0 +1,495 @@
+package com.exchange.store;
+
+import com.exchange.client.UpstreamCallGovernor;
+import com.exchange.client.UpstreamCircuitBreaker;
+import com.exchange.client.UpstreamCallGovernor.Priority;
+import com.exchange.config.RateStoreConfig;
+import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.exception.ExchangeRateException;
+import com.exchange.exception.UpstreamCircuitOpenException;
+import com.exchange.exception.UpstreamQuotaExceededException;
+import com.exchange.service.ExchangeRateFetcher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RateStoreTest {
+
+    @Mock
+    private ExchangeRateFetcher fetcher;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RateStoreConfig storeConfig;
+    private CurrencyRegistry currencyRegistry;
+    private UpstreamCallGovernor callGovernor;
+    private UpstreamCircuitBreaker circuitBreaker;
+    private final AtomicLong nanos = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        storeConfig = new RateStoreConfig();
+        storeConfig.setExpireAfterSeconds(60);
+        storeConfig.setRefreshAheadSeconds(40);
+        currencyRegistry = TestRates.registry("USD", "EUR", "GBP");
+        callGovernor = new UpstreamCallGovernor(1000, 1_000_000, 30, 0.2, meterRegistry);
+        circuitBreaker = new UpstreamCircuitBreaker(20, 10, 0.5, 3000, 0.5, 30000, 3, meterRegistry);
+    }
+
+    @Test
+    void get_FetchesOnMissAndServesLaterLookupsFromStore() {
+        AllExchangeRatesDto rates = rates("USD", "0.85");
+        when(fetcher.fetchAllRates("USD")).thenReturn(rates);
+        RateStore rateStore = rateStore(Runnable::run);
+
+        assertEquals(rates.getRates(), rateStore.get("USD").getRates());
+        assertEquals(rates.getRates(), rateStore.get("USD").getRates());
+
+        verify(fetcher, times(1)).fetchAllRates("USD");
+        assertEquals(1, meterRegistry.counter("exchange.rate.store.lookups", "result", "hit").count());
+        assertEquals(1, meterRegistry.counter("exchange.rate.store.lookups", "result", "miss").count());
+    }
+
+    @Test
+    void get_PropagatesFetchFailureAndRetriesNextTime() {
+        when(fetcher.fetchAllRates("USD"))
+                .thenThrow(new ExchangeRateException("Failed to fetch exchange rates for USD"))
+                .thenReturn(rates("USD", "0.85"));
+        RateStore rateStore = rateStore(Runnable::run);
+
+        assertThrows(ExchangeRateException.class, () -> rateStore.get("USD"));
+        assertNotNull(rateStore.get("USD"));
+    }
+
+    @Test
+    void get_ReturnsPresentTableWhileRefreshAheadRunsInBackground() {
+        Queue<Runnable> pendingReloads = new ArrayDeque<>();
+        RateStore rateStore = rateStore(pendingReloads::add);
+        AllExchangeRatesDto current = rates("USD", "0.85");
+        AllExchangeRatesDto refreshed = rates("USD", "0.86");
+        rateStore.put(current);
+        when(fetcher.fetchAllRates("USD")).thenReturn(refreshed);
+
+        advance(Duration.ofSeconds(45));
+
+        assertEquals(current.getRates(), rateStore.get("USD").getRates());
+        verifyNoInteractions(fetcher);
+
+        while (!pendingReloads.isEmpty()) {
+            pendingReloads.poll().run();
+        }
+
+        assertEquals(refreshed.getRates(), rateStore.get("USD").getRates());
+        verify(fetcher, times(1)).fetchAllRates("USD");
+    }
+
+    @Test
+    void get_FetchesSynchronouslyOnceTableExpired() {
+        RateStore rateStore = rateStore(Runnable::run);
+        rateStore.put(rates("USD", "0.85"));
+        AllExchangeRatesDto refreshed = rates("USD", "0.86");
+        when(fetcher.fetchAllRates("USD")).thenReturn(refreshed);
+
+        advance(Duration.ofSeconds(61));
+
+        assertEquals(refreshed.getRates(), rateStore.get("USD").getRates());
+        assertEquals(1, meterRegistry.counter("exchange.rate.store.lookups", "result", "miss").count());
+    }
+
+    @Test
+    void get_ConcurrentMissesShareOneFetch() throws Exception {
+        CountDownLatch fetchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFetch = new CountDownLatch(1);
+        AllExchangeRatesDto rates = rates("USD", "0.85");
+        when(fetcher.fetchAllRates("USD")).thenAnswer(invocation -> {
+            fetchStarted.countDown();
+            releaseFetch.await();
+            return rates;
+        });
+        RateStore rateStore = new RateStore(storeConfig, currencyRegistry, fetcher, callGovernor, circuitBreaker,
+                meterRegistry, 5000, 0);
+
+        try (ExecutorService callers = Executors.newFixedThreadPool(4)) {
+            List<Future<AllExchangeRatesDto>> results = new ArrayList<>();
+            results.add(callers.submit(() -> rateStore.get("USD")));
+            assertTrue(fetchStarted.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 3; i++) {
+                results.add(callers.submit(() -> rateStore.get("USD")));
+            }
+            await(() -> meterRegistry.counter("exchange.rate.fetch.calls", "role", "waiter").count() == 3);
+            releaseFetch.countDown();
+
+            for (Future<AllExchangeRatesDto> result : results) {
+                assertEquals(rates.getRates(), result.get(5, TimeUnit.SECONDS).getRates());
+            }
+        }
+
+        verify(fetcher, times(1)).fetchAllRates("USD");
+        assertEquals(1, meterRegistry.counter("exchange.rate.fetch.calls", "role", "leader").count());
+        assertEquals(0, rateStore.inFlightFetches());
+    }
+
+    @Test
+    void get_GivesUpAfterMaxWait() {
+        CountDownLatch releaseFetch = new CountDownLatch(1);
+        when(fetcher.fetchAllRates("USD")).thenAnswer(invocation -> {
+            releaseFetch.await();
+            return rates("USD", "0.85");
+        });
+        RateStore rateStore = new RateStore(storeConfig, currencyRegistry, fetcher, callGovernor, circuitBreaker,
+                meterRegistry, 50, 0);
+
+        try {
+            ExchangeRateException exception = assertThrows(ExchangeRateException.class, () -> rateStore.get("USD"));
+
+            assertEquals("Timed out after 50 ms waiting for exchange rates for USD", exception.getMessage());
+            assertEquals(1, meterRegistry.counter("exchange.rate.fetch.wait.timeouts").count());
+        } finally {
+            releaseFetch.countDown();
+        }
+    }
+
+    @Test
+    void get_ServesStaleTableWhileExpiredTableRevalidates() {
+        Queue<Runnable> pendingReloads = new ArrayDeque<>();
+        RateStore rateStore = rateStore(pendingReloads::add, Duration.ofMinutes(5));
+        AllExchangeRatesDto current = rates("USD", "0.85");
+        AllExchangeRatesDto refreshed = rates("USD", "0.86");
+        rateStore.put(current);
+        when(fetcher.fetchAllRates("USD")).thenReturn(refreshed);
+
+        advance(Duration.ofSeconds(61));
+
+        AllExchangeRatesDto stale = rateStore.get("USD");
+        assertTrue(stale.isStale());
+        assertEquals(current.getRates(), stale.getRates());
+        assertFalse(current.isStale());
+        verifyNoInteractions(fetcher);
+
+        while (!pendingReloads.isEmpty()) {
+            pendingReloads.poll().run();
+        }
+
+        assertEquals(refreshed.getRates(), rateStore.get("USD").getRates());
+        verify(fetcher, times(1)).fetchAllRates("USD");
+        assertEquals(1, meterRegistry.counter("exchange.rate.store.stale.served").count());
+    }
+
+    @Test
+    void get_KeepsServingStaleTableWhileUpstreamFails() {
+        RateStore rateStore = rateStore(Runnable::run, Duration.ofMinutes(5));
+        rateStore.put(rates("USD", "0.85"));
+        when(fetcher.fetchAllRates("USD"))
+                .thenThrow(new ExchangeRateException("Failed to fetch exchange rates for USD"));
+
+        advance(Duration.ofSeconds(61));
+
+        assertTrue(rateStore.get("USD").isStale());
+        assertTrue(rateStore.get("USD").isStale());
+        assertEquals(2, meterRegistry.counter("exchange.rate.store.stale.served").count());
+    }
+
+    @Test
+    void get_FailsOnceStaleTableExceedsMaxAge() {
+        RateStore rateStore = rateStore(Runnable::run, Duration.ofMinutes(5));
+        rateStore.put(AllExchangeRatesDto.builder()
+                .sourceCurrency("USD")
+                .rates(Map.of("USDEUR", new BigDecimal("0.85")))
+                .timestamp(Instant.now().minus(Duration.ofMinutes(6)))
+                .build());
+        when(fetcher.fetchAllRates("USD"))
+                .thenThrow(new ExchangeRateException("Failed to fetch exchange rates for USD"));
+
+        advance(Duration.ofSeconds(61));
+
+        assertThrows(ExchangeRateException.class, () -> rateStore.get("USD"));
+        assertEquals(0, meterRegistry.counter("exchange.rate.store.stale.served").count());
+    }
+
+    @Test
+    void get_DoesNotServeStaleTableWhenDisabled() {
+        RateStore rateStore = rateStore(Runnable::run);
+        rateStore.put(rates("USD", "0.85"));
+        when(fetcher.fetchAllRates("USD"))
+                .thenThrow(new ExchangeRateException("Failed to fetch exchange rates for USD"));
+
+        advance(Duration.ofSeconds(61));
+
+        assertThrows(ExchangeRateException.class, () -> rateStore.get("USD"));
+    }
+
+    @Test
+    void get_ServesLastKnownTableWhenMissIsOverQuota() {
+        callGovernor = new UpstreamCallGovernor(1000, 2, 30, 0.5, meterRegistry);
+        RateStore rateStore = rateStore(Runnable::run);
+        rateStore.put(rates("USD", "0.85"));
+        when(fetcher.fetchAllRates("USD")).thenReturn(rates("USD", "0.86"));
+
+        advance(Duration.ofSeconds(61));
+        assertFalse(rateStore.get("USD").isStale());
+        advance(Duration.ofSeconds(61));
+
+        AllExchangeRatesDto lastKnown = rateStore.get("USD");
+        assertTrue(lastKnown.isStale());
+        assertEquals(new BigDecimal("0.86"), lastKnown.rateFor("EUR"));
+        assertThrows(UpstreamQuotaExceededException.class, () -> rateStore.get("EUR"));
+        verify(fetcher, times(1)).fetchAllRates("USD");
+        verify(fetcher, never()).fetchAllRates("EUR");
+    }
+
+    @Test
+    void get_AdmitsRefreshWhenOnDemandFetchesAreOverQuota() {
+        callGovernor = new UpstreamCallGovernor(1000, 2, 30, 0.5, meterRegistry);
+        RateStore rateStore = rateStore(Runnable::run);
+        when(fetcher.fetchAllRates("USD")).thenReturn(rates("USD", "0.85"));
+        when(fetcher.fetchAllRates("EUR")).thenReturn(rates("EUR", "1.00"));
+
+        rateStore.get("USD");
+        assertThrows(UpstreamQuotaExceededException.class, () -> rateStore.get("EUR"));
+
+        assertEquals(new BigDecimal("1.00"), rateStore.get("EUR", Priority.REFRESH).rateFor("EUR"));
+    }
+
+    @Test
+    void get_RevalidatesWithinTheOnDemandBudgetOfTheRead() {
+        callGovernor = new UpstreamCallGovernor(1000, 2, 30, 0.5, meterRegistry);
+        RateStore rateStore = rateStore(Runnable::run);
+        when(fetcher.fetchAllRates("EUR")).thenReturn(rates("EUR", "1.00"));
+        when(fetcher.fetchAllRates("USD")).thenReturn(rates("USD", "0.86"));
+        rateStore.get("EUR");
+        rateStore.put(rates("USD", "0.85"));
+
+        advance(Duration.ofSeconds(45));
+
+        assertEquals(new BigDecimal("0.85"), rateStore.get("USD").rateFor("EUR"));
+        verify(fetcher, never()).fetchAllRates("USD");
+        assertEquals(1, meterRegistry.counter("exchange.rate.upstream.quota.rejected", "priority", "ON_DEMAND")
+                .count());
+        assertEquals(new BigDecimal("0.86"), rateStore.refresh("USD").rates().join().rateFor("EUR"));
+    }
+
+    @Test
+    void get_FailsFastAndServesLastKnownTableWhileCircuitIsOpen() {
+        circuitBreaker = new UpstreamCircuitBreaker(2, 2, 0.5, 3000, 0.5, 30000, 1, meterRegistry);
+        RateStore rateStore = rateStore(Runnable::run);
+        rateStore.put(rates("USD", "0.85"));
+        when(fetcher.fetchAllRates("USD"))
+                .thenThrow(new ExchangeRateException("Failed to fetch exchange rates for USD"));
+
+        advance(Duration.ofSeconds(61));
+        assertThrows(ExchangeRateException.class, () -> rateStore.get("USD"));
+        assertThrows(ExchangeRateException.class, () -> rateStore.get("USD"));
+
+        AllExchangeRatesDto lastKnown = rateStore.get("USD");
+        assertTrue(lastKnown.isStale());
+        assertEquals(new BigDecimal("0.85"), lastKnown.rateFor("EUR"));
+        assertThrows(UpstreamCircuitOpenException.class, () -> rateStore.get("EUR"));
+        verify(fetcher, times(2)).fetchAllRates("USD");
+        verify(fetcher, never()).fetchAllRates("EUR");
+    }
+
+    @Test
+    void refresh_FetchesWhateverTheAgeOfTheTable() {
+        RateStore rateStore = rateStore(Runnable::run);
+        rateStore.put(rates("USD", "0.85"));
+        when(fetcher.fetchAllRates("USD")).thenReturn(rates("USD", "0.86"));
+
+        RateStore.Refresh refresh = rateStore.refresh("USD");
+        AllExchangeRatesDto refreshed = refresh.rates().join();
+
+        assertTrue(refresh.started());
+
+        assertEquals(new BigDecimal("0.86"), refreshed.rateFor("EUR"));
+        assertEquals(refreshed.getRates(), rateStore.get("USD").getRates());
+        verify(fetcher, times(1)).fetchAllRates("USD");
+    }
+
+    @Test
+    void refresh_JoinsFetchInFlightWithoutStartingAnother() {
+        Queue<Runnable> pendingFetches = new ArrayDeque<>();
+        RateStore rateStore = rateStore(pendingFetches::add);
+        when(fetcher.fetchAllRates("USD")).thenReturn(rates("USD", "0.86"));
+
+        RateStore.Refresh leader = rateStore.refresh("USD");
+        RateStore.Refresh joined = rateStore.refresh("USD");
+        pendingFetches.poll().run();
+
+        assertTrue(leader.started());
+        assertFalse(joined.started());
+        assertSame(leader.rates(), joined.rates());
+        assertTrue(pendingFetches.isEmpty());
+        verify(fetcher, times(1)).fetchAllRates("USD");
+    }
+
+    @Test
+    void put_PublishesNextSnapshotVersion() {
+        RateStore rateStore = rateStore(Runnable::run);
+
+        AllExchangeRatesDto usd = rateStore.put(rates("USD", "0.85"));
+        RateSnapshot afterUsd = rateStore.snapshot();
+        AllExchangeRatesDto eur = rateStore.put(rates("EUR", "1.00"));
+
+        assertEquals(1L, usd.getSnapshotVersion());
+        assertEquals(2L, eur.getSnapshotVersion());
+        assertEquals(2, rateStore.snapshot().version());
+        assertEquals(2, meterRegistry.get("exchange.rate.snapshot.version").gauge().value());
+        assertEquals(1, afterUsd.tableCount());
+        assertTrue(afterUsd.rates("EUR").isEmpty());
+        assertSame(usd, rateStore.get("USD"));
+    }
+
+    @Test
+    void put_ConcurrentPublishesLoseNoTable() throws Exception {
+        RateStore rateStore = rateStore(Runnable::run);
+        List<String> currencies = List.of("USD", "EUR", "GBP");
+
+        try (ExecutorService publishers = Executors.newFixedThreadPool(currencies.size())) {
+            List<Future<AllExchangeRatesDto>> results = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                String currency = currencies.get(i % currencies.size());
+                results.add(publishers.submit(() -> rateStore.put(rates(currency, "0.85"))));
+            }
+            for (Future<AllExchangeRatesDto> result : results) {
+                result.get(5, TimeUnit.SECONDS);
+            }
+        }
+
+        assertEquals(300, rateStore.snapshot().version());
+        assertEquals(3, rateStore.snapshot().tableCount());
+    }
+
+    @Test
+    void put_NotifiesPublishListenersDespiteFailingListener() {
+        RateStore rateStore = rateStore(Runnable::run);
+        List<AllExchangeRatesDto> published = new ArrayList<>();
+        rateStore.addPublishListener(rates -> {
+            throw new IllegalStateException("listener failure");
+        });
+        rateStore.addPublishListener(published::add);
+
+        AllExchangeRatesDto usd = rateStore.put(rates("USD", "0.85"));
+
+        assertEquals(List.of(usd), published);
+        assertEquals(1L, published.get(0).getSnapshotVersion());
+    }
+
+    @Test
+    void put_RejectsUnsupportedCurrency() {
+        RateStore rateStore = rateStore(Runnable::run);
+
+        assertThrows(IllegalArgumentException.class, () -> rateStore.put(rates("XYZ", "0.85")));
+        assertEquals(0, rateStore.snapshot().version());
+    }
+
+    @Test
+    void restore_AgesTablesByTimestamp() {
+        RateStore rateStore = rateStore(Runnable::run, Duration.ofMinutes(5));
+        AllExchangeRatesDto fresh = rates("USD", "0.85").toBuilder().snapshotVersion(7L).build();
+        AllExchangeRatesDto old = rates("EUR", "1.17").toBuilder()
+                .snapshotVersion(9L)
+                .timestamp(Instant.now().minus(Duration.ofMinutes(2)))
+                .build();
+        when(fetcher.fetchAllRates("EUR")).thenThrow(new ExchangeRateException("Failed to fetch exchange rates for EUR"));
+
+        assertTrue(rateStore.restore(List.of(fresh, old)));
+
+        assertEquals(9, rateStore.snapshot().version());
+        assertSame(fresh, rateStore.get("USD"));
+        assertTrue(rateStore.get("EUR").isStale());
+        assertEquals(9L, rateStore.get("EUR").getSnapshotVersion());
+        verify(fetcher, never()).fetchAllRates("USD");
+    }
+
+    @Test
+    void restore_IsIgnoredOncePublished() {
+        RateStore rateStore = rateStore(Runnable::run);
+        rateStore.put(rates("USD", "0.86"));
+
+        assertFalse(rateStore.restore(List.of(rates("USD", "0.85").toBuilder().snapshotVersion(7L).build())));
+
+        assertEquals(new BigDecimal("0.86"), rateStore.get("USD").getRates().get("USDEUR"));
+    }
+
+    @Test
+    void find_DoesNotFetch() {
+        RateStore rateStore = rateStore(Runnable::run);
+
+        assertTrue(rateStore.find("EUR").isEmpty());
+
+        verifyNoInteractions(fetcher);
+    }
+
+    @Test
+    void remainingLifetime_CountsDownToExpiry() {
+        RateStore rateStore = rateStore(Runnable::run);
+        rateStore.put(rates("USD", "0.85"));
+
+        advance(Duration.ofSeconds(25));
+
+        assertEquals(Duration.ofSeconds(35), rateStore.remainingLifetime("USD"));
+        assertEquals(Duration.ZERO, rateStore.remainingLifetime("EUR"));
+        advance(Duration.ofSeconds(40));
+        assertEquals(Duration.ZERO, rateStore.remainingLifetime("USD"));
+        verifyNoInteractions(fetcher);
+    }
+
+    @Test
+    void constructor_RejectsRefreshHorizonBeyondExpiry() {
+        storeConfig.setRefreshAheadSeconds(60);
+
+        assertThrows(IllegalStateException.class, () -> rateStore(Runnable::run));
+    }
+
+    private RateStore rateStore(Executor executor) {
+        return rateStore(executor, Duration.ZERO);
+    }
+
+    private RateStore rateStore(Executor executor, Duration maxStaleAge) {
+        return new RateStore(storeConfig, currencyRegistry, fetcher, callGovernor, circuitBreaker,
+                meterRegistry, Duration.ofSeconds(5), maxStaleAge, executor, nanos::get);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met in time");
+            Thread.sleep(5);
+        }
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    private static AllExchangeRatesDto rates(String currency, String eurRate) {
+        return AllExchangeRatesDto.builder()
+                .sourceCurrency(currency)
+                .rates(Map.of(currency + "EUR", new BigDecimal(eurRate)))
+                .timestamp(Instant.now())
+                .build();
+    }
+}
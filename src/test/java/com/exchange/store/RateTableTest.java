@@ -0,0 +1,71 @@
+package com.exchange.store;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateTableTest {
+
+    private CurrencyRegistry currencyRegistry;
+
+    @BeforeEach
+    void setUp() {
+        currencyRegistry = TestRates.registry("USD", "EUR", "GBP", "JPY", "BTC");
+    }
+
+    @Test
+    void of_KeepsQuotesExactly() {
+        Map<String, BigDecimal> quotes = Map.of(
+                "USDEUR", new BigDecimal("0.850102"),
+                "USDJPY", new BigDecimal("149.5"),
+                "USDBTC", new BigDecimal("0.0000158204"));
+
+        RateTable table = RateTable.of(currencyRegistry, "USD", quotes, Instant.now());
+
+        assertEquals("USD", table.baseCurrency());
+        assertEquals(new BigDecimal("0.850102"), table.rate("EUR"));
+        assertEquals(new BigDecimal("149.5"), table.rate("JPY"));
+        assertEquals(new BigDecimal("0.0000158204"), table.rate("BTC"));
+        assertEquals(850102L, table.unscaledRate(currencyRegistry.ordinal("EUR")));
+        assertEquals(6, table.scale(currencyRegistry.ordinal("EUR")));
+        assertEquals(3, table.quotedCount());
+    }
+
+    @Test
+    void of_SkipsUnsupportedAndForeignQuotes() {
+        Map<String, BigDecimal> quotes = Map.of(
+                "USDEUR", new BigDecimal("0.85"),
+                "USDXYZ", new BigDecimal("1.23"),
+                "EURGBP", new BigDecimal("0.86"));
+
+        RateTable table = RateTable.of(currencyRegistry, "USD", quotes, Instant.now());
+
+        assertEquals(1, table.quotedCount());
+        assertNull(table.rate("GBP"));
+        assertNull(table.rate("XYZ"));
+        assertFalse(table.contains(currencyRegistry.ordinal("GBP")));
+        assertFalse(table.contains(-1));
+    }
+
+    @Test
+    void of_RoundsQuotesBeyondLongPrecision() {
+        Map<String, BigDecimal> quotes = Map.of("USDEUR", new BigDecimal("0.12345678901234567890123"));
+
+        RateTable table = RateTable.of(currencyRegistry, "USD", quotes, Instant.now());
+
+        assertEquals(new BigDecimal("0.123456789012345679"), table.rate("EUR"));
+    }
+
+    @Test
+    void of_RejectsUnsupportedBaseCurrency() {
+        Map<String, BigDecimal> quotes = Map.of();
+        Instant now = Instant.now();
+
+        assertThrows(IllegalArgumentException.class, () -> RateTable.of(currencyRegistry, "XYZ", quotes, now));
+    }
+}
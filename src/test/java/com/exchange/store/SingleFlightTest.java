@@ -0,0 +1,90 @@
+package com.exchange.store;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private Counter leaders;
+    private Counter waiters;
+    private SingleFlight<String, String> singleFlight;
+    private final Queue<Runnable> pending = new ArrayDeque<>();
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        leaders = meterRegistry.counter("leaders");
+        waiters = meterRegistry.counter("waiters");
+        singleFlight = new SingleFlight<>(leaders, waiters);
+    }
+
+    @Test
+    void execute_SharesInFlightCallForSameKey() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> first = singleFlight.execute("USD", key -> key + calls.incrementAndGet(), pending::add);
+        CompletableFuture<String> second = singleFlight.execute("USD", key -> key + calls.incrementAndGet(), pending::add);
+        pending.poll().run();
+
+        assertSame(first, second);
+        assertEquals("USD1", second.get());
+        assertEquals(1, calls.get());
+        assertTrue(pending.isEmpty());
+        assertEquals(1, leaders.count());
+        assertEquals(1, waiters.count());
+    }
+
+    @Test
+    void execute_StartsNewCallOncePreviousCompleted() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> first = singleFlight.execute("USD", key -> key + calls.incrementAndGet(), Runnable::run);
+        CompletableFuture<String> second = singleFlight.execute("USD", key -> key + calls.incrementAndGet(), Runnable::run);
+
+        assertEquals("USD1", first.get());
+        assertEquals("USD2", second.get());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void execute_DoesNotCoalesceDifferentKeys() {
+        singleFlight.execute("USD", key -> key, pending::add);
+        singleFlight.execute("EUR", key -> key, pending::add);
+
+        assertEquals(2, singleFlight.inFlightCount());
+        assertEquals(2, leaders.count());
+        assertEquals(0, waiters.count());
+    }
+
+    @Test
+    void execute_PropagatesFailureAndReleasesKey() {
+        CompletableFuture<String> result = singleFlight.execute("USD", key -> {
+            throw new IllegalStateException("upstream down");
+        }, Runnable::run);
+
+        ExecutionException exception = assertThrows(ExecutionException.class, result::get);
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void execute_FailsWhenExecutorRejects() {
+        CompletableFuture<String> result = singleFlight.execute("USD", key -> key, task -> {
+            throw new RejectedExecutionException("shut down");
+        });
+
+        assertTrue(result.isCompletedExceptionally());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+}
@@ -0,0 +1,52 @@
+package com.exchange.store;
+
+import com.exchange.config.CurrencyConfig;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Currency registries and rate tables shared by tests.
+ */
+public final class TestRates {
+
+    private TestRates() {
+    }
+
+    /**
+     * @param codes the supported currency codes
+     * @return a registry of the given currencies
+     */
+    public static CurrencyRegistry registry(String... codes) {
+        return registry(Set.of(codes));
+    }
+
+    /**
+     * @param codes the supported currency codes
+     * @return a registry of the given currencies
+     */
+    public static CurrencyRegistry registry(Collection<String> codes) {
+        CurrencyConfig currencyConfig = new CurrencyConfig();
+        currencyConfig.setSupported(Set.copyOf(codes));
+        return new CurrencyRegistry(currencyConfig);
+    }
+
+    /**
+     * Builds a table, fetched now, over a registry of its base currency and the currencies it quotes.
+     *
+     * @param baseCurrency the base currency code
+     * @param quotes       the quotes keyed by concatenated base and target codes
+     * @return the dense rate table
+     */
+    public static RateTable table(String baseCurrency, Map<String, BigDecimal> quotes) {
+        Set<String> codes = new TreeSet<>(Set.of(baseCurrency));
+        for (String key : quotes.keySet()) {
+            codes.add(key.substring(baseCurrency.length()));
+        }
+        return RateTable.of(registry(codes), baseCurrency, quotes, Instant.now());
+    }
+}
@@ -0,0 +1,101 @@
+package com.exchange.triangulation;
+
+import com.exchange.dto.AllExchangeRatesDto;
+import com.exchange.dto.SingleExchangeRateDto;
+import com.exchange.exception.CurrencyConversionException;
+import com.exchange.store.TestRates;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateTriangulatorTest {
+
+    private RateTriangulator rateTriangulator;
+    private AllExchangeRatesDto pivotRates;
+
+    @BeforeEach
+    void setUp() {
+        rateTriangulator = new RateTriangulator("USD", TestRates.registry("USD", "EUR", "GBP", "PLN", "SEK"));
+        pivotRates = AllExchangeRatesDto.builder()
+                .sourceCurrency("USD")
+                .rates(Map.of(
+                        "USDEUR", new BigDecimal("0.85"),
+                        "USDGBP", new BigDecimal("0.73"),
+                        "USDPLN", new BigDecimal("3.9512"),
+                        "USDSEK", new BigDecimal("10.4321")))
+                .timestamp(Instant.now())
+                .build();
+    }
+
+    @Test
+    void deriveRate_CrossRate() {
+        SingleExchangeRateDto result = rateTriangulator.deriveRate(pivotRates, "PLN", "SEK");
+
+        assertEquals(new BigDecimal("10.4321").divide(new BigDecimal("3.9512"), MathContext.DECIMAL64),
+                result.getExchangeRate());
+        assertEquals("USD", result.getPivotCurrency());
+        assertEquals(pivotRates.getTimestamp(), result.getTimestamp());
+    }
+
+    @Test
+    void deriveRate_InverseOfPivotQuote() {
+        SingleExchangeRateDto result = rateTriangulator.deriveRate(pivotRates, "EUR", "USD");
+
+        assertEquals(BigDecimal.ONE.divide(new BigDecimal("0.85"), MathContext.DECIMAL64), result.getExchangeRate());
+    }
+
+    @Test
+    void deriveRate_PrecisionLossBoundsQuantizationOfBothQuotes() {
+        SingleExchangeRateDto result = rateTriangulator.deriveRate(pivotRates, "EUR", "GBP");
+
+        // half-ulp of 0.85 and 0.73 relative to each quote: 0.005/0.85 + 0.005/0.73 ~ 0.0127
+        assertEquals(new BigDecimal("0.013"), result.getPrecisionLoss());
+    }
+
+    @Test
+    void deriveRate_PrecisionLossCountsUpstreamQuoteOfOne() {
+        AllExchangeRatesDto pegged = AllExchangeRatesDto.builder()
+                .sourceCurrency("USD")
+                .rates(Map.of("USDEUR", new BigDecimal("0.85"), "USDPLN", BigDecimal.valueOf(1, 0)))
+                .timestamp(Instant.now())
+                .build();
+
+        SingleExchangeRateDto viaPeg = rateTriangulator.deriveRate(pegged, "PLN", "EUR");
+        SingleExchangeRateDto viaPivot = rateTriangulator.deriveRate(pegged, "USD", "EUR");
+
+        // half-ulp of the rounded upstream 1 is 0.5, unlike the exact pivot constant
+        assertEquals(0, new BigDecimal("0.51").compareTo(viaPeg.getPrecisionLoss()));
+        assertEquals(new BigDecimal("0.0059"), viaPivot.getPrecisionLoss());
+    }
+
+    @Test
+    void deriveRate_ThrowsException_WhenPivotDoesNotQuoteCurrency() {
+        CurrencyConversionException exception = assertThrows(CurrencyConversionException.class,
+                () -> rateTriangulator.deriveRate(pivotRates, "EUR", "JPY"));
+
+        assertEquals("Exchange rate not found for pair EUR-JPY via pivot USD", exception.getMessage());
+    }
+
+    @Test
+    void deriveTable_QuotesEveryPivotCurrencyAndThePivot() {
+        AllExchangeRatesDto result = rateTriangulator.deriveTable(pivotRates, "EUR");
+
+        assertEquals("EUR", result.getSourceCurrency());
+        assertEquals("USD", result.getPivotCurrency());
+        assertEquals(5, result.getRates().size());
+        assertEquals(0, BigDecimal.ONE.compareTo(result.getRates().get("EUREUR")));
+        assertEquals(BigDecimal.ONE.divide(new BigDecimal("0.85"), MathContext.DECIMAL64),
+                result.getRates().get("EURUSD"));
+        assertEquals(new BigDecimal("0.73").divide(new BigDecimal("0.85"), MathContext.DECIMAL64),
+                result.getRates().get("EURGBP"));
+        assertEquals(result.getRates().get("EURGBP"), result.getTable().rate("GBP"));
+        assertTrue(result.getPrecisionLoss().compareTo(
+                rateTriangulator.deriveRate(pivotRates, "EUR", "GBP").getPrecisionLoss()) >= 0);
+    }
+}